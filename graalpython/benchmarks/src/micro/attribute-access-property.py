@@ -1,4 +1,4 @@
-# Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
 # DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
 #
 # The Universal Permissive License (UPL), Version 1.0
@@ -37,10 +37,38 @@
 # OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
 # SOFTWARE.
 
+# micro benchmark: attribute access through properties
 
-class Empty(Exception):
-    'Exception raised by Queue.get(block=0)/get_nowait().'
-    pass
+iteration = 50000  # 50000
 
 
-SimpleQueue = None
+class Foo(object):
+    def __init__(self, a):
+        self._a = a
+
+    @property
+    def a(self):
+        return self._a
+
+    @a.setter
+    def a(self, value):
+        self._a = value
+
+
+def do_stuff(foo):
+    for i in range(iteration):
+        local_a = foo.a + 1
+        foo.a = local_a % 5
+
+    return foo.a
+
+
+def measure(num):
+    for i in range(num):  # 50000
+        result = do_stuff(Foo(42))
+
+    print(result)
+
+
+def __benchmark__(num=5000):
+    measure(num)
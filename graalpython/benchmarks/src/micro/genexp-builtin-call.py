@@ -55,9 +55,26 @@ def call_generator_localvar(num, iteration):
     return item
 
 
+def call_builtins(num, iteration):
+    item = 0
+    for t in range(iteration):
+        num += t % 5
+        if any(x > num for x in range(num)):
+            item += 1
+        if all(x < num for x in range(num)):
+            item += 1
+        item += sum(map(lambda x: x % 5, range(num)))
+        item += len(list(filter(lambda x: x % 5 == 0, range(num))))
+        item += sorted(x % 7 for x in range(num))[-1]
+
+    return item
+
+
 def measure(num):
     last_item = call_generator(num, 10000)
     print("Last item ", last_item)
+    result = call_builtins(num, 1000)
+    print("Builtins result ", result)
 
 
 def __benchmark__(num=1000):
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Reads of instance, class and inherited attributes, global names and builtins.
+ */
+public class AttributeLookupBenchmark extends PythonBenchmark {
+
+    private Value instanceAttribute;
+    private Value classAttribute;
+    private Value inheritedAttribute;
+    private Value globalName;
+    private Value builtinName;
+
+    @Override
+    protected String getSource() {
+        return "class Base:\n" +
+                        "    inherited = 3\n" +
+                        "class Obj(Base):\n" +
+                        "    cls_attr = 2\n" +
+                        "    def __init__(self):\n" +
+                        "        self.attr = 1\n" +
+                        "GLOBAL = 4\n" +
+                        "def instance_attribute(n):\n" +
+                        "    o = Obj()\n" +
+                        "    r = 0\n" +
+                        "    for i in range(n):\n" +
+                        "        r += o.attr\n" +
+                        "    return r\n" +
+                        "def class_attribute(n):\n" +
+                        "    o = Obj()\n" +
+                        "    r = 0\n" +
+                        "    for i in range(n):\n" +
+                        "        r += o.cls_attr\n" +
+                        "    return r\n" +
+                        "def inherited_attribute(n):\n" +
+                        "    o = Obj()\n" +
+                        "    r = 0\n" +
+                        "    for i in range(n):\n" +
+                        "        r += o.inherited\n" +
+                        "    return r\n" +
+                        "def global_name(n):\n" +
+                        "    r = 0\n" +
+                        "    for i in range(n):\n" +
+                        "        r += GLOBAL\n" +
+                        "    return r\n" +
+                        "def builtin_name(n):\n" +
+                        "    r = None\n" +
+                        "    for i in range(n):\n" +
+                        "        r = len\n" +
+                        "    return r\n";
+    }
+
+    @Override
+    protected void initialize(Value bindings) {
+        instanceAttribute = bindings.getMember("instance_attribute");
+        classAttribute = bindings.getMember("class_attribute");
+        inheritedAttribute = bindings.getMember("inherited_attribute");
+        globalName = bindings.getMember("global_name");
+        builtinName = bindings.getMember("builtin_name");
+    }
+
+    @Benchmark
+    public Object instanceAttribute() {
+        return instanceAttribute.execute(LOOP);
+    }
+
+    @Benchmark
+    public Object classAttribute() {
+        return classAttribute.execute(LOOP);
+    }
+
+    @Benchmark
+    public Object inheritedAttribute() {
+        return inheritedAttribute.execute(LOOP);
+    }
+
+    @Benchmark
+    public Object globalName() {
+        return globalName.execute(LOOP);
+    }
+
+    @Benchmark
+    public Object builtinName() {
+        return builtinName.execute(LOOP);
+    }
+}
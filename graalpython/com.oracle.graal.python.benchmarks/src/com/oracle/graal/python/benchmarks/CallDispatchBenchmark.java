@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Calls of functions, methods and builtins, with positional, keyword and variable arguments.
+ */
+public class CallDispatchBenchmark extends PythonBenchmark {
+
+    private Value positional;
+    private Value keywords;
+    private Value varargs;
+    private Value method;
+    private Value builtin;
+    private Value polymorphic;
+
+    @Override
+    protected String getSource() {
+        return "def f(a, b, c=3):\n" +
+                        "    return a\n" +
+                        "def g(*args, **kwargs):\n" +
+                        "    return args\n" +
+                        "class A:\n" +
+                        "    def m(self, x):\n" +
+                        "        return x\n" +
+                        "class B(A):\n" +
+                        "    def m(self, x):\n" +
+                        "        return x + 1\n" +
+                        "class C(A):\n" +
+                        "    def m(self, x):\n" +
+                        "        return x + 2\n" +
+                        "def positional(n):\n" +
+                        "    r = 0\n" +
+                        "    for i in range(n):\n" +
+                        "        r += f(i, 2)\n" +
+                        "    return r\n" +
+                        "def keywords(n):\n" +
+                        "    r = 0\n" +
+                        "    for i in range(n):\n" +
+                        "        r += f(b=2, a=i, c=4)\n" +
+                        "    return r\n" +
+                        "def varargs(n):\n" +
+                        "    r = None\n" +
+                        "    for i in range(n):\n" +
+                        "        r = g(i, 2, x=3)\n" +
+                        "    return r\n" +
+                        "def method(n):\n" +
+                        "    o = A()\n" +
+                        "    r = 0\n" +
+                        "    for i in range(n):\n" +
+                        "        r += o.m(i)\n" +
+                        "    return r\n" +
+                        "def builtin(n):\n" +
+                        "    l = [1, 2, 3]\n" +
+                        "    r = 0\n" +
+                        "    for i in range(n):\n" +
+                        "        r += len(l)\n" +
+                        "    return r\n" +
+                        "def polymorphic(n):\n" +
+                        "    objs = [A(), B(), C()]\n" +
+                        "    r = 0\n" +
+                        "    for i in range(n):\n" +
+                        "        r += objs[i % 3].m(i)\n" +
+                        "    return r\n";
+    }
+
+    @Override
+    protected void initialize(Value bindings) {
+        positional = bindings.getMember("positional");
+        keywords = bindings.getMember("keywords");
+        varargs = bindings.getMember("varargs");
+        method = bindings.getMember("method");
+        builtin = bindings.getMember("builtin");
+        polymorphic = bindings.getMember("polymorphic");
+    }
+
+    @Benchmark
+    public Object positional() {
+        return positional.execute(LOOP);
+    }
+
+    @Benchmark
+    public Object keywords() {
+        return keywords.execute(LOOP);
+    }
+
+    @Benchmark
+    public Object varargs() {
+        return varargs.execute(LOOP);
+    }
+
+    @Benchmark
+    public Object method() {
+        return method.execute(LOOP);
+    }
+
+    @Benchmark
+    public Object builtin() {
+        return builtin.execute(LOOP);
+    }
+
+    @Benchmark
+    public Object polymorphic() {
+        return polymorphic.execute(LOOP);
+    }
+}
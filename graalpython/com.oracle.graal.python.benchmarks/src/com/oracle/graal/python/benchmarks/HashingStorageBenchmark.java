@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Dictionary lookups and stores. Small dicts with string keys use a dynamic object storage, dicts
+ * with {@code int} keys a long key storage and dicts with other keys (here tuples) an economic map
+ * storage.
+ */
+public class HashingStorageBenchmark extends PythonBenchmark {
+
+    @Param({"economic", "long", "dynamic"}) public String storage;
+
+    private Value getItem;
+    private Value setItem;
+
+    @Override
+    protected String getSource() {
+        return "SIZE = 32\n" +
+                        "KEYS = {'economic': [(i,) for i in range(SIZE)], 'long': list(range(SIZE)), 'dynamic': ['key%d' % i for i in range(SIZE)]}\n" +
+                        "def get_item(kind, n):\n" +
+                        "    keys = KEYS[kind]\n" +
+                        "    d = dict.fromkeys(keys, 1)\n" +
+                        "    r = 0\n" +
+                        "    for i in range(n):\n" +
+                        "        r += d[keys[i % SIZE]]\n" +
+                        "    return r\n" +
+                        "def set_item(kind, n):\n" +
+                        "    keys = KEYS[kind]\n" +
+                        "    d = {}\n" +
+                        "    for i in range(n):\n" +
+                        "        d[keys[i % SIZE]] = i\n" +
+                        "    return d\n";
+    }
+
+    @Override
+    protected void initialize(Value bindings) {
+        getItem = bindings.getMember("get_item");
+        setItem = bindings.getMember("set_item");
+    }
+
+    @Benchmark
+    public Object getItem() {
+        return getItem.execute(storage, LOOP);
+    }
+
+    @Benchmark
+    public Object setItem() {
+        return setItem.execute(storage, LOOP);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Parsing and translation of a generated module. Code compiled after startup is not cached, so
+ * every call runs the whole parser.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParserBenchmark extends PythonBenchmark {
+
+    @Param({"10", "100"}) public int functions;
+
+    private Value compile;
+    private String module;
+
+    @Override
+    protected String getSource() {
+        return "def parse(src):\n" +
+                        "    return compile(src, 'parser_benchmark', 'exec')\n";
+    }
+
+    @Override
+    protected void initialize(Value bindings) {
+        compile = bindings.getMember("parse");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < functions; i++) {
+            sb.append("class C").append(i).append("(object):\n");
+            sb.append("    '''A class with a docstring.'''\n");
+            sb.append("    def __init__(self, a, b=None, *args, **kwargs):\n");
+            sb.append("        self.a = [x * 2 for x in range(a) if x % 3]\n");
+            sb.append("        self.b = {'key': b, 'values': (1, 2.5, 'three')}\n");
+            sb.append("    def method(self, n):\n");
+            sb.append("        try:\n");
+            sb.append("            while n > 0:\n");
+            sb.append("                n -= 1\n");
+            sb.append("                if n == 5 and not self.a:\n");
+            sb.append("                    break\n");
+            sb.append("        except ValueError as e:\n");
+            sb.append("            raise RuntimeError('failed') from e\n");
+            sb.append("        return lambda x: x + n\n\n");
+        }
+        module = sb.toString();
+    }
+
+    @Benchmark
+    public Object parse() {
+        return compile.execute(module);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.benchmarks;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Item access and appends on lists backed by the different sequence storages.
+ */
+public class SequenceStorageBenchmark extends PythonBenchmark {
+
+    @Param({"int", "long", "double", "object"}) public String storage;
+
+    private Value getItem;
+    private Value setItem;
+    private Value append;
+
+    @Override
+    protected String getSource() {
+        return "SIZE = 64\n" +
+                        "ITEMS = {'int': 1, 'long': 2**40, 'double': 1.5, 'object': 'x'}\n" +
+                        "def make(kind):\n" +
+                        "    return [ITEMS[kind]] * SIZE\n" +
+                        "def get_item(kind, n):\n" +
+                        "    l = make(kind)\n" +
+                        "    r = None\n" +
+                        "    for i in range(n):\n" +
+                        "        r = l[i % SIZE]\n" +
+                        "    return r\n" +
+                        "def set_item(kind, n):\n" +
+                        "    l = make(kind)\n" +
+                        "    item = ITEMS[kind]\n" +
+                        "    for i in range(n):\n" +
+                        "        l[i % SIZE] = item\n" +
+                        "    return l\n" +
+                        "def append(kind, n):\n" +
+                        "    l = []\n" +
+                        "    item = ITEMS[kind]\n" +
+                        "    for i in range(n):\n" +
+                        "        l.append(item)\n" +
+                        "    return l\n";
+    }
+
+    @Override
+    protected void initialize(Value bindings) {
+        getItem = bindings.getMember("get_item");
+        setItem = bindings.getMember("set_item");
+        append = bindings.getMember("append");
+    }
+
+    @Benchmark
+    public Object getItem() {
+        return getItem.execute(storage, LOOP);
+    }
+
+    @Benchmark
+    public Object setItem() {
+        return setItem.execute(storage, LOOP);
+    }
+
+    @Benchmark
+    public Object append() {
+        return append.execute(storage, LOOP);
+    }
+}
@@ -50,11 +50,15 @@ PyObject* PyEval_CallObjectWithKeywords(PyObject *func, PyObject *args, PyObject
     return PyObject_Call(func, args, kwargs);
 }
 
+UPCALL_ID(PyEval_SaveThread);
 PyThreadState* PyEval_SaveThread() {
+    UPCALL_CEXT_VOID(_jls_PyEval_SaveThread);
     return NULL;
 }
 
+UPCALL_ID(PyEval_RestoreThread);
 void PyEval_RestoreThread(PyThreadState *ptr) {
+    UPCALL_CEXT_VOID(_jls_PyEval_RestoreThread);
 }
 
 UPCALL_ID(PyThread_allocate_lock);
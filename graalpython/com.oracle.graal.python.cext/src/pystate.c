@@ -49,13 +49,16 @@ PyThreadState * PyThreadState_Get() {
     return polyglot_invoke(PY_TRUFFLE_CEXT, "PyThreadState_Get");
 }
 
+UPCALL_ID(PyGILState_Ensure);
 PyGILState_STATE PyGILState_Ensure() {
-    // ignore for the time being
-    return NULL;
+    return UPCALL_CEXT_I(_jls_PyGILState_Ensure) ? PyGILState_UNLOCKED : PyGILState_LOCKED;
 }
 
+UPCALL_ID(PyGILState_Release);
 void PyGILState_Release(PyGILState_STATE state) {
-    // ignore for the time being
+    if (state == PyGILState_UNLOCKED) {
+        UPCALL_CEXT_VOID(_jls_PyGILState_Release);
+    }
 }
 
 UPCALL_ID(PyState_FindModule)
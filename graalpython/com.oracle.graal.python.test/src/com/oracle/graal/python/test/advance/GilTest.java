@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.test.advance;
+
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.graal.python.test.PythonTests;
+
+public class GilTest extends PythonTests {
+    private static final String WAIT_TIME_WHILE_BLOCKED = "import _thread, threading, time\n" +
+                    "def wait_time_while_blocked(block, unblock):\n" +
+                    "    # one thread blocks while the other one runs Python code; if the blocked thread kept\n" +
+                    "    # the GIL, the running thread would wait for it the whole time\n" +
+                    "    started = threading.Event()\n" +
+                    "    t = threading.Thread(target=lambda: (started.set(), block()))\n" +
+                    "    t.start()\n" +
+                    "    started.wait()\n" +
+                    "    before = _thread.__truffle_gil_stats__()['wait_time']\n" +
+                    "    deadline = time.monotonic() + 0.5\n" +
+                    "    while time.monotonic() < deadline:\n" +
+                    "        pass\n" +
+                    "    waited = _thread.__truffle_gil_stats__()['wait_time'] - before\n" +
+                    "    unblock()\n" +
+                    "    t.join()\n" +
+                    "    return waited\n";
+
+    @Test
+    public void testStats() {
+        String source = "import _thread\n" +
+                        "stats = _thread.__truffle_gil_stats__()\n" +
+                        "stats['enabled'] and stats['acquisitions'] > 0 and stats['hold_time'] > 0";
+        assertEquals(true, evalWithGil(source, false));
+    }
+
+    @Test
+    public void testHandOver() {
+        String source = "import _thread, threading, time\n" +
+                        "counts = [0, 0]\n" +
+                        "stop = False\n" +
+                        "def spin(k):\n" +
+                        "    while not stop:\n" +
+                        "        counts[k] += 1\n" +
+                        "threads = [threading.Thread(target=spin, args=(k,)) for k in range(2)]\n" +
+                        "for t in threads:\n" +
+                        "    t.start()\n" +
+                        "time.sleep(0.5)\n" +
+                        "stop = True\n" +
+                        "for t in threads:\n" +
+                        "    t.join()\n" +
+                        "counts[0] > 0 and counts[1] > 0 and _thread.__truffle_gil_stats__()['switches'] > 0";
+        assertEquals(true, evalWithGil(source, false));
+    }
+
+    @Test
+    public void testNativeUpcalls() {
+        // 'PyGILState_Ensure' reports whether it had to acquire the lock
+        String source = "import python_cext\n" +
+                        "held = python_cext.PyGILState_Ensure()\n" +
+                        "python_cext.PyEval_SaveThread()\n" +
+                        "acquired = python_cext.PyGILState_Ensure()\n" +
+                        "python_cext.PyGILState_Release()\n" +
+                        "python_cext.PyEval_RestoreThread()\n" +
+                        "held == 0 and acquired == 1 and python_cext.PyGILState_Ensure() == 0";
+        assertEquals(true, evalWithGil(source, false));
+    }
+
+    @Test
+    public void testSleepReleasesGil() {
+        String source = WAIT_TIME_WHILE_BLOCKED +
+                        "wait_time_while_blocked(lambda: time.sleep(1), lambda: None) < 0.25";
+        assertEquals(true, evalWithGil(source, false));
+    }
+
+    @Test
+    public void testSocketRecvReleasesGil() {
+        String source = WAIT_TIME_WHILE_BLOCKED +
+                        "import socket\n" +
+                        "server = socket.socket(socket.AF_INET, socket.SOCK_STREAM)\n" +
+                        "server.bind(('127.0.0.1', 0))\n" +
+                        "server.listen(1)\n" +
+                        "client = socket.socket(socket.AF_INET, socket.SOCK_STREAM)\n" +
+                        "client.connect(server.getsockname())\n" +
+                        "conn, _ = server.accept()\n" +
+                        "received = []\n" +
+                        "waited = wait_time_while_blocked(lambda: received.append(conn.recv(10)), lambda: client.send(b'x'))\n" +
+                        "conn.close()\n" +
+                        "client.close()\n" +
+                        "server.close()\n" +
+                        "received == [b'x'] and waited < 0.25";
+        assertEquals(true, evalWithGil(source, false));
+    }
+
+    @Test
+    public void testCollectionLockHandOver() {
+        // the threads hand the GIL over while they hold the lock of the dict in '__eq__'
+        String source = "import threading\n" +
+                        "class Key:\n" +
+                        "    def __init__(self, value):\n" +
+                        "        self.value = value\n" +
+                        "    def __hash__(self):\n" +
+                        "        return 0\n" +
+                        "    def __eq__(self, other):\n" +
+                        "        for i in range(1000):\n" +
+                        "            pass\n" +
+                        "        return self.value == other.value\n" +
+                        "d = {}\n" +
+                        "def work(k):\n" +
+                        "    for i in range(200):\n" +
+                        "        d[Key(i % 10)] = k\n" +
+                        "threads = [threading.Thread(target=work, args=(k,)) for k in range(4)]\n" +
+                        "for t in threads:\n" +
+                        "    t.start()\n" +
+                        "for t in threads:\n" +
+                        "    t.join()\n" +
+                        "len(d) == 10";
+        assertEquals(true, evalWithGil(source, true));
+    }
+
+    private static boolean evalWithGil(String source, boolean threadSafeCollections) {
+        try (Context context = Context.newBuilder().allowExperimentalOptions(true).allowAllAccess(true).option("python.WithThread", "true").option("python.GIL", "true").option(
+                        "python.ThreadSafeCollections", String.valueOf(threadSafeCollections)).build()) {
+            return context.eval("python", source).asBoolean();
+        }
+    }
+}
@@ -40,8 +40,11 @@
  */
 package com.oracle.graal.python.test.advance;
 
+import static org.junit.Assert.assertEquals;
+
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Value;
 import org.junit.Test;
 
 import com.oracle.graal.python.test.PythonTests;
@@ -85,6 +88,21 @@ public class MultiContextTest extends PythonTests {
         }
     }
 
+    @Test
+    public void testSharingWithFallbackRegex() {
+        Engine engine = Engine.newBuilder().build();
+        for (int i = 0; i < 2; i++) {
+            // conditional groups are only supported by the sre fallback compiler, its regexes
+            // reference the context that compiled them and must not be shared with other contexts
+            try (Context context = newContext(engine)) {
+                Value result = context.eval("python", "import re\n" +
+                                "p = re.compile(r'(a)?(?(1)b|c)')\n" +
+                                "[bool(p.fullmatch(s)) for s in ('ab', 'c', 'ac')]");
+                assertEquals("[True, True, False]", result.toString());
+            }
+        }
+    }
+
     private static Context newContext(Engine engine) {
         return Context.newBuilder().allowExperimentalOptions(true).allowAllAccess(true).engine(engine).build();
     }
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.test.advance;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.junit.Test;
+
+import com.oracle.graal.python.test.PythonTests;
+
+public class ParseTreeCacheTest extends PythonTests {
+    private static final String CODE = "def f(x, *args, y=3, **kwargs):\n" +
+                    "    return [i * y for i in range(x)] + list(args)\n" +
+                    "class A:\n" +
+                    "    '''doc'''\n" +
+                    "    z = f(3, 'a', y=2)\n" +
+                    "str(A.z)\n";
+
+    @Test
+    public void testCacheRoundTrip() throws IOException {
+        Path dir = Files.createTempDirectory("graalpython-parse-cache");
+        try {
+            String first = evalWithCache(dir);
+            assertTrue("cache directory must contain entries", countEntries(dir) > 0);
+            long entries = countEntries(dir);
+            String second = evalWithCache(dir);
+            assertEquals(first, second);
+            assertEquals("[0, 2, 4, 'a']", second);
+            assertEquals("cached entries must be reused", entries, countEntries(dir));
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.map(Path::toFile).sorted((a, b) -> -a.compareTo(b)).forEach(File::delete);
+            }
+        }
+    }
+
+    private static String evalWithCache(Path dir) {
+        Engine engine = Engine.newBuilder().build();
+        try (Context context = Context.newBuilder().allowExperimentalOptions(true).allowAllAccess(true).engine(engine).option("python.ParseTreeCacheDirectory", dir.toString()).build()) {
+            return context.eval("python", CODE).asString();
+        }
+    }
+
+    private static long countEntries(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.toString().endsWith(".gptc")).count();
+        }
+    }
+}
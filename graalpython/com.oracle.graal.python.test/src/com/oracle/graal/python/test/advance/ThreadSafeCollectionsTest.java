@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.test.advance;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.test.PythonTests;
+
+public class ThreadSafeCollectionsTest extends PythonTests {
+    private static final String RUN_THREADS = "import threading\n" +
+                    "def run(work, n=4):\n" +
+                    "    errors = []\n" +
+                    "    def target(k):\n" +
+                    "        try:\n" +
+                    "            work(k)\n" +
+                    "        except BaseException as e:\n" +
+                    "            errors.append(e)\n" +
+                    "    threads = [threading.Thread(target=target, args=(k,)) for k in range(n)]\n" +
+                    "    for t in threads:\n" +
+                    "        t.start()\n" +
+                    "    for t in threads:\n" +
+                    "        t.join()\n" +
+                    "    if errors:\n" +
+                    "        raise errors[0]\n";
+
+    @Test
+    public void testListAppendAndSetItem() {
+        String source = RUN_THREADS +
+                        "l = [0]\n" +
+                        "def work(k):\n" +
+                        "    for i in range(10000):\n" +
+                        "        l.append(i)\n" +
+                        "        l[i % len(l)] = i\n" +
+                        "        l[-1]\n" +
+                        "        i in l[:8]\n" +
+                        "run(work)\n" +
+                        "len(l)";
+        assertEquals(40001, evalInThreads(source));
+    }
+
+    @Test
+    public void testDictSetItem() {
+        String source = RUN_THREADS +
+                        "d = {}\n" +
+                        "def work(k):\n" +
+                        "    for i in range(10000):\n" +
+                        "        d[k * 10000 + i] = i\n" +
+                        "        d['s%d_%d' % (k, i)] = i\n" +
+                        "        assert d[k * 10000 + i] == i\n" +
+                        "        len(d)\n" +
+                        "    for key in list(d):\n" +
+                        "        d.get(key)\n" +
+                        "run(work)\n" +
+                        "len(d)";
+        assertEquals(80000, evalInThreads(source));
+    }
+
+    @Test
+    public void testSetAdd() {
+        String source = RUN_THREADS +
+                        "s = set()\n" +
+                        "def work(k):\n" +
+                        "    for i in range(10000):\n" +
+                        "        s.add((k, i))\n" +
+                        "        assert (k, i) in s\n" +
+                        "    for item in list(s):\n" +
+                        "        pass\n" +
+                        "run(work)\n" +
+                        "len(s)";
+        assertEquals(40000, evalInThreads(source));
+    }
+
+    private static int evalInThreads(String source) {
+        try (Context context = Context.newBuilder().allowExperimentalOptions(true).allowAllAccess(true).option("python.WithThread", "true").option("python.ThreadSafeCollections",
+                        "true").build()) {
+            int result = context.eval("python", source).asInt();
+            // the collections only take their locks once a second thread was started
+            assertFalse(PythonContext.getSingleThreadedAssumption().isValid());
+            return result;
+        }
+    }
+}
@@ -46,3 +46,64 @@ class BuiltinTest(unittest.TestCase):
             pass
         else:
             self.assertTrue(False)
+
+    def test_any_all(self):
+        self.assertTrue(any([0, 1]))
+        self.assertFalse(any((0, "", None)))
+        self.assertFalse(any([]))
+        self.assertTrue(all((1, "a")))
+        self.assertFalse(all([1, 0, 1]))
+        self.assertTrue(all(()))
+        self.assertTrue(any(x > 3 for x in range(5)))
+        self.assertFalse(all(x > 3 for x in range(5)))
+
+        class MyList(list):
+            def __iter__(self):
+                return iter([0])
+        self.assertFalse(any(MyList([1, 2])))
+
+        # iteration stops at the deciding item
+        it = iter([0, 1, 2, 3])
+        self.assertTrue(any(it))
+        self.assertEqual(next(it), 2)
+
+        # the list may shrink while testing the truth value of its items
+        lst = []
+        class Shrinking:
+            def __bool__(self):
+                lst.clear()
+                return False
+        lst.extend([Shrinking(), 1])
+        self.assertFalse(any(lst))
+
+        self.assertRaises(TypeError, any, 1)
+        self.assertRaises(TypeError, all, None)
+
+    def test_filter(self):
+        self.assertEqual(list(filter(None, [1, 0, "", "a", None])), [1, "a"])
+        self.assertEqual(list(filter(lambda x: x % 2, range(7))), [1, 3, 5])
+        self.assertEqual(list(filter(bool, (0, 2))), [2])
+        f = filter(None, [1])
+        self.assertIs(iter(f), f)
+        self.assertIsInstance(f, filter)
+        self.assertEqual(next(f), 1)
+        self.assertRaises(StopIteration, next, f)
+        self.assertRaises(TypeError, filter, None, 1)
+
+    def test_hasattr(self):
+        class A:
+            x = 1
+
+            @property
+            def failing(self):
+                raise ValueError
+
+            @property
+            def missing(self):
+                raise AttributeError
+
+        self.assertTrue(hasattr(A(), "x"))
+        self.assertFalse(hasattr(A(), "y"))
+        self.assertFalse(hasattr(A(), "missing"))
+        self.assertRaises(ValueError, hasattr, A(), "failing")
+        self.assertRaises(TypeError, hasattr, A(), 1)
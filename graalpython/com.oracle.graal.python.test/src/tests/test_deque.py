@@ -629,3 +629,43 @@ class TestBasic(unittest.TestCase):
         klass = type(reversed(deque()))
         for s in ('abcd', range(2000)):
             self.assertEqual(list(klass(deque(s))), list(reversed(s)))
+
+    def test_mutation_during_iteration(self):
+        d = deque(range(10))
+        it = iter(d)
+        self.assertEqual(next(it), 0)
+        d.append(10)
+        self.assertRaises(RuntimeError, next, it)
+        it = reversed(d)
+        self.assertEqual(next(it), 10)
+        d.popleft()
+        self.assertRaises(RuntimeError, next, it)
+        # replacing items is not a structural modification
+        it = iter(d)
+        d[0] = -1
+        self.assertEqual(list(it), [-1, 2, 3, 4, 5, 6, 7, 8, 9, 10])
+
+    def test_length_hint(self):
+        d = deque(range(5))
+        it = iter(d)
+        self.assertEqual(it.__length_hint__(), 5)
+        next(it)
+        self.assertEqual(it.__length_hint__(), 4)
+
+    def test_wrap_around(self):
+        d = deque()
+        expected = []
+        for i in range(100):
+            d.appendleft(i)
+            d.append(-i)
+            expected = [i] + expected + [-i]
+            if i % 3 == 0:
+                d.rotate(i)
+                expected = expected[-i % len(expected):] + expected[:-i % len(expected)]
+            if i % 5 == 0:
+                del d[i]
+                del expected[i]
+                d.insert(-i, i)
+                expected.insert(-i, i)
+            self.assertEqual(list(d), expected)
+        self.assertEqual(list(reversed(d)), expected[::-1])
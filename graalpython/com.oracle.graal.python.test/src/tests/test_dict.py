@@ -457,3 +457,113 @@ def test_unhashable_key():
     assert_raises(TypeError, lambda: d[key_list])
     key_tuple_list = (key_list, 2)
     assert_raises(TypeError, lambda: d[key_tuple_list])
+
+
+def test_update():
+    d = {'a': 1, 'b': 2}
+    d.update({'b': 3, 'c': 4})
+    assert d == {'a': 1, 'b': 3, 'c': 4}
+    d.update([('d', 5)], e=6)
+    assert d == {'a': 1, 'b': 3, 'c': 4, 'd': 5, 'e': 6}
+    d.update(d)
+    assert d == {'a': 1, 'b': 3, 'c': 4, 'd': 5, 'e': 6}
+
+    class Mapping:
+        def keys(self):
+            return [1, 2]
+
+        def __getitem__(self, key):
+            return key * 10
+
+    d = {}
+    d.update(Mapping())
+    assert d == {1: 10, 2: 20}
+
+    big = {i: i for i in range(1000)}
+    d = {-1: -1}
+    d.update(big)
+    assert len(d) == 1001 and d[999] == 999 and d[-1] == -1
+
+    assert_raises(TypeError, d.update, {}, {})
+    assert_raises(TypeError, d.update, 1)
+
+
+def test_fromkeys_collections():
+    d = dict.fromkeys({'a': 1, 'b': 2}, 0)
+    assert d == {'a': 0, 'b': 0}
+    d = dict.fromkeys({1, 2, 3})
+    assert d == {1: None, 2: None, 3: None}
+    d = dict.fromkeys(frozenset(range(100)), 'x')
+    assert len(d) == 100 and d[99] == 'x'
+    d[100] = 'y'
+    assert len(d) == 101
+
+    class MyDict(dict):
+        pass
+
+    d = MyDict.fromkeys({'a', 'b'}, 1)
+    assert type(d) is MyDict
+    assert d == {'a': 1, 'b': 1}
+
+
+def test_int_keys():
+    d = {1: 'a', 2: 'b', 2 ** 40: 'c'}
+    assert d[True] == 'a' and d[1.0] == 'a' and d[2 ** 40] == 'c'
+    assert 1.5 not in d and '1' not in d and -1 not in d
+    d[True] = 'x'
+    d[2.0] = 'y'
+    assert d == {1: 'x', 2: 'y', 2 ** 40: 'c'}
+    assert [type(k) for k in d] == [int, int, int]
+    del d[1.0]
+    assert list(d) == [2, 2 ** 40]
+    d['s'] = 1
+    d[3] = 2
+    d[None] = 3
+    assert list(d) == [2, 2 ** 40, 's', 3, None]
+    assert_raises(TypeError, d.__setitem__, [], 1)
+
+    d = {}
+    for i in range(1000):
+        d[i] = i
+    for i in range(0, 1000, 2):
+        del d[i]
+    for i in range(1000, 1500):
+        d[i] = i
+    assert len(d) == 1000
+    assert list(d)[:3] == [1, 3, 5] and list(d)[-1] == 1499
+    assert all(d[i] == i for i in d)
+    assert d.pop(1499) == 1499 and 1499 not in d
+
+
+def test_many_str_keys():
+    d = {}
+    for i in range(300):
+        d['k%d' % i] = i
+    assert len(d) == 300 and d['k299'] == 299
+    for i in range(250):
+        del d['k%d' % i]
+    assert list(d) == ['k%d' % i for i in range(250, 300)]
+    assert d.get(250) is None and 'k250' in d
+    d[250] = 'int'
+    assert d[250] == 'int' and d['k250'] == 250
+    assert dict.fromkeys(d, 0)['k299'] == 0
+
+
+def test_subclass_keys():
+    class MyInt(int):
+        pass
+
+    class MyStr(str):
+        pass
+
+    d = {i: i for i in range(1000)}
+    assert d[MyInt(7)] == 7 and MyInt(2 ** 33 + 7) not in d
+    assert None not in d and (1,) not in d and 7.5 not in d
+    d[MyInt(8)] = 'x'
+    assert d[8] == 'x' and [type(k) for k in d][8] == int
+
+    d = {'k%d' % i: i for i in range(300)}
+    assert d[MyStr('k7')] == 7 and MyStr('x') not in d
+    assert None not in d and ('k7',) not in d and 7.0 not in d
+    d[MyStr('k8')] = 'x'
+    assert d['k8'] == 'x' and [type(k) for k in d][8] == str
@@ -0,0 +1,233 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import functools
+import pickle
+
+
+def assert_raises(err, fn, *args, **kwargs):
+    raised = False
+    try:
+        fn(*args, **kwargs)
+    except err:
+        raised = True
+    assert raised
+
+
+def capture(*args, **kwargs):
+    return args, kwargs
+
+
+def test_partial_call():
+    p = functools.partial(capture, 1, 2, a=3)
+    assert p() == ((1, 2), {'a': 3})
+    assert p(4, b=5) == ((1, 2, 4), {'a': 3, 'b': 5})
+    assert p(a=6) == ((1, 2), {'a': 6})
+    assert p.func is capture
+    assert p.args == (1, 2)
+    assert p.keywords == {'a': 3}
+    assert_raises(TypeError, functools.partial)
+    assert_raises(TypeError, functools.partial, 1)
+
+
+def test_partial_keyword_order():
+    p = functools.partial(capture, a=1, b=2)
+    assert list(p(c=3, a=4)[1].items()) == [('a', 4), ('b', 2), ('c', 3)]
+
+
+def test_partial_keywords_dict():
+    p = functools.partial(capture, a=1)
+    p.keywords['b'] = 2
+    assert p() == ((), {'a': 1, 'b': 2})
+
+
+def test_partial_nested():
+    inner = functools.partial(capture, 1, a=2)
+    outer = functools.partial(inner, 3, b=4)
+    assert outer.func is capture
+    assert outer.args == (1, 3)
+    assert outer.keywords == {'a': 2, 'b': 4}
+    assert outer() == ((1, 3), {'a': 2, 'b': 4})
+
+    inner.attr = 1
+    outer = functools.partial(inner, 3)
+    assert outer.func is inner
+    assert outer() == ((1, 3), {'a': 2})
+
+
+def test_partial_subclass():
+    class MyPartial(functools.partial):
+        pass
+
+    p = MyPartial(capture, 1)
+    assert p(2) == ((1, 2), {})
+    assert type(p) is MyPartial
+
+
+def test_partial_attributes():
+    p = functools.partial(capture)
+    p.attr = 10
+    assert p.attr == 10
+    assert p.__dict__ == {'attr': 10}
+
+
+def test_partial_repr():
+    p = functools.partial(capture, 1, 'a', b=[2])
+    assert repr(p) == "functools.partial(%r, 1, 'a', b=[2])" % capture
+
+
+def test_partial_pickle():
+    p = functools.partial(capture, 1, a=2)
+    p.attr = 3
+    q = pickle.loads(pickle.dumps(p))
+    assert q.func is capture
+    assert q.args == (1,)
+    assert q.keywords == {'a': 2}
+    assert q.attr == 3
+    assert q(2) == ((1, 2), {'a': 2})
+
+
+def test_reduce():
+    assert functools.reduce(lambda x, y: x + y, [1, 2, 3, 4]) == 10
+    assert functools.reduce(lambda x, y: x + y, [1, 2], 10) == 13
+    assert functools.reduce(lambda x, y: x + y, [], 10) == 10
+    assert functools.reduce(lambda x, y: (x, y), [1], None) == (None, 1)
+    assert functools.reduce(lambda x, y: x * y, iter(range(1, 6))) == 120
+    assert_raises(TypeError, functools.reduce, lambda x, y: x, [])
+    assert_raises(TypeError, functools.reduce, lambda x, y: x, 1)
+
+
+def test_lru_cache():
+    calls = []
+
+    @functools.lru_cache(maxsize=2)
+    def square(x):
+        calls.append(x)
+        return x * x
+
+    assert square(2) == 4
+    assert square(2) == 4
+    assert square(3) == 9
+    assert calls == [2, 3]
+    assert square.cache_info() == (1, 2, 2, 2)
+    # 2 is the least recently used entry, so adding 4 evicts it
+    square(3)
+    square(4)
+    square(3)
+    square(2)
+    assert calls == [2, 3, 4, 2]
+    assert square.cache_info() == (3, 4, 2, 2)
+    square.cache_clear()
+    assert square.cache_info() == (0, 0, 2, 0)
+    square(3)
+    assert calls == [2, 3, 4, 2, 3]
+
+
+def test_lru_cache_keys():
+    calls = []
+
+    @functools.lru_cache(maxsize=None)
+    def f(*args, **kwargs):
+        calls.append((args, kwargs))
+        return len(calls)
+
+    assert f(1) == f(1)
+    assert f(1, 2) == f(1, 2)
+    assert f(1, a=2) == f(1, a=2)
+    assert f(1, a=2) != f(1, 2)
+    assert f('1') != f(1)
+    assert f.cache_info() == (6, 4, None, 4)
+    assert_raises(TypeError, f, [])
+
+
+def test_lru_cache_typed():
+    @functools.lru_cache(typed=True)
+    def f(x):
+        return type(x)
+
+    assert f(1) is int
+    assert f(1.0) is float
+    assert f.cache_info().currsize == 2
+
+
+def test_lru_cache_zero_size():
+    @functools.lru_cache(maxsize=0)
+    def f(x):
+        return x
+
+    f(1)
+    f(1)
+    assert f.cache_info() == (0, 2, 0, 0)
+
+
+def test_lru_cache_wrapper_attributes():
+    def f(x):
+        "doc"
+        return x
+
+    cached = functools.lru_cache()(f)
+    assert cached.__wrapped__ is f
+    assert cached.__name__ == 'f'
+    assert cached.__doc__ == 'doc'
+
+
+def test_lru_cache_method():
+    class A:
+        def __init__(self, factor):
+            self.factor = factor
+
+        @functools.lru_cache()
+        def scale(self, x):
+            return self.factor * x
+
+    a = A(2)
+    b = A(3)
+    assert a.scale(5) == 10
+    assert b.scale(5) == 15
+    assert a.scale(5) == 10
+    assert A.scale.cache_info().hits == 1
+
+
+def test_lru_cache_recursive():
+    @functools.lru_cache(maxsize=3)
+    def fib(n):
+        return n if n < 2 else fib(n - 1) + fib(n - 2)
+
+    assert fib(30) == 832040
+    assert fib.cache_info().currsize == 3
@@ -0,0 +1,88 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import hashlib
+import hmac
+import unittest
+
+
+class HashlibTest(unittest.TestCase):
+
+    def test_digests(self):
+        self.assertEqual(hashlib.md5(b"abc").hexdigest(), "900150983cd24fb0d6963f7d28e17f72")
+        self.assertEqual(hashlib.sha1(b"abc").hexdigest(), "a9993e364706816aba3e25717850c26c9cd0d89d")
+        self.assertEqual(hashlib.sha256(b"").hexdigest(), "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+        self.assertEqual(hashlib.sha512(b"abc").digest()[:4], b"\xdd\xaf\x35\xa1")
+        self.assertEqual(hashlib.new("SHA224", b"abc").hexdigest(), "23097d223405d8228642a477bda255b32aadbce4bda0b3f7e36c9da7")
+        self.assertEqual(hashlib.new("sha384").digest_size, 48)
+
+    def test_update_and_copy(self):
+        h = hashlib.sha256(b"a")
+        c = h.copy()
+        h.update(bytearray(b"bc"))
+        self.assertEqual(h.digest(), hashlib.sha256(b"abc").digest())
+        self.assertEqual(c.digest(), hashlib.sha256(b"a").digest())
+        c.update(memoryview(b"bc"))
+        self.assertEqual(c.hexdigest(), h.hexdigest())
+        self.assertEqual(h.hexdigest(), h.hexdigest())
+        self.assertRaises(TypeError, h.update, "text")
+
+    def test_attributes(self):
+        h = hashlib.sha1()
+        self.assertEqual(h.name, "sha1")
+        self.assertEqual(h.digest_size, 20)
+        self.assertEqual(h.block_size, 64)
+        self.assertEqual(hashlib.sha512().block_size, 128)
+        self.assertRaises(ValueError, hashlib.new, "no-such-hash")
+
+    def test_pbkdf2_hmac(self):
+        # RFC 6070
+        self.assertEqual(hashlib.pbkdf2_hmac("sha1", b"password", b"salt", 2).hex(),
+                         "ea6c014dc72d6f8ccd1ed92ace1d41f0d8de8957")
+        self.assertEqual(hashlib.pbkdf2_hmac("sha1", b"passwordPASSWORDpassword", b"saltSALTsaltSALTsaltSALTsaltSALTsalt", 4096, 25).hex(),
+                         "3d2eec4fe41c849b80c8d83662c0e44a8b291a964cf2f07038")
+        self.assertEqual(len(hashlib.pbkdf2_hmac("sha256", b"", b"salt", 1)), 32)
+        self.assertRaises(ValueError, hashlib.pbkdf2_hmac, "sha1", b"p", b"s", 0)
+
+    def test_hmac(self):
+        # RFC 4231, test case 2
+        expected = "5bdcc146bf60754e6a042426089575c75a003f089d2739839dec58b964ec3843"
+        self.assertEqual(hmac.new(b"Jefe", b"what do ya want for nothing?", "sha256").hexdigest(), expected)
+        self.assertEqual(hmac.digest(b"Jefe", b"what do ya want for nothing?", "sha256").hex(), expected)
+        self.assertEqual(hmac.digest(b"", b"", "md5").hex(), "74e6f7298a9c2d168935f58c001bad88")
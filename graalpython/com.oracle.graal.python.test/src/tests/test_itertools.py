@@ -98,3 +98,80 @@ class CombinationsTests(unittest.TestCase):
         self.assertRaises(ExpectedError, gulp, [None], keyfunc)
         keyfunc.skip = 1
         self.assertRaises(ExpectedError, gulp, [None, None], keyfunc)
+
+    def test_combinatorics(self):
+        self.assertEqual(list(product('ab', range(2))), [('a', 0), ('a', 1), ('b', 0), ('b', 1)])
+        self.assertEqual(list(product('ab', repeat=2)), [('a', 'a'), ('a', 'b'), ('b', 'a'), ('b', 'b')])
+        self.assertEqual(list(product()), [()])
+        self.assertEqual(list(product('ab', '')), [])
+        self.assertRaises(ValueError, product, 'ab', repeat=-1)
+        self.assertEqual(list(permutations(range(3), 2)), [(0, 1), (0, 2), (1, 0), (1, 2), (2, 0), (2, 1)])
+        self.assertEqual(len(list(permutations(range(4)))), 24)
+        self.assertEqual(list(permutations('ab', 3)), [])
+        self.assertRaises(ValueError, permutations, 'ab', -1)
+        self.assertEqual(list(combinations(range(4), 3)), [(0, 1, 2), (0, 1, 3), (0, 2, 3), (1, 2, 3)])
+        self.assertEqual(list(combinations('ab', 0)), [()])
+        self.assertEqual(list(combinations('ab', 3)), [])
+
+    def test_pickle_state(self):
+        p = product('ab', range(2))
+        next(p)
+        next(p)
+        cls, args, state = p.__reduce__()
+        q = cls(*args)
+        q.__setstate__(state)
+        self.assertEqual(list(q), list(p))
+        p = permutations(range(3))
+        next(p)
+        cls, args, state = p.__reduce__()
+        q = cls(*args)
+        q.__setstate__(state)
+        self.assertEqual(list(q), list(p))
+
+
+class IteratorTests(unittest.TestCase):
+
+    def test_count_repeat(self):
+        self.assertEqual(list(islice(count(), 3)), [0, 1, 2])
+        self.assertEqual(list(islice(count(1.5, 0.5), 3)), [1.5, 2.0, 2.5])
+        self.assertEqual(repr(count(3)), 'count(3)')
+        self.assertEqual(repr(count(3, 2)), 'count(3, 2)')
+        self.assertRaises(TypeError, count, 'a')
+        self.assertEqual(list(repeat('x', 3)), ['x', 'x', 'x'])
+        self.assertEqual(list(repeat('x', -1)), [])
+        self.assertEqual(repeat('x', 2).__length_hint__(), 2)
+        self.assertEqual(repr(repeat('x', 2)), "repeat('x', 2)")
+
+    def test_chain_islice(self):
+        self.assertEqual(list(chain('ab', [], range(2))), ['a', 'b', 0, 1])
+        self.assertEqual(list(chain.from_iterable(['ab', 'c'])), ['a', 'b', 'c'])
+        self.assertEqual(list(islice(range(10), 2, 8, 3)), [2, 5])
+        self.assertEqual(list(islice(range(10), 7, None)), [7, 8, 9])
+        self.assertEqual(list(islice(range(10), None)), list(range(10)))
+        self.assertRaises(ValueError, islice, range(10), -1)
+        self.assertRaises(ValueError, islice, range(10), 1, 2, 0)
+        self.assertRaises(ValueError, islice, range(10), 'a')
+        # indices up to sys.maxsize are valid
+        self.assertEqual(list(islice(range(10), 2 ** 40)), list(range(10)))
+        self.assertEqual(list(islice(range(10), 2, 2 ** 62, 2 ** 62)), [2])
+        self.assertRaises(ValueError, islice, range(10), 2 ** 63)
+        # the source iterator is only advanced as far as needed
+        it = iter(range(10))
+        self.assertEqual(list(islice(it, 3)), [0, 1, 2])
+        self.assertEqual(next(it), 3)
+
+    def test_filters(self):
+        self.assertEqual(list(dropwhile(lambda x: x < 3, [1, 4, 2])), [4, 2])
+        self.assertEqual(list(takewhile(lambda x: x < 3, [1, 2, 4, 1])), [1, 2])
+        self.assertEqual(list(filterfalse(None, [0, 1, '', 'a'])), [0, ''])
+        self.assertEqual(list(filterfalse(lambda x: x % 2, range(5))), [0, 2, 4])
+        self.assertEqual(list(starmap(pow, [(2, 3), (3, 2)])), [8, 9])
+
+    def test_accumulate_cycle_zip_longest(self):
+        self.assertEqual(list(accumulate([1, 2, 3])), [1, 3, 6])
+        self.assertEqual(list(accumulate([3, 1, 2], max)), [3, 3, 3])
+        self.assertEqual(list(accumulate([])), [])
+        self.assertEqual(list(islice(cycle('ab'), 5)), ['a', 'b', 'a', 'b', 'a'])
+        self.assertEqual(list(cycle([])), [])
+        self.assertEqual(list(zip_longest('abc', 'd', fillvalue='-')), [('a', 'd'), ('b', '-'), ('c', '-')])
+        self.assertEqual(list(zip_longest()), [])
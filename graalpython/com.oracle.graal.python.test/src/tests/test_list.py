@@ -709,6 +709,65 @@ class ListTest(list_tests.CommonTest):
         l.extend(l)
         self.assertEqual([1,2,3,4,10,20,30,40], l)
 
+    def test_sort_storages(self):
+        import random
+        rnd = random.Random(42)
+        ints = [rnd.randint(-1000, 1000) for i in range(200)]
+        longs = [rnd.randint(-2**40, 2**40) for i in range(200)]
+        doubles = [rnd.random() for i in range(200)]
+        strings = [str(i) for i in ints]
+        mixed = ints[:100] + doubles[:100]
+        for data in (ints, longs, doubles, strings, mixed):
+            for reverse in (False, True):
+                l = list(data)
+                l.sort(reverse=reverse)
+                self.assertEqual(sorted(data, reverse=reverse), l)
+                for i in range(len(l) - 1):
+                    self.assertFalse(l[i + 1] < l[i] if not reverse else l[i] < l[i + 1])
+
+    def test_sort_stable(self):
+        l = [0.0, -0.0, 1.0, -0.0, 0.0]
+        l.sort()
+        self.assertEqual("[0.0, -0.0, -0.0, 0.0, 1.0]", repr(l))
+        l = [0.0, -0.0, 1.0]
+        l.sort(reverse=True)
+        self.assertEqual("[1.0, 0.0, -0.0]", repr(l))
+
+        pairs = [(i % 5, i) for i in range(50)]
+        l = list(pairs)
+        l.sort(key=lambda p: p[0])
+        self.assertEqual([p for k in range(5) for p in pairs if p[0] == k], l)
+        l = list(pairs)
+        l.sort(key=lambda p: p[0], reverse=True)
+        self.assertEqual([p for k in reversed(range(5)) for p in pairs if p[0] == k], l)
+        l = list(pairs)
+        l.sort(key=lambda p: str(p[0]))
+        self.assertEqual([p for k in range(5) for p in pairs if p[0] == k], l)
+        l = list(pairs)
+        l.sort(key=lambda p: p[0] / 2)
+        self.assertEqual([p for k in range(5) for p in pairs if p[0] == k], l)
+
+    def test_sort_key_calls(self):
+        calls = []
+        def key(x):
+            calls.append(x)
+            return -x
+        l = [3, 1, 2]
+        l.sort(key=key)
+        self.assertEqual([3, 2, 1], l)
+        self.assertEqual([3, 1, 2], calls)
+
+    def test_sort_error_keeps_elements(self):
+        l = [3, "a", 1, 2]
+        self.assertRaises(TypeError, l.sort)
+        self.assertEqual([1, 2, 3, "a"], sorted(l, key=str))
+
+        def key(x):
+            l.append(x)
+            return x
+        l = [2, 1]
+        self.assertRaises(ValueError, l.sort, key=key)
+
 class ListCompareTest(CompareTest):
 
     def test_compare(self):
@@ -80,3 +80,27 @@ def test_map_contains():
     m = map(lambda s: s, X())
     assert 0 in m
     assert 0 not in m
+
+
+def test_map_shortest():
+    assert list(map(lambda x, y: x + y, [1, 2, 3], (10, 20))) == [11, 22]
+    m = map(str, [1])
+    assert iter(m) is m
+    assert isinstance(m, map)
+    assert next(m) == "1"
+    try:
+        next(m)
+    except StopIteration:
+        pass
+    else:
+        assert False
+
+
+def test_map_errors():
+    for args in [(), (str,), (str, 1)]:
+        try:
+            map(*args)
+        except TypeError:
+            pass
+        else:
+            assert False
@@ -8,6 +8,9 @@ import marshal
 import array
 import types
 import sys
+import io
+import os
+import tempfile
 
 class BaseMarshalUnmarshal:
     def helper(self, sample, *extra):
@@ -120,6 +123,14 @@ class CodeTest(unittest.TestCase):
             if isinstance(obj, types.CodeType):
                 self.assertIs(co.co_filename, obj.co_filename)
 
+    def test_module_code_roundtrip(self):
+        co = compile("x = 40 + 2\ndef f(a):\n    return a * x\n", "mymodule", "exec")
+        co = marshal.loads(marshal.dumps(co))
+        ns = {}
+        exec(co, ns)
+        self.assertEqual(ns["x"], 42)
+        self.assertEqual(ns["f"](2), 84)
+
 class ContainerTest(unittest.TestCase, BaseMarshalUnmarshal):
     d = {'astring': 'foo@bar.baz.spam',
          'afloat': 7283.43,
@@ -170,3 +181,69 @@ class BufferTest(unittest.TestCase, BaseMarshalUnmarshal):
     #    a = array.array('b', b"abc")
     #    new = marshal.loads(marshal.dumps(a))
     #    self.assertEqual(new, b"abc")
+
+class ReferenceTest(unittest.TestCase):
+
+    def test_version(self):
+        self.assertEqual(marshal.version, 4)
+
+    def test_shared_objects(self):
+        l = [1, "abc"]
+        a, b = marshal.loads(marshal.dumps((l, l)))
+        self.assertEqual(a, l)
+        self.assertIs(a, b)
+        a, b = marshal.loads(marshal.dumps((l, l), 2))
+        self.assertEqual(a, b)
+        self.assertIsNot(a, b)
+
+    def test_recursive_list(self):
+        l = [1]
+        l.append(l)
+        new = marshal.loads(marshal.dumps(l))
+        self.assertEqual(new[0], 1)
+        self.assertIs(new[1], new)
+
+    def test_truncated_data(self):
+        data = marshal.dumps(["abc", 1, (2, 3)])
+        for i in range(len(data)):
+            self.assertRaises((EOFError, ValueError), marshal.loads, data[:i])
+
+
+class FileTest(unittest.TestCase):
+
+    def test_dump_load_file(self):
+        values = [{"a": [1, 2, 3], "b": ("x", "y")}, "second", 2**100]
+        fd, name = tempfile.mkstemp()
+        os.close(fd)
+        try:
+            with open(name, "wb") as f:
+                for v in values:
+                    marshal.dump(v, f)
+            with open(name, "rb") as f:
+                for v in values:
+                    self.assertEqual(marshal.load(f), v)
+                self.assertEqual(f.read(), b"")
+                self.assertRaises(EOFError, marshal.load, f)
+        finally:
+            os.unlink(name)
+
+    def test_dump_load_large(self):
+        value = {i: list(range(i % 50)) for i in range(2000)}
+        fd, name = tempfile.mkstemp()
+        os.close(fd)
+        try:
+            with open(name, "wb") as f:
+                marshal.dump(value, f)
+            with open(name, "rb") as f:
+                self.assertEqual(marshal.load(f), value)
+        finally:
+            os.unlink(name)
+
+    def test_dump_load_bytesio(self):
+        f = io.BytesIO()
+        marshal.dump([1, "two"], f)
+        marshal.dump(3.0, f)
+        self.assertEqual(f.getvalue(), marshal.dumps([1, "two"]) + marshal.dumps(3.0))
+        f.seek(0)
+        self.assertEqual(marshal.load(f), [1, "two"])
+        self.assertEqual(marshal.load(f), 3.0)
@@ -164,6 +164,55 @@ class MmapTests(unittest.TestCase):
 
 
 
+    def test_readline_write(self):
+        with open(TESTFN, "wb") as f:
+            f.write(b"one\ntwo\nthree")
+        with open(TESTFN, "r+b") as f:
+            m = mmap.mmap(f.fileno(), 0)
+            self.assertEqual(m.size(), 13)
+            self.assertEqual(m.readline(), b"one\n")
+            self.assertEqual(m.readline(), b"two\n")
+            self.assertEqual(m.readline(), b"three")
+            self.assertEqual(m.readline(), b"")
+            m.seek(0)
+            self.assertEqual(m.write(b"ONE"), 3)
+            m.write_byte(ord("_"))
+            self.assertEqual(m.tell(), 4)
+            self.assertRaises(ValueError, m.write, b"x" * 20)
+            with self.assertRaises(IndexError):
+                m[0:3] = b"toolong"
+            m[4:7] = b"TWO"
+            m.madvise(mmap.MADV_WILLNEED)
+            m.flush()
+            m.close()
+        with open(TESTFN, "rb") as f:
+            self.assertEqual(f.read(), b"ONE_TWO\nthree")
+
+    def test_access_read(self):
+        with open(TESTFN, "wb") as f:
+            f.write(b"abcdef")
+        with open(TESTFN, "rb") as f:
+            m = mmap.mmap(f.fileno(), 0, access=mmap.ACCESS_READ)
+            self.assertEqual(m[:], b"abcdef")
+            self.assertEqual(m[::2], b"ace")
+            with self.assertRaises(TypeError):
+                m[0] = b"x"[0]
+            self.assertRaises(TypeError, m.write, b"x")
+            m.close()
+            self.assertRaises(ValueError, m.read_byte)
+
+    def test_access_copy(self):
+        with open(TESTFN, "wb") as f:
+            f.write(b"abcdef")
+        with open(TESTFN, "r+b") as f:
+            m = mmap.mmap(f.fileno(), 0, access=mmap.ACCESS_COPY)
+            m[0] = ord("X")
+            self.assertEqual(m[:3], b"Xbc")
+            m.flush()
+            m.close()
+        with open(TESTFN, "rb") as f:
+            self.assertEqual(f.read(), b"abcdef")
+
     def test_context_manager(self):
         with mmap.mmap(-1, 10) as m:
             self.assertFalse(m.closed)
@@ -96,3 +96,117 @@ def test_properties():
     except AttributeError:
         not_found = True
     assert not_found
+
+
+def test_property_attributes():
+    assert C.prop_x.__doc__ == "I'm the 'x' property."
+    assert D.prop_x.__doc__ == "I am the 'x' property."
+    assert C.prop_x.fget is C.getx
+    assert C.prop_x.fset is C.setx
+    assert C.prop_x.fdel is C.delx
+    p = property()
+    assert p.fget is None and p.fset is None and p.fdel is None and p.__doc__ is None
+    assert isinstance(C.prop_x, property)
+
+
+def test_property_copies():
+    def getter(self):
+        "getter doc"
+        return 1
+
+    def setter(self, value):
+        pass
+
+    p1 = property(getter)
+    p2 = p1.setter(setter)
+    assert p1 is not p2
+    assert p1.fset is None
+    assert p2.fget is getter and p2.fset is setter
+    assert p2.__doc__ == "getter doc"
+
+    def other_getter(self):
+        "other doc"
+        return 2
+
+    assert p2.getter(other_getter).__doc__ == "other doc"
+    assert property(getter, doc="explicit").getter(other_getter).__doc__ == "explicit"
+
+
+def test_readonly_property():
+    class E:
+        @property
+        def x(self):
+            return 42
+
+    e = E()
+    assert e.x == 42
+    for action in [lambda: setattr(e, "x", 1), lambda: delattr(e, "x")]:
+        try:
+            action()
+        except AttributeError:
+            pass
+        else:
+            assert False, "expected AttributeError"
+
+    class F:
+        x = property(None, lambda self, value: None)
+
+    try:
+        F().x
+    except AttributeError:
+        pass
+    else:
+        assert False, "expected AttributeError for unreadable property"
+
+
+def test_property_subclass():
+    class cached(property):
+        def __get__(self, instance, owner=None):
+            if instance is None:
+                return self
+            value = self.fget(instance)
+            instance.__dict__[self.fget.__name__] = value
+            return value
+
+    calls = []
+
+    class G:
+        @cached
+        def x(self):
+            calls.append(1)
+            return 7
+
+        @property
+        def y(self):
+            return 8
+
+        @y.setter
+        def y(self, value):
+            calls.append(value)
+
+    g = G()
+    assert g.x == 7 and g.x == 7
+    assert len(calls) == 2
+    assert type(G.__dict__["x"]) is cached
+    assert type(G.__dict__["x"].setter(None)) is cached
+    g.y = 3
+    assert calls[-1] == 3 and g.y == 8
+
+
+def test_property_isabstractmethod():
+    import abc
+
+    class A(abc.ABC):
+        @property
+        @abc.abstractmethod
+        def x(self):
+            pass
+
+    assert A.x.__isabstractmethod__
+    assert not property(lambda self: 1).__isabstractmethod__
+    try:
+        A()
+    except TypeError:
+        pass
+    else:
+        assert False, "expected TypeError for abstract property"
@@ -176,3 +176,97 @@ def test_builtin_open():
         unlink(file_name)
 
     assert success
+
+
+def test_text_newlines():
+    import io
+    file_name = "dump.txt"
+    unlink(file_name)
+    try:
+        with open(file_name, "wb") as f:
+            f.write(b"a\r\nb\rc\nd")
+
+        with open(file_name, "r") as f:
+            assert isinstance(f, io.TextIOBase)
+            assert isinstance(f.buffer, io.BufferedIOBase)
+            assert list(f) == ["a\n", "b\n", "c\n", "d"]
+
+        with open(file_name, "r", newline="") as f:
+            assert f.readline() == "a\r\n"
+            assert f.readline() == "b\r"
+            assert f.readline() == "c\n"
+            assert f.readline() == "d"
+            assert f.readline() == ""
+
+        with open(file_name, "r", newline="\r\n") as f:
+            assert f.readlines() == ["a\r\n", "b\rc\nd"]
+
+        with open(file_name, "r") as f:
+            assert f.read(2) == "a\n"
+            assert f.read() == "b\nc\nd"
+
+        with open(file_name, "r") as f:
+            assert f.readline(1) == "a"
+            assert f.readline() == "\n"
+    finally:
+        unlink(file_name)
+
+
+def test_text_tell_seek():
+    file_name = "dump.txt"
+    unlink(file_name)
+    try:
+        lines = ["line %d ä€\n" % i for i in range(2000)]
+        with open(file_name, "w", encoding="utf-8") as f:
+            for line in lines:
+                f.write(line)
+            # everything is buffered until the file is flushed or closed
+            assert f.tell() == len("".join(lines).encode("utf-8"))
+
+        with open(file_name, "r", encoding="utf-8") as f:
+            positions = []
+            while True:
+                positions.append(f.tell())
+                if not f.readline():
+                    break
+            assert len(positions) == len(lines) + 1
+            f.seek(positions[1000])
+            assert f.readline() == lines[1000]
+            assert f.tell() == positions[1001]
+            f.seek(0)
+            assert f.read() == "".join(lines)
+    finally:
+        unlink(file_name)
+
+
+def test_buffered_read_write():
+    file_name = "dump.bin"
+    unlink(file_name)
+    try:
+        data = bytes(range(256)) * 100
+        with open(file_name, "wb") as f:
+            for i in range(0, len(data), 100):
+                assert f.write(data[i:i + 100]) == 100
+            assert f.tell() == len(data)
+
+        with open(file_name, "rb") as f:
+            assert f.read(10) == data[:10]
+            assert f.peek(1)[:1] == data[10:11]
+            assert f.read1(5) == data[10:15]
+            assert f.seek(5, 1) == 20
+            assert f.read(20000) == data[20:20020]
+            assert f.read() == data[20020:]
+            assert f.read() == b""
+
+        with open(file_name, "r+b") as f:
+            assert f.read(3) == data[:3]
+            f.write(b"xyz")
+            assert f.tell() == 6
+            f.seek(0)
+            assert f.read(8) == data[:3] + b"xyz" + data[6:8]
+            f.seek(0, 2)
+            f.write(b"end")
+            f.seek(-3, 2)
+            assert f.read() == b"end"
+    finally:
+        unlink(file_name)
@@ -0,0 +1,129 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+
+import queue
+import threading
+import time
+import unittest
+
+
+class SimpleQueueTests(unittest.TestCase):
+    def test_fifo(self):
+        q = queue.SimpleQueue()
+        self.assertTrue(q.empty())
+        for i in range(10):
+            q.put(i)
+        self.assertEqual(q.qsize(), 10)
+        self.assertFalse(q.empty())
+        self.assertEqual([q.get() for _ in range(10)], list(range(10)))
+        self.assertTrue(q.empty())
+
+    def test_nowait(self):
+        q = queue.SimpleQueue()
+        q.put_nowait("a")
+        self.assertEqual(q.get_nowait(), "a")
+        self.assertRaises(queue.Empty, q.get_nowait)
+        self.assertRaises(queue.Empty, q.get, False)
+        self.assertRaises(queue.Empty, q.get, block=False)
+
+    def test_timeout(self):
+        q = queue.SimpleQueue()
+        start = time.time()
+        self.assertRaises(queue.Empty, q.get, True, 0.1)
+        self.assertGreaterEqual(time.time() - start, 0.05)
+        self.assertRaises(ValueError, q.get, True, -1)
+        q.put(None, True, 5)
+        self.assertIsNone(q.get(timeout=5))
+
+    def test_producer_consumer(self):
+        q = queue.SimpleQueue()
+        results = []
+
+        def consumer():
+            while True:
+                item = q.get()
+                if item is None:
+                    return
+                results.append(item)
+
+        t = threading.Thread(target=consumer)
+        t.start()
+        for i in range(1000):
+            q.put(i)
+        q.put(None)
+        t.join()
+        self.assertEqual(results, list(range(1000)))
+
+    def test_empty_is_exception(self):
+        self.assertTrue(issubclass(queue.Empty, Exception))
+
+
+class QueueTests(unittest.TestCase):
+    def test_bounded_producer_consumer(self):
+        for maxsize in (0, 1, 10):
+            q = queue.Queue(maxsize)
+            results = []
+
+            def consumer():
+                while True:
+                    item = q.get()
+                    q.task_done()
+                    if item is None:
+                        return
+                    results.append(item)
+
+            t = threading.Thread(target=consumer)
+            t.start()
+            for i in range(1000):
+                q.put(i)
+            q.put(None)
+            q.join()
+            t.join()
+            self.assertEqual(results, list(range(1000)))
+            self.assertTrue(q.empty())
+
+    def test_full(self):
+        q = queue.Queue(1)
+        q.put(1)
+        self.assertTrue(q.full())
+        self.assertRaises(queue.Full, q.put_nowait, 2)
+        self.assertRaises(queue.Full, q.put, 2, True, 0.01)
+        self.assertEqual(q.get(), 1)
+        q.put_nowait(2)
+        self.assertEqual(q.get_nowait(), 2)
+        self.assertRaises(queue.Empty, q.get_nowait)
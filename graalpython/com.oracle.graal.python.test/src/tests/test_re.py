@@ -342,6 +342,69 @@ class ReTests(unittest.TestCase):
             self.assertEqual(re.findall("(%s)(%s*)" % (x, x), string),
                              [(x, ""), (x, x), (x, xx)])
 
+    def test_sub_template(self):
+        self.assertEqual(re.sub('(a)(b)', r'\2\1\g<0>', 'xaby'), 'xbaaby')
+        self.assertEqual(re.sub('(?P<first>a)(b)', r'[\g<first>-\g<2>]', 'abab'), '[a-b][a-b]')
+        self.assertEqual(re.sub('a', r'\0\101\\', 'a'), '\x00A\\')
+        self.assertEqual(re.sub('(a)|b', r'<\1>', 'ab'), '<a><>')
+        self.assertEqual(re.sub(b'(a)', br'\1\1', b'xay'), b'xaay')
+        self.assertEqual(re.sub('a', r'\-', 'a'), '\\-')
+        self.assertRaises(re.error, re.sub, '(a)', r'\2', 'a')
+        self.assertRaises(re.error, re.sub, 'a', r'\g<1', 'a')
+        self.assertRaises(re.error, re.sub, 'a', '\\', 'a')
+        self.assertRaises(IndexError, re.sub, '(a)', r'\g<name>', 'a')
+
+    def test_findall_split_bounds(self):
+        self.assertEqual(re.compile('a').findall('aaaa', 1, 3), ['a', 'a'])
+        self.assertEqual(re.findall('(a)|b', 'ab'), ['a', ''])
+        self.assertEqual(re.split(':', 'a:b:c:d', maxsplit=2), ['a', 'b', 'c:d'])
+        self.assertEqual(re.split(b':', b'a:b'), [b'a', b'b'])
+
+    def test_match_endpos(self):
+        p = re.compile(r'\w+')
+        m = p.match('hello world', 6, 9)
+        self.assertEqual(m.group(), 'wor')
+        self.assertEqual((m.pos, m.endpos), (6, 9))
+        self.assertEqual(m.string, 'hello world')
+        self.assertIsNone(p.match('hello world', 5, 9))
+        self.assertIsNone(p.match('hello', 0, 0))
+        self.assertEqual(re.compile('o$').search('foo bar', 0, 3).span(), (2, 3))
+        self.assertEqual(re.compile('a+').fullmatch('aaab', 1, 3).group(), 'aa')
+        self.assertEqual(re.compile(b'b+').search(b'abbbc', 0, 3).group(), b'bb')
+        self.assertEqual([m.span() for m in re.compile('x*').finditer('axx', 0, 2)], [(0, 0), (1, 2), (2, 2)])
+        self.assertEqual(re.compile(r'\w+$').findall('hello world', 0, 8), ['wo'])
+        self.assertEqual(re.compile(b'(b)(c?)').findall(b'abcbbc', 1, 5), [(b'b', b'c'), (b'b', b''), (b'b', b'')])
+
+    def test_match_object(self):
+        m = re.match(r'(?P<first>a)(b)?(c)?', 'ac')
+        self.assertEqual(m[0], 'ac')
+        self.assertEqual(m['first'], 'a')
+        self.assertEqual(m.group(1, 3), ('a', 'c'))
+        self.assertEqual(m.groups(), ('a', None, 'c'))
+        self.assertEqual(m.groups('-'), ('a', '-', 'c'))
+        self.assertEqual(m.groupdict(), {'first': 'a'})
+        self.assertEqual(m.span(2), (-1, -1))
+        self.assertEqual(m.start('first'), 0)
+        self.assertEqual(m.end(3), 2)
+        self.assertEqual(m.lastindex, 3)
+        self.assertEqual(re.match(r'(?P<x>a)', 'a').lastgroup, 'x')
+        self.assertIsNone(re.match('a', 'a').lastindex)
+        self.assertRaises(IndexError, m.group, 4)
+        self.assertRaises(IndexError, m.group, 'missing')
+        self.assertEqual(repr(re.match('b', 'b')), "<re.Match object; span=(0, 1), match='b'>")
+        self.assertEqual(re.sub('a', lambda m: m.group().upper() + str(m.span()), 'ba'), 'bA(1, 2)')
+
+    def test_pattern_groups(self):
+        p = re.compile(r'(a)(?P<second>b)(?:c)')
+        self.assertEqual(p.groups, 2)
+        self.assertEqual(dict(p.groupindex), {'second': 2})
+        self.assertEqual(re.compile('abc').groups, 0)
+        re.purge()
+        q = re.compile(r'(a)(?P<second>b)(?:c)')
+        self.assertEqual(q.match('abc').groups(), ('a', 'b'))
+        self.assertEqual(re.compile(r'(a)(?P<second>b)(?:c)', re.I).match('ABC').group('second'), 'B')
+        self.assertIsNone(re.compile(rb'(a)(?P<second>b)(?:c)').match(b'ABC'))
+
     def test_ignore_case_set(self):
         self.assertTrue(re.match(r'[19A]', 'A', re.I))
         self.assertTrue(re.match(r'[19a]', 'a', re.I))
@@ -0,0 +1,106 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import select
+import socket
+import unittest
+
+
+def _socketpair():
+    server = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+    try:
+        server.bind(("127.0.0.1", 0))
+        server.listen(1)
+        client = socket.create_connection(server.getsockname())
+        conn, _ = server.accept()
+        return client, conn
+    finally:
+        server.close()
+
+
+class SelectTests(unittest.TestCase):
+
+    def test_select(self):
+        a, b = _socketpair()
+        with a, b:
+            self.assertEqual(select.select([a], [], [], 0), ([], [], []))
+            r, w, x = select.select([a, b], [a.fileno()], [], 1)
+            self.assertEqual(r, [])
+            self.assertEqual(w, [a.fileno()])
+            b.sendall(b"ping")
+            r, w, x = select.select([a, b], [], [], 5)
+            self.assertEqual(r, [a])
+            self.assertEqual(a.recv(10), b"ping")
+
+    def test_select_errors(self):
+        self.assertRaises(ValueError, select.select, [], [], [], -1)
+        self.assertRaises(TypeError, select.select, [object()], [], [], 0)
+        self.assertRaises(ValueError, select.select, [-1], [], [], 0)
+
+    def test_poll(self):
+        a, b = _socketpair()
+        with a, b:
+            p = select.poll()
+            p.register(a, select.POLLIN)
+            self.assertEqual(p.poll(0), [])
+            b.sendall(b"x")
+            self.assertEqual(p.poll(5000), [(a.fileno(), select.POLLIN)])
+            p.modify(a, select.POLLOUT)
+            self.assertEqual(p.poll(5000), [(a.fileno(), select.POLLOUT)])
+            p.unregister(a)
+            self.assertRaises(KeyError, p.unregister, a)
+            self.assertRaises(FileNotFoundError, p.modify, a, select.POLLIN)
+            self.assertEqual(p.poll(0), [])
+
+    @unittest.skipUnless(hasattr(select, "epoll"), "requires epoll")
+    def test_epoll(self):
+        a, b = _socketpair()
+        with a, b, select.epoll() as ep:
+            ep.register(a.fileno(), select.EPOLLIN | select.EPOLLONESHOT)
+            self.assertRaises(FileExistsError, ep.register, a.fileno(), select.EPOLLIN)
+            self.assertEqual(ep.poll(0), [])
+            b.sendall(b"x")
+            self.assertEqual(ep.poll(5), [(a.fileno(), select.EPOLLIN)])
+            # one shot registrations are disabled after the first event
+            self.assertEqual(ep.poll(0), [])
+            ep.modify(a.fileno(), select.EPOLLIN)
+            self.assertEqual(ep.poll(5), [(a.fileno(), select.EPOLLIN)])
+            ep.unregister(a.fileno())
+            self.assertRaises(FileNotFoundError, ep.unregister, a.fileno())
+        self.assertTrue(ep.closed)
@@ -284,3 +284,56 @@ def test_set_delete():
     assert s == {'a', 'b', 'c'}
     s.discard('c')
     assert s == {'a', 'b'}
+
+
+def test_update():
+    s = {1, 2}
+    s.update({2, 3}, [4], (5,), 'a')
+    assert s == {1, 2, 3, 4, 5, 'a'}
+    s.update()
+    assert s == {1, 2, 3, 4, 5, 'a'}
+    s = set()
+    s.update(frozenset(range(100)))
+    assert s == set(range(100))
+    assert_raises(TypeError, s.update, 1)
+
+
+def test_set_algebra_result_types():
+    s = {1, 2, 3}
+    f = frozenset(s)
+    assert type(s.difference()) is set and s.difference() is not s
+    assert type(f.difference([1])) is frozenset
+    assert type(f.intersection([1])) is frozenset
+    assert type(s.intersection(f)) is set
+    assert f.intersection(range(100), [2, 3, 4]) == {2, 3}
+    assert frozenset(range(100)).difference({5}, [7]) == frozenset(range(100)) - {5, 7}
+    s.difference_update(s)
+    assert s == set()
+
+
+def test_frozenset_hash():
+    assert hash(frozenset()) == hash(frozenset())
+    assert hash(frozenset([1, 2, 3])) == hash(frozenset([3, 2, 1]))
+    assert hash(frozenset(['a', 'b'])) == hash(frozenset({'b': 0, 'a': 0}))
+    d = {frozenset([1, 2]): 'x'}
+    assert d[frozenset([2, 1])] == 'x'
+    assert_raises(TypeError, hash, {1, 2})
+
+
+def test_int_and_str_elements():
+    s = {1, 2, 3}
+    assert True in s and 2.0 in s and 4 not in s and '1' not in s
+    s.add(True)
+    s.add(2 ** 40)
+    assert s == {1, 2, 3, 2 ** 40}
+    s.discard(1.0)
+    assert s == {2, 3, 2 ** 40}
+    s.add('a')
+    assert s == {2, 3, 2 ** 40, 'a'}
+
+    s = set()
+    for i in range(200):
+        s.add(str(i))
+    for i in range(100):
+        s.remove(str(i))
+    assert len(s) == 100 and '150' in s and 150 not in s
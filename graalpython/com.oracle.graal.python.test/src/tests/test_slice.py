@@ -178,3 +178,11 @@ def test_range_step2():
     assert t[100:-100:-1] == range(13, 3, -2)
     assert t[-100:100:-1] == range(3, 13, -2)
     assert t[-100:100:2] == range(5, 15, 4)
+
+
+def test_huge_indices():
+    l = [1, 2, 3]
+    assert l[10 ** 20:] == [] and l[:10 ** 20] == [1, 2, 3]
+    assert l[-10 ** 20:] == [1, 2, 3] and l[:-10 ** 20] == []
+    assert l[::10 ** 20] == [1] and l[::-10 ** 20] == [3]
+    assert "abc"[2 ** 40:] == "" and "abc"[-2 ** 40:-1] == "ab"
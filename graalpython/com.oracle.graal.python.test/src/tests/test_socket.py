@@ -0,0 +1,204 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+import socket
+import time
+import unittest
+try:
+    import _sysconfig as syscfg
+except Exception:
+    import sysconfig as syscfg
+
+
+def _server():
+    server = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+    server.setsockopt(socket.SOL_SOCKET, socket.SO_REUSEADDR, 1)
+    server.bind(("127.0.0.1", 0))
+    server.listen(5)
+    return server
+
+
+class SocketTests(unittest.TestCase):
+
+    def test_tcp_loopback(self):
+        server = _server()
+        try:
+            host, port = server.getsockname()
+            self.assertEqual(host, "127.0.0.1")
+            self.assertNotEqual(port, 0)
+            client = socket.create_connection((host, port))
+            conn, addr = server.accept()
+            with client, conn:
+                self.assertEqual(addr, client.getsockname())
+                client.sendall(b"hello world")
+                buf = bytearray(5)
+                self.assertEqual(conn.recv_into(buf), 5)
+                self.assertEqual(buf, b"hello")
+                self.assertEqual(conn.recv(100), b" world")
+                conn.sendall(memoryview(b"x" * 100000))
+                received = 0
+                while received < 100000:
+                    received += len(client.recv(65536))
+                self.assertEqual(received, 100000)
+                client.shutdown(socket.SHUT_WR)
+                self.assertEqual(conn.recv(10), b"")
+        finally:
+            server.close()
+
+    def test_timeout(self):
+        server = _server()
+        try:
+            server.settimeout(0.05)
+            self.assertEqual(server.gettimeout(), 0.05)
+            self.assertRaises(socket.timeout, server.accept)
+            server.setblocking(False)
+            self.assertFalse(server.getblocking())
+            self.assertRaises(BlockingIOError, server.accept)
+            server.settimeout(None)
+            self.assertIsNone(server.gettimeout())
+            self.assertTrue(server.getblocking())
+        finally:
+            server.close()
+
+    @unittest.skipUnless(syscfg.get_config_var('WITH_THREAD'), "requires threads")
+    def test_timeout_applies_to_whole_call(self):
+        import threading
+        server = _server()
+        try:
+            client = socket.create_connection(server.getsockname())
+            conn, _ = server.accept()
+            with client, conn:
+                client.setsockopt(socket.SOL_SOCKET, socket.SO_SNDBUF, 4096)
+                conn.setsockopt(socket.SOL_SOCKET, socket.SO_RCVBUF, 4096)
+                stop = threading.Event()
+
+                def trickle():
+                    # keep draining a little, so that every single wait succeeds
+                    while not stop.is_set():
+                        time.sleep(0.05)
+                        conn.recv(1024)
+
+                reader = threading.Thread(target=trickle)
+                reader.start()
+                try:
+                    client.settimeout(0.5)
+                    start = time.monotonic()
+                    self.assertRaises(socket.timeout, client.sendall, b"x" * 10000000)
+                    self.assertLess(time.monotonic() - start, 5)
+                finally:
+                    stop.set()
+                    client.close()
+                    reader.join()
+        finally:
+            server.close()
+
+    def test_nonblocking_recv(self):
+        server = _server()
+        try:
+            client = socket.create_connection(server.getsockname())
+            conn, _ = server.accept()
+            with client, conn:
+                conn.setblocking(False)
+                self.assertRaises(BlockingIOError, conn.recv, 10)
+                client.send(b"abc")
+                conn.settimeout(1.0)
+                self.assertEqual(conn.recv(10), b"abc")
+        finally:
+            server.close()
+
+    def test_udp(self):
+        a = socket.socket(socket.AF_INET, socket.SOCK_DGRAM)
+        b = socket.socket(socket.AF_INET, socket.SOCK_DGRAM)
+        with a, b:
+            a.bind(("127.0.0.1", 0))
+            b.sendto(b"ping", a.getsockname())
+            data, addr = a.recvfrom(100)
+            self.assertEqual(data, b"ping")
+            self.assertEqual(addr[1], b.getsockname()[1])
+
+    def test_connection_refused(self):
+        server = _server()
+        address = server.getsockname()
+        server.close()
+        client = socket.socket()
+        with client:
+            self.assertRaises(ConnectionRefusedError, client.connect, address)
+
+    def test_bound_socket_does_not_listen(self):
+        server = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+        with server:
+            server.bind(("127.0.0.1", 0))
+            address = server.getsockname()
+            self.assertNotEqual(address[1], 0)
+            client = socket.socket()
+            with client:
+                self.assertRaises(ConnectionRefusedError, client.connect, address)
+            server.listen()
+            self.assertEqual(server.getsockname(), address)
+            client = socket.create_connection(address)
+            conn, _ = server.accept()
+            conn.close()
+            client.close()
+
+    def test_recv_into_memoryview(self):
+        server = _server()
+        try:
+            client = socket.create_connection(server.getsockname())
+            conn, _ = server.accept()
+            with client, conn:
+                client.sendall(b"abcdef")
+                buf = bytearray(b"......")
+                view = memoryview(buf)
+                self.assertEqual(conn.recv_into(view[2:], 3), 3)
+                self.assertEqual(buf, b"..abc.")
+                self.assertRaises(TypeError, conn.recv_into, b"xxx")
+        finally:
+            server.close()
+
+    def test_gaierror(self):
+        self.assertTrue(issubclass(socket.gaierror, OSError))
+        self.assertTrue(issubclass(socket.herror, OSError))
+        self.assertIsNot(socket.gaierror, socket.herror)
+        self.assertRaises(socket.gaierror, socket.getaddrinfo, "nonexistent.invalid", 80)
+
+    def test_close(self):
+        s = socket.socket()
+        self.assertGreaterEqual(s.fileno(), 0)
+        s.close()
+        self.assertEqual(s.fileno(), -1)
+        s.close()
@@ -512,3 +512,305 @@ if syscfg.get_config_var('WITH_THREAD'):
             lock.release()
             self.assertFalse(lock.locked())
             self.assertTrue(lock.acquire(blocking=False))
+
+
+    class ConditionEventTests(unittest.TestCase):
+
+        def test_lock_release_unlocked(self):
+            lock = threading.Lock()
+            self.assertRaises(RuntimeError, lock.release)
+            rlock = threading.RLock()
+            self.assertRaises(RuntimeError, rlock.release)
+
+        def test_lock_default_timeout(self):
+            lock = threading.Lock()
+            self.assertTrue(lock.acquire(True, -1))
+            self.assertFalse(lock.acquire(False, -1))
+            lock.release()
+            self.assertRaises(ValueError, lock.acquire, False, 1)
+            self.assertRaises(ValueError, lock.acquire, True, -2)
+
+        def test_contended_counter(self):
+            lock = threading.Lock()
+            counter = [0]
+
+            def work():
+                for _ in range(1000):
+                    with lock:
+                        counter[0] += 1
+
+            threads = [threading.Thread(target=work) for _ in range(4)]
+            for t in threads:
+                t.start()
+            for t in threads:
+                t.join()
+            self.assertEqual(counter[0], 4000)
+
+        def test_contended_mutual_exclusion(self):
+            # releases racing with acquires of other threads must never let two threads in
+            lock = thread.allocate_lock()
+            state = {"inside": 0, "overlaps": 0, "counter": 0}
+
+            def work():
+                for i in range(5000):
+                    lock.acquire()
+                    try:
+                        state["inside"] += 1
+                        if state["inside"] != 1:
+                            state["overlaps"] += 1
+                        state["counter"] += 1
+                        if i % 100 == 0:
+                            time.sleep(0)
+                        state["inside"] -= 1
+                    finally:
+                        lock.release()
+
+            threads = [threading.Thread(target=work) for _ in range(8)]
+            for t in threads:
+                t.start()
+            for t in threads:
+                t.join()
+            self.assertEqual(state["overlaps"], 0)
+            self.assertEqual(state["counter"], 40000)
+            self.assertFalse(lock.locked())
+
+        def test_condition_unowned(self):
+            cond = threading.Condition()
+            self.assertRaises(RuntimeError, cond.wait)
+            self.assertRaises(RuntimeError, cond.notify)
+            self.assertRaises(RuntimeError, cond.notify_all)
+
+        def test_condition_timeout(self):
+            for lock in [None, threading.Lock(), threading.RLock()]:
+                cond = threading.Condition(lock)
+                with cond:
+                    self.assertFalse(cond.wait(0.01))
+                    self.assertFalse(cond.wait(0))
+                    self.assertTrue(cond._is_owned())
+
+        def test_condition_rlock_restored(self):
+            cond = threading.Condition(threading.RLock())
+            with cond:
+                with cond:
+                    self.assertFalse(cond.wait(0.01))
+                self.assertTrue(cond._is_owned())
+            self.assertFalse(cond._is_owned())
+
+        def test_condition_wait_for(self):
+            cond = threading.Condition(threading.Lock())
+            items = []
+
+            def produce():
+                for i in range(5):
+                    with cond:
+                        items.append(i)
+                        cond.notify()
+
+            t = threading.Thread(target=produce)
+            with cond:
+                t.start()
+                self.assertTrue(cond.wait_for(lambda: len(items) == 5, 10))
+                self.assertFalse(cond.wait_for(lambda: len(items) == 6, 0.01))
+            t.join()
+            self.assertEqual(items, list(range(5)))
+
+        def test_condition_notify_n(self):
+            cond = threading.Condition()
+            woken = []
+            ready = threading.Semaphore(0)
+
+            def waiter():
+                with cond:
+                    ready.release()
+                    if cond.wait(10):
+                        woken.append(1)
+
+            threads = [threading.Thread(target=waiter) for _ in range(3)]
+            for t in threads:
+                t.start()
+            for _ in threads:
+                ready.acquire()
+            with cond:
+                cond.notify(2)
+            time.sleep(0.1)
+            with cond:
+                self.assertEqual(len(woken), 2)
+                cond.notify_all()
+            for t in threads:
+                t.join()
+            self.assertEqual(len(woken), 3)
+
+        def test_condition_custom_lock(self):
+            class MyLock:
+                def __init__(self):
+                    self.lock = threading.Lock()
+
+                def acquire(self, *args):
+                    return self.lock.acquire(*args)
+
+                def release(self):
+                    self.lock.release()
+
+                def __enter__(self):
+                    return self.acquire()
+
+                def __exit__(self, *args):
+                    self.release()
+
+            cond = threading.Condition(MyLock())
+            with cond:
+                self.assertFalse(cond.wait(0.01))
+
+        def test_condition_event_subclass(self):
+            class MyCondition(threading.Condition):
+                def __init__(self):
+                    super().__init__(threading.Lock())
+                    self.tag = "cond"
+
+            class MyEvent(threading.Event):
+                def set(self):
+                    super().set()
+                    self.tag = "event"
+
+            for cond in (threading.Condition(), threading.Condition(threading.Lock()), MyCondition()):
+                self.assertIsInstance(cond, threading.Condition)
+                with cond:
+                    cond.notify_all()
+            self.assertEqual(MyCondition().tag, "cond")
+            for event in (threading.Event(), MyEvent()):
+                self.assertIsInstance(event, threading.Event)
+                event.set()
+                self.assertTrue(event.wait())
+            self.assertEqual(event.tag, "event")
+
+        def test_event(self):
+            event = threading.Event()
+            self.assertFalse(event.is_set())
+            self.assertFalse(event.wait(0.01))
+            event.set()
+            self.assertTrue(event.is_set())
+            self.assertTrue(event.isSet())
+            self.assertTrue(event.wait())
+            event.clear()
+            self.assertFalse(event.is_set())
+
+        def test_event_wakes_waiters(self):
+            event = threading.Event()
+            results = []
+
+            def waiter():
+                results.append(event.wait(10))
+
+            threads = [threading.Thread(target=waiter) for _ in range(3)]
+            for t in threads:
+                t.start()
+            event.set()
+            for t in threads:
+                t.join()
+            self.assertEqual(results, [True, True, True])
+
+
+    def gil_enabled():
+        gil_stats = getattr(thread, "__truffle_gil_stats__", None)
+        return gil_stats is not None and gil_stats()["enabled"]
+
+
+    @unittest.skipUnless(gil_enabled(), "requires the GIL")
+    class GilTests(unittest.TestCase):
+
+        def wait_time_while_blocked(self, block, unblock):
+            # one thread blocks while the other one runs Python code; if the blocked thread kept
+            # the GIL, the running thread would wait for it the whole time
+            started = threading.Event()
+            t = threading.Thread(target=lambda: (started.set(), block()))
+            t.start()
+            started.wait()
+            before = thread.__truffle_gil_stats__()["wait_time"]
+            deadline = time.monotonic() + 0.5
+            count = 0
+            while time.monotonic() < deadline:
+                count += 1
+            waited = thread.__truffle_gil_stats__()["wait_time"] - before
+            unblock()
+            t.join()
+            self.assertGreater(count, 0)
+            return waited
+
+        def test_sleep_releases_gil(self):
+            waited = self.wait_time_while_blocked(lambda: time.sleep(1), lambda: None)
+            self.assertLess(waited, 0.25)
+
+        def test_socket_recv_releases_gil(self):
+            import socket
+            server = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+            server.bind(("127.0.0.1", 0))
+            server.listen(1)
+            client = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+            client.connect(server.getsockname())
+            conn, _ = server.accept()
+            received = []
+            try:
+                waited = self.wait_time_while_blocked(lambda: received.append(conn.recv(10)), lambda: client.send(b"x"))
+            finally:
+                conn.close()
+                client.close()
+                server.close()
+            self.assertEqual(received, [b"x"])
+            self.assertLess(waited, 0.25)
+
+
+    class ThreadLocalTests(unittest.TestCase):
+
+        def run_in_thread(self, func):
+            result = []
+            t = threading.Thread(target=lambda: result.append(func()))
+            t.start()
+            t.join()
+            return result[0]
+
+        def test_attributes_per_thread(self):
+            local = threading.local()
+            local.x = 1
+            self.assertEqual(self.run_in_thread(lambda: hasattr(local, "x")), False)
+
+            def set_and_get():
+                local.x = 2
+                return local.x
+            self.assertEqual(self.run_in_thread(set_and_get), 2)
+            self.assertEqual(local.x, 1)
+
+        def test_dict_per_thread(self):
+            local = threading.local()
+            local.a = "a"
+            self.assertEqual(local.__dict__, {"a": "a"})
+            self.assertEqual(self.run_in_thread(lambda: local.__dict__), {})
+
+        def test_delattr(self):
+            local = threading.local()
+            local.a = 1
+            del local.a
+            self.assertFalse(hasattr(local, "a"))
+            with self.assertRaises(AttributeError):
+                del local.a
+            with self.assertRaises(AttributeError):
+                local.b
+
+        def test_init_args(self):
+            self.assertRaises(TypeError, threading.local, 1)
+
+            class MyLocal(threading.local):
+                initialized = 0
+
+                def __init__(self, value, key=None):
+                    self.value = value
+                    self.key = key
+                    MyLocal.initialized += 1
+
+                @property
+                def doubled(self):
+                    return self.value * 2
+
+            local = MyLocal(21, key="k")
+            self.assertEqual(local.doubled, 42)
+            self.assertEqual(self.run_in_thread(lambda: (local.value, local.key, local.doubled)), (21, "k", 42))
+            self.assertEqual(MyLocal.initialized, 2)
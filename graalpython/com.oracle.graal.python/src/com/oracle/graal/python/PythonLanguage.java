@@ -61,6 +61,7 @@ import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.graal.python.runtime.PythonParser.ParserMode;
+import com.oracle.graal.python.runtime.RegexCache;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.interop.InteropMap;
 import com.oracle.truffle.api.Assumption;
@@ -567,6 +568,25 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
 
     private final ConcurrentHashMap<String, PCode> cachedCode = new ConcurrentHashMap<>();
 
+    private volatile RegexCache regexCache;
+
+    /**
+     * Returns the compiled regex cache, creating it with the size configured in the given context
+     * on first use.
+     */
+    public RegexCache getRegexCache(PythonContext context) {
+        RegexCache cache = regexCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = regexCache;
+                if (cache == null) {
+                    regexCache = cache = new RegexCache(PythonOptions.getIntOption(context, PythonOptions.RegexCacheSize));
+                }
+            }
+        }
+        return cache;
+    }
+
     public PCode cacheCode(String filename, Supplier<PCode> createCode) {
         return cachedCode.computeIfAbsent(filename, f -> createCode.get());
     }
@@ -59,6 +59,7 @@ import com.oracle.graal.python.builtins.modules.FaulthandlerModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.FcntlModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.FunctoolsModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.GcModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.HashlibModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.IOModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.ImpModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.ItertoolsModuleBuiltins;
@@ -98,6 +99,8 @@ import com.oracle.graal.python.builtins.objects.cell.CellBuiltins;
 import com.oracle.graal.python.builtins.objects.code.CodeBuiltins;
 import com.oracle.graal.python.builtins.objects.code.PCode;
 import com.oracle.graal.python.builtins.objects.complex.ComplexBuiltins;
+import com.oracle.graal.python.builtins.objects.deque.DequeBuiltins;
+import com.oracle.graal.python.builtins.objects.deque.DequeIteratorBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictItemsIteratorBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictKeysIteratorBuiltins;
@@ -114,16 +117,40 @@ import com.oracle.graal.python.builtins.objects.frame.FrameBuiltins;
 import com.oracle.graal.python.builtins.objects.function.AbstractFunctionBuiltins;
 import com.oracle.graal.python.builtins.objects.function.BuiltinFunctionBuiltins;
 import com.oracle.graal.python.builtins.objects.function.FunctionBuiltins;
+import com.oracle.graal.python.builtins.objects.functools.LruCacheWrapperBuiltins;
+import com.oracle.graal.python.builtins.objects.functools.PartialBuiltins;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.function.PBuiltinFunction;
 import com.oracle.graal.python.builtins.objects.generator.GeneratorBuiltins;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.GetSetDescriptorTypeBuiltins;
+import com.oracle.graal.python.builtins.objects.hashlib.HashBuiltins;
 import com.oracle.graal.python.builtins.objects.ints.IntBuiltins;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.io.BufferedIOBuiltins;
+import com.oracle.graal.python.builtins.objects.io.TextIOWrapperBuiltins;
+import com.oracle.graal.python.builtins.objects.iterator.FilterBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.ForeignIteratorBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.IteratorBuiltins;
+import com.oracle.graal.python.builtins.objects.iterator.MapBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.PZipBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.SentinelIteratorBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.AccumulateBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.ChainBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.CombinationsBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.CountBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.CycleBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.DropwhileBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.FilterfalseBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.GroupByBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.GrouperBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.IsliceBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.ItertoolsBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.PermutationsBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.ProductBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.RepeatBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.StarmapBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.TakewhileBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.ZipLongestBuiltins;
 import com.oracle.graal.python.builtins.objects.list.ListBuiltins;
 import com.oracle.graal.python.builtins.objects.mappingproxy.MappingproxyBuiltins;
 import com.oracle.graal.python.builtins.objects.memoryview.BufferBuiltins;
@@ -141,17 +168,24 @@ import com.oracle.graal.python.builtins.objects.object.ObjectBuiltins;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.posix.DirEntryBuiltins;
 import com.oracle.graal.python.builtins.objects.posix.ScandirIteratorBuiltins;
+import com.oracle.graal.python.builtins.objects.property.PropertyBuiltins;
+import com.oracle.graal.python.builtins.objects.queue.SimpleQueueBuiltins;
 import com.oracle.graal.python.builtins.objects.random.RandomBuiltins;
 import com.oracle.graal.python.builtins.objects.range.RangeBuiltins;
 import com.oracle.graal.python.builtins.objects.referencetype.ReferenceTypeBuiltins;
 import com.oracle.graal.python.builtins.objects.reversed.ReversedBuiltins;
+import com.oracle.graal.python.builtins.objects.select.PollBuiltins;
 import com.oracle.graal.python.builtins.objects.set.FrozenSetBuiltins;
 import com.oracle.graal.python.builtins.objects.set.SetBuiltins;
 import com.oracle.graal.python.builtins.objects.slice.SliceBuiltins;
+import com.oracle.graal.python.builtins.objects.sre.SREMatchBuiltins;
 import com.oracle.graal.python.builtins.objects.str.StringBuiltins;
 import com.oracle.graal.python.builtins.objects.superobject.SuperBuiltins;
+import com.oracle.graal.python.builtins.objects.thread.ConditionBuiltins;
+import com.oracle.graal.python.builtins.objects.thread.EventBuiltins;
 import com.oracle.graal.python.builtins.objects.thread.LockBuiltins;
 import com.oracle.graal.python.builtins.objects.thread.RLockBuiltins;
+import com.oracle.graal.python.builtins.objects.thread.ThreadLocalBuiltins;
 import com.oracle.graal.python.builtins.objects.thread.ThreadBuiltins;
 import com.oracle.graal.python.builtins.objects.traceback.TracebackBuiltins;
 import com.oracle.graal.python.builtins.objects.tuple.TupleBuiltins;
@@ -197,7 +231,6 @@ public final class Python3Core implements PythonCore {
                         "_imp",
                         "_thread",
                         "function",
-                        "_functools",
                         "method",
                         "code",
                         "_warnings",
@@ -207,7 +240,6 @@ public final class Python3Core implements PythonCore {
                         "classes",
                         "_weakref",
                         "set",
-                        "itertools",
                         "base_exception",
                         PythonCextBuiltins.PYTHON_CEXT,
                         "_collections",
@@ -228,7 +260,7 @@ public final class Python3Core implements PythonCore {
                         "termios",
                         "zipimport",
                         "mmap",
-                        "_queue",
+                        "select",
                         "_ast",
                         "java",
                         "pyio_patches",
@@ -246,6 +278,7 @@ public final class Python3Core implements PythonCore {
                         new DecoratedMethodBuiltins(),
                         new ClassmethodBuiltins(),
                         new StaticmethodBuiltins(),
+                        new PropertyBuiltins(),
                         new PolyglotModuleBuiltins(),
                         new ObjectBuiltins(),
                         new CellBuiltins(),
@@ -274,6 +307,8 @@ public final class Python3Core implements PythonCore {
                         new IteratorBuiltins(),
                         new ReversedBuiltins(),
                         new PZipBuiltins(),
+                        new MapBuiltins(),
+                        new FilterBuiltins(),
                         new EnumerateBuiltins(),
                         new SentinelIteratorBuiltins(),
                         new ForeignIteratorBuiltins(),
@@ -305,16 +340,43 @@ public final class Python3Core implements PythonCore {
                         new WeakRefModuleBuiltins(),
                         new ReferenceTypeBuiltins(),
                         new IOModuleBuiltins(),
+                        new BufferedIOBuiltins(),
+                        new TextIOWrapperBuiltins(),
                         new StringModuleBuiltins(),
                         new ItertoolsModuleBuiltins(),
+                        new ItertoolsBuiltins(),
+                        new RepeatBuiltins(),
+                        new CountBuiltins(),
+                        new ChainBuiltins(),
+                        new StarmapBuiltins(),
+                        new IsliceBuiltins(),
+                        new AccumulateBuiltins(),
+                        new DropwhileBuiltins(),
+                        new TakewhileBuiltins(),
+                        new FilterfalseBuiltins(),
+                        new CycleBuiltins(),
+                        new ZipLongestBuiltins(),
+                        new GroupByBuiltins(),
+                        new GrouperBuiltins(),
+                        new ProductBuiltins(),
+                        new PermutationsBuiltins(),
+                        new CombinationsBuiltins(),
                         new FunctoolsModuleBuiltins(),
+                        new PartialBuiltins(),
+                        new LruCacheWrapperBuiltins(),
                         new ErrnoModuleBuiltins(),
                         new CodecsModuleBuiltins(),
                         new CollectionsModuleBuiltins(),
+                        new DequeBuiltins(),
+                        new DequeIteratorBuiltins(),
                         new JavaModuleBuiltins(),
                         new SREModuleBuiltins(),
+                        new SREMatchBuiltins(),
+                        new HashlibModuleBuiltins(),
+                        new HashBuiltins(),
                         new AstModuleBuiltins(),
                         new SelectModuleBuiltins(),
+                        new PollBuiltins(),
                         new SocketModuleBuiltins(),
                         new SignalModuleBuiltins(),
                         new TracebackBuiltins(),
@@ -341,10 +403,14 @@ public final class Python3Core implements PythonCore {
                         new FcntlModuleBuiltins(),
                         new MMapBuiltins(),
                         new QueueModuleBuiltins(),
+                        new SimpleQueueBuiltins(),
                         new ThreadModuleBuiltins(),
                         new ThreadBuiltins(),
                         new LockBuiltins(),
                         new RLockBuiltins(),
+                        new ConditionBuiltins(),
+                        new EventBuiltins(),
+                        new ThreadLocalBuiltins(),
                         new ContextvarsModuleBuiltins()));
         if (!TruffleOptions.AOT) {
             ServiceLoader<PythonBuiltins> providers = ServiceLoader.load(PythonBuiltins.class, Python3Core.class.getClassLoader());
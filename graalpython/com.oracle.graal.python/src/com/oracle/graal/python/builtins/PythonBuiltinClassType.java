@@ -55,6 +55,9 @@ public enum PythonBuiltinClassType implements LazyPythonClass {
     PDictKeysIterator("dict_keysiterator"),
     PDictValuesIterator("dict_valuesiterator"),
     PDictValuesView("dict_values"),
+    PDeque("deque", "_collections"),
+    PDequeIterator("_deque_iterator"),
+    PDequeReverseIterator("_deque_reverse_iterator"),
     PEllipsis("ellipsis"),
     PEnumerate("enumerate", "builtins"),
     PFloat("float", "builtins"),
@@ -87,16 +90,49 @@ public enum PythonBuiltinClassType implements LazyPythonClass {
     Super("super", "builtins"),
     PCode("code"),
     PZip("zip", "builtins"),
+    PMap("map", "builtins"),
+    PFilter("filter", "builtins"),
     PZipImporter("zipimporter", "zipimport"),
     PBuffer("buffer", "builtins"),
     PThread("start_new_thread", "_thread"),
     PLock("LockType", "_thread"),
     PRLock("RLock", "_thread"),
+    PCondition("Condition", "_thread"),
+    PEvent("Event", "_thread"),
+    PThreadLocal("_local", "_thread"),
     PSocket("socket", "_socket"),
+    PPoll("poll"),
     PStaticmethod("staticmethod", "builtins"),
     PClassmethod("classmethod", "builtins"),
+    PProperty("property", "builtins"),
     PScandirIterator("ScandirIterator", "posix"),
     PDirEntry("DirEntry", "posix"),
+    PRepeat("repeat", "itertools"),
+    PCount("count", "itertools"),
+    PChain("chain", "itertools"),
+    PStarmap("starmap", "itertools"),
+    PIslice("islice", "itertools"),
+    PAccumulate("accumulate", "itertools"),
+    PDropwhile("dropwhile", "itertools"),
+    PTakewhile("takewhile", "itertools"),
+    PFilterfalse("filterfalse", "itertools"),
+    PCycle("cycle", "itertools"),
+    PZipLongest("zip_longest", "itertools"),
+    PGroupBy("groupby", "itertools"),
+    PGrouper("_grouper"),
+    PProduct("product", "itertools"),
+    PPermutations("permutations", "itertools"),
+    PCombinations("combinations", "itertools"),
+    PCombinationsWithReplacement("combinations_with_replacement", "itertools"),
+    PBufferedReader("BufferedReader", "_io"),
+    PBufferedWriter("BufferedWriter", "_io"),
+    PBufferedRandom("BufferedRandom", "_io"),
+    PTextIOWrapper("TextIOWrapper", "_io"),
+    PSREMatch("SRE_Match", "_sre"),
+    PHash("HASH", "_hashlib"),
+    PSimpleQueue("SimpleQueue", "_queue"),
+    PPartial("partial", "_functools"),
+    PLruCacheWrapper("_lru_cache_wrapper", "_functools"),
 
     // Errors and exceptions:
 
@@ -141,6 +177,7 @@ public enum PythonBuiltinClassType implements LazyPythonClass {
     TimeoutError("TimeoutError", "builtins"),
     ZipImportError("ZipImportError", "zipimport"),
     ZLibError("error", "zlib"),
+    QueueEmpty("Empty", "_queue"),
 
     // todo: all OS errors
 
@@ -271,6 +308,7 @@ public enum PythonBuiltinClassType implements LazyPythonClass {
         TimeoutError.base = OSError;
         ZipImportError.base = ImportError;
         ZLibError.base = Exception;
+        QueueEmpty.base = Exception;
 
         ReferenceError.base = Exception;
         RuntimeError.base = Exception;
@@ -35,13 +35,16 @@ import static com.oracle.graal.python.nodes.BuiltinNames.CLASSMETHOD;
 import static com.oracle.graal.python.nodes.BuiltinNames.COMPLEX;
 import static com.oracle.graal.python.nodes.BuiltinNames.DICT;
 import static com.oracle.graal.python.nodes.BuiltinNames.ENUMERATE;
+import static com.oracle.graal.python.nodes.BuiltinNames.FILTER;
 import static com.oracle.graal.python.nodes.BuiltinNames.FLOAT;
 import static com.oracle.graal.python.nodes.BuiltinNames.FROZENSET;
 import static com.oracle.graal.python.nodes.BuiltinNames.INT;
 import static com.oracle.graal.python.nodes.BuiltinNames.LIST;
+import static com.oracle.graal.python.nodes.BuiltinNames.MAP;
 import static com.oracle.graal.python.nodes.BuiltinNames.MEMORYVIEW;
 import static com.oracle.graal.python.nodes.BuiltinNames.MODULE;
 import static com.oracle.graal.python.nodes.BuiltinNames.OBJECT;
+import static com.oracle.graal.python.nodes.BuiltinNames.PROPERTY;
 import static com.oracle.graal.python.nodes.BuiltinNames.RANGE;
 import static com.oracle.graal.python.nodes.BuiltinNames.REVERSED;
 import static com.oracle.graal.python.nodes.BuiltinNames.SET;
@@ -109,6 +112,8 @@ import com.oracle.graal.python.builtins.objects.function.PFunction;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.HiddenKeyDescriptor;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.iterator.PFilter;
+import com.oracle.graal.python.builtins.objects.iterator.PMap;
 import com.oracle.graal.python.builtins.objects.iterator.PZip;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.memoryview.PBuffer;
@@ -1841,6 +1846,33 @@ public final class BuiltinConstructors extends PythonBuiltins {
         }
     }
 
+    // map(function, iterable, ...)
+    @Builtin(name = MAP, minNumOfPositionalArgs = 3, takesVarArgs = true, constructsClass = PythonBuiltinClassType.PMap)
+    @GenerateNodeFactory
+    public abstract static class MapNode extends PythonBuiltinNode {
+        @Specialization
+        PMap map(VirtualFrame frame, LazyPythonClass cls, Object function, Object iterable, Object[] args,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            Object[] iterators = new Object[args.length + 1];
+            iterators[0] = getIterator.executeWith(frame, iterable);
+            for (int i = 0; i < args.length; i++) {
+                iterators[i + 1] = getIterator.executeWith(frame, args[i]);
+            }
+            return factory().createMap(cls, function, iterators);
+        }
+    }
+
+    // filter(function, iterable)
+    @Builtin(name = FILTER, minNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PFilter)
+    @GenerateNodeFactory
+    public abstract static class FilterNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PFilter filter(VirtualFrame frame, LazyPythonClass cls, Object function, Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createFilter(cls, function, getIterator.executeWith(frame, iterable));
+        }
+    }
+
     // function(code, globals[, name[, argdefs[, closure]]])
     @Builtin(name = "function", minNumOfPositionalArgs = 3, maxNumOfPositionalArgs = 6, constructsClass = PythonBuiltinClassType.PFunction, isPublic = false)
     @GenerateNodeFactory
@@ -2860,6 +2892,40 @@ public final class BuiltinConstructors extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = PROPERTY, minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PProperty, doc = "property(fget=None, fset=None, fdel=None, doc=None) -> property attribute\n" +
+                    "\n" +
+                    "fget is a function to be used for getting an attribute value, and likewise\n" +
+                    "fset is a function for setting, and fdel a function for del'ing, an\n" +
+                    "attribute.  Typical use is to define a managed attribute x:\n" +
+                    "\n" +
+                    "class C(object):\n" +
+                    "    def getx(self): return self._x\n" +
+                    "    def setx(self, value): self._x = value\n" +
+                    "    def delx(self): del self._x\n" +
+                    "    x = property(getx, setx, delx, \"I'm the 'x' property.\")\n" +
+                    "\n" +
+                    "Decorators make defining new properties or modifying existing ones easy:\n" +
+                    "\n" +
+                    "class C(object):\n" +
+                    "    @property\n" +
+                    "    def x(self):\n" +
+                    "        \"I am the 'x' property.\"\n" +
+                    "        return self._x\n" +
+                    "    @x.setter\n" +
+                    "    def x(self, value):\n" +
+                    "        self._x = value\n" +
+                    "    @x.deleter\n" +
+                    "    def x(self):\n" +
+                    "        del self._x")
+    @GenerateNodeFactory
+    public abstract static class PropertyNode extends PythonBuiltinNode {
+        @Specialization
+        Object doGeneric(LazyPythonClass cls, @SuppressWarnings("unused") Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
+            // the accessors are set by __init__
+            return factory().createProperty(cls);
+        }
+    }
+
     @Builtin(name = STATICMETHOD, minNumOfPositionalArgs = 2, constructsClass = PythonBuiltinClassType.PStaticmethod)
     @GenerateNodeFactory
     public abstract static class StaticmethodNode extends PythonBinaryBuiltinNode {
@@ -28,6 +28,8 @@ package com.oracle.graal.python.builtins.modules;
 import static com.oracle.graal.python.builtins.objects.PNone.NO_VALUE;
 import static com.oracle.graal.python.builtins.objects.PNotImplemented.NOT_IMPLEMENTED;
 import static com.oracle.graal.python.nodes.BuiltinNames.ABS;
+import static com.oracle.graal.python.nodes.BuiltinNames.ALL;
+import static com.oracle.graal.python.nodes.BuiltinNames.ANY;
 import static com.oracle.graal.python.nodes.BuiltinNames.BIN;
 import static com.oracle.graal.python.nodes.BuiltinNames.BREAKPOINT;
 import static com.oracle.graal.python.nodes.BuiltinNames.BREAKPOINTHOOK;
@@ -40,6 +42,7 @@ import static com.oracle.graal.python.nodes.BuiltinNames.DIVMOD;
 import static com.oracle.graal.python.nodes.BuiltinNames.EVAL;
 import static com.oracle.graal.python.nodes.BuiltinNames.EXEC;
 import static com.oracle.graal.python.nodes.BuiltinNames.GETATTR;
+import static com.oracle.graal.python.nodes.BuiltinNames.HASATTR;
 import static com.oracle.graal.python.nodes.BuiltinNames.HASH;
 import static com.oracle.graal.python.nodes.BuiltinNames.HEX;
 import static com.oracle.graal.python.nodes.BuiltinNames.ID;
@@ -57,6 +60,7 @@ import static com.oracle.graal.python.nodes.BuiltinNames.PRINT;
 import static com.oracle.graal.python.nodes.BuiltinNames.REPR;
 import static com.oracle.graal.python.nodes.BuiltinNames.ROUND;
 import static com.oracle.graal.python.nodes.BuiltinNames.SETATTR;
+import static com.oracle.graal.python.nodes.BuiltinNames.SORTED;
 import static com.oracle.graal.python.nodes.BuiltinNames.SUM;
 import static com.oracle.graal.python.nodes.BuiltinNames.__BUILTIN__;
 import static com.oracle.graal.python.nodes.BuiltinNames.__DEBUG__;
@@ -104,6 +108,7 @@ import com.oracle.graal.python.builtins.objects.function.PFunction;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.function.Signature;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.list.ListBuiltins.ListSortNode;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.method.PMethod;
 import com.oracle.graal.python.builtins.objects.module.PythonModule;
@@ -133,6 +138,7 @@ import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
 import com.oracle.graal.python.nodes.attributes.SetAttributeNode;
 import com.oracle.graal.python.nodes.attributes.WriteAttributeToObjectNode;
 import com.oracle.graal.python.nodes.builtins.ListNodes.AppendNode;
+import com.oracle.graal.python.nodes.builtins.ListNodes.CreateStorageFromIteratorNode;
 import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.call.PythonCallNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
@@ -246,6 +252,76 @@ public final class BuiltinFunctions extends PythonBuiltins {
         }
     }
 
+    public abstract static class AllAnyNode extends PythonUnaryBuiltinNode {
+        @Child private CastToBooleanNode isTrueNode = CastToBooleanNode.createIfTrueNode();
+
+        /**
+         * The truth value that decides the result: {@code any} returns it at the first true item,
+         * {@code all} at the first false one.
+         */
+        private boolean getDecidingValue() {
+            return this instanceof AnyNode;
+        }
+
+        @Specialization(guards = "cannotBeOverridden(list.getLazyPythonClass())")
+        boolean doList(VirtualFrame frame, PList list,
+                        @Cached("createNotNormalized()") SequenceStorageNodes.GetItemNode getItemNode) {
+            return doSequence(frame, list, getItemNode);
+        }
+
+        @Specialization(guards = "cannotBeOverridden(tuple.getLazyPythonClass())")
+        boolean doTuple(VirtualFrame frame, PTuple tuple,
+                        @Cached("createNotNormalized()") SequenceStorageNodes.GetItemNode getItemNode) {
+            return doSequence(frame, tuple, getItemNode);
+        }
+
+        @Specialization
+        boolean doIterable(VirtualFrame frame, Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("create()") IsBuiltinClassProfile errorProfile) {
+            boolean decidingValue = getDecidingValue();
+            Object iterator = getIterator.executeWith(frame, iterable);
+            while (true) {
+                Object item;
+                try {
+                    item = next.execute(frame, iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(errorProfile);
+                    return !decidingValue;
+                }
+                if (isTrueNode.executeBoolean(frame, item) == decidingValue) {
+                    return decidingValue;
+                }
+            }
+        }
+
+        private boolean doSequence(VirtualFrame frame, PSequence sequence, SequenceStorageNodes.GetItemNode getItemNode) {
+            boolean decidingValue = getDecidingValue();
+            // the storage is read again for every item since '__bool__' may modify a list
+            for (int i = 0; i < sequence.getSequenceStorage().length(); i++) {
+                if (isTrueNode.executeBoolean(frame, getItemNode.execute(sequence.getSequenceStorage(), i)) == decidingValue) {
+                    return decidingValue;
+                }
+            }
+            return !decidingValue;
+        }
+    }
+
+    // all(iterable)
+    @Builtin(name = ALL, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class AllNode extends AllAnyNode {
+
+    }
+
+    // any(iterable)
+    @Builtin(name = ANY, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class AnyNode extends AllAnyNode {
+
+    }
+
     // bin(object)
     @Builtin(name = BIN, minNumOfPositionalArgs = 1)
     @TypeSystemReference(PythonArithmeticTypes.class)
@@ -943,6 +1019,39 @@ public final class BuiltinFunctions extends PythonBuiltins {
         }
     }
 
+    // hasattr(object, name)
+    @Builtin(name = HASATTR, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class HasAttrNode extends PythonBinaryBuiltinNode {
+        @SuppressWarnings("unused")
+        @Specialization(limit = "getIntOption(getContext(), AttributeAccessInlineCacheMaxDepth)", guards = "name.equals(cachedName)")
+        boolean hasAttr(VirtualFrame frame, Object primary, String name,
+                        @Cached("name") String cachedName,
+                        @Cached("create(name)") GetFixedAttributeNode getAttributeNode,
+                        @Cached("create()") IsBuiltinClassProfile errorProfile) {
+            try {
+                getAttributeNode.executeObject(frame, primary);
+                return true;
+            } catch (PException e) {
+                e.expectAttributeError(errorProfile);
+                return false;
+            }
+        }
+
+        @Specialization(replaces = "hasAttr")
+        boolean hasAttrGeneric(VirtualFrame frame, Object primary, Object name,
+                        @Cached("create()") GetAnyAttributeNode getAttributeNode,
+                        @Cached("create()") IsBuiltinClassProfile errorProfile) {
+            try {
+                getAttributeNode.executeObject(frame, primary, name);
+                return true;
+            } catch (PException e) {
+                e.expectAttributeError(errorProfile);
+                return false;
+            }
+        }
+    }
+
     // id(object)
     @Builtin(name = ID, minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
@@ -1663,6 +1772,21 @@ public final class BuiltinFunctions extends PythonBuiltins {
         }
     }
 
+    // sorted(iterable, *, key=None, reverse=False)
+    @Builtin(name = SORTED, minNumOfPositionalArgs = 1, parameterNames = {"iterable"}, varArgsMarker = true, keywordOnlyNames = {"key", "reverse"})
+    @GenerateNodeFactory
+    public abstract static class SortedNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PList sorted(VirtualFrame frame, Object iterable, Object key, Object reverse,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("create()") CreateStorageFromIteratorNode createStorage,
+                        @Cached("create()") ListSortNode sortNode) {
+            PList list = factory().createList(createStorage.execute(frame, getIterator.executeWith(frame, iterable)));
+            sortNode.execute(frame, list, key, reverse);
+            return list;
+        }
+    }
+
     // sum(iterable[, start])
     @Builtin(name = SUM, minNumOfPositionalArgs = 1, parameterNames = {"iterable", "start"})
     @GenerateNodeFactory
@@ -228,38 +228,38 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
     }
 
     @TruffleBoundary
-    static Charset getCharset(String encoding) {
+    public static Charset getCharset(String encoding) {
         return CHARSET_MAP.get(encoding);
     }
 
+    public static CodingErrorAction convertCodingErrorAction(String errors) {
+        CodingErrorAction errorAction;
+        switch (errors) {
+            // TODO: see [GR-10256] to implement the correct handling mechanics
+            case "ignore":
+            case "surrogatepass":
+                errorAction = CodingErrorAction.IGNORE;
+                break;
+            case "replace":
+            case "surrogateescape":
+            case "namereplace":
+            case "backslashreplace":
+            case "xmlcharrefreplace":
+                errorAction = CodingErrorAction.REPLACE;
+                break;
+            default:
+                errorAction = CodingErrorAction.REPORT;
+                break;
+        }
+        return errorAction;
+    }
+
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
         return CodecsModuleBuiltinsFactory.getFactories();
     }
 
     abstract static class EncodeBaseNode extends PythonBuiltinNode {
-
-        protected static CodingErrorAction convertCodingErrorAction(String errors) {
-            CodingErrorAction errorAction;
-            switch (errors) {
-                // TODO: see [GR-10256] to implement the correct handling mechanics
-                case "ignore":
-                case "surrogatepass":
-                    errorAction = CodingErrorAction.IGNORE;
-                    break;
-                case "replace":
-                case "surrogateescape":
-                case "namereplace":
-                case "backslashreplace":
-                case "xmlcharrefreplace":
-                    errorAction = CodingErrorAction.REPLACE;
-                    break;
-                default:
-                    errorAction = CodingErrorAction.REPORT;
-                    break;
-            }
-            return errorAction;
-        }
     }
 
     @Builtin(name = "unicode_escape_encode", minNumOfPositionalArgs = 1, parameterNames = {"str", "errors"})
@@ -40,18 +40,71 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import java.util.ArrayList;
 import java.util.List;
 
+import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.deque.PDeque;
+import com.oracle.graal.python.builtins.objects.deque.PDequeIterator;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
 
 @CoreFunctions(defineModule = "_collections")
 public class CollectionsModuleBuiltins extends PythonBuiltins {
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
-        return new ArrayList<>();
+        return CollectionsModuleBuiltinsFactory.getFactories();
+    }
+
+    // deque([iterable[, maxlen]]), the arguments are processed by deque.__init__
+    @Builtin(name = "deque", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PDeque)
+    @GenerateNodeFactory
+    public abstract static class DequeNode extends PythonBuiltinNode {
+        @Specialization
+        @SuppressWarnings("unused")
+        PDeque deque(LazyPythonClass cls, Object[] args, PKeyword[] keywordArgs) {
+            return factory().createDeque(cls);
+        }
+    }
+
+    // _deque_iterator(deque[, index])
+    @Builtin(name = "_deque_iterator", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PDequeIterator)
+    @GenerateNodeFactory
+    public abstract static class DequeIteratorNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PDequeIterator iterator(@SuppressWarnings("unused") Object cls, PDeque deque, Object index,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            PDequeIterator iterator = factory().createDequeIterator(deque);
+            if (!PGuards.isNoValue(index)) {
+                iterator.advance(castToIndexNode.execute(index));
+            }
+            return iterator;
+        }
+    }
+
+    // _deque_reverse_iterator(deque[, index])
+    @Builtin(name = "_deque_reverse_iterator", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PDequeReverseIterator)
+    @GenerateNodeFactory
+    public abstract static class DequeReverseIteratorNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PDequeIterator iterator(@SuppressWarnings("unused") Object cls, PDeque deque, Object index,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            PDequeIterator iterator = factory().createDequeReverseIterator(deque);
+            if (!PGuards.isNoValue(index)) {
+                iterator.advance(castToIndexNode.execute(index));
+            }
+            return iterator;
+        }
     }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -40,18 +40,140 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import java.util.ArrayList;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
 import java.util.List;
 
+import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.functools.PLruCacheWrapper;
+import com.oracle.graal.python.builtins.objects.functools.PPartial;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.argument.keywords.ExecuteKeywordStarargsNode.ExpandKeywordStarargsNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.datamodel.IsCallableNode;
+import com.oracle.graal.python.nodes.datamodel.PDataModelEmulationNode.PDataModelEmulationContextManager;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
 
 @CoreFunctions(defineModule = "_functools")
 public class FunctoolsModuleBuiltins extends PythonBuiltins {
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
-        return new ArrayList<>();
+        return FunctoolsModuleBuiltinsFactory.getFactories();
+    }
+
+    // reduce(function, sequence[, initial])
+    @Builtin(name = "reduce", minNumOfPositionalArgs = 2, parameterNames = {"function", "sequence", "initial"})
+    @GenerateNodeFactory
+    public abstract static class ReduceNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object reduce(VirtualFrame frame, Object function, Object sequence, Object initial,
+                        @Cached("create()") GetIteratorNode getIteratorNode,
+                        @Cached("create()") GetNextNode nextNode,
+                        @Cached("create()") CallNode callNode,
+                        @Cached("create()") IsBuiltinClassProfile errorProfile) {
+            Object iterator = getIteratorNode.executeWith(frame, sequence);
+            Object result = initial;
+            if (result == PNone.NO_VALUE) {
+                try {
+                    result = nextNode.execute(frame, iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(errorProfile);
+                    throw raise(TypeError, "reduce() of empty sequence with no initial value");
+                }
+            }
+            while (true) {
+                Object item;
+                try {
+                    item = nextNode.execute(frame, iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(errorProfile);
+                    return result;
+                }
+                result = callNode.execute(frame, function, new Object[]{result, item}, PKeyword.EMPTY_KEYWORDS);
+            }
+        }
+    }
+
+    // partial(func, *args, **keywords)
+    @Builtin(name = "partial", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PPartial, //
+                    doc = "partial(func, *args, **keywords) - new function with partial application\n    of the given arguments and keywords.\n")
+    @GenerateNodeFactory
+    public abstract static class PartialNode extends PythonBuiltinNode {
+        @Specialization
+        PPartial partial(VirtualFrame frame, LazyPythonClass cls, Object[] args, PKeyword[] keywords,
+                        @Cached("create()") IsCallableNode isCallableNode,
+                        @Cached("create()") IsBuiltinClassProfile isPartialClassProfile,
+                        @Cached("create()") IsBuiltinClassProfile isPartialFunctionProfile,
+                        @Cached("create()") ExpandKeywordStarargsNode expandKeywordsNode) {
+            if (args.length == 0) {
+                throw raise(TypeError, "type 'partial' takes at least one argument");
+            }
+            Object function = args[0];
+            try (PDataModelEmulationContextManager ctxManager = withGlobalState(isCallableNode, frame)) {
+                if (!ctxManager.execute(function)) {
+                    throw raise(TypeError, "the first argument must be callable");
+                }
+            }
+            Object[] partialArgs = new Object[args.length - 1];
+            System.arraycopy(args, 1, partialArgs, 0, partialArgs.length);
+            PKeyword[] partialKeywords = keywords;
+            if (isPartialClassProfile.profileClass(cls, PythonBuiltinClassType.PPartial) && isPartialFunctionProfile.profileObject(function, PythonBuiltinClassType.PPartial)) {
+                // like CPython, flatten nested partial objects unless the inner one has attributes
+                PPartial inner = (PPartial) function;
+                if (inner.getDict() == null && inner.getStorage().getShape().getPropertyCount() == 0) {
+                    function = inner.getFunction();
+                    partialArgs = PPartial.concat(inner.getArgs(), partialArgs);
+                    partialKeywords = PPartial.mergeKeywords(expandKeywordsNode.executeWith(inner.getKeywords()), keywords);
+                }
+            }
+            return factory().createPartial(cls, function, partialArgs, factory().createDict(partialKeywords));
+        }
+    }
+
+    // _lru_cache_wrapper(user_function, maxsize, typed, cache_info_type)
+    @Builtin(name = "_lru_cache_wrapper", minNumOfPositionalArgs = 5, parameterNames = {"cls", "user_function", "maxsize", "typed", "cache_info_type"}, //
+                    constructsClass = PythonBuiltinClassType.PLruCacheWrapper)
+    @GenerateNodeFactory
+    public abstract static class LruCacheWrapperNode extends PythonBuiltinNode {
+        @Specialization
+        PLruCacheWrapper lruCacheWrapper(VirtualFrame frame, LazyPythonClass cls, Object function, Object maxSize, Object typed, Object cacheInfoType,
+                        @Cached("create()") IsCallableNode isCallableNode,
+                        @Cached("createOverflow()") CastToIndexNode castToIndexNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castToBooleanNode) {
+            try (PDataModelEmulationContextManager ctxManager = withGlobalState(isCallableNode, frame)) {
+                if (!ctxManager.execute(function)) {
+                    throw raise(TypeError, "the first argument must be callable");
+                }
+            }
+            int size;
+            if (PGuards.isNone(maxSize)) {
+                size = PLruCacheWrapper.UNBOUNDED;
+            } else {
+                size = Math.max(castToIndexNode.execute(maxSize), 0);
+            }
+            Object keywordMark = factory().createPythonObject(PythonBuiltinClassType.PythonObject, PythonBuiltinClassType.PythonObject.getInstanceShape());
+            return factory().createLruCacheWrapper(cls, function, size, castToBooleanNode.executeBoolean(frame, typed), cacheInfoType, keywordMark,
+                            factory().createDict(EconomicMapStorage.create(false)));
+        }
     }
 }
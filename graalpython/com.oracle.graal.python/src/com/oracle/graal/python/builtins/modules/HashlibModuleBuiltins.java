@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.security.MessageDigest;
+import java.util.List;
+
+import javax.crypto.Mac;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.hashlib.HashAlgorithm;
+import com.oracle.graal.python.builtins.objects.hashlib.HashlibNodes;
+import com.oracle.graal.python.builtins.objects.hashlib.PHash;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.nodes.util.CastToStringNode;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.TypeSystemReference;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+/**
+ * The {@code _hashlib} module on top of {@link MessageDigest} and {@link Mac}. {@code hashlib}
+ * and {@code hmac} use it instead of the pure Python {@code _md5}, {@code _sha1},
+ * {@code _sha256} and {@code _sha512} modules.
+ */
+@CoreFunctions(defineModule = "_hashlib")
+public class HashlibModuleBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return HashlibModuleBuiltinsFactory.getFactories();
+    }
+
+    @Override
+    public void initialize(PythonCore core) {
+        super.initialize(core);
+        HashingStorage names = EconomicMapStorage.create(true);
+        for (HashAlgorithm algorithm : HashAlgorithm.values()) {
+            if (algorithm.createDigest() != null) {
+                String name = algorithm.getPythonName();
+                names.setItem(name, PNone.NONE, HashingStorage.getSlowPathEquivalence(name));
+            }
+        }
+        builtinConstants.put("openssl_md_meth_names", core.factory().createFrozenSet(names));
+    }
+
+    /**
+     * Base class of the builtins that look up a hash algorithm by name.
+     */
+    abstract static class HashlibBaseNode extends PythonBuiltinNode {
+        @Child private CastToStringNode castToStringNode;
+        @Child private HashlibNodes.UpdateNode updateNode;
+
+        protected final HashAlgorithm getAlgorithm(VirtualFrame frame, Object name) {
+            if (!PGuards.isString(name)) {
+                throw raise(TypeError, "name must be a string");
+            }
+            if (castToStringNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToStringNode = insert(CastToStringNode.create());
+            }
+            String algorithmName = castToStringNode.execute(frame, name);
+            HashAlgorithm algorithm = HashAlgorithm.lookup(algorithmName);
+            if (algorithm == null) {
+                throw raise(ValueError, "unsupported hash type %s", algorithmName);
+            }
+            return algorithm;
+        }
+
+        protected final void update(VirtualFrame frame, Object target, Object data) {
+            if (updateNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                updateNode = insert(HashlibNodes.UpdateNode.create());
+            }
+            updateNode.execute(frame, target, data);
+        }
+
+        protected final PHash createHash(VirtualFrame frame, HashAlgorithm algorithm, Object data) {
+            MessageDigest digest = algorithm.createDigest();
+            if (digest == null) {
+                throw raise(ValueError, "unsupported hash type %s", algorithm.getPythonName());
+            }
+            if (data != PNone.NO_VALUE) {
+                update(frame, digest, data);
+            }
+            return factory().createHash(algorithm, digest);
+        }
+
+        protected final Mac createMac(HashAlgorithm algorithm, byte[] key) {
+            Mac mac = algorithm.createMac(key);
+            if (mac == null) {
+                throw raise(ValueError, "unsupported hash type %s", algorithm.getPythonName());
+            }
+            return mac;
+        }
+    }
+
+    @Builtin(name = "new", minNumOfPositionalArgs = 1, parameterNames = {"name", "string"})
+    @GenerateNodeFactory
+    abstract static class NewNode extends HashlibBaseNode {
+        @Specialization
+        Object newHash(VirtualFrame frame, Object name, Object data) {
+            return createHash(frame, getAlgorithm(frame, name), data);
+        }
+    }
+
+    /**
+     * Base class of the {@code openssl_*} constructors of a fixed algorithm.
+     */
+    abstract static class OpenSSLConstructorNode extends HashlibBaseNode {
+        protected abstract HashAlgorithm getAlgorithm();
+
+        @Specialization
+        Object newHash(VirtualFrame frame, Object data) {
+            return createHash(frame, getAlgorithm(), data);
+        }
+    }
+
+    @Builtin(name = "openssl_md5", parameterNames = {"string"})
+    @GenerateNodeFactory
+    abstract static class OpenSSLMD5Node extends OpenSSLConstructorNode {
+        @Override
+        protected HashAlgorithm getAlgorithm() {
+            return HashAlgorithm.MD5;
+        }
+    }
+
+    @Builtin(name = "openssl_sha1", parameterNames = {"string"})
+    @GenerateNodeFactory
+    abstract static class OpenSSLSHA1Node extends OpenSSLConstructorNode {
+        @Override
+        protected HashAlgorithm getAlgorithm() {
+            return HashAlgorithm.SHA1;
+        }
+    }
+
+    @Builtin(name = "openssl_sha224", parameterNames = {"string"})
+    @GenerateNodeFactory
+    abstract static class OpenSSLSHA224Node extends OpenSSLConstructorNode {
+        @Override
+        protected HashAlgorithm getAlgorithm() {
+            return HashAlgorithm.SHA224;
+        }
+    }
+
+    @Builtin(name = "openssl_sha256", parameterNames = {"string"})
+    @GenerateNodeFactory
+    abstract static class OpenSSLSHA256Node extends OpenSSLConstructorNode {
+        @Override
+        protected HashAlgorithm getAlgorithm() {
+            return HashAlgorithm.SHA256;
+        }
+    }
+
+    @Builtin(name = "openssl_sha384", parameterNames = {"string"})
+    @GenerateNodeFactory
+    abstract static class OpenSSLSHA384Node extends OpenSSLConstructorNode {
+        @Override
+        protected HashAlgorithm getAlgorithm() {
+            return HashAlgorithm.SHA384;
+        }
+    }
+
+    @Builtin(name = "openssl_sha512", parameterNames = {"string"})
+    @GenerateNodeFactory
+    abstract static class OpenSSLSHA512Node extends OpenSSLConstructorNode {
+        @Override
+        protected HashAlgorithm getAlgorithm() {
+            return HashAlgorithm.SHA512;
+        }
+    }
+
+    @Builtin(name = "hmac_digest", minNumOfPositionalArgs = 3, parameterNames = {"key", "msg", "digest"})
+    @GenerateNodeFactory
+    abstract static class HmacDigestNode extends HashlibBaseNode {
+        @Specialization
+        Object hmacDigest(VirtualFrame frame, Object key, Object msg, Object digest,
+                        @Cached BytesNodes.ToBytesNode toBytesNode) {
+            Mac mac = createMac(getAlgorithm(frame, digest), toBytesNode.execute(frame, key));
+            update(frame, mac, msg);
+            return factory().createBytes(doFinal(mac));
+        }
+
+        @TruffleBoundary
+        private static byte[] doFinal(Mac mac) {
+            return mac.doFinal();
+        }
+    }
+
+    @Builtin(name = "pbkdf2_hmac", minNumOfPositionalArgs = 4, parameterNames = {"hash_name", "password", "salt", "iterations", "dklen"})
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    @GenerateNodeFactory
+    abstract static class Pbkdf2HmacNode extends HashlibBaseNode {
+        @Specialization
+        Object pbkdf2(VirtualFrame frame, Object hashName, Object password, Object salt, Object iterationsObj, Object dklenObj,
+                        @Cached BytesNodes.ToBytesNode toBytesNode,
+                        @Cached CastToIndexNode castToIndexNode) {
+            HashAlgorithm algorithm = getAlgorithm(frame, hashName);
+            int iterations = castToIndexNode.execute(iterationsObj);
+            if (iterations < 1) {
+                throw raise(ValueError, "iteration value must be greater than 0.");
+            }
+            Mac mac = createMac(algorithm, toBytesNode.execute(frame, password));
+            int dklen = PGuards.isPNone(dklenObj) ? getMacLength(mac) : castToIndexNode.execute(dklenObj);
+            if (dklen < 1) {
+                throw raise(ValueError, "key length must be greater than 0.");
+            }
+            return factory().createBytes(derive(mac, toBytesNode.execute(frame, salt), iterations, dklen));
+        }
+
+        @TruffleBoundary
+        private static int getMacLength(Mac mac) {
+            return mac.getMacLength();
+        }
+
+        /**
+         * PBKDF2 as specified in RFC 8018, section 5.2.
+         */
+        @TruffleBoundary
+        private static byte[] derive(Mac mac, byte[] salt, int iterations, int dklen) {
+            byte[] key = new byte[dklen];
+            int hashLength = mac.getMacLength();
+            byte[] blockIndex = new byte[4];
+            int offset = 0;
+            for (int block = 1; offset < dklen; block++) {
+                blockIndex[0] = (byte) (block >>> 24);
+                blockIndex[1] = (byte) (block >>> 16);
+                blockIndex[2] = (byte) (block >>> 8);
+                blockIndex[3] = (byte) block;
+                mac.update(salt);
+                byte[] u = mac.doFinal(blockIndex);
+                byte[] t = u.clone();
+                for (int i = 1; i < iterations; i++) {
+                    u = mac.doFinal(u);
+                    for (int j = 0; j < hashLength; j++) {
+                        t[j] ^= u[j];
+                    }
+                }
+                int length = Math.min(hashLength, dklen - offset);
+                System.arraycopy(t, 0, key, offset, length);
+                offset += length;
+            }
+            return key;
+        }
+    }
+}
@@ -25,19 +25,51 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__FLOAT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INDEX__;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.NotImplementedError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.itertools.PAccumulate;
+import com.oracle.graal.python.builtins.objects.itertools.PChain;
+import com.oracle.graal.python.builtins.objects.itertools.PCombinations;
+import com.oracle.graal.python.builtins.objects.itertools.PCount;
+import com.oracle.graal.python.builtins.objects.itertools.PCycle;
+import com.oracle.graal.python.builtins.objects.itertools.PDropwhile;
+import com.oracle.graal.python.builtins.objects.itertools.PFilterfalse;
+import com.oracle.graal.python.builtins.objects.itertools.PGroupBy;
+import com.oracle.graal.python.builtins.objects.itertools.PIslice;
+import com.oracle.graal.python.builtins.objects.itertools.PPermutations;
+import com.oracle.graal.python.builtins.objects.itertools.PProduct;
+import com.oracle.graal.python.builtins.objects.itertools.PRepeat;
+import com.oracle.graal.python.builtins.objects.itertools.PStarmap;
+import com.oracle.graal.python.builtins.objects.itertools.PTakewhile;
+import com.oracle.graal.python.builtins.objects.itertools.PZipLongest;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.argument.positional.ExecutePositionalStarargsNode;
+import com.oracle.graal.python.nodes.attributes.LookupInheritedAttributeNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
 
 @CoreFunctions(defineModule = "itertools")
 public final class ItertoolsModuleBuiltins extends PythonBuiltins {
@@ -58,4 +90,303 @@ public final class ItertoolsModuleBuiltins extends PythonBuiltins {
         }
     }
 
+    /**
+     * Materializes an iterable into a pool owned by the iterator object.
+     */
+    abstract static class PoolNode extends PythonBuiltinNode {
+        @Child private ExecutePositionalStarargsNode toArrayNode = ExecutePositionalStarargsNode.create();
+        @Child private CastToIndexNode castToIndexNode;
+
+        protected final Object[] toPool(VirtualFrame frame, Object iterable) {
+            // the array may be the storage of a list, so copy it
+            return toArrayNode.executeWith(frame, iterable).clone();
+        }
+
+        protected final int castToLength(Object value, String name) {
+            if (castToIndexNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToIndexNode = insert(CastToIndexNode.createOverflow());
+            }
+            int length = castToIndexNode.execute(value);
+            if (length < 0) {
+                throw raise(ValueError, "%s must be non-negative", name);
+            }
+            return length;
+        }
+    }
+
+    // repeat(object[, times])
+    @Builtin(name = "repeat", minNumOfPositionalArgs = 2, parameterNames = {"cls", "object", "times"}, constructsClass = PythonBuiltinClassType.PRepeat)
+    @GenerateNodeFactory
+    public abstract static class RepeatNode extends PythonBuiltinNode {
+        @Specialization(guards = "isNoValue(times)")
+        PRepeat repeat(LazyPythonClass cls, Object object, @SuppressWarnings("unused") PNone times) {
+            return factory().createRepeat(cls, object, -1);
+        }
+
+        @Specialization(guards = "!isNoValue(times)")
+        PRepeat repeat(LazyPythonClass cls, Object object, Object times,
+                        @Cached("createOverflow()") CastToIndexNode castToIndexNode) {
+            return factory().createRepeat(cls, object, Math.max(castToIndexNode.execute(times), 0));
+        }
+    }
+
+    // count(start=0, step=1)
+    @Builtin(name = "count", minNumOfPositionalArgs = 1, parameterNames = {"cls", "start", "step"}, constructsClass = PythonBuiltinClassType.PCount)
+    @GenerateNodeFactory
+    public abstract static class CountNode extends PythonBuiltinNode {
+        @Child private LookupInheritedAttributeNode lookupIndexNode;
+        @Child private LookupInheritedAttributeNode lookupFloatNode;
+
+        @Specialization
+        PCount count(LazyPythonClass cls, Object start, Object step) {
+            Object startValue = PGuards.isNoValue(start) ? 0 : start;
+            Object stepValue = PGuards.isNoValue(step) ? 1 : step;
+            if (!isNumber(startValue) || !isNumber(stepValue)) {
+                throw raise(TypeError, "a number is required");
+            }
+            return factory().createCount(cls, startValue, stepValue);
+        }
+
+        private boolean isNumber(Object value) {
+            if (value instanceof Integer || value instanceof Long || value instanceof Double || value instanceof Boolean || value instanceof PInt || value instanceof PFloat) {
+                return true;
+            }
+            if (lookupIndexNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                lookupIndexNode = insert(LookupInheritedAttributeNode.create(__INDEX__));
+                lookupFloatNode = insert(LookupInheritedAttributeNode.create(__FLOAT__));
+            }
+            return lookupIndexNode.execute(value) != PNone.NO_VALUE || lookupFloatNode.execute(value) != PNone.NO_VALUE;
+        }
+    }
+
+    // chain(*iterables)
+    @Builtin(name = "chain", minNumOfPositionalArgs = 1, takesVarArgs = true, constructsClass = PythonBuiltinClassType.PChain)
+    @GenerateNodeFactory
+    public abstract static class ChainNode extends PythonBuiltinNode {
+        @Specialization
+        PChain chain(VirtualFrame frame, LazyPythonClass cls, Object[] iterables,
+                        @Cached("create()") GetIteratorNode getIteratorNode) {
+            return factory().createChain(cls, getIteratorNode.executeWith(frame, factory().createTuple(iterables)));
+        }
+    }
+
+    // starmap(function, iterable)
+    @Builtin(name = "starmap", minNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PStarmap)
+    @GenerateNodeFactory
+    public abstract static class StarmapNode extends PythonBuiltinNode {
+        @Specialization
+        PStarmap starmap(VirtualFrame frame, LazyPythonClass cls, Object function, Object iterable,
+                        @Cached("create()") GetIteratorNode getIteratorNode) {
+            return factory().createStarmap(cls, function, getIteratorNode.executeWith(frame, iterable));
+        }
+    }
+
+    // islice(iterable, stop)
+    // islice(iterable, start, stop[, step])
+    @Builtin(name = "islice", minNumOfPositionalArgs = 3, maxNumOfPositionalArgs = 5, constructsClass = PythonBuiltinClassType.PIslice)
+    @GenerateNodeFactory
+    public abstract static class IsliceNode extends PythonBuiltinNode {
+        private static final String START_ERROR = "Indices for islice() must be None or an integer: 0 <= x <= sys.maxsize.";
+        private static final String STOP_ERROR = "Stop argument for islice() must be None or an integer: 0 <= x <= sys.maxsize.";
+        private static final String STEP_ERROR = "Step for islice() must be a positive integer or None.";
+
+        @Child private LookupAndCallUnaryNode callIndexNode;
+
+        @Specialization(guards = {"isNoValue(stop)", "isNoValue(step)"})
+        PIslice islice(VirtualFrame frame, LazyPythonClass cls, Object iterable, Object start, @SuppressWarnings("unused") PNone stop, @SuppressWarnings("unused") PNone step,
+                        @Cached("create()") GetIteratorNode getIteratorNode) {
+            // the single argument form only specifies the stop index
+            long stopIndex = PGuards.isPNone(start) ? -1 : castToIndex(frame, start, STOP_ERROR);
+            return factory().createIslice(cls, getIteratorNode.executeWith(frame, iterable), 0, stopIndex, 1);
+        }
+
+        @Specialization(guards = "!isNoValue(stop) || !isNoValue(step)")
+        PIslice islice(VirtualFrame frame, LazyPythonClass cls, Object iterable, Object start, Object stop, Object step,
+                        @Cached("create()") GetIteratorNode getIteratorNode) {
+            long startIndex = PGuards.isPNone(start) ? 0 : castToIndex(frame, start, START_ERROR);
+            long stopIndex = PGuards.isPNone(stop) ? -1 : castToIndex(frame, stop, STOP_ERROR);
+            long stepValue = 1;
+            if (!PGuards.isPNone(step)) {
+                stepValue = castToIndex(frame, step, STEP_ERROR);
+                if (stepValue < 1) {
+                    throw raise(ValueError, STEP_ERROR);
+                }
+            }
+            return factory().createIslice(cls, getIteratorNode.executeWith(frame, iterable), startIndex, stopIndex, stepValue);
+        }
+
+        /**
+         * Converts an index to a {@code long}. Objects that are not integers and integers outside
+         * of {@code [0, sys.maxsize]} are rejected with a {@code ValueError}.
+         */
+        private long castToIndex(VirtualFrame frame, Object value, String message) {
+            Object index = value;
+            if (!(index instanceof Boolean || index instanceof Integer || index instanceof Long || index instanceof PInt)) {
+                if (callIndexNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    callIndexNode = insert(LookupAndCallUnaryNode.create(__INDEX__));
+                }
+                index = callIndexNode.executeObject(frame, value);
+            }
+            long result;
+            if (index instanceof Boolean) {
+                result = PInt.intValue((boolean) index);
+            } else if (index instanceof Integer) {
+                result = (int) index;
+            } else if (index instanceof Long) {
+                result = (long) index;
+            } else if (index instanceof PInt) {
+                try {
+                    result = ((PInt) index).longValueExact();
+                } catch (ArithmeticException e) {
+                    throw raise(ValueError, message);
+                }
+            } else {
+                throw raise(ValueError, message);
+            }
+            if (result < 0) {
+                throw raise(ValueError, message);
+            }
+            return result;
+        }
+    }
+
+    // accumulate(iterable[, func])
+    @Builtin(name = "accumulate", minNumOfPositionalArgs = 2, parameterNames = {"cls", "iterable", "func"}, constructsClass = PythonBuiltinClassType.PAccumulate)
+    @GenerateNodeFactory
+    public abstract static class AccumulateNode extends PythonBuiltinNode {
+        @Specialization
+        PAccumulate accumulate(VirtualFrame frame, LazyPythonClass cls, Object iterable, Object func,
+                        @Cached("create()") GetIteratorNode getIteratorNode) {
+            Object function = PGuards.isPNone(func) ? null : func;
+            return factory().createAccumulate(cls, getIteratorNode.executeWith(frame, iterable), function);
+        }
+    }
+
+    // dropwhile(predicate, iterable)
+    @Builtin(name = "dropwhile", minNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PDropwhile)
+    @GenerateNodeFactory
+    public abstract static class DropwhileNode extends PythonBuiltinNode {
+        @Specialization
+        PDropwhile dropwhile(VirtualFrame frame, LazyPythonClass cls, Object predicate, Object iterable,
+                        @Cached("create()") GetIteratorNode getIteratorNode) {
+            return factory().createDropwhile(cls, predicate, getIteratorNode.executeWith(frame, iterable));
+        }
+    }
+
+    // takewhile(predicate, iterable)
+    @Builtin(name = "takewhile", minNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PTakewhile)
+    @GenerateNodeFactory
+    public abstract static class TakewhileNode extends PythonBuiltinNode {
+        @Specialization
+        PTakewhile takewhile(VirtualFrame frame, LazyPythonClass cls, Object predicate, Object iterable,
+                        @Cached("create()") GetIteratorNode getIteratorNode) {
+            return factory().createTakewhile(cls, predicate, getIteratorNode.executeWith(frame, iterable));
+        }
+    }
+
+    // filterfalse(function or None, iterable)
+    @Builtin(name = "filterfalse", minNumOfPositionalArgs = 3, constructsClass = PythonBuiltinClassType.PFilterfalse)
+    @GenerateNodeFactory
+    public abstract static class FilterfalseNode extends PythonBuiltinNode {
+        @Specialization
+        PFilterfalse filterfalse(VirtualFrame frame, LazyPythonClass cls, Object function, Object iterable,
+                        @Cached("create()") GetIteratorNode getIteratorNode) {
+            Object predicate = PGuards.isPNone(function) ? null : function;
+            return factory().createFilterfalse(cls, predicate, getIteratorNode.executeWith(frame, iterable));
+        }
+    }
+
+    // cycle(iterable)
+    @Builtin(name = "cycle", minNumOfPositionalArgs = 2, constructsClass = PythonBuiltinClassType.PCycle)
+    @GenerateNodeFactory
+    public abstract static class CycleNode extends PythonBuiltinNode {
+        @Specialization
+        PCycle cycle(VirtualFrame frame, LazyPythonClass cls, Object iterable,
+                        @Cached("create()") GetIteratorNode getIteratorNode) {
+            return factory().createCycle(cls, getIteratorNode.executeWith(frame, iterable));
+        }
+    }
+
+    // zip_longest(*iterables, fillvalue=None)
+    @Builtin(name = "zip_longest", minNumOfPositionalArgs = 1, takesVarArgs = true, keywordOnlyNames = {"fillvalue"}, constructsClass = PythonBuiltinClassType.PZipLongest)
+    @GenerateNodeFactory
+    public abstract static class ZipLongestNode extends PythonBuiltinNode {
+        @Specialization
+        PZipLongest zipLongest(VirtualFrame frame, LazyPythonClass cls, Object[] iterables, Object fillValue,
+                        @Cached("create()") GetIteratorNode getIteratorNode) {
+            Object[] iterators = new Object[iterables.length];
+            for (int i = 0; i < iterables.length; i++) {
+                iterators[i] = getIteratorNode.executeWith(frame, iterables[i]);
+            }
+            return factory().createZipLongest(cls, iterators, PGuards.isNoValue(fillValue) ? PNone.NONE : fillValue);
+        }
+    }
+
+    // groupby(iterable, key=None)
+    @Builtin(name = "groupby", minNumOfPositionalArgs = 2, parameterNames = {"cls", "iterable", "key"}, constructsClass = PythonBuiltinClassType.PGroupBy)
+    @GenerateNodeFactory
+    public abstract static class GroupByNode extends PythonBuiltinNode {
+        @Specialization
+        PGroupBy groupBy(VirtualFrame frame, LazyPythonClass cls, Object iterable, Object key,
+                        @Cached("create()") GetIteratorNode getIteratorNode) {
+            Object keyFunction = PGuards.isPNone(key) ? null : key;
+            return factory().createGroupBy(cls, getIteratorNode.executeWith(frame, iterable), keyFunction);
+        }
+    }
+
+    // product(*iterables, repeat=1)
+    @Builtin(name = "product", minNumOfPositionalArgs = 1, takesVarArgs = true, keywordOnlyNames = {"repeat"}, constructsClass = PythonBuiltinClassType.PProduct)
+    @GenerateNodeFactory
+    public abstract static class ProductNode extends PoolNode {
+        @Specialization
+        PProduct product(VirtualFrame frame, LazyPythonClass cls, Object[] iterables, Object repeat) {
+            int times = PGuards.isNoValue(repeat) ? 1 : castToLength(repeat, "repeat argument");
+            Object[][] pools = new Object[iterables.length * times][];
+            for (int i = 0; i < iterables.length; i++) {
+                pools[i] = toPool(frame, iterables[i]);
+            }
+            // the repeated pools are shared, they are never modified
+            for (int i = iterables.length; i < pools.length; i++) {
+                pools[i] = pools[i % iterables.length];
+            }
+            return factory().createProduct(cls, pools);
+        }
+    }
+
+    // permutations(iterable, r=None)
+    @Builtin(name = "permutations", minNumOfPositionalArgs = 2, parameterNames = {"cls", "iterable", "r"}, constructsClass = PythonBuiltinClassType.PPermutations)
+    @GenerateNodeFactory
+    public abstract static class PermutationsNode extends PoolNode {
+        @Specialization
+        PPermutations permutations(VirtualFrame frame, LazyPythonClass cls, Object iterable, Object r) {
+            Object[] pool = toPool(frame, iterable);
+            int length = PGuards.isPNone(r) ? pool.length : castToLength(r, "r");
+            return factory().createPermutations(cls, pool, length);
+        }
+    }
+
+    // combinations(iterable, r)
+    @Builtin(name = "combinations", minNumOfPositionalArgs = 3, parameterNames = {"cls", "iterable", "r"}, constructsClass = PythonBuiltinClassType.PCombinations)
+    @GenerateNodeFactory
+    public abstract static class CombinationsNode extends PoolNode {
+        @Specialization
+        PCombinations combinations(VirtualFrame frame, LazyPythonClass cls, Object iterable, Object r) {
+            Object[] pool = toPool(frame, iterable);
+            return factory().createCombinations(cls, pool, castToLength(r, "r"), false);
+        }
+    }
+
+    // combinations_with_replacement(iterable, r)
+    @Builtin(name = "combinations_with_replacement", minNumOfPositionalArgs = 3, parameterNames = {"cls", "iterable", "r"}, constructsClass = PythonBuiltinClassType.PCombinationsWithReplacement)
+    @GenerateNodeFactory
+    public abstract static class CombinationsWithReplacementNode extends PoolNode {
+        @Specialization
+        PCombinations combinations(VirtualFrame frame, LazyPythonClass cls, Object iterable, Object r) {
+            Object[] pool = toPool(frame, iterable);
+            return factory().createCombinations(cls, pool, castToLength(r, "r"), true);
+        }
+    }
 }
@@ -40,11 +40,14 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.OverflowError;
 import static com.oracle.graal.python.builtins.PythonBuiltinClassType.PMMap;
 import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.StandardOpenOption;
 import java.util.HashSet;
@@ -60,6 +63,7 @@ import com.oracle.graal.python.builtins.objects.mmap.PMMap;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.truffle.api.TruffleFile;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
@@ -74,6 +78,12 @@ public class MMapModuleBuiltins extends PythonBuiltins {
     private static final int ACCESS_WRITE = 2;
     private static final int ACCESS_COPY = 3;
 
+    public static final int MADV_NORMAL = 0;
+    public static final int MADV_RANDOM = 1;
+    public static final int MADV_SEQUENTIAL = 2;
+    public static final int MADV_WILLNEED = 3;
+    public static final int MADV_DONTNEED = 4;
+
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
         return MMapModuleBuiltinsFactory.getFactories();
@@ -84,6 +94,11 @@ public class MMapModuleBuiltins extends PythonBuiltins {
         builtinConstants.put("ACCESS_READ", ACCESS_READ);
         builtinConstants.put("ACCESS_WRITE", ACCESS_WRITE);
         builtinConstants.put("ACCESS_COPY", ACCESS_COPY);
+        builtinConstants.put("MADV_NORMAL", MADV_NORMAL);
+        builtinConstants.put("MADV_RANDOM", MADV_RANDOM);
+        builtinConstants.put("MADV_SEQUENTIAL", MADV_SEQUENTIAL);
+        builtinConstants.put("MADV_WILLNEED", MADV_WILLNEED);
+        builtinConstants.put("MADV_DONTNEED", MADV_DONTNEED);
     }
 
     @Builtin(name = "mmap", minNumOfPositionalArgs = 3, parameterNames = {"cls", "fd", "length", "tagname", "access", "offset"}, constructsClass = PMMap)
@@ -96,48 +111,109 @@ public class MMapModuleBuiltins extends PythonBuiltins {
         PMMap doAnonymous(LazyPythonClass clazz, @SuppressWarnings("unused") int fd, int length, @SuppressWarnings("unused") Object tagname, @SuppressWarnings("unused") PNone access,
                         @SuppressWarnings("unused") PNone offset) {
             checkLength(length);
-            return factory().createMMap(clazz, new AnonymousMap(length), length, 0);
+            return factory().createMMap(clazz, null, PMMap.allocate(length), length, 0, false, false);
         }
 
         @Specialization(guards = {"fd >= 0", "isNoValue(access)", "isNoValue(offset)"})
-        PMMap doFile(LazyPythonClass clazz, int fd, int length, Object tagname, @SuppressWarnings("unused") PNone access, @SuppressWarnings("unused") PNone offset) {
+        PMMap doFile(LazyPythonClass clazz, int fd, long length, Object tagname, @SuppressWarnings("unused") PNone access, @SuppressWarnings("unused") PNone offset) {
             return doFile(clazz, fd, length, tagname, ACCESS_DEFAULT, 0);
         }
 
         @Specialization(guards = {"fd >= 0", "isNoValue(offset)"})
-        PMMap doFile(LazyPythonClass clazz, int fd, int length, Object tagname, int access, @SuppressWarnings("unused") PNone offset) {
+        PMMap doFile(LazyPythonClass clazz, int fd, long length, Object tagname, int access, @SuppressWarnings("unused") PNone offset) {
             return doFile(clazz, fd, length, tagname, access, 0);
         }
 
         // mmap(fileno, length, tagname=None, access=ACCESS_DEFAULT[, offset])
         @Specialization(guards = "fd >= 0")
-        PMMap doFile(LazyPythonClass clazz, int fd, int length, @SuppressWarnings("unused") Object tagname, @SuppressWarnings("unused") int access, long offset) {
+        PMMap doFile(LazyPythonClass clazz, int fd, long length, @SuppressWarnings("unused") Object tagname, int access, long offset) {
             checkLength(length);
+            if (offset < 0) {
+                invalidLengthProfile.enter();
+                throw raise(OverflowError, "memory mapped offset must be positive");
+            }
+            if (access < ACCESS_DEFAULT || access > ACCESS_COPY) {
+                invalidLengthProfile.enter();
+                throw raise(ValueError, "mmap invalid access parameter.");
+            }
 
             String path = getContext().getResources().getFilePath(fd);
             TruffleFile truffleFile = getContext().getEnv().getTruffleFile(path);
 
-            // TODO(fa) correctly honor access flags
-            Set<StandardOpenOption> options = set(StandardOpenOption.READ, StandardOpenOption.WRITE);
-
-            // we create a new channel otherwise we cannot guarantee that the cursor is exclusive
-            SeekableByteChannel fileChannel;
+            // we create a new channel, the mapping must not depend on the state of 'fd'
+            SeekableByteChannel fileChannel = null;
             try {
-                fileChannel = truffleFile.newByteChannel(options);
-                position(fileChannel, offset);
-                return factory().createMMap(clazz, fileChannel, length, offset);
+                fileChannel = newChannel(truffleFile, access == ACCESS_READ);
+                long fileSize = size(fileChannel);
+                long mapLength = length;
+                if (mapLength == 0) {
+                    if (fileSize == 0) {
+                        throw raise(ValueError, "cannot mmap an empty file");
+                    }
+                    if (offset >= fileSize) {
+                        throw raise(ValueError, "mmap offset is greater than file size");
+                    }
+                    mapLength = fileSize - offset;
+                } else if (offset > fileSize || fileSize - offset < mapLength) {
+                    throw raise(ValueError, "mmap length is greater than file size");
+                }
+                ByteBuffer[] buffers = PMMap.map(fileChannel, getMapMode(access), offset, mapLength);
+                boolean mapped = fileChannel instanceof FileChannel;
+                if (access == ACCESS_COPY) {
+                    // changes are never written back, so we do not need the file anymore
+                    close(fileChannel);
+                    fileChannel = null;
+                }
+                return factory().createMMap(clazz, fileChannel, buffers, mapLength, offset, access == ACCESS_READ, !mapped && fileChannel != null);
             } catch (IOException e) {
+                closeQuietly(fileChannel);
                 throw raise(ValueError, "cannot mmap file");
+            } catch (PException e) {
+                closeQuietly(fileChannel);
+                throw e;
+            }
+        }
+
+        private static MapMode getMapMode(int access) {
+            switch (access) {
+                case ACCESS_READ:
+                    return MapMode.READ_ONLY;
+                case ACCESS_COPY:
+                    return MapMode.PRIVATE;
+                default:
+                    return MapMode.READ_WRITE;
             }
         }
 
         @TruffleBoundary
-        private static Set<StandardOpenOption> set(StandardOpenOption... options) {
-            Set<StandardOpenOption> s = new HashSet<>();
-            for (StandardOpenOption o : options) {
-                s.add(o);
+        private static SeekableByteChannel newChannel(TruffleFile file, boolean readonly) throws IOException {
+            Set<StandardOpenOption> options = new HashSet<>();
+            options.add(StandardOpenOption.READ);
+            if (!readonly) {
+                options.add(StandardOpenOption.WRITE);
+            }
+            return file.newByteChannel(options);
+        }
+
+        @TruffleBoundary
+        private static long size(SeekableByteChannel ch) throws IOException {
+            return ch.size();
+        }
+
+        @TruffleBoundary
+        private static void close(SeekableByteChannel ch) throws IOException {
+            ch.close();
+        }
+
+        @TruffleBoundary
+        private static void closeQuietly(SeekableByteChannel ch) {
+            if (ch != null) {
+                try {
+                    ch.close();
+                } catch (IOException e) {
+                    // ignore, we are already reporting an error
+                }
             }
-            return s;
         }
 
         @Specialization(guards = "isIllegal(fd)")
@@ -154,71 +230,11 @@ public class MMapModuleBuiltins extends PythonBuiltins {
             return fd < -1;
         }
 
-        private void checkLength(int length) {
+        private void checkLength(long length) {
             if (length < 0) {
                 invalidLengthProfile.enter();
-                throw raise(PythonBuiltinClassType.OverflowError, "memory mapped length must be positive");
-            }
-        }
-
-        @TruffleBoundary
-        private static void position(SeekableByteChannel ch, long offset) throws IOException {
-            ch.position(offset);
-        }
-    }
-
-    private static class AnonymousMap implements SeekableByteChannel {
-        private final byte[] data;
-
-        private boolean open = true;
-        private int cur;
-
-        public AnonymousMap(int cap) {
-            this.data = new byte[cap];
-        }
-
-        public boolean isOpen() {
-            return open;
-        }
-
-        public void close() throws IOException {
-            open = false;
-        }
-
-        public int read(ByteBuffer dst) throws IOException {
-            int nread = Math.min(dst.remaining(), data.length - cur);
-            dst.put(data, cur, nread);
-            return nread;
-        }
-
-        public int write(ByteBuffer src) throws IOException {
-            int nwrite = Math.min(src.remaining(), data.length - cur);
-            src.get(data, cur, nwrite);
-            return nwrite;
-        }
-
-        public long position() throws IOException {
-            return cur;
-        }
-
-        public SeekableByteChannel position(long newPosition) throws IOException {
-            if (newPosition < 0) {
-                throw new IllegalArgumentException();
+                throw raise(OverflowError, "memory mapped length must be positive");
             }
-            cur = (int) newPosition;
-            return this;
         }
-
-        public long size() throws IOException {
-            return data.length;
-        }
-
-        public SeekableByteChannel truncate(long size) throws IOException {
-            for (int i = 0; i < size; i++) {
-                data[i] = 0;
-            }
-            return this;
-        }
-
     }
 }
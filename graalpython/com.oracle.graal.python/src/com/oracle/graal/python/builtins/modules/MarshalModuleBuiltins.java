@@ -28,12 +28,12 @@ package com.oracle.graal.python.builtins.modules;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.NotImplementedError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
-import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 
 import com.oracle.graal.python.PythonLanguage;
@@ -58,6 +58,8 @@ import com.oracle.graal.python.builtins.objects.complex.PComplex;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.floats.PFloat;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONode;
+import com.oracle.graal.python.builtins.objects.io.PBuffered;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
 import com.oracle.graal.python.builtins.objects.set.PFrozenSet;
@@ -69,13 +71,17 @@ import com.oracle.graal.python.nodes.PNodeWithContext;
 import com.oracle.graal.python.nodes.PNodeWithGlobalState;
 import com.oracle.graal.python.nodes.PNodeWithGlobalState.DefaultContextManager;
 import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
 import com.oracle.graal.python.nodes.util.ExceptionStateNodes.PassCaughtExceptionNode;
 import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorageFactory;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleLanguage.ContextReference;
@@ -86,6 +92,7 @@ import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.source.Source;
 
 @CoreFunctions(defineModule = "marshal")
 public final class MarshalModuleBuiltins extends PythonBuiltins {
@@ -94,41 +101,46 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
         return MarshalModuleBuiltinsFactory.getFactories();
     }
 
-    @Builtin(name = "dump", minNumOfPositionalArgs = 2, parameterNames = {"self", "file", "version"})
+    @Override
+    public void initialize(PythonCore core) {
+        super.initialize(core);
+        builtinConstants.put("version", CURRENT_VERSION);
+    }
+
+    @Builtin(name = "dump", minNumOfPositionalArgs = 2, parameterNames = {"value", "file", "version"})
     @GenerateNodeFactory
     abstract static class DumpNode extends PythonBuiltinNode {
-        @SuppressWarnings("unused")
+
+        @Child private MarshallerNode marshaller = MarshallerNode.create();
+
+        private Object dump(VirtualFrame frame, Object value, Object file, int version) {
+            MarshalOutput buffer = new MarshalOutput(file);
+            marshaller.execute(frame, value, version, buffer);
+            marshaller.flush(frame, buffer);
+            return PNone.NONE;
+        }
+
         @Specialization
-        Object doit(Object value, Object file, Object version) {
-            throw raise(NotImplementedError, "marshal.dump");
+        Object doit(VirtualFrame frame, Object value, Object file, int version) {
+            return dump(frame, value, file, version);
+        }
+
+        @Specialization
+        Object doit(VirtualFrame frame, Object value, Object file, @SuppressWarnings("unused") PNone version) {
+            return dump(frame, value, file, CURRENT_VERSION);
         }
     }
 
-    @Builtin(name = "dumps", minNumOfPositionalArgs = 1, parameterNames = {"self", "version"})
+    @Builtin(name = "dumps", minNumOfPositionalArgs = 1, parameterNames = {"value", "version"})
     @GenerateNodeFactory
     abstract static class DumpsNode extends PythonBuiltinNode {
 
         @Child private MarshallerNode marshaller = MarshallerNode.create();
 
         private byte[] dump(VirtualFrame frame, Object o, int version) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            DataOutputStream buffer = new DataOutputStream(baos);
-            marshaller.resetRecursionDepth();
+            MarshalOutput buffer = new MarshalOutput(null);
             marshaller.execute(frame, o, version, buffer);
-            try {
-                return getByteArrayFromStream(baos, buffer);
-            } catch (IOException e) {
-                throw raise(ValueError, "Was not possible to marshal %p", o);
-            }
-        }
-
-        @TruffleBoundary
-        private static byte[] getByteArrayFromStream(ByteArrayOutputStream baos, DataOutputStream buffer) throws IOException {
-            buffer.flush();
-            byte[] result = baos.toByteArray();
-            baos.close();
-            buffer.close();
-            return result;
+            return buffer.drain();
         }
 
         @Specialization
@@ -142,13 +154,15 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
         }
     }
 
-    @Builtin(name = "load", minNumOfPositionalArgs = 1)
+    @Builtin(name = "load", minNumOfPositionalArgs = 1, parameterNames = {"file"})
     @GenerateNodeFactory
     abstract static class LoadNode extends PythonBuiltinNode {
-        @SuppressWarnings("unused")
+
+        @Child private UnmarshallerNode marshaller = UnmarshallerNode.create();
+
         @Specialization
-        Object doit(Object file) {
-            throw raise(NotImplementedError, "marshal.load");
+        Object doit(VirtualFrame frame, Object file) {
+            return marshaller.execute(frame, file, CURRENT_VERSION);
         }
     }
 
@@ -197,22 +211,30 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
     private static final char TYPE_PINT = 'L';
     private static final char TYPE_STRING = 's';
     // private final static char TYPE_INTERNED = 't';
-    // private final static char TYPE_STRINGREF = 'R';
+    private static final char TYPE_REF = 'r';
     private static final char TYPE_BYTESLIKE = 'b';
     private static final char TYPE_TUPLE = '(';
     private static final char TYPE_LIST = '[';
     private static final char TYPE_DICT = '{';
     private static final char TYPE_CODE = 'c';
+    private static final char TYPE_PARSED_CODE = 'C'; // code followed by its parse tree
     // private final static char TYPE_UNICODE = 'u';
     private static final char TYPE_UNKNOWN = '?';
     private static final char TYPE_SET = '<';
     private static final char TYPE_FROZENSET = '>';
+    private static final int FLAG_REF = 0x80;
     private static final int MAX_MARSHAL_STACK_DEPTH = 2000;
-    private static final int CURRENT_VERSION = 1;
+    private static final int CURRENT_VERSION = 4;
+    // versions since which shared objects and parse trees of code objects are written
+    private static final int REF_VERSION = 3;
+    private static final int PARSED_CODE_VERSION = 4;
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+    private static final byte[] EMPTY_BYTES = new byte[0];
 
     private abstract static class PNodeWithState extends PNodeWithContext {
         @Child private PythonObjectFactory objectFactory;
         @Child private PRaiseNode raiseNode;
+        @Child private BufferedIONode bufferedIONode;
 
         protected final PException raise(PythonBuiltinClassType type, String format, Object... arguments) {
             if (raiseNode == null) {
@@ -229,116 +251,262 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
             }
             return objectFactory;
         }
+
+        protected final BufferedIONode ensureBufferedIONode() {
+            if (bufferedIONode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                bufferedIONode = insert(BufferedIONode.create());
+            }
+            return bufferedIONode;
+        }
+
+        /**
+         * Buffered streams of the builtin types are accessed directly, all other file objects
+         * through their {@code read} and {@code write} methods.
+         */
+        protected static boolean isBuiltinBuffered(Object file) {
+            return file instanceof PBuffered && ((PBuffered) file).getLazyPythonClass() instanceof PythonBuiltinClassType;
+        }
+    }
+
+    /**
+     * The output of the marshaller. Collects the marshalled data in a growable array and remembers
+     * the objects written so far, so that they can be shared with {@link #FLAG_REF}. When dumping
+     * to a file, the marshaller writes out the collected data whenever it exceeds
+     * {@link #FLUSH_THRESHOLD}.
+     */
+    static final class MarshalOutput {
+        private final Object file;
+        private byte[] data = new byte[64];
+        private int length;
+        private int depth;
+        private int nextRef;
+        private HashMap<String, Integer> stringRefs;
+        private IdentityHashMap<Object, Integer> objectRefs;
+
+        MarshalOutput(Object file) {
+            this.file = file;
+        }
+
+        Object getFile() {
+            return file;
+        }
+
+        int length() {
+            return length;
+        }
+
+        void writeByte(int b) {
+            ensureCapacity(1);
+            data[length++] = (byte) b;
+        }
+
+        void writeInt(int v) {
+            ensureCapacity(4);
+            data[length++] = (byte) (v >>> 24);
+            data[length++] = (byte) (v >>> 16);
+            data[length++] = (byte) (v >>> 8);
+            data[length++] = (byte) v;
+        }
+
+        void write(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, data, length, bytes.length);
+            length += bytes.length;
+        }
+
+        private void ensureCapacity(int n) {
+            if (length + n > data.length) {
+                grow(n);
+            }
+        }
+
+        @TruffleBoundary
+        private void grow(int n) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + n));
+        }
+
+        /**
+         * Returns the collected data and empties the buffer. The shared objects are kept.
+         */
+        byte[] drain() {
+            byte[] result = Arrays.copyOf(data, length);
+            length = 0;
+            return result;
+        }
+
+        /**
+         * Looks up the reference index of an object written before or assigns the next index to
+         * it. Strings are shared by value, all other objects by identity.
+         *
+         * @return the index of the earlier occurrence or {@code -1} if the object is new
+         */
+        @TruffleBoundary
+        int lookupOrAddRef(Object key) {
+            Integer ref;
+            if (key instanceof String) {
+                if (stringRefs == null) {
+                    stringRefs = new HashMap<>();
+                }
+                ref = stringRefs.putIfAbsent((String) key, nextRef);
+            } else {
+                if (objectRefs == null) {
+                    objectRefs = new IdentityHashMap<>();
+                }
+                ref = objectRefs.putIfAbsent(key, nextRef);
+            }
+            if (ref != null) {
+                return ref;
+            }
+            nextRef++;
+            return -1;
+        }
     }
 
     abstract static class MarshallerNode extends PNodeWithState {
 
-        public abstract void execute(VirtualFrame frame, Object x, int version, DataOutputStream buffer);
+        public abstract void execute(VirtualFrame frame, Object x, int version, MarshalOutput buffer);
 
         @Child private MarshallerNode recursiveNode;
-        private int depth = 0;
+        @Child private LookupAndCallBinaryNode callWriteNode;
         private IsBuiltinClassProfile isBuiltinProfile;
 
         protected MarshallerNode getRecursiveNode() {
             if (recursiveNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
                 recursiveNode = insert(create());
-                recursiveNode.depth += 1;
             }
             return recursiveNode;
         }
 
-        private void handleIOException(Object v) {
-            throw raise(ValueError, "Was not possible to marshal %p", v);
+        /**
+         * Writes the collected data to the file of the buffer.
+         */
+        void flush(VirtualFrame frame, MarshalOutput buffer) {
+            Object file = buffer.getFile();
+            if (file == null || buffer.length() == 0) {
+                return;
+            }
+            byte[] bytes = buffer.drain();
+            if (isBuiltinBuffered(file)) {
+                BufferedIONode ioNode = ensureBufferedIONode();
+                ioNode.checkOpen((PBuffered) file);
+                ioNode.write(frame, (PBuffered) file, bytes);
+            } else {
+                if (callWriteNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    callWriteNode = insert(LookupAndCallBinaryNode.create("write"));
+                }
+                callWriteNode.executeObject(frame, file, factory().createBytes(bytes));
+            }
         }
 
-        public void resetRecursionDepth() {
-            depth = 0;
+        private void flushIfNeeded(VirtualFrame frame, MarshalOutput buffer) {
+            if (buffer.length() >= FLUSH_THRESHOLD && buffer.getFile() != null) {
+                flush(frame, buffer);
+            }
         }
 
-        @Specialization
-        @TruffleBoundary
-        void writeByte(char v, @SuppressWarnings("unused") int version, DataOutputStream buffer) {
-            try {
-                buffer.write(v);
-            } catch (IOException e) {
-                handleIOException(v);
+        private void enterContainer(MarshalOutput buffer) {
+            if (++buffer.depth > MAX_MARSHAL_STACK_DEPTH) {
+                throw raise(ValueError, "object too deeply nested to marshal");
             }
         }
 
-        @TruffleBoundary
-        private void writeBytes(byte[] bytes, int version, DataOutputStream buffer) {
-            int len = bytes.length;
-            writeInt(len, version, buffer);
-            try {
-                buffer.write(bytes);
-            } catch (IOException e) {
-                throw raise(ValueError, "Was not possible to marshal");
-            }
+        private static void exitContainer(MarshalOutput buffer) {
+            buffer.depth--;
         }
 
-        @TruffleBoundary
-        private void writeInt(int v, @SuppressWarnings("unused") int version, DataOutputStream buffer) {
-            try {
-                buffer.writeInt(v);
-            } catch (IOException e) {
-                handleIOException(v);
+        /**
+         * Writes the type code of an object that may be shared. Since version {@link #REF_VERSION},
+         * an object that was written before is replaced by a {@link #TYPE_REF} to its first
+         * occurrence.
+         *
+         * @return {@code true} if a reference was written and the object itself must be skipped
+         */
+        private static boolean writeRefOrType(Object key, char type, int version, MarshalOutput buffer) {
+            if (version < REF_VERSION) {
+                buffer.writeByte(type);
+                return false;
+            }
+            int ref = buffer.lookupOrAddRef(key);
+            if (ref >= 0) {
+                buffer.writeByte(TYPE_REF);
+                buffer.writeInt(ref);
+                return true;
             }
+            buffer.writeByte(type | FLAG_REF);
+            return false;
+        }
+
+        @Specialization
+        void writeByte(char v, @SuppressWarnings("unused") int version, MarshalOutput buffer) {
+            buffer.writeByte(v);
+        }
+
+        private static void writeBytes(byte[] bytes, int version, MarshalOutput buffer) {
+            writeInt(bytes.length, version, buffer);
+            buffer.write(bytes);
+        }
+
+        private static void writeInt(int v, @SuppressWarnings("unused") int version, MarshalOutput buffer) {
+            buffer.writeInt(v);
         }
 
         @Specialization
-        void handleInt(int v, int version, DataOutputStream buffer) {
+        void handleInt(int v, int version, MarshalOutput buffer) {
             writeByte(TYPE_INT, version, buffer);
             writeInt(v, version, buffer);
         }
 
-        private void writeLong(long v, int version, DataOutputStream buffer) {
+        private static void writeLong(long v, int version, MarshalOutput buffer) {
             writeInt((int) (v & 0xffffffff), version, buffer);
             writeInt((int) ((v >> 32) & 0xffffffff), version, buffer);
         }
 
         @Specialization
-        void handleLong(long v, int version, DataOutputStream buffer) {
+        void handleLong(long v, int version, MarshalOutput buffer) {
             writeByte(TYPE_LONG, version, buffer);
             writeLong(v, version, buffer);
         }
 
         @Specialization
         @TruffleBoundary
-        void handlePInt(PInt v, int version, DataOutputStream buffer) {
-            writeByte(TYPE_PINT, version, buffer);
-            writeBytes(v.getValue().toByteArray(), version, buffer);
+        void handlePInt(PInt v, int version, MarshalOutput buffer) {
+            if (!writeRefOrType(v, TYPE_PINT, version, buffer)) {
+                writeBytes(v.getValue().toByteArray(), version, buffer);
+            }
         }
 
-        private void writeDouble(double v, int version, DataOutputStream buffer) {
+        private static void writeDouble(double v, int version, MarshalOutput buffer) {
             writeLong(Double.doubleToLongBits(v), version, buffer);
         }
 
         @Specialization
-        void handleFloat(float v, int version, DataOutputStream buffer) {
+        void handleFloat(float v, int version, MarshalOutput buffer) {
             handleDouble(v, version, buffer);
         }
 
         @Specialization
-        void handleDouble(double v, int version, DataOutputStream buffer) {
+        void handleDouble(double v, int version, MarshalOutput buffer) {
             writeByte(TYPE_FLOAT, version, buffer);
             writeDouble(v, version, buffer);
         }
 
         @Specialization
-        void handlePFloat(PFloat v, int version, DataOutputStream buffer) {
+        void handlePFloat(PFloat v, int version, MarshalOutput buffer) {
             handleDouble(v.getValue(), version, buffer);
         }
 
         @Specialization
-        void handlePComplex(PComplex v, int version, DataOutputStream buffer) {
+        void handlePComplex(PComplex v, int version, MarshalOutput buffer) {
             writeByte(TYPE_COMPLEX, version, buffer);
             writeDouble(v.getReal(), version, buffer);
             writeDouble(v.getImag(), version, buffer);
         }
 
         @Specialization
-        void writeBoolean(boolean v, int version, DataOutputStream buffer) {
+        void writeBoolean(boolean v, int version, MarshalOutput buffer) {
             if (v) {
                 writeByte(TYPE_TRUE, version, buffer);
             } else {
@@ -347,81 +515,97 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
         }
 
         @TruffleBoundary
-        private void writeString(String v, int version, DataOutputStream buffer) {
-            byte[] bytes = v.getBytes();
-            writeInt(bytes.length, version, buffer);
-            try {
-                buffer.write(bytes);
-            } catch (IOException e) {
-                handleIOException(v);
+        private static void writeString(String v, int version, MarshalOutput buffer) {
+            if (!writeRefOrType(v, TYPE_STRING, version, buffer)) {
+                writeBytes(v.getBytes(StandardCharsets.UTF_8), version, buffer);
             }
         }
 
         @Specialization
-        void handleString(String v, int version, DataOutputStream buffer) {
-            writeByte(TYPE_STRING, version, buffer);
+        void handleString(String v, int version, MarshalOutput buffer) {
             writeString(v, version, buffer);
         }
 
         @Specialization
-        void handlePString(PString v, int version, DataOutputStream buffer) {
-            writeByte(TYPE_STRING, version, buffer);
+        void handlePString(PString v, int version, MarshalOutput buffer) {
             writeString(v.getValue(), version, buffer);
         }
 
         @Specialization
-        void handleBytesLike(VirtualFrame frame, PIBytesLike v, int version, DataOutputStream buffer,
+        void handleBytesLike(VirtualFrame frame, PIBytesLike v, int version, MarshalOutput buffer,
                         @Cached("create()") BytesNodes.ToBytesNode toBytesNode) {
-            writeByte(TYPE_BYTESLIKE, version, buffer);
-            writeBytes(toBytesNode.execute(frame, v), version, buffer);
+            if (!writeRefOrType(v, TYPE_BYTESLIKE, version, buffer)) {
+                writeBytes(toBytesNode.execute(frame, v), version, buffer);
+            }
         }
 
         @Specialization
-        void handleMemoryView(VirtualFrame frame, PMemoryView v, int version, DataOutputStream buffer,
+        void handleMemoryView(VirtualFrame frame, PMemoryView v, int version, MarshalOutput buffer,
                         @Cached("create()") BytesNodes.ToBytesNode toBytesNode) {
-            writeByte(TYPE_BYTESLIKE, version, buffer);
-            writeBytes(toBytesNode.execute(frame, v), version, buffer);
+            if (!writeRefOrType(v, TYPE_BYTESLIKE, version, buffer)) {
+                writeBytes(toBytesNode.execute(frame, v), version, buffer);
+            }
         }
 
         @Specialization
-        void handlePArray(@SuppressWarnings("unused") PArray v, @SuppressWarnings("unused") int version, @SuppressWarnings("unused") DataOutputStream buffer) {
+        void handlePArray(@SuppressWarnings("unused") PArray v, @SuppressWarnings("unused") int version, @SuppressWarnings("unused") MarshalOutput buffer) {
             throw raise(NotImplementedError, "marshal.dumps(array)");
         }
 
         @Specialization
-        void handlePTuple(VirtualFrame frame, PTuple t, int version, DataOutputStream buffer) {
-            writeByte(TYPE_TUPLE, version, buffer);
+        void handlePTuple(VirtualFrame frame, PTuple t, int version, MarshalOutput buffer) {
+            if (writeRefOrType(t, TYPE_TUPLE, version, buffer)) {
+                return;
+            }
+            enterContainer(buffer);
             Object[] items = t.getArray();
             writeInt(items.length, version, buffer);
             for (int i = 0; i < items.length; i++) {
                 getRecursiveNode().execute(frame, items[i], version, buffer);
+                flushIfNeeded(frame, buffer);
             }
+            exitContainer(buffer);
         }
 
         @Specialization
-        void handlePList(VirtualFrame frame, PList l, int version, DataOutputStream buffer) {
-            writeByte(TYPE_LIST, version, buffer);
-            Object[] items = l.getSequenceStorage().getInternalArray();
-            writeInt(items.length, version, buffer);
-            for (int i = 0; i < items.length; i++) {
-                getRecursiveNode().execute(frame, items[i], version, buffer);
+        void handlePList(VirtualFrame frame, PList l, int version, MarshalOutput buffer) {
+            if (writeRefOrType(l, TYPE_LIST, version, buffer)) {
+                return;
+            }
+            enterContainer(buffer);
+            SequenceStorage storage = l.getSequenceStorage();
+            int len = storage.length();
+            writeInt(len, version, buffer);
+            for (int i = 0; i < len; i++) {
+                getRecursiveNode().execute(frame, storage.getItemNormalized(i), version, buffer);
+                flushIfNeeded(frame, buffer);
             }
+            exitContainer(buffer);
         }
 
         @Specialization
-        void handlePDict(VirtualFrame frame, PDict d, int version, DataOutputStream buffer) {
-            writeByte(TYPE_DICT, version, buffer);
+        void handlePDict(VirtualFrame frame, PDict d, int version, MarshalOutput buffer) {
+            if (writeRefOrType(d, TYPE_DICT, version, buffer)) {
+                return;
+            }
+            enterContainer(buffer);
             HashingStorage storage = d.getDictStorage();
             writeInt(storage.length(), version, buffer);
             for (DictEntry entry : storage.entries()) {
                 getRecursiveNode().execute(frame, entry.key, version, buffer);
                 getRecursiveNode().execute(frame, entry.value, version, buffer);
+                flushIfNeeded(frame, buffer);
             }
+            exitContainer(buffer);
         }
 
         @Specialization
-        void handlePCode(VirtualFrame frame, PCode c, int version, DataOutputStream buffer) {
-            writeByte(TYPE_CODE, version, buffer);
+        void handlePCode(VirtualFrame frame, PCode c, int version, MarshalOutput buffer) {
+            boolean withParseTree = version >= PARSED_CODE_VERSION;
+            if (writeRefOrType(c, withParseTree ? TYPE_PARSED_CODE : TYPE_CODE, version, buffer)) {
+                return;
+            }
+            enterContainer(buffer);
             writeInt(c.getArgcount(), version, buffer);
             writeInt(c.getKwonlyargcount(), version, buffer);
             writeInt(c.getNlocals(), version, buffer);
@@ -437,32 +621,56 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
             getRecursiveNode().execute(frame, c.getName(), version, buffer);
             writeInt(c.getFirstLineNo(), version, buffer);
             writeBytes(c.getLnotab() == null ? new byte[0] : c.getLnotab(), version, buffer);
+            if (withParseTree) {
+                byte[] parseTree = serializeParseTree(c);
+                writeBytes(parseTree == null ? new byte[0] : parseTree, version, buffer);
+            }
+            exitContainer(buffer);
+        }
+
+        /**
+         * Module code objects are recreated from their source, so we store the parse tree with them
+         * to save the parser run when loading them.
+         */
+        @TruffleBoundary
+        private static byte[] serializeParseTree(PCode c) {
+            byte[] codestring = c.getCodestring();
+            if ((c.getFlags() & PCode.FLAG_MODULE) == 0 || codestring == null || codestring.length == 0) {
+                return null;
+            }
+            PythonCore core = PythonLanguage.getCore();
+            return core.getParser().serializeParseTree(core, Source.newBuilder(PythonLanguage.ID, new String(codestring), c.getName()).build());
         }
 
         @Specialization
-        void handlePSet(VirtualFrame frame, PSet s, int version, DataOutputStream buffer) {
-            writeByte(TYPE_SET, version, buffer);
-            HashingStorage dictStorage = s.getDictStorage();
-            int len = dictStorage.length();
-            writeInt(len, version, buffer);
-            for (DictEntry entry : dictStorage.entries()) {
-                getRecursiveNode().execute(frame, entry.key, version, buffer);
+        void handlePSet(VirtualFrame frame, PSet s, int version, MarshalOutput buffer) {
+            if (writeRefOrType(s, TYPE_SET, version, buffer)) {
+                return;
             }
+            writeSetItems(frame, s.getDictStorage(), version, buffer);
         }
 
         @Specialization
-        void handlePForzenSet(VirtualFrame frame, PFrozenSet s, int version, DataOutputStream buffer) {
-            writeByte(TYPE_FROZENSET, version, buffer);
-            HashingStorage dictStorage = s.getDictStorage();
+        void handlePForzenSet(VirtualFrame frame, PFrozenSet s, int version, MarshalOutput buffer) {
+            if (writeRefOrType(s, TYPE_FROZENSET, version, buffer)) {
+                return;
+            }
+            writeSetItems(frame, s.getDictStorage(), version, buffer);
+        }
+
+        private void writeSetItems(VirtualFrame frame, HashingStorage dictStorage, int version, MarshalOutput buffer) {
+            enterContainer(buffer);
             int len = dictStorage.length();
             writeInt(len, version, buffer);
             for (DictEntry entry : dictStorage.entries()) {
                 getRecursiveNode().execute(frame, entry.key, version, buffer);
+                flushIfNeeded(frame, buffer);
             }
+            exitContainer(buffer);
         }
 
         @Specialization
-        void handlePNone(PNone v, int version, DataOutputStream buffer) {
+        void handlePNone(PNone v, int version, MarshalOutput buffer) {
             if (v == PNone.NONE) {
                 writeByte(TYPE_NONE, version, buffer);
             } else if (v == PNone.NO_VALUE) {
@@ -471,10 +679,8 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
         }
 
         @Fallback
-        void writeObject(Object v, int version, DataOutputStream buffer) {
-            if (depth >= MAX_MARSHAL_STACK_DEPTH) {
-                throw raise(ValueError, "Maximum marshal stack depth");
-            } else if (v == null) {
+        void writeObject(Object v, int version, MarshalOutput buffer) {
+            if (v == null) {
                 writeByte(TYPE_NULL, version, buffer);
             } else if (v == PNone.NONE) {
                 writeByte(TYPE_NONE, version, buffer);
@@ -492,7 +698,6 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
             } else {
                 writeByte(TYPE_UNKNOWN, version, buffer);
             }
-            depth--;
         }
 
         public static MarshallerNode create() {
@@ -501,27 +706,90 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
     }
 
     public abstract static class UnmarshallerNode extends PNodeWithState {
-        public abstract Object execute(VirtualFrame frame, byte[] dataBytes, int version);
+        /**
+         * Reads one object from a {@code byte[]} or from a file object. Files are read only as far
+         * as the object extends.
+         */
+        public abstract Object execute(VirtualFrame frame, Object source, int version);
 
         @Child private HashingStorageNodes.SetItemNode setItemNode;
         @Child private CodeNodes.CreateCodeNode createCodeNode;
+        @Child private LookupAndCallBinaryNode callReadNode;
+        @Child private BytesNodes.ToBytesNode toBytesNode;
 
         private int index;
+        private int end;
         private byte[] data;
+        private Object file;
+        private ArrayList<Object> refs;
+
+        private void reset(byte[] dataBytes, Object sourceFile) {
+            data = dataBytes;
+            index = 0;
+            end = dataBytes.length;
+            file = sourceFile;
+            refs = null;
+        }
 
-        public void reset() {
+        /**
+         * Makes sure that the next {@code n} bytes are available, reading them from the file if
+         * necessary.
+         */
+        private void ensure(int n) {
+            if (end - index >= n) {
+                return;
+            }
+            if (n < 0 || file == null) {
+                throw raise(PythonBuiltinClassType.EOFError, "marshal data too short");
+            }
+            int available = end - index;
+            byte[] newData = n <= data.length ? data : new byte[Math.max(n, data.length * 2)];
+            System.arraycopy(data, index, newData, 0, available);
+            data = newData;
             index = 0;
+            end = available;
+            while (end < n) {
+                byte[] chunk = readFromFile(n - end);
+                if (chunk == null || chunk.length == 0) {
+                    throw raise(PythonBuiltinClassType.EOFError, "EOF read where object expected");
+                }
+                int copied = Math.min(chunk.length, n - end);
+                System.arraycopy(chunk, 0, data, end, copied);
+                end += copied;
+            }
+        }
+
+        private byte[] readFromFile(int n) {
+            // note: we may pass a 'null' frame here because global state is ensured to be
+            // transfered
+            if (isBuiltinBuffered(file)) {
+                BufferedIONode ioNode = ensureBufferedIONode();
+                ioNode.checkOpen((PBuffered) file);
+                return ioNode.read(null, (PBuffered) file, n);
+            }
+            if (callReadNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                callReadNode = insert(LookupAndCallBinaryNode.create("read"));
+                toBytesNode = insert(BytesNodes.ToBytesNode.create());
+            }
+            Object result = callReadNode.executeObject(null, file, n);
+            if (result == PNone.NONE) {
+                return null;
+            }
+            return toBytesNode.execute(null, result);
         }
 
         private int readByte() {
+            ensure(1);
             return data[index++];
         }
 
         private int readInt() {
-            int ch1 = readByte() & 0xFF;
-            int ch2 = readByte() & 0xFF;
-            int ch3 = readByte() & 0xFF;
-            int ch4 = readByte() & 0xFF;
+            ensure(4);
+            int ch1 = data[index++] & 0xFF;
+            int ch2 = data[index++] & 0xFF;
+            int ch3 = data[index++] & 0xFF;
+            int ch4 = data[index++] & 0xFF;
             return ((ch1 << 24) + (ch2 << 16) + (ch3 << 8) + ch4);
         }
 
@@ -544,13 +812,15 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
 
         private String readString() {
             int len = readInt();
-            String text = new String(data, index, len);
+            ensure(len);
+            String text = new String(data, index, len, StandardCharsets.UTF_8);
             index += len;
             return text;
         }
 
         private byte[] readBytes() {
             int len = readInt();
+            ensure(len);
             byte[] bytes = Arrays.copyOfRange(data, index, index + len);
             index += len;
             return bytes;
@@ -561,7 +831,36 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
             return factory().createBytes(bytes);
         }
 
-        private PCode readCode(int depth) {
+        /**
+         * Reserves the reference index of a container, which is only set once its items are read.
+         */
+        private int reserveRef(boolean flag) {
+            if (!flag) {
+                return -1;
+            }
+            if (refs == null) {
+                refs = new ArrayList<>();
+            }
+            refs.add(null);
+            return refs.size() - 1;
+        }
+
+        private <T> T setRef(int ref, T value) {
+            if (ref >= 0) {
+                refs.set(ref, value);
+            }
+            return value;
+        }
+
+        private Object readRef() {
+            int n = readInt();
+            if (refs == null || n < 0 || n >= refs.size() || refs.get(n) == null) {
+                throw raise(ValueError, "bad marshal data (invalid reference)");
+            }
+            return refs.get(n);
+        }
+
+        private PCode readCode(int depth, int ref, boolean withParseTree) {
             int argcount = readInt();
             int kwonlyargcount = readInt();
             int nlocals = readInt();
@@ -577,15 +876,22 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
             String name = ((String) readObject(depth + 1));
             int firstlineno = readInt();
             byte[] lnotab = readBytes();
+            byte[] parseTree = withParseTree ? readBytes() : null;
 
-            return ensureCreateCodeNode().execute(null, PythonBuiltinClassType.PCode, argcount, kwonlyargcount,
+            return setRef(ref, ensureCreateCodeNode().execute(null, PythonBuiltinClassType.PCode, argcount, kwonlyargcount,
                             nlocals, stacksize, flags, codestring, constants, names,
-                            varnames, freevars, cellvars, filename, name, firstlineno, lnotab);
+                            varnames, freevars, cellvars, filename, name, firstlineno, lnotab,
+                            parseTree == null || parseTree.length == 0 ? null : parseTree));
         }
 
-        private PDict readDict(int depth) {
+        private PDict readDict(int depth, int ref) {
             int len = readInt();
-            HashMap<Object, Object> map = new HashMap<>(len);
+            if (len < 0) {
+                throw raise(ValueError, "bad marshal data");
+            }
+            HashingStorage storage = EconomicMapStorage.create(len, false);
+            // the dict is created first, so that it can contain itself
+            PDict dict = setRef(ref, factory().createDict(storage));
             for (int i = 0; i < len; i++) {
                 Object key = readObject(depth + 1);
                 if (key == null) {
@@ -593,17 +899,22 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
                 }
                 Object value = readObject(depth + 1);
                 if (value != null) {
-                    map.put(key, value);
+                    // note: we may pass a 'null' frame here because global state is ensured to be
+                    // transfered
+                    storage = ensureSetItemNode().execute(null, storage, key, value);
                 }
             }
-            return factory().createDict(map);
+            dict.setDictStorage(storage);
+            return dict;
         }
 
-        private PList readList(int depth) {
+        private PList readList(int depth, int ref) {
             int n = readInt();
             if (n < 0) {
                 throw raise(ValueError, "bad marshal data");
             }
+            // the list is created first, so that it can contain itself
+            PList list = setRef(ref, factory().createList());
             Object[] items = new Object[n];
             for (int i = 0; i < n; i++) {
                 Object item = readObject(depth + 1);
@@ -612,47 +923,35 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
                 }
                 items[i] = item;
             }
-            return factory().createList(items);
+            list.setSequenceStorage(SequenceStorageFactory.createStorage(items));
+            return list;
         }
 
-        private PSet readSet(int depth) {
+        private HashingStorage readSetItems(int depth) {
             int n = readInt();
             if (n < 0) {
                 throw raise(ValueError, "bad marshal data");
             }
             HashingStorage newStorage = EconomicMapStorage.create(n, true);
-            if (n > 0 && setItemNode == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                setItemNode = insert(HashingStorageNodes.SetItemNode.create());
-            }
             for (int i = 0; i < n; i++) {
                 Object key = readObject(depth + 1);
                 // note: we may pass a 'null' frame here because global state is ensured to be
                 // transfered
-                setItemNode.execute(null, newStorage, key, PNone.NO_VALUE);
+                newStorage = ensureSetItemNode().execute(null, newStorage, key, PNone.NO_VALUE);
             }
-
-            return factory().createSet(newStorage);
+            return newStorage;
         }
 
-        private PFrozenSet readFrozenSet(int depth) {
+        private Object[] readTupleItems(int depth) {
             int n = readInt();
             if (n < 0) {
                 throw raise(ValueError, "bad marshal data");
             }
-            HashingStorage newStorage = EconomicMapStorage.create(n, true);
-            if (n > 0 && setItemNode == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                setItemNode = insert(HashingStorageNodes.SetItemNode.create());
-            }
+            Object[] items = new Object[n];
             for (int i = 0; i < n; i++) {
-                Object key = readObject(depth + 1);
-                // note: we may pass a 'null' frame here because global state is ensured to be
-                // transfered
-                setItemNode.execute(null, newStorage, key, PNone.NO_VALUE);
+                items[i] = readObject(depth + 1);
             }
-
-            return factory().createFrozenSet(newStorage);
+            return items;
         }
 
         @TruffleBoundary
@@ -660,7 +959,12 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
             if (depth >= MAX_MARSHAL_STACK_DEPTH) {
                 throw raise(ValueError, "Maximum marshal stack depth");
             }
-            int type = readByte();
+            if (end == index && file == null) {
+                throw raise(PythonBuiltinClassType.EOFError, "EOF read where object expected");
+            }
+            int code = readByte() & 0xFF;
+            boolean flag = (code & FLAG_REF) != 0;
+            int type = code & ~FLAG_REF;
             switch (type) {
                 case TYPE_NULL:
                     return null;
@@ -683,39 +987,48 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
                 case TYPE_LONG:
                     return read_long64();
                 case TYPE_PINT:
-                    return readPInt();
+                    return setRef(reserveRef(flag), readPInt());
                 case TYPE_FLOAT:
                     return readDouble();
                 case TYPE_STRING:
-                    return readString();
+                    return setRef(reserveRef(flag), readString());
                 case TYPE_BYTESLIKE:
-                    return readBytesLike();
+                    return setRef(reserveRef(flag), readBytesLike());
+                case TYPE_REF:
+                    return readRef();
                 case TYPE_TUPLE: {
-                    int n = readInt();
-                    if (n < 0) {
-                        throw raise(ValueError, "bad marshal data");
-                    }
-                    Object[] items = new Object[n];
-                    for (int i = 0; i < n; i++) {
-                        items[i] = readObject(depth + 1);
-                    }
-                    return factory().createTuple(items);
+                    int ref = reserveRef(flag);
+                    return setRef(ref, factory().createTuple(readTupleItems(depth)));
                 }
                 case TYPE_DICT:
-                    return readDict(depth);
+                    return readDict(depth, reserveRef(flag));
                 case TYPE_LIST:
-                    return readList(depth);
-                case TYPE_SET:
-                    return readSet(depth);
-                case TYPE_FROZENSET:
-                    return readFrozenSet(depth);
+                    return readList(depth, reserveRef(flag));
+                case TYPE_SET: {
+                    int ref = reserveRef(flag);
+                    return setRef(ref, factory().createSet(readSetItems(depth)));
+                }
+                case TYPE_FROZENSET: {
+                    int ref = reserveRef(flag);
+                    return setRef(ref, factory().createFrozenSet(readSetItems(depth)));
+                }
                 case TYPE_CODE:
-                    return readCode(depth);
+                    return readCode(depth, reserveRef(flag), false);
+                case TYPE_PARSED_CODE:
+                    return readCode(depth, reserveRef(flag), true);
                 default:
                     throw raise(ValueError, "bad marshal data");
             }
         }
 
+        private HashingStorageNodes.SetItemNode ensureSetItemNode() {
+            if (setItemNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                setItemNode = insert(HashingStorageNodes.SetItemNode.create());
+            }
+            return setItemNode;
+        }
+
         private CreateCodeNode ensureCreateCodeNode() {
             if (createCodeNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -729,13 +1042,32 @@ public final class MarshalModuleBuiltins extends PythonBuiltins {
         Object readObject(VirtualFrame frame, byte[] dataBytes, @SuppressWarnings("unused") int version,
                         @CachedContext(PythonLanguage.class) ContextReference<PythonContext> ctxRef,
                         @Cached PassCaughtExceptionNode passExceptionNode) {
-            reset();
-            this.data = dataBytes;
+            reset(dataBytes, null);
             try (DefaultContextManager cm = PNodeWithGlobalState.transferToContext(ctxRef, passExceptionNode.execute(frame))) {
                 return readObject(0);
+            } finally {
+                reset(EMPTY_BYTES, null);
             }
         }
 
+        @Specialization(guards = "!isJavaBytes(sourceFile)")
+        @SuppressWarnings("try")
+        Object readObjectFromFile(VirtualFrame frame, Object sourceFile, @SuppressWarnings("unused") int version,
+                        @CachedContext(PythonLanguage.class) ContextReference<PythonContext> ctxRef,
+                        @Cached PassCaughtExceptionNode passExceptionNode) {
+            reset(new byte[64], sourceFile);
+            end = 0;
+            try (DefaultContextManager cm = PNodeWithGlobalState.transferToContext(ctxRef, passExceptionNode.execute(frame))) {
+                return readObject(0);
+            } finally {
+                reset(EMPTY_BYTES, null);
+            }
+        }
+
+        protected static boolean isJavaBytes(Object o) {
+            return o instanceof byte[];
+        }
+
         public static UnmarshallerNode create() {
             return MarshalModuleBuiltinsFactory.UnmarshallerNodeGen.create();
         }
@@ -130,6 +130,7 @@ import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
 import com.oracle.graal.python.nodes.util.CastToIndexNode;
 import com.oracle.graal.python.nodes.util.CastToIntegerFromIntNode;
 import com.oracle.graal.python.nodes.util.ChannelNodes.ReadFromChannelNode;
+import com.oracle.graal.python.runtime.GlobalInterpreterLock;
 import com.oracle.graal.python.runtime.PosixResources;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
@@ -1058,11 +1059,15 @@ public class PosixModuleBuiltins extends PythonBuiltins {
                         @Cached("createClassProfile()") ValueProfile channelClassProfile) {
             Channel channel = getResources().getFileChannel(fd, channelClassProfile);
             if (channel instanceof WritableByteChannel) {
+                GlobalInterpreterLock gil = getContext().getGil();
+                int held = gil.releaseForBlocking();
                 try {
                     return doWriteOp(data, (WritableByteChannel) channel);
                 } catch (NonWritableChannelException | IOException e) {
                     gotException.enter();
                     throw raise(OSError, e);
+                } finally {
+                    gil.reacquire(held);
                 }
             } else {
                 notWritable.enter();
@@ -1137,7 +1142,14 @@ public class PosixModuleBuiltins extends PythonBuiltins {
                 size = ReadFromChannelNode.MAX_READ;
             }
             Channel channel = getResources().getFileChannel(fd, channelClassProfile);
-            ByteSequenceStorage array = readNode.execute(channel, size);
+            ByteSequenceStorage array;
+            GlobalInterpreterLock gil = getContext().getGil();
+            int held = gil.releaseForBlocking();
+            try {
+                array = readNode.execute(channel, size);
+            } finally {
+                gil.reacquire(held);
+            }
             return factory().createBytes(array);
         }
     }
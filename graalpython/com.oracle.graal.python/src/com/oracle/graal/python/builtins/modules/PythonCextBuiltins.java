@@ -158,6 +158,7 @@ import com.oracle.graal.python.nodes.util.CastToByteNode;
 import com.oracle.graal.python.nodes.util.CastToIndexNode;
 import com.oracle.graal.python.nodes.util.ExceptionStateNodes.GetCaughtExceptionNode;
 import com.oracle.graal.python.nodes.util.ExceptionStateNodes.ReadExceptionStateFromArgsNode;
+import com.oracle.graal.python.runtime.GlobalInterpreterLock;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.exception.ExceptionUtils;
@@ -1405,6 +1406,55 @@ public class PythonCextBuiltins extends PythonBuiltins {
         }
     }
 
+    // PyGILState_Ensure: returns 1 if the global interpreter lock was acquired for the caller
+    @Builtin(name = "PyGILState_Ensure", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class PyGILState_Ensure extends NativeBuiltin {
+
+        @Specialization
+        int ensure() {
+            GlobalInterpreterLock gil = getContext().getGil();
+            if (gil.isHeldByCurrentThread()) {
+                return 0;
+            }
+            gil.acquire();
+            return 1;
+        }
+    }
+
+    @Builtin(name = "PyGILState_Release", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class PyGILState_Release extends NativeBuiltin {
+
+        @Specialization
+        Object release() {
+            getContext().getGil().release();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "PyEval_SaveThread", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class PyEval_SaveThread extends NativeBuiltin {
+
+        @Specialization
+        Object save() {
+            getContext().getGil().saveThread();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "PyEval_RestoreThread", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class PyEval_RestoreThread extends NativeBuiltin {
+
+        @Specialization
+        Object restore() {
+            getContext().getGil().restoreThread();
+            return PNone.NONE;
+        }
+    }
+
     @Builtin(name = "PyTruffle_GetSetDescriptor", parameterNames = {"fget", "fset", "name", "owner"})
     @GenerateNodeFactory
     public abstract static class GetSetDescriptorNode extends PythonBuiltinNode {
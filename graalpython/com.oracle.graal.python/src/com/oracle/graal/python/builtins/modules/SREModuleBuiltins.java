@@ -40,10 +40,13 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 import com.oracle.graal.python.PythonLanguage;
@@ -56,12 +59,21 @@ import com.oracle.graal.python.builtins.objects.bytes.BytesUtils;
 import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
+import com.oracle.graal.python.builtins.objects.sre.PSREMatch;
+import com.oracle.graal.python.builtins.objects.sre.RegexInputRegion;
 import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.nodes.util.CastToStringNode;
 import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.RegexCache;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -76,7 +88,9 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.dsl.TypeSystemReference;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.interop.ArityException;
+import com.oracle.truffle.api.interop.InteropException;
 import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.UnknownIdentifierException;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.interop.UnsupportedTypeException;
 import com.oracle.truffle.api.library.CachedLibrary;
@@ -193,19 +207,69 @@ public class SREModuleBuiltins extends PythonBuiltins {
         }
     }
 
+    /**
+     * {@code tregex_init_engine(builder, options, fallback_compiler)}: builds a TRegex engine and
+     * registers it with the {@link RegexCache}, so that its regexes are shared with engines of
+     * other contexts that were built with the same options.
+     */
+    @Builtin(name = "tregex_init_engine", minNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class TRegexInitEngine extends PythonTernaryBuiltinNode {
+
+        @Specialization(limit = "1")
+        Object init(Object builder, String options, Object fallbackCompiler,
+                        @CachedLibrary("builder") InteropLibrary interop,
+                        @CachedContext(PythonLanguage.class) PythonContext context) {
+            Object engine;
+            try {
+                engine = interop.execute(builder, options, fallbackCompiler);
+            } catch (ArityException | UnsupportedTypeException | UnsupportedMessageException e) {
+                throw raise(TypeError, "%s", e);
+            }
+            context.getLanguage().getRegexCache(context).registerEngine(engine, options);
+            return engine;
+        }
+    }
+
+    /**
+     * {@code tregex_call_compile(engine, pattern, flags)}: compiles the pattern with the given
+     * TRegex engine. Compiled regexes are shared by all contexts through the language's
+     * {@link RegexCache}.
+     */
     @Builtin(name = "tregex_call_compile", minNumOfPositionalArgs = 3)
     @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     abstract static class TRegexCallCompile extends PythonTernaryBuiltinNode {
 
         @Specialization(limit = "1")
-        Object call(Object callable, Object arg1, Object arg2,
+        Object call(VirtualFrame frame, Object callable, Object arg1, Object arg2,
                         @Cached("create()") BranchProfile syntaxError,
                         @Cached("create()") BranchProfile typeError,
-                        @CachedLibrary("callable") InteropLibrary interop) {
+                        @Cached CastToStringNode castToStringNode,
+                        @Cached BytesNodes.ToBytesNode toBytesNode,
+                        @CachedLibrary("callable") InteropLibrary interop,
+                        @CachedLibrary(limit = "1") InteropLibrary regexInterop,
+                        @CachedContext(PythonLanguage.class) PythonContext context) {
+            RegexCache cache = context.getLanguage().getRegexCache(context);
+            String engineOptions = cache.getEngineOptions(callable);
+            RegexCache.Key key = null;
+            if (engineOptions != null) {
+                boolean binary = !PGuards.isString(arg1);
+                String pattern = binary ? decodeLatin1(toBytesNode.execute(frame, arg1)) : castToStringNode.execute(frame, arg1);
+                key = new RegexCache.Key(engineOptions, pattern, castToStringNode.execute(frame, arg2), binary);
+                Object cached = cache.get(key);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+            long fallbackCompilations = cache.getFallbackCompilations();
+            Object regex;
             try {
-                return interop.execute(callable, arg1, arg2);
-            } catch (ArityException | UnsupportedTypeException | UnsupportedMessageException e) {
+                regex = interop.execute(callable, arg1, arg2);
+                // TRegex may defer parsing to the first use; the group count needs the parsed
+                // regex, so afterwards we know whether the fallback compiler was involved
+                regexInterop.readMember(regex, "groupCount");
+            } catch (ArityException | UnsupportedTypeException | UnsupportedMessageException | UnknownIdentifierException e) {
                 typeError.enter();
                 throw raise(TypeError, "%s", e);
             } catch (RuntimeException e) {
@@ -216,24 +280,582 @@ public class SREModuleBuiltins extends PythonBuiltins {
                 // just re-throw
                 throw e;
             }
+            if (key != null && cache.getFallbackCompilations() == fallbackCompilations) {
+                cache.put(key, regex);
+            }
+            return regex;
+        }
+
+        @TruffleBoundary
+        private static String decodeLatin1(byte[] bytes) {
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    /**
+     * Called by the fallback compiler of the TRegex engines, so that regexes compiled by it are
+     * not put into the {@link RegexCache}.
+     */
+    @Builtin(name = "tregex_fallback_compilation", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class TRegexFallbackCompilation extends PythonBuiltinNode {
+
+        @Specialization
+        Object note(@CachedContext(PythonLanguage.class) PythonContext context) {
+            context.getLanguage().getRegexCache(context).fallbackCompilation();
+            return PNone.NONE;
+        }
+    }
+
+    /**
+     * Base class of the builtins that execute a compiled regex on an input that may be bounded by
+     * {@code endpos}.
+     */
+    abstract static class TRegexBoundedExecNode extends PythonBuiltinNode {
+        @Child private CastToIndexNode castToIndexNode;
+
+        protected final int getLength(InteropLibrary interop, Object input) {
+            if (input instanceof String) {
+                return ((String) input).length();
+            } else if (input instanceof PString) {
+                return ((PString) input).len();
+            }
+            try {
+                return (int) interop.getArraySize(input);
+            } catch (UnsupportedMessageException e) {
+                throw raise(TypeError, "%s", e);
+            }
+        }
+
+        /**
+         * Normalizes {@code endpos} as {@code _sre} does: {@code None} means the end of the
+         * input, other values are clamped to {@code [0, length]}.
+         */
+        protected final int getEndpos(Object endpos, int length) {
+            if (PGuards.isNone(endpos) || endpos == PNone.NO_VALUE) {
+                return length;
+            }
+            if (castToIndexNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToIndexNode = insert(CastToIndexNode.create());
+            }
+            return Math.max(0, Math.min(castToIndexNode.execute(endpos), length));
+        }
+
+        /**
+         * Returns the input to pass to TRegex: the input itself if the search may run to its end,
+         * otherwise a {@link RegexInputRegion}, so that no substring has to be created.
+         */
+        protected static Object bound(Object input, int endpos, int length) {
+            if (endpos >= length) {
+                return input;
+            }
+            return new RegexInputRegion(input instanceof PString ? ((PString) input).getValue() : input, endpos);
         }
     }
 
-    @Builtin(name = "tregex_call_exec", minNumOfPositionalArgs = 3)
+    /**
+     * {@code tregex_call_exec(exec, input, from_index, endpos=None)}
+     */
+    @Builtin(name = "tregex_call_exec", minNumOfPositionalArgs = 3, parameterNames = {"callable", "input", "from_index", "endpos"})
     @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
-    abstract static class TRegexCallExec extends PythonTernaryBuiltinNode {
+    abstract static class TRegexCallExec extends TRegexBoundedExecNode {
 
         @Specialization(limit = "1")
-        Object call(Object callable, Object arg1, Number arg2,
+        Object call(Object callable, Object arg1, Number arg2, Object endpos,
                         @Cached("create()") BranchProfile typeError,
-                        @CachedLibrary("callable") InteropLibrary interop) {
+                        @CachedLibrary("callable") InteropLibrary interop,
+                        @CachedLibrary(limit = "3") InteropLibrary inputInterop) {
+            Object input = arg1;
+            if (endpos != PNone.NO_VALUE) {
+                int length = getLength(inputInterop, arg1);
+                input = bound(arg1, getEndpos(endpos, length), length);
+            }
             try {
-                return interop.execute(callable, arg1, arg2);
+                return interop.execute(callable, input, arg2);
             } catch (ArityException | UnsupportedTypeException | UnsupportedMessageException e) {
                 typeError.enter();
                 throw raise(TypeError, "%s", e);
             }
         }
     }
+
+    /**
+     * {@code tregex_search(pattern, regex, input, pos, endpos)}: executes the regex on
+     * {@code input[:endpos]} from {@code pos} and returns a match object or {@code None}.
+     */
+    @Builtin(name = "tregex_search", minNumOfPositionalArgs = 5)
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    @GenerateNodeFactory
+    abstract static class TRegexSearchNode extends TRegexBoundedExecNode {
+
+        @Specialization
+        Object search(Object pattern, Object regex, Object input, int pos, Object endpos,
+                        @Cached("create()") BranchProfile typeError,
+                        @CachedLibrary(limit = "3") InteropLibrary interop) {
+            int length = getLength(interop, input);
+            int end = getEndpos(endpos, length);
+            int start = Math.max(0, Math.min(pos, length));
+            if (start > end) {
+                return PNone.NONE;
+            }
+            try {
+                Object result = interop.execute(interop.readMember(regex, "exec"), bound(input, end, length), start);
+                if (!interop.asBoolean(interop.readMember(result, "isMatch"))) {
+                    return PNone.NONE;
+                }
+                int groupCount = interop.asInt(interop.readMember(regex, "groupCount"));
+                return factory().createSREMatch(pattern, regex, result, input, start, end, groupCount);
+            } catch (InteropException e) {
+                typeError.enter();
+                throw raise(TypeError, "%s", e);
+            }
+        }
+    }
+
+    /**
+     * Base class of the builtins that run a compiled TRegex regex repeatedly over one input. The
+     * input is processed as a Java string; bytes are decoded as Latin-1, so that every character
+     * corresponds to one byte.
+     */
+    abstract static class TRegexLoopNode extends PythonBuiltinNode {
+        @Child private CastToStringNode castToStringNode;
+        @Child private BytesNodes.ToBytesNode toBytesNode;
+
+        protected final String getText(VirtualFrame frame, Object input) {
+            if (PGuards.isString(input)) {
+                if (castToStringNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    castToStringNode = insert(CastToStringNode.create());
+                }
+                return castToStringNode.execute(frame, input);
+            }
+            if (toBytesNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                toBytesNode = insert(BytesNodes.ToBytesNode.create());
+            }
+            return decodeLatin1(toBytesNode.execute(frame, input));
+        }
+
+        protected final Object createString(String text, boolean binary) {
+            if (binary) {
+                return factory().createBytes(encodeLatin1(text));
+            }
+            return text;
+        }
+
+        @TruffleBoundary
+        private static String decodeLatin1(byte[] bytes) {
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+
+        @TruffleBoundary
+        private static byte[] encodeLatin1(String text) {
+            return text.getBytes(StandardCharsets.ISO_8859_1);
+        }
+
+        @TruffleBoundary
+        protected static String substring(String text, int start, int end) {
+            return text.substring(start, end);
+        }
+
+        protected final Object readMember(InteropLibrary interop, Object object, String name) {
+            try {
+                return interop.readMember(object, name);
+            } catch (InteropException e) {
+                throw raise(TypeError, "%s", e);
+            }
+        }
+
+        protected final int getGroupCount(InteropLibrary interop, Object regex) {
+            try {
+                return interop.asInt(interop.readMember(regex, "groupCount"));
+            } catch (InteropException e) {
+                throw raise(TypeError, "%s", e);
+            }
+        }
+
+        /**
+         * Searches from {@code fromIndex} and returns the result if there was a match, otherwise
+         * {@code null}.
+         */
+        protected final Object exec(InteropLibrary interop, Object regexExec, Object input, int fromIndex) {
+            try {
+                Object result = interop.execute(regexExec, input, fromIndex);
+                return interop.asBoolean(interop.readMember(result, "isMatch")) ? result : null;
+            } catch (InteropException e) {
+                throw raise(TypeError, "%s", e);
+            }
+        }
+
+        protected final int getStart(InteropLibrary interop, Object result, int group) {
+            try {
+                return interop.asInt(interop.invokeMember(result, "getStart", group));
+            } catch (InteropException e) {
+                throw raise(TypeError, "%s", e);
+            }
+        }
+
+        protected final int getEnd(InteropLibrary interop, Object result, int group) {
+            try {
+                return interop.asInt(interop.invokeMember(result, "getEnd", group));
+            } catch (InteropException e) {
+                throw raise(TypeError, "%s", e);
+            }
+        }
+
+        /**
+         * Returns the text of a group or the default value if the group did not participate in
+         * the match.
+         */
+        protected final Object getGroup(InteropLibrary interop, Object result, int group, String text, boolean binary, Object defaultValue) {
+            int start = getStart(interop, result, group);
+            if (start < 0) {
+                return defaultValue;
+            }
+            return createString(substring(text, start, getEnd(interop, result, group)), binary);
+        }
+    }
+
+    /**
+     * The replacement template of {@code re.sub}, parsed once into literal strings and group
+     * indices as {@code sre_parse.parse_template} does.
+     */
+    static final class ReplacementTemplate {
+        private final Object[] segments;
+
+        private ReplacementTemplate(Object[] segments) {
+            this.segments = segments;
+        }
+
+        /**
+         * Parses the template. Syntax errors are reported as {@code ValueError}, which the caller
+         * turns into {@code re.error}.
+         */
+        @TruffleBoundary
+        static ReplacementTemplate parse(PRaiseNode raise, InteropLibrary interop, String repl, Object regex, int groupCount) {
+            ArrayList<Object> segments = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            int n = repl.length();
+            int i = 0;
+            while (i < n) {
+                char c = repl.charAt(i++);
+                if (c != '\\') {
+                    literal.append(c);
+                    continue;
+                }
+                if (i == n) {
+                    throw raise.raise(ValueError, "bad escape (end of pattern) at position %d", i - 1);
+                }
+                int escapeStart = i - 1;
+                c = repl.charAt(i++);
+                int group = -1;
+                if (c == 'g') {
+                    if (i == n || repl.charAt(i) != '<') {
+                        throw raise.raise(ValueError, "missing < at position %d", i);
+                    }
+                    int close = repl.indexOf('>', i + 1);
+                    if (close < 0) {
+                        throw raise.raise(ValueError, "missing >, unterminated name at position %d", i + 1);
+                    }
+                    String name = repl.substring(i + 1, close);
+                    if (name.isEmpty()) {
+                        throw raise.raise(ValueError, "missing group name at position %d", i + 1);
+                    }
+                    group = lookupGroup(raise, interop, name, regex, i + 1);
+                    i = close + 1;
+                } else if (c == '0') {
+                    int value = 0;
+                    for (int digits = 0; digits < 2 && i < n && isOctal(repl.charAt(i)); digits++) {
+                        value = value * 8 + (repl.charAt(i++) - '0');
+                    }
+                    literal.append((char) (value & 0xff));
+                    continue;
+                } else if (c >= '1' && c <= '9') {
+                    group = c - '0';
+                    if (i < n && isDigit(repl.charAt(i))) {
+                        char second = repl.charAt(i++);
+                        if (isOctal(c) && isOctal(second) && i < n && isOctal(repl.charAt(i))) {
+                            int value = ((c - '0') * 8 + (second - '0')) * 8 + (repl.charAt(i++) - '0');
+                            if (value > 0377) {
+                                throw raise.raise(ValueError, "octal escape value %s outside of range 0-0o377 at position %d", repl.substring(escapeStart, i), escapeStart);
+                            }
+                            literal.append((char) value);
+                            continue;
+                        }
+                        group = group * 10 + (second - '0');
+                    }
+                } else {
+                    char escaped = getEscape(c);
+                    if (escaped != 0) {
+                        literal.append(escaped);
+                    } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                        throw raise.raise(ValueError, "bad escape \\%s at position %d", String.valueOf(c), escapeStart);
+                    } else {
+                        literal.append('\\').append(c);
+                    }
+                    continue;
+                }
+                if (group >= groupCount) {
+                    throw raise.raise(ValueError, "invalid group reference %d at position %d", group, escapeStart + 1);
+                }
+                if (literal.length() > 0) {
+                    segments.add(literal.toString());
+                    literal.setLength(0);
+                }
+                segments.add(group);
+            }
+            if (literal.length() > 0) {
+                segments.add(literal.toString());
+            }
+            return new ReplacementTemplate(segments.toArray());
+        }
+
+        private static int lookupGroup(PRaiseNode raise, InteropLibrary interop, String name, Object regex, int position) {
+            boolean digitsOnly = true;
+            for (int i = 0; i < name.length(); i++) {
+                digitsOnly &= isDigit(name.charAt(i));
+            }
+            if (digitsOnly) {
+                try {
+                    return Integer.parseInt(name);
+                } catch (NumberFormatException e) {
+                    throw raise.raise(ValueError, "invalid group reference %s at position %d", name, position);
+                }
+            }
+            try {
+                Object groups = interop.readMember(regex, "groups");
+                if (!interop.isNull(groups) && interop.isMemberReadable(groups, name)) {
+                    return interop.asInt(interop.readMember(groups, name));
+                }
+            } catch (InteropException e) {
+                // fall through
+            }
+            if (!Character.isJavaIdentifierStart(name.charAt(0))) {
+                throw raise.raise(ValueError, "bad character in group name '%s' at position %d", name, position);
+            }
+            throw raise.raise(IndexError, "unknown group name '%s'", name);
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static boolean isOctal(char c) {
+            return c >= '0' && c <= '7';
+        }
+
+        private static char getEscape(char c) {
+            switch (c) {
+                case 'a':
+                    return 7;
+                case 'b':
+                    return '\b';
+                case 'f':
+                    return '\f';
+                case 'n':
+                    return '\n';
+                case 'r':
+                    return '\r';
+                case 't':
+                    return '\t';
+                case 'v':
+                    return 11;
+                case '\\':
+                    return '\\';
+                default:
+                    return 0;
+            }
+        }
+
+        /**
+         * Appends the expansion of the template for the given match.
+         */
+        void expand(TRegexLoopNode node, InteropLibrary interop, StringBuilder sb, Object result, String text) {
+            for (int i = 0; i < segments.length; i++) {
+                Object segment = segments[i];
+                if (segment instanceof String) {
+                    append(sb, (String) segment);
+                } else {
+                    int group = (int) segment;
+                    int start = node.getStart(interop, result, group);
+                    if (start >= 0) {
+                        append(sb, text, start, node.getEnd(interop, result, group));
+                    }
+                }
+            }
+        }
+    }
+
+    @TruffleBoundary
+    private static void append(StringBuilder sb, String s) {
+        sb.append(s);
+    }
+
+    @TruffleBoundary
+    private static void append(StringBuilder sb, String s, int start, int end) {
+        sb.append(s, start, end);
+    }
+
+    @TruffleBoundary
+    private static void add(ArrayList<Object> list, Object item) {
+        list.add(item);
+    }
+
+    @TruffleBoundary
+    private static Object[] toArray(ArrayList<Object> list) {
+        return list.toArray();
+    }
+
+    @TruffleBoundary
+    private static String toString(StringBuilder sb) {
+        return sb.toString();
+    }
+
+    /**
+     * {@code tregex_subn(regex, string, repl, count, pattern)}: replaces up to {@code count}
+     * matches. If {@code pattern} is {@code None}, {@code repl} is a replacement template,
+     * otherwise {@code repl} is called with a match object of {@code pattern} for every match.
+     */
+    @Builtin(name = "tregex_subn", minNumOfPositionalArgs = 5)
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    @GenerateNodeFactory
+    abstract static class TRegexSubnNode extends TRegexLoopNode {
+
+        @Specialization
+        Object subn(VirtualFrame frame, Object regex, Object input, Object repl, int count, Object pattern,
+                        @Cached CallNode callReplNode,
+                        @Cached PRaiseNode raiseNode,
+                        @CachedLibrary(limit = "3") InteropLibrary interop) {
+            boolean binary = !PGuards.isString(input);
+            String text = getText(frame, input);
+            Object regexExec = readMember(interop, regex, "exec");
+            int groupCount = getGroupCount(interop, regex);
+            ReplacementTemplate template = null;
+            if (pattern == PNone.NONE) {
+                template = ReplacementTemplate.parse(raiseNode, interop, getText(frame, repl), regex, groupCount);
+            }
+            StringBuilder sb = new StringBuilder();
+            int length = text.length();
+            int n = 0;
+            int pos = 0;
+            while ((count == 0 || n < count) && pos <= length) {
+                Object result = exec(interop, regexExec, input, pos);
+                if (result == null) {
+                    break;
+                }
+                n++;
+                int start = getStart(interop, result, 0);
+                int end = getEnd(interop, result, 0);
+                append(sb, text, pos, start);
+                if (template != null) {
+                    template.expand(this, interop, sb, result, text);
+                } else {
+                    PSREMatch match = factory().createSREMatch(pattern, regex, result, input, 0, length, groupCount);
+                    Object replacement = callReplNode.execute(frame, repl, match);
+                    if (replacement != PNone.NONE) {
+                        append(sb, getText(frame, replacement));
+                    }
+                }
+                pos = end;
+                if (start == end) {
+                    if (pos < length) {
+                        append(sb, text, pos, pos + 1);
+                    }
+                    pos++;
+                }
+            }
+            if (pos < length) {
+                append(sb, text, pos, length);
+            }
+            return factory().createTuple(new Object[]{createString(toString(sb), binary), n});
+        }
+    }
+
+    /**
+     * {@code tregex_split(regex, string, maxsplit)}
+     */
+    @Builtin(name = "tregex_split", minNumOfPositionalArgs = 3)
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    @GenerateNodeFactory
+    abstract static class TRegexSplitNode extends TRegexLoopNode {
+
+        @Specialization
+        Object split(VirtualFrame frame, Object regex, Object input, int maxsplit,
+                        @CachedLibrary(limit = "3") InteropLibrary interop) {
+            boolean binary = !PGuards.isString(input);
+            String text = getText(frame, input);
+            Object regexExec = readMember(interop, regex, "exec");
+            int groupCount = getGroupCount(interop, regex);
+            ArrayList<Object> list = new ArrayList<>();
+            int length = text.length();
+            int n = 0;
+            int collectPos = 0;
+            int searchPos = 0;
+            while ((maxsplit == 0 || n < maxsplit) && searchPos <= length) {
+                Object result = exec(interop, regexExec, input, searchPos);
+                if (result == null) {
+                    break;
+                }
+                n++;
+                int start = getStart(interop, result, 0);
+                int end = getEnd(interop, result, 0);
+                add(list, createString(substring(text, collectPos, start), binary));
+                for (int i = 1; i < groupCount; i++) {
+                    add(list, getGroup(interop, result, i, text, binary, PNone.NONE));
+                }
+                collectPos = end;
+                searchPos = start == end ? end + 1 : end;
+            }
+            add(list, createString(substring(text, collectPos, length), binary));
+            return factory().createList(toArray(list));
+        }
+    }
+
+    /**
+     * {@code tregex_findall(regex, string, pos, endpos)}: like {@code tregex_search}, the search
+     * is bounded by a {@link RegexInputRegion} instead of a copy of {@code string[:endpos]}.
+     */
+    @Builtin(name = "tregex_findall", minNumOfPositionalArgs = 4)
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    @GenerateNodeFactory
+    abstract static class TRegexFindAllNode extends TRegexLoopNode {
+
+        @Specialization
+        Object findall(VirtualFrame frame, Object regex, Object input, int startPos, int endpos,
+                        @CachedLibrary(limit = "3") InteropLibrary interop) {
+            boolean binary = !PGuards.isString(input);
+            String text = getText(frame, input);
+            Object regexExec = readMember(interop, regex, "exec");
+            int groupCount = getGroupCount(interop, regex);
+            Object empty = createString("", binary);
+            ArrayList<Object> list = new ArrayList<>();
+            int length = text.length();
+            int limit = Math.max(0, Math.min(endpos, length));
+            Object bounded = TRegexBoundedExecNode.bound(input, limit, length);
+            int pos = Math.max(startPos, 0);
+            while (pos <= limit) {
+                Object result = exec(interop, regexExec, bounded, pos);
+                if (result == null) {
+                    break;
+                }
+                Object item;
+                if (groupCount <= 2) {
+                    item = getGroup(interop, result, groupCount - 1, text, binary, empty);
+                } else {
+                    Object[] groups = new Object[groupCount - 1];
+                    for (int i = 1; i < groupCount; i++) {
+                        groups[i - 1] = getGroup(interop, result, i, text, binary, empty);
+                    }
+                    item = factory().createTuple(groups);
+                }
+                add(list, item);
+                int start = getStart(interop, result, 0);
+                int end = getEnd(interop, result, 0);
+                pos = start == end ? end + 1 : end;
+            }
+            return factory().createList(toArray(list));
+        }
+    }
 }
@@ -40,20 +40,37 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import java.io.PrintStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.select.PPoll;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.nodes.builtins.ListNodes.FastConstructListNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
-import com.oracle.graal.python.runtime.PythonOptions;
+import com.oracle.graal.python.nodes.util.CastToDoubleNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
 
 @CoreFunctions(defineModule = "select")
 public class SelectModuleBuiltins extends PythonBuiltins {
@@ -62,16 +79,162 @@ public class SelectModuleBuiltins extends PythonBuiltins {
         return SelectModuleBuiltinsFactory.getFactories();
     }
 
+    public SelectModuleBuiltins() {
+        builtinConstants.put("POLLIN", PPoll.POLLIN);
+        builtinConstants.put("POLLPRI", PPoll.POLLPRI);
+        builtinConstants.put("POLLOUT", PPoll.POLLOUT);
+        builtinConstants.put("POLLERR", PPoll.POLLERR);
+        builtinConstants.put("POLLHUP", PPoll.POLLHUP);
+        builtinConstants.put("POLLNVAL", PPoll.POLLNVAL);
+        builtinConstants.put("POLLRDNORM", PPoll.POLLRDNORM);
+        builtinConstants.put("POLLRDBAND", PPoll.POLLRDBAND);
+        builtinConstants.put("POLLWRNORM", PPoll.POLLWRNORM);
+        builtinConstants.put("POLLWRBAND", PPoll.POLLWRBAND);
+    }
+
     @Builtin(name = "select", minNumOfPositionalArgs = 3, parameterNames = {"rlist", "wlist", "xlist", "timeout"})
     @GenerateNodeFactory
     abstract static class SelectNode extends PythonBuiltinNode {
         @Specialization
+        PTuple select(VirtualFrame frame, Object rlist, Object wlist, Object xlist, Object timeout,
+                        @Cached("create()") FastConstructListNode constructListNode,
+                        @Cached("create()") FilenoNode filenoNode,
+                        @Cached("create()") CastToDoubleNode castToDoubleNode) {
+            long timeoutMillis = -1;
+            if (!PGuards.isPNone(timeout)) {
+                double seconds = castToDoubleNode.execute(frame, timeout);
+                if (seconds < 0) {
+                    throw raise(PythonBuiltinClassType.ValueError, "timeout must be non-negative");
+                }
+                timeoutMillis = (long) Math.ceil(seconds * 1000);
+            }
+            SequenceStorage readObjs = constructListNode.execute(rlist).getSequenceStorage();
+            SequenceStorage writeObjs = constructListNode.execute(wlist).getSequenceStorage();
+            SequenceStorage exceptObjs = constructListNode.execute(xlist).getSequenceStorage();
+            int[] readFds = getFds(frame, filenoNode, readObjs);
+            int[] writeFds = getFds(frame, filenoNode, writeObjs);
+            int[] exceptFds = getFds(frame, filenoNode, exceptObjs);
+
+            Map<Integer, Integer> fds = new LinkedHashMap<>();
+            addEvents(fds, readFds, PPoll.POLLIN);
+            addEvents(fds, writeFds, PPoll.POLLOUT);
+            addEvents(fds, exceptFds, PPoll.POLLPRI);
+            Map<Integer, Integer> ready;
+            try {
+                ready = toMap(PPoll.pollOnce(getContext().getGil(), getContext().getResources(), fds, timeoutMillis));
+            } catch (IOException e) {
+                throw raise(PythonBuiltinClassType.OSError, e);
+            }
+            if (containsEvent(ready, PPoll.POLLNVAL)) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            }
+            return factory().createTuple(new Object[]{
+                            filter(readObjs, readFds, ready, PPoll.POLLIN),
+                            filter(writeObjs, writeFds, ready, PPoll.POLLOUT),
+                            filter(exceptObjs, exceptFds, ready, PPoll.POLLPRI)});
+        }
+
+        private static int[] getFds(VirtualFrame frame, FilenoNode filenoNode, SequenceStorage objs) {
+            int[] fds = new int[objs.length()];
+            for (int i = 0; i < fds.length; i++) {
+                fds[i] = filenoNode.execute(frame, objs.getItemNormalized(i));
+            }
+            return fds;
+        }
+
+        @TruffleBoundary
+        private static void addEvents(Map<Integer, Integer> fds, int[] toAdd, int event) {
+            for (int fd : toAdd) {
+                fds.merge(fd, event, (a, b) -> a | b);
+            }
+        }
+
+        @TruffleBoundary
+        private static Map<Integer, Integer> toMap(List<int[]> ready) {
+            Map<Integer, Integer> result = new LinkedHashMap<>();
+            for (int[] fdAndEvents : ready) {
+                result.put(fdAndEvents[0], fdAndEvents[1]);
+            }
+            return result;
+        }
+
+        @TruffleBoundary
+        private static boolean containsEvent(Map<Integer, Integer> ready, int event) {
+            for (int events : ready.values()) {
+                if ((events & event) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
         @TruffleBoundary
-        PTuple select(Object rlist, Object wlist, Object xlist, @SuppressWarnings("unused") Object timeout) {
-            if (PythonOptions.getFlag(getContext(), PythonOptions.VerboseFlag)) {
-                new PrintStream(getContext().getEnv().err()).println("select() will always return immediately, we only support blocking I/O for now");
+        private PList filter(SequenceStorage objs, int[] fds, Map<Integer, Integer> ready, int event) {
+            Object[] result = new Object[fds.length];
+            int n = 0;
+            for (int i = 0; i < fds.length; i++) {
+                if ((ready.getOrDefault(fds[i], 0) & event) != 0) {
+                    result[n++] = objs.getItemNormalized(i);
+                }
+            }
+            Object[] trimmed = new Object[n];
+            System.arraycopy(result, 0, trimmed, 0, n);
+            return factory().createList(trimmed);
+        }
+    }
+
+    // poll()
+    @Builtin(name = "poll", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class PollNode extends PythonBuiltinNode {
+        @Specialization
+        PPoll poll() {
+            return factory().createPoll();
+        }
+    }
+
+    /**
+     * Gets the file descriptor of an object, which is either an integer or has a
+     * {@code fileno()} method.
+     */
+    public static final class FilenoNode extends Node {
+        private static final String FILENO = "fileno";
+
+        @Child private CastToIndexNode castToIndexNode = CastToIndexNode.create();
+        @Child private LookupAndCallUnaryNode callFilenoNode;
+        @Child private PRaiseNode raiseNode;
+
+        public int execute(VirtualFrame frame, Object obj) {
+            int fd;
+            if (PGuards.isInteger(obj) || PGuards.isPInt(obj)) {
+                fd = castToIndexNode.execute(obj);
+            } else {
+                if (callFilenoNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    callFilenoNode = insert(LookupAndCallUnaryNode.create(FILENO));
+                }
+                Object result = callFilenoNode.executeObject(frame, obj);
+                if (result == PNone.NO_VALUE) {
+                    throw getRaiseNode().raise(PythonBuiltinClassType.TypeError, "argument must be an int, or have a fileno() method.");
+                }
+                fd = castToIndexNode.execute(result);
+            }
+            if (fd < 0) {
+                throw getRaiseNode().raise(PythonBuiltinClassType.ValueError, "file descriptor cannot be a negative integer (%d)", fd);
             }
-            return factory().createTuple(new Object[]{rlist, wlist, xlist});
+            return fd;
+        }
+
+        private PRaiseNode getRaiseNode() {
+            if (raiseNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                raiseNode = insert(PRaiseNode.create());
+            }
+            return raiseNode;
+        }
+
+        public static FilenoNode create() {
+            return new FilenoNode();
         }
     }
 }
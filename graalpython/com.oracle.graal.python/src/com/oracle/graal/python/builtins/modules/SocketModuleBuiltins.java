@@ -40,8 +40,15 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.channels.Channel;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectableChannel;
+import java.util.ArrayList;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
@@ -49,15 +56,23 @@ import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
 import com.oracle.graal.python.builtins.objects.socket.PSocket;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.nodes.util.CastToStringNode;
+import com.oracle.graal.python.runtime.PosixResources;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
 
 @CoreFunctions(defineModule = "_socket")
 public class SocketModuleBuiltins extends PythonBuiltins {
@@ -66,37 +81,84 @@ public class SocketModuleBuiltins extends PythonBuiltins {
         return SocketModuleBuiltinsFactory.getFactories();
     }
 
+    public SocketModuleBuiltins() {
+        builtinConstants.put("SOL_SOCKET", PSocket.SOL_SOCKET);
+        builtinConstants.put("SO_REUSEADDR", PSocket.SO_REUSEADDR);
+        builtinConstants.put("SO_TYPE", PSocket.SO_TYPE);
+        builtinConstants.put("SO_ERROR", PSocket.SO_ERROR);
+        builtinConstants.put("SO_BROADCAST", PSocket.SO_BROADCAST);
+        builtinConstants.put("SO_SNDBUF", PSocket.SO_SNDBUF);
+        builtinConstants.put("SO_RCVBUF", PSocket.SO_RCVBUF);
+        builtinConstants.put("SO_KEEPALIVE", PSocket.SO_KEEPALIVE);
+        builtinConstants.put("IPPROTO_TCP", PSocket.IPPROTO_TCP);
+        builtinConstants.put("IPPROTO_UDP", PSocket.IPPROTO_UDP);
+        builtinConstants.put("TCP_NODELAY", PSocket.TCP_NODELAY);
+        builtinConstants.put("SHUT_RD", PSocket.SHUT_RD);
+        builtinConstants.put("SHUT_WR", PSocket.SHUT_WR);
+        builtinConstants.put("SHUT_RDWR", PSocket.SHUT_RDWR);
+        builtinConstants.put("SOMAXCONN", 128);
+    }
+
     // socket(family=AF_INET, type=SOCK_STREAM, proto=0, fileno=None)
     @Builtin(name = "socket", minNumOfPositionalArgs = 1, parameterNames = {"cls", "family", "type", "proto", "fileno"}, constructsClass = PythonBuiltinClassType.PSocket)
     @GenerateNodeFactory
     public abstract static class SocketNode extends PythonBuiltinNode {
-        @Specialization(guards = {"isNoValue(family)", "isNoValue(type)", "isNoValue(proto)", "isNoValue(fileno)"})
-        Object socket(LazyPythonClass cls, @SuppressWarnings("unused") PNone family, @SuppressWarnings("unused") PNone type, @SuppressWarnings("unused") PNone proto,
-                        @SuppressWarnings("unused") PNone fileno) {
-            return createSocketInternal(cls, PSocket.AF_INET, PSocket.SOCK_STREAM, 0);
-        }
-
-        @Specialization(guards = {"isNoValue(type)", "isNoValue(proto)", "isNoValue(fileno)"})
-        Object socket(LazyPythonClass cls, int family, @SuppressWarnings("unused") PNone type, @SuppressWarnings("unused") PNone proto, @SuppressWarnings("unused") PNone fileno) {
-            return createSocketInternal(cls, family, PSocket.SOCK_STREAM, 0);
-        }
-
-        @Specialization(guards = {"isNoValue(proto)", "isNoValue(fileno)"})
-        Object socket(LazyPythonClass cls, int family, int type, @SuppressWarnings("unused") PNone proto, @SuppressWarnings("unused") PNone fileno) {
-            return createSocketInternal(cls, family, type, 0);
+        @Specialization
+        Object socket(VirtualFrame frame, LazyPythonClass cls, Object familyObj, Object typeObj, Object protoObj, Object filenoObj,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            if (!getContext().getEnv().isNativeAccessAllowed()) {
+                throw raise(PythonErrorType.OSError, "creating sockets not allowed");
+            }
+            // 'socket.socket' passes -1 for arguments that were not given
+            int family = toInt(castToIndexNode, familyObj, PSocket.AF_INET);
+            int type = toInt(castToIndexNode, typeObj, -1);
+            int proto = toInt(castToIndexNode, protoObj, 0);
+            PosixResources resources = getContext().getResources();
+            if (PGuards.isPNone(filenoObj)) {
+                if (type == -1) {
+                    type = PSocket.SOCK_STREAM;
+                }
+                PSocket socket = factory().createSocket(cls, family, type, proto);
+                try {
+                    if (type == PSocket.SOCK_DGRAM) {
+                        socket.setChannel(openDatagramChannel());
+                    }
+                } catch (IOException e) {
+                    throw raise(PythonErrorType.OSError, e);
+                }
+                socket.setFileno(resources.openSocket(socket.getChannel()));
+                return socket;
+            } else {
+                int fd = castToIndexNode.execute(filenoObj);
+                Channel channel = resources.getFileChannel(fd);
+                if (!(channel instanceof SelectableChannel)) {
+                    throw raiseOSError(frame, OSErrorEnum.EBADF);
+                }
+                if (type == -1) {
+                    type = channel instanceof DatagramChannel ? PSocket.SOCK_DGRAM : PSocket.SOCK_STREAM;
+                }
+                PSocket socket = factory().createSocket(cls, family, type, proto);
+                try {
+                    socket.setChannel((SelectableChannel) channel);
+                } catch (IOException e) {
+                    throw raise(PythonErrorType.OSError, e);
+                }
+                socket.setFileno(fd);
+                return socket;
+            }
         }
 
-        @Specialization(guards = {"isNoValue(fileno)"})
-        Object socket(LazyPythonClass cls, int family, int type, int proto, @SuppressWarnings("unused") PNone fileno) {
-            return createSocketInternal(cls, family, type, proto);
+        private static int toInt(CastToIndexNode castToIndexNode, Object value, int defaultValue) {
+            if (PGuards.isPNone(value)) {
+                return defaultValue;
+            }
+            int i = castToIndexNode.execute(value);
+            return i == -1 ? defaultValue : i;
         }
 
-        private Object createSocketInternal(LazyPythonClass cls, int family, int type, int proto) {
-            if (getContext().getEnv().isNativeAccessAllowed()) {
-                return factory().createSocket(cls, family, type, proto);
-            } else {
-                throw raise(PythonErrorType.OSError, "creating sockets not allowed");
-            }
+        @TruffleBoundary
+        private static DatagramChannel openDatagramChannel() throws IOException {
+            return DatagramChannel.open();
         }
     }
 
@@ -113,4 +175,116 @@ public class SocketModuleBuiltins extends PythonBuiltins {
             }
         }
     }
+
+    // gethostbyname(hostname)
+    @Builtin(name = "gethostbyname", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class GetHostByNameNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        String get(VirtualFrame frame, Object nameObj,
+                        @Cached("create()") CastToStringNode castToStringNode) {
+            String name = castToStringNode.execute(frame, nameObj);
+            InetAddress[] addresses = resolve(name);
+            for (InetAddress address : addresses) {
+                if (address instanceof Inet4Address) {
+                    return getHostAddress(address);
+                }
+            }
+            throw raise(PythonBuiltinClassType.OSError, "host not found: %s", name);
+        }
+
+        private InetAddress[] resolve(String name) {
+            InetAddress[] addresses = getAllByName(name);
+            if (addresses == null) {
+                throw raise(PythonBuiltinClassType.OSError, "host not found: %s", name);
+            }
+            return addresses;
+        }
+    }
+
+    // getaddrinfo(host, port, family=0, type=0, proto=0, flags=0)
+    @Builtin(name = "getaddrinfo", minNumOfPositionalArgs = 2, parameterNames = {"host", "port", "family", "type", "proto", "flags"})
+    @GenerateNodeFactory
+    public abstract static class GetAddrInfoNode extends PythonBuiltinNode {
+        @Specialization
+        Object get(VirtualFrame frame, Object hostObj, Object portObj, Object familyObj, Object typeObj, Object protoObj, @SuppressWarnings("unused") Object flags,
+                        @Cached("create()") CastToStringNode castToStringNode,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            String host = PGuards.isPNone(hostObj) ? "localhost" : castToStringNode.execute(frame, hostObj);
+            int port;
+            if (PGuards.isPNone(portObj)) {
+                port = 0;
+            } else if (PGuards.isString(portObj)) {
+                port = parsePort(castToStringNode.execute(frame, portObj));
+            } else {
+                port = castToIndexNode.execute(portObj);
+            }
+            int family = PGuards.isNoValue(familyObj) ? PSocket.AF_UNSPEC : castToIndexNode.execute(familyObj);
+            int type = PGuards.isNoValue(typeObj) ? 0 : castToIndexNode.execute(typeObj);
+            int proto = PGuards.isNoValue(protoObj) ? 0 : castToIndexNode.execute(protoObj);
+
+            InetAddress[] addresses = getAllByName(host);
+            if (addresses == null) {
+                throw raise(PythonBuiltinClassType.OSError, "getaddrinfo failed: %s", host);
+            }
+            List<Object> result = new ArrayList<>();
+            for (InetAddress address : addresses) {
+                boolean ipv6 = address instanceof Inet6Address;
+                int addressFamily = ipv6 ? PSocket.AF_INET6 : PSocket.AF_INET;
+                if (family != PSocket.AF_UNSPEC && family != addressFamily) {
+                    continue;
+                }
+                String hostAddress = getHostAddress(address);
+                Object sockaddr = ipv6 ? factory().createTuple(new Object[]{hostAddress, port, 0, 0}) : factory().createTuple(new Object[]{hostAddress, port});
+                for (int kind : new int[]{PSocket.SOCK_STREAM, PSocket.SOCK_DGRAM}) {
+                    int kindProto = kind == PSocket.SOCK_STREAM ? PSocket.IPPROTO_TCP : PSocket.IPPROTO_UDP;
+                    if ((type == 0 || type == kind) && (proto == 0 || proto == kindProto)) {
+                        add(result, factory().createTuple(new Object[]{addressFamily, kind, kindProto, "", sockaddr}));
+                    }
+                }
+            }
+            return factory().createList(toArray(result));
+        }
+
+        private int parsePort(String port) {
+            int result = parseInt(port);
+            if (result < 0) {
+                throw raise(PythonBuiltinClassType.OSError, "service not known: %s", port);
+            }
+            return result;
+        }
+
+        @TruffleBoundary
+        private static int parseInt(String port) {
+            try {
+                return Integer.parseInt(port);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        @TruffleBoundary
+        private static void add(List<Object> list, Object item) {
+            list.add(item);
+        }
+
+        @TruffleBoundary
+        private static Object[] toArray(List<Object> list) {
+            return list.toArray();
+        }
+    }
+
+    @TruffleBoundary
+    private static InetAddress[] getAllByName(String host) {
+        try {
+            return InetAddress.getAllByName(host.isEmpty() ? null : host);
+        } catch (UnknownHostException | SecurityException e) {
+            return null;
+        }
+    }
+
+    @TruffleBoundary
+    private static String getHostAddress(InetAddress address) {
+        return address.getHostAddress();
+    }
 }
@@ -41,30 +41,44 @@
 package com.oracle.graal.python.builtins.modules;
 
 import static com.oracle.graal.python.builtins.objects.thread.AbstractPythonLock.TIMEOUT_MAX;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.thread.AbstractPythonLock;
+import com.oracle.graal.python.builtins.objects.thread.PCondition;
+import com.oracle.graal.python.builtins.objects.thread.PEvent;
 import com.oracle.graal.python.builtins.objects.thread.PLock;
 import com.oracle.graal.python.builtins.objects.thread.PRLock;
 import com.oracle.graal.python.builtins.objects.thread.PThread;
+import com.oracle.graal.python.builtins.objects.thread.PThreadLocal;
+import com.oracle.graal.python.builtins.objects.thread.ThreadLocalBuiltins;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.nodes.argument.keywords.ExecuteKeywordStarargsNode.ExpandKeywordStarargsNode;
 import com.oracle.graal.python.nodes.argument.positional.ExecutePositionalStarargsNode;
+import com.oracle.graal.python.nodes.attributes.LookupAttributeInMRONode;
 import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.runtime.GlobalInterpreterLock;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleLanguage;
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -87,6 +101,25 @@ public class ThreadModuleBuiltins extends PythonBuiltins {
         }
     }
 
+    // hold and wait times of the global interpreter lock, in seconds
+    @Builtin(name = "__truffle_gil_stats__", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class GilStatsNode extends PythonBuiltinNode {
+        @Specialization
+        @TruffleBoundary
+        PDict getStats() {
+            GlobalInterpreterLock gil = getContext().getGil();
+            Map<String, Object> dict = new HashMap<>();
+            dict.put("enabled", gil.isEnabled());
+            dict.put("acquisitions", gil.getAcquisitions());
+            dict.put("switches", gil.getSwitches());
+            dict.put("hold_time", gil.getTotalHoldNanos() / 1e9);
+            dict.put("max_hold_time", gil.getMaxHoldNanos() / 1e9);
+            dict.put("wait_time", gil.getTotalWaitNanos() / 1e9);
+            return factory().createDict(dict);
+        }
+    }
+
     @Builtin(name = "LockType", minNumOfPositionalArgs = 1, constructsClass = PythonBuiltinClassType.PLock)
     @GenerateNodeFactory
     abstract static class ConstructLockNode extends PythonUnaryBuiltinNode {
@@ -105,6 +138,51 @@ public class ThreadModuleBuiltins extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = "Condition", minNumOfPositionalArgs = 1, parameterNames = {"cls", "lock"}, constructsClass = PythonBuiltinClassType.PCondition)
+    @GenerateNodeFactory
+    abstract static class ConstructConditionNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PCondition construct(LazyPythonClass cls, @SuppressWarnings("unused") PNone lock) {
+            return factory().createCondition(cls, factory().createRLock());
+        }
+
+        @Specialization
+        PCondition construct(LazyPythonClass cls, AbstractPythonLock lock) {
+            return factory().createCondition(cls, lock);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PCondition construct(Object cls, Object lock) {
+            throw raise(TypeError, "lock must be a builtin Lock or RLock");
+        }
+    }
+
+    @Builtin(name = "Event", minNumOfPositionalArgs = 1, constructsClass = PythonBuiltinClassType.PEvent)
+    @GenerateNodeFactory
+    abstract static class ConstructEventNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PEvent construct(LazyPythonClass cls) {
+            return factory().createEvent(cls);
+        }
+    }
+
+    @Builtin(name = "_local", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true, constructsClass = PythonBuiltinClassType.PThreadLocal)
+    @GenerateNodeFactory
+    abstract static class ConstructThreadLocalNode extends PythonBuiltinNode {
+        @Specialization
+        PThreadLocal construct(LazyPythonClass cls, Object[] args, PKeyword[] keywordArgs,
+                        @Cached LookupAttributeInMRONode.Dynamic lookupInitNode) {
+            if ((args.length != 0 || keywordArgs.length != 0) && lookupInitNode.execute(cls, __INIT__) == lookupInitNode.execute(PythonBuiltinClassType.PythonObject, __INIT__)) {
+                throw raise(TypeError, "Initialization arguments are not supported");
+            }
+            PThreadLocal local = factory().createThreadLocal(cls, args, keywordArgs);
+            // the creating thread runs '__init__' through the type call
+            local.setThreadStorage(ThreadLocalBuiltins.createThreadStorage(factory()));
+            return local;
+        }
+    }
+
     @Builtin(name = "get_ident", minNumOfPositionalArgs = 0)
     @GenerateNodeFactory
     abstract static class GetCurrentThreadIdNode extends PythonBuiltinNode {
@@ -167,9 +245,15 @@ public class ThreadModuleBuiltins extends PythonBuiltins {
             // TODO: python thread stack size != java thread stack size
             // ignore setting the stack size for the moment
             Thread thread = env.createThread(() -> {
-                Object[] arguments = getArgsNode.executeWith(frame, args);
-                PKeyword[] keywords = getKwArgsNode.executeWith(kwargs);
-                callNode.execute(frame, callable, arguments, keywords);
+                GlobalInterpreterLock gil = context.getGil();
+                gil.acquire();
+                try {
+                    Object[] arguments = getArgsNode.executeWith(frame, args);
+                    PKeyword[] keywords = getKwArgsNode.executeWith(kwargs);
+                    callNode.execute(frame, callable, arguments, keywords);
+                } finally {
+                    gil.release();
+                }
             }, env.getContext(), context.getThreadGroup());
 
             PThread pThread = factory().createPythonThread(cls, thread);
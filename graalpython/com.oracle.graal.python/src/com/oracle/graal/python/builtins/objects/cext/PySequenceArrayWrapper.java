@@ -45,6 +45,7 @@ import static com.oracle.graal.python.builtins.objects.cext.NativeCAPISymbols.FU
 import static com.oracle.graal.python.builtins.objects.cext.NativeCAPISymbols.FUN_NATIVE_HANDLE_FOR_ARRAY;
 
 import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.objects.PythonAbstractObject;
 import com.oracle.graal.python.builtins.objects.PythonAbstractObject.PInteropSubscriptAssignNode;
 import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
@@ -58,6 +59,7 @@ import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.NoGe
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.mmap.PMMap;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.PRaiseNode;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
 import com.oracle.graal.python.nodes.attributes.LookupInheritedAttributeNode;
 import com.oracle.graal.python.nodes.call.CallNode;
@@ -202,36 +204,15 @@ public final class PySequenceArrayWrapper extends PythonNativeWrapper {
 
         @Specialization
         long doPMmapI64(PMMap mmap, long byteIdx,
-                        @Exclusive @Cached LookupInheritedAttributeNode.Dynamic lookupGetItemNode,
-                        @Exclusive @Cached CallNode callGetItemNode,
-                        @Shared("castToLongNode") @Cached CastToJavaLongNode castToJavaLongNode) {
-
+                        @Cached PRaiseNode raiseNode) {
+            if (mmap.isClosed()) {
+                throw raiseNode.raise(PythonBuiltinClassType.ValueError, "mmap closed or invalid");
+            }
+            // read the bytes directly from the mapped memory (little endian)
             long len = mmap.getLength();
-            Object attrGetItem = lookupGetItemNode.execute(mmap, SpecialMethodNames.__GETITEM__);
-
-            int i = (int) byteIdx;
             long result = 0;
-            result |= castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx));
-            if (i + 1 < len) {
-                result |= (castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx)) << 8L) & 0xFF00L;
-            }
-            if (i + 2 < len) {
-                result |= (castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx)) << 16L) & 0xFF0000L;
-            }
-            if (i + 3 < len) {
-                result |= (castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx)) << 24L) & 0xFF000000L;
-            }
-            if (i + 4 < len) {
-                result |= (castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx)) << 32L) & 0xFF00000000L;
-            }
-            if (i + 5 < len) {
-                result |= (castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx)) << 40L) & 0xFF0000000000L;
-            }
-            if (i + 6 < len) {
-                result |= (castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx)) << 48L) & 0xFF000000000000L;
-            }
-            if (i + 7 < len) {
-                result |= (castToJavaLongNode.execute(callGetItemNode.execute(null, attrGetItem, mmap, byteIdx)) << 56L) & 0xFF00000000000000L;
+            for (int k = 0; k < 8 && byteIdx + k < len; k++) {
+                result |= (mmap.getByte(byteIdx + k) & 0xFFL) << (8 * k);
             }
             return result;
         }
@@ -94,8 +94,26 @@ public abstract class CodeNodes {
                         String filename, String name, int firstlineno,
                         byte[] lnotab) {
 
+            return execute(frame, cls, argcount, kwonlyargcount, nlocals, stacksize, flags, codestring, constants, names, varnames, freevars, cellvars, filename, name, firstlineno, lnotab, null);
+        }
+
+        /**
+         * Creates a code object like the other {@code execute} method, but module code objects are
+         * created from the given serialized parse tree (see
+         * {@link com.oracle.graal.python.runtime.PythonParser#serializeParseTree}) instead of
+         * parsing the code string again. The tree may be {@code null}.
+         */
+        @SuppressWarnings("try")
+        public PCode execute(VirtualFrame frame, LazyPythonClass cls, int argcount, int kwonlyargcount,
+                        int nlocals, int stacksize, int flags,
+                        byte[] codestring, Object[] constants, Object[] names,
+                        Object[] varnames, Object[] freevars, Object[] cellvars,
+                        String filename, String name, int firstlineno,
+                        byte[] lnotab, byte[] serializedParseTree) {
+
             try (DefaultContextManager cm = PNodeWithGlobalState.transferToContext(getContextRef(), passException(frame))) {
-                return createCode(cls, argcount, kwonlyargcount, nlocals, stacksize, flags, codestring, constants, names, varnames, freevars, cellvars, filename, name, firstlineno, lnotab);
+                return createCode(cls, argcount, kwonlyargcount, nlocals, stacksize, flags, codestring, constants, names, varnames, freevars, cellvars, filename, name, firstlineno, lnotab,
+                                serializedParseTree);
             }
         }
 
@@ -105,7 +123,7 @@ public abstract class CodeNodes {
                         byte[] codestring, Object[] constants, Object[] names,
                         Object[] varnames, Object[] freevars, Object[] cellvars,
                         String filename, String name, int firstlineno,
-                        byte[] lnotab) {
+                        byte[] lnotab, byte[] serializedParseTree) {
 
             PythonObjectFactory factory = PythonObjectFactory.getUncached();
             RootCallTarget callTarget = null;
@@ -141,7 +159,8 @@ public abstract class CodeNodes {
                             frame.setObject(slot, new PCell(Truffle.getRuntime().createAssumption("cell is effectively final")));
                         }
                     }
-                    rootNode = (RootNode) core.getParser().parse(ParserMode.File, core, Source.newBuilder(PythonLanguage.ID, new String(codestring), name).build(), frame);
+                    Source source = Source.newBuilder(PythonLanguage.ID, new String(codestring), name).build();
+                    rootNode = (RootNode) core.getParser().parse(ParserMode.File, core, source, frame, serializedParseTree);
                     assert rootNode instanceof ModuleRootNode;
                 }
                 callTarget = Truffle.getRuntime().createCallTarget(rootNode);
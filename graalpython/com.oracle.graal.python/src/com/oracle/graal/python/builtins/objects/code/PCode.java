@@ -67,8 +67,8 @@ public final class PCode extends PythonBuiltinObject {
     static final long FLAG_GENERATOR = 32;
     static final long FLAG_VAR_ARGS = 0x0004;
     static final long FLAG_VAR_KW_ARGS = 0x0008;
-    static final long FLAG_MODULE = 0x0040; // CO_NOFREE on CPython, we only set it on
-                                            // modules
+    public static final long FLAG_MODULE = 0x0040; // CO_NOFREE on CPython, we only set it
+                                                   // on modules
 
     private final RootCallTarget callTarget;
     private final Signature signature;
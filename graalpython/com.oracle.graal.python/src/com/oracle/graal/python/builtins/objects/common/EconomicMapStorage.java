@@ -140,6 +140,17 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         return new EconomicMapStorage(other, isSet, eq);
     }
 
+    /**
+     * Creates a map with the keys of {@code other}, all mapped to {@code value}. The hash table of
+     * {@code other} is copied as well, so no key is hashed again.
+     */
+    public static EconomicMapStorage createWithKeysOf(EconomicMapStorage other, Object value, boolean isSet) {
+        EconomicMapStorage map = new EconomicMapStorage(isSet);
+        map.initFrom(other);
+        map.setAllValues(value);
+        return map;
+    }
+
     private EconomicMapStorage(boolean isSet) {
         this.isSet = isSet;
     }
@@ -181,6 +192,48 @@ public class EconomicMapStorage extends HashingStorage implements Iterable<Objec
         }
     }
 
+    @TruffleBoundary
+    private void setAllValues(Object value) {
+        for (int i = 0; i < totalEntries; i++) {
+            if (getKey(i) != null) {
+                setValue(i, value);
+            }
+        }
+    }
+
+    /**
+     * Makes room for {@code count} additional entries, so that adding them grows the entries array
+     * at most once.
+     */
+    public void ensureCapacity(int count, Equivalence eq) {
+        int capacity = totalEntries + count;
+        if (capacity > MAX_ELEMENT_COUNT) {
+            throw new UnsupportedOperationException("map grown too large!");
+        }
+        if (entriesArr == null) {
+            init(capacity);
+        } else if (entriesArr.length < capacity << 1) {
+            int entriesLength = entriesArr.length;
+            Object[] newEntries = new Object[capacity << 1];
+            System.arraycopy(entriesArr, 0, newEntries, 0, entriesLength);
+            entriesArr = newEntries;
+            if (hasHashArray() && getHashIndexBytes(entriesLength) != getHashIndexBytes(newEntries.length)) {
+                // Rehash in order to change number of bits reserved for hash indices.
+                createHash(eq);
+            }
+        }
+    }
+
+    private static int getHashIndexBytes(int entriesLength) {
+        if (entriesLength < LARGE_HASH_THRESHOLD) {
+            return 1;
+        } else if (entriesLength < VERY_LARGE_HASH_THRESHOLD) {
+            return 2;
+        } else {
+            return 4;
+        }
+    }
+
     /**
      * Links the collisions. Needs to be immutable class for allowing efficient shallow copy from
      * other map on construction.
@@ -55,9 +55,12 @@ import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage.Fast
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage.PythonNativeObjectDictStorage;
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage.PythonObjectDictStorage;
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage.PythonObjectHybridDictStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage.Equivalence;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.UnmodifiableStorageException;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.ContainsKeyNodeGen;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.ContainsValueNodeGen;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.CopyKeysNodeGen;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.CopyNodeGen;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.DelItemNodeGen;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.DiffNodeGen;
@@ -71,6 +74,7 @@ import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactor
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.LenNodeGen;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.SetItemNodeGen;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.UnionNodeGen;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodesFactory.UpdateNodeGen;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
@@ -231,6 +235,10 @@ public abstract class HashingStorageNodes {
             return o instanceof String || o instanceof PString && wrappedString((PString) o);
         }
 
+        protected static boolean isLongKey(Object o) {
+            return o instanceof Integer || o instanceof Long;
+        }
+
         protected static boolean shapeCheck(Shape shape, DynamicObject receiver) {
             return shape != null && shape.check(receiver);
         }
@@ -308,6 +316,12 @@ public abstract class HashingStorageNodes {
             return newStorage;
         }
 
+        protected static StringKeyStorage switchToStringKeyStorage(HashingStorage storage) {
+            StringKeyStorage newStorage = new StringKeyStorage(storage.length() + 1);
+            newStorage.addAll(storage, DEFAULT_EQIVALENCE);
+            return newStorage;
+        }
+
         protected static PythonObjectHybridDictStorage switchToHybridDictStorage(PythonObjectDictStorage dictStorage) {
             Assumption dictUnsetOrSameAsStorage = dictStorage.getDictUnsetOrSameAsStorage();
             if (dictUnsetOrSameAsStorage != null) {
@@ -618,6 +632,42 @@ public abstract class HashingStorageNodes {
             return storage.hasKey(key, HashingStorage.DEFAULT_EQIVALENCE);
         }
 
+        @Specialization
+        protected boolean contains(LongKeyStorage storage, int key) {
+            return storage.containsKey(key);
+        }
+
+        @Specialization
+        protected boolean contains(LongKeyStorage storage, long key) {
+            return storage.containsKey(key);
+        }
+
+        @Specialization(guards = {"!isLongKey(key)", "isHashable(frame, key)"})
+        @SuppressWarnings("try")
+        protected boolean contains(VirtualFrame frame, LongKeyStorage storage, Object key) {
+            try (DefaultContextManager cm = withGlobalState(frame)) {
+                return storage.hasKey(key, getEquivalence());
+            }
+        }
+
+        @Specialization
+        protected boolean contains(StringKeyStorage storage, String key) {
+            return storage.containsKey(key);
+        }
+
+        @Specialization(guards = "wrappedString(key)")
+        protected boolean contains(StringKeyStorage storage, PString key) {
+            return storage.containsKey(key.getValue());
+        }
+
+        @Specialization(guards = {"!isJavaString(key)", "isHashable(frame, key)"})
+        @SuppressWarnings("try")
+        protected boolean contains(VirtualFrame frame, StringKeyStorage storage, Object key) {
+            try (DefaultContextManager cm = withGlobalState(frame)) {
+                return storage.hasKey(key, getEquivalence());
+            }
+        }
+
         @Specialization(guards = "!isHashable(frame, key)")
         protected boolean doUnhashable(@SuppressWarnings("unused") VirtualFrame frame, @SuppressWarnings("unused") HashMapStorage storage, Object key) {
             throw unhashable(key);
@@ -702,6 +752,42 @@ public abstract class HashingStorageNodes {
             return storage.hasKey(key, HashingStorage.DEFAULT_EQIVALENCE);
         }
 
+        @Specialization
+        protected boolean contains(LongKeyStorage storage, int key) {
+            return storage.containsKey(key);
+        }
+
+        @Specialization
+        protected boolean contains(LongKeyStorage storage, long key) {
+            return storage.containsKey(key);
+        }
+
+        @Specialization(guards = {"!isLongKey(key)", "isHashable(frame, key)"})
+        @SuppressWarnings("try")
+        protected boolean contains(VirtualFrame frame, LongKeyStorage storage, Object key) {
+            try (DefaultContextManager cm = withGlobalState(frame)) {
+                return storage.hasKey(key, getEquivalence());
+            }
+        }
+
+        @Specialization
+        protected boolean contains(StringKeyStorage storage, String key) {
+            return storage.containsKey(key);
+        }
+
+        @Specialization(guards = "wrappedString(key)")
+        protected boolean contains(StringKeyStorage storage, PString key) {
+            return storage.containsKey(key.getValue());
+        }
+
+        @Specialization(guards = {"!isJavaString(key)", "isHashable(frame, key)"})
+        @SuppressWarnings("try")
+        protected boolean contains(VirtualFrame frame, StringKeyStorage storage, Object key) {
+            try (DefaultContextManager cm = withGlobalState(frame)) {
+                return storage.hasKey(key, getEquivalence());
+            }
+        }
+
         @Specialization(guards = "!isHashable(frame, key)")
         protected boolean doUnhashable(@SuppressWarnings("unused") VirtualFrame frame, @SuppressWarnings("unused") HashMapStorage storage, Object key) {
             throw unhashable(key);
@@ -765,7 +851,21 @@ public abstract class HashingStorageNodes {
             }
         }
 
-        @Specialization(guards = {"!isJavaString(key)", "isHashable(frame, key)"})
+        @Specialization
+        protected HashingStorage doEmptyStorage(@SuppressWarnings("unused") EmptyStorage storage, int key, Object value) {
+            LongKeyStorage newStorage = new LongKeyStorage();
+            newStorage.put(key, value);
+            return newStorage;
+        }
+
+        @Specialization
+        protected HashingStorage doEmptyStorage(@SuppressWarnings("unused") EmptyStorage storage, long key, Object value) {
+            LongKeyStorage newStorage = new LongKeyStorage();
+            newStorage.put(key, value);
+            return newStorage;
+        }
+
+        @Specialization(guards = {"!isJavaString(key)", "!isLongKey(key)", "isHashable(frame, key)"})
         @SuppressWarnings("try")
         protected HashingStorage doEmptyStorage(VirtualFrame frame, @SuppressWarnings("unused") EmptyStorage storage, Object key, Object value) {
             // immediately replace storage since empty storage is immutable
@@ -838,6 +938,56 @@ public abstract class HashingStorageNodes {
             return newStorage;
         }
 
+        @Specialization
+        protected HashingStorage doLongKey(LongKeyStorage storage, int key, Object value) {
+            storage.put(key, value);
+            return storage;
+        }
+
+        @Specialization
+        protected HashingStorage doLongKey(LongKeyStorage storage, long key, Object value) {
+            storage.put(key, value);
+            return storage;
+        }
+
+        @Specialization(guards = {"!isLongKey(key)", "isHashable(frame, key)"})
+        @SuppressWarnings("try")
+        protected HashingStorage doLongKeyGeneralize(VirtualFrame frame, LongKeyStorage storage, Object key, Object value) {
+            try (DefaultContextManager cm = withGlobalState(frame)) {
+                try {
+                    // updates the value of an existing equal key, e.g., for 'True' or '1.0'
+                    storage.setItem(key, value, getEquivalence());
+                    return storage;
+                } catch (UnmodifiableStorageException e) {
+                    HashingStorage newStorage = switchToEconomicMap(storage);
+                    newStorage.setItem(key, value, getEquivalence());
+                    return newStorage;
+                }
+            }
+        }
+
+        @Specialization
+        protected HashingStorage doStringKey(StringKeyStorage storage, String key, Object value) {
+            storage.put(key, value);
+            return storage;
+        }
+
+        @Specialization(guards = "wrappedString(key)")
+        protected HashingStorage doStringKey(StringKeyStorage storage, PString key, Object value) {
+            storage.put(cast(key), value);
+            return storage;
+        }
+
+        @Specialization(guards = {"!isJavaString(key)", "isHashable(frame, key)"})
+        @SuppressWarnings("try")
+        protected HashingStorage doStringKeyGeneralize(VirtualFrame frame, StringKeyStorage storage, Object key, Object value) {
+            try (DefaultContextManager cm = withGlobalState(frame)) {
+                HashingStorage newStorage = switchToEconomicMap(storage);
+                newStorage.setItem(key, value, getEquivalence());
+                return newStorage;
+            }
+        }
+
         @Specialization(guards = {"!isJavaString(key)", "isHashable(frame, key)"})
         @SuppressWarnings("try")
         protected HashingStorage doDynamicObjectGeneralize(VirtualFrame frame, FastDictStorage storage, Object key, Object value) {
@@ -1011,8 +1161,8 @@ public abstract class HashingStorageNodes {
 
             @Specialization(guards = {"storage.getStore().getShape().isValid()", "exceedsLimit(storage)"})
             protected HashingStorage doDynamicObjectGeneralize(FastDictStorage storage, String name, Object value) {
-                HashingStorage newStorage = switchToEconomicMap(storage);
-                newStorage.setItem(name, value, getEquivalence());
+                StringKeyStorage newStorage = switchToStringKeyStorage(storage);
+                newStorage.put(name, value);
                 return newStorage;
             }
 
@@ -1040,11 +1190,9 @@ public abstract class HashingStorageNodes {
                         store.define(skey, val);
                         InvalidateMroNode.getUncached().execute(s, skey, val);
                     } else {
-                        // switch to economic map
-                        Equivalence slowPathEquivalence = HashingStorage.getSlowPathEquivalence(skey);
-                        EconomicMapStorage newStorage = EconomicMapStorage.create(s.length() + 1, false);
-                        newStorage.addAll(s, slowPathEquivalence);
-                        newStorage.setItem(skey, val, slowPathEquivalence);
+                        // switch to string keyed storage
+                        StringKeyStorage newStorage = switchToStringKeyStorage(s);
+                        newStorage.put(skey, val);
                         return newStorage;
                     }
                 }
@@ -1204,6 +1352,36 @@ public abstract class HashingStorageNodes {
             return null;
         }
 
+        @Specialization
+        Object doLongKey(LongKeyStorage storage, int key) {
+            return storage.get(key);
+        }
+
+        @Specialization
+        Object doLongKey(LongKeyStorage storage, long key) {
+            return storage.get(key);
+        }
+
+        @Specialization(guards = {"!isLongKey(key)", "isHashable(frame, key)"})
+        Object doLongKeyObject(@SuppressWarnings("unused") VirtualFrame frame, LongKeyStorage storage, Object key) {
+            return storage.getItem(key, getEquivalence());
+        }
+
+        @Specialization
+        Object doStringKey(StringKeyStorage storage, String key) {
+            return storage.get(key);
+        }
+
+        @Specialization(guards = "wrappedString(key)")
+        Object doStringKey(StringKeyStorage storage, PString key) {
+            return storage.get(key.getValue());
+        }
+
+        @Specialization(guards = {"!isJavaString(key)", "isHashable(frame, key)"})
+        Object doStringKeyObject(@SuppressWarnings("unused") VirtualFrame frame, StringKeyStorage storage, Object key) {
+            return storage.getItem(key, getEquivalence());
+        }
+
         @Specialization(guards = "isHashable(frame, key)")
         Object doGeneric(@SuppressWarnings("unused") VirtualFrame frame, EconomicMapStorage storage, Object key) {
             return storage.getItem(key, getEquivalence());
@@ -1534,6 +1712,42 @@ public abstract class HashingStorageNodes {
             }
         }
 
+        @Specialization
+        protected boolean doLongKey(@SuppressWarnings("unused") PHashingCollection container, LongKeyStorage storage, int key) {
+            return storage.remove(key);
+        }
+
+        @Specialization
+        protected boolean doLongKey(@SuppressWarnings("unused") PHashingCollection container, LongKeyStorage storage, long key) {
+            return storage.remove(key);
+        }
+
+        @Specialization(guards = "!isLongKey(key)")
+        @SuppressWarnings("try")
+        protected boolean doLongKey(VirtualFrame frame, @SuppressWarnings("unused") PHashingCollection container, LongKeyStorage storage, Object key) {
+            try (DefaultContextManager cm = withGlobalState(frame)) {
+                return storage.remove(key, getEquivalence());
+            }
+        }
+
+        @Specialization
+        protected boolean doStringKey(@SuppressWarnings("unused") PHashingCollection container, StringKeyStorage storage, String key) {
+            return storage.remove(key);
+        }
+
+        @Specialization(guards = "wrappedString(key)")
+        protected boolean doStringKey(@SuppressWarnings("unused") PHashingCollection container, StringKeyStorage storage, PString key) {
+            return storage.remove(key.getValue());
+        }
+
+        @Specialization(guards = "!isJavaString(key)")
+        @SuppressWarnings("try")
+        protected boolean doStringKey(VirtualFrame frame, @SuppressWarnings("unused") PHashingCollection container, StringKeyStorage storage, Object key) {
+            try (DefaultContextManager cm = withGlobalState(frame)) {
+                return storage.remove(key, getEquivalence());
+            }
+        }
+
         public static DelItemNode create() {
             return DelItemNodeGen.create();
         }
@@ -1575,14 +1789,117 @@ public abstract class HashingStorageNodes {
         }
     }
 
+    /**
+     * Adds all entries of {@code other} to {@code self}, like {@code dict.update}, and returns the
+     * resulting storage, which may be a new one.
+     */
+    public abstract static class UpdateNode extends DictStorageBaseNode {
+
+        public abstract HashingStorage execute(VirtualFrame frame, HashingStorage self, HashingStorage other);
+
+        @Specialization(guards = "self == other || other.length() == 0")
+        @SuppressWarnings("unused")
+        HashingStorage doNothing(HashingStorage self, HashingStorage other) {
+            return self;
+        }
+
+        @Specialization(guards = "other.length() != 0")
+        @SuppressWarnings("unused")
+        HashingStorage doEmptyCopy(EmptyStorage self, EconomicMapStorage other) {
+            // copying the whole map also copies its hash table
+            return EconomicMapStorage.create(other, false, getEquivalence());
+        }
+
+        @Specialization(guards = {"self != other", "other.length() != 0"})
+        @SuppressWarnings("try")
+        HashingStorage doEconomicMap(VirtualFrame frame, EconomicMapStorage self, HashingStorage other) {
+            try (DefaultContextManager cm = withGlobalState(frame)) {
+                self.ensureCapacity(other.length(), getEquivalence());
+                for (DictEntry entry : other.entries()) {
+                    self.setItem(entry.getKey(), entry.getValue(), getEquivalence());
+                }
+                return self;
+            }
+        }
+
+        @Specialization(guards = {"self != other", "other.length() != 0", "!isEconomicMap(self)"})
+        HashingStorage doGeneric(VirtualFrame frame, HashingStorage self, HashingStorage other,
+                        @Cached("create()") SetItemNode setItemNode) {
+            HashingStorage storage = self;
+            for (DictEntry entry : other.entries()) {
+                storage = setItemNode.execute(frame, storage, entry.getKey(), entry.getValue());
+            }
+            return storage;
+        }
+
+        protected static boolean isEconomicMap(HashingStorage storage) {
+            return storage instanceof EconomicMapStorage;
+        }
+
+        public static UpdateNode create() {
+            return UpdateNodeGen.create();
+        }
+    }
+
+    /**
+     * Creates a new storage with the keys of {@code keys}, all mapped to the same value, like
+     * {@code dict.fromkeys}.
+     */
+    public abstract static class CopyKeysNode extends DictStorageBaseNode {
+
+        public abstract HashingStorage execute(VirtualFrame frame, HashingStorage keys, Object value);
+
+        @Specialization
+        HashingStorage doEconomicMap(EconomicMapStorage keys, Object value) {
+            return EconomicMapStorage.createWithKeysOf(keys, value, false);
+        }
+
+        @Specialization
+        HashingStorage doLongKey(LongKeyStorage keys, Object value) {
+            return keys.copyWithValue(value);
+        }
+
+        @Specialization
+        HashingStorage doStringKey(StringKeyStorage keys, Object value) {
+            return keys.copyWithValue(value);
+        }
+
+        @Specialization(guards = "!isCopyable(keys)")
+        HashingStorage doGeneric(VirtualFrame frame, HashingStorage keys, Object value,
+                        @Cached("create()") SetItemNode setItemNode) {
+            HashingStorage storage = PDict.createNewStorage(false, keys.length());
+            for (Object key : keys.keys()) {
+                storage = setItemNode.execute(frame, storage, key, value);
+            }
+            return storage;
+        }
+
+        protected static boolean isCopyable(HashingStorage storage) {
+            return storage instanceof EconomicMapStorage || storage instanceof LongKeyStorage || storage instanceof StringKeyStorage;
+        }
+
+        public static CopyKeysNode create() {
+            return CopyKeysNodeGen.create();
+        }
+    }
+
     public static class IntersectNode extends Node {
 
         @Child private ContainsKeyNode containsKeyNode;
         @Child private SetItemNode setItemNode;
 
-        public HashingStorage execute(VirtualFrame frame, HashingStorage left, HashingStorage right) {
-            HashingStorage newStorage = EconomicMapStorage.create(false);
-            if (left.length() != 0 && right.length() != 0) {
+        private final ConditionProfile swapProfile = ConditionProfile.createBinaryProfile();
+
+        public HashingStorage execute(VirtualFrame frame, HashingStorage leftStorage, HashingStorage rightStorage) {
+            // like CPython, iterate over the smaller operand
+            HashingStorage left = leftStorage;
+            HashingStorage right = rightStorage;
+            if (swapProfile.profile(left.length() > right.length())) {
+                left = rightStorage;
+                right = leftStorage;
+            }
+            HashingStorage newStorage = EconomicMapStorage.create(left.length(), false);
+            if (left.length() != 0) {
                 if (containsKeyNode == null) {
                     CompilerDirectives.transferToInterpreterAndInvalidate();
                     containsKeyNode = insert(ContainsKeyNode.create());
@@ -1746,12 +2063,25 @@ public abstract class HashingStorageNodes {
             }
         }
 
+        @Specialization(guards = {"right.length() != 0", "isMuchSmaller(right, left)"})
+        @SuppressWarnings("try")
+        public HashingStorage doCopyAndRemove(VirtualFrame frame, EconomicMapStorage left, HashingStorage right) {
+            // like CPython, copy a much larger left operand and remove the few keys of the right one
+            try (DefaultContextManager cm = withGlobalState(frame)) {
+                EconomicMapStorage newStorage = EconomicMapStorage.create(left, false, getEquivalence());
+                for (Object rightKey : right.keys()) {
+                    newStorage.remove(rightKey, getEquivalence());
+                }
+                return newStorage;
+            }
+        }
+
         @Specialization(guards = {"left.length() != 0", "right.length() != 0"})
         public HashingStorage doNonEmpty(VirtualFrame frame, HashingStorage left, HashingStorage right,
                         @Cached("create()") ContainsKeyNode containsKeyNode,
                         @Cached("create()") SetItemNode setItemNode) {
 
-            HashingStorage newStorage = EconomicMapStorage.create(false);
+            HashingStorage newStorage = EconomicMapStorage.create(left.length(), false);
             for (Object leftKey : left.keys()) {
                 if (!containsKeyNode.execute(frame, right, leftKey)) {
                     newStorage = setItemNode.execute(frame, newStorage, leftKey, PNone.NO_VALUE);
@@ -1760,6 +2090,10 @@ public abstract class HashingStorageNodes {
             return newStorage;
         }
 
+        protected static boolean isMuchSmaller(HashingStorage right, HashingStorage left) {
+            return right.length() < left.length() >> 2;
+        }
+
         public static DiffNode create() {
             return DiffNodeGen.create();
         }
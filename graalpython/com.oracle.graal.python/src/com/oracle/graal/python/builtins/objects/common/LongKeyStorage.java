@@ -0,0 +1,457 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.common;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.object.PythonObject;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Storage for dicts and sets whose keys are all {@code int} values that fit into a Java
+ * {@code long}. The keys are kept unboxed in a {@code long[]} next to the values in insertion order,
+ * and are found through an open-addressing index table, like in the compact dicts of CPython. A
+ * removed entry keeps its place with a {@code null} value until the entries are compacted.
+ *
+ * {@link HashingStorageNodes.SetItemNode} creates this storage for the first {@code int} key stored
+ * into an empty storage and switches to an {@link EconomicMapStorage} when a key of another type is
+ * added. Keys of other types can still be looked up, e.g. {@code 1.0} or {@code True} find the key
+ * {@code 1}.
+ */
+public final class LongKeyStorage extends HashingStorage {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Maximum number of entries allowed in the storage.
+     */
+    private static final int MAX_CAPACITY = 1 << 29;
+
+    /**
+     * Marks a free slot in {@link #indices}. Other slots contain an entry index plus one.
+     */
+    private static final int FREE = 0;
+
+    /**
+     * Marks a slot in {@link #indices} whose entry was removed.
+     */
+    private static final int DELETED = -1;
+
+    private int[] indices;
+    private long[] keys;
+    private Object[] values;
+
+    /**
+     * Number of used entries, including removed ones.
+     */
+    private int usedEntries;
+    private int size;
+
+    public LongKeyStorage() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public LongKeyStorage(int expectedSize) {
+        init(Math.max(INITIAL_CAPACITY, expectedSize));
+    }
+
+    private LongKeyStorage(LongKeyStorage other) {
+        this.indices = other.indices.clone();
+        this.keys = other.keys.clone();
+        this.values = other.values.clone();
+        this.usedEntries = other.usedEntries;
+        this.size = other.size;
+    }
+
+    private void init(int capacity) {
+        if (capacity > MAX_CAPACITY) {
+            throw new UnsupportedOperationException("map grown too large!");
+        }
+        keys = new long[capacity];
+        values = new Object[capacity];
+        indices = new int[indexSizeFor(capacity)];
+        usedEntries = 0;
+        size = 0;
+    }
+
+    /**
+     * The index table is at least one and a half times as large as the entries arrays, so at
+     * most two thirds of it are ever in use and a probe always reaches a free slot.
+     */
+    private static int indexSizeFor(int capacity) {
+        int minSize = capacity + (capacity >> 1);
+        return Integer.highestOneBit(minSize - 1) << 1;
+    }
+
+    /**
+     * The slot only depends on the lower 32 bits of the key, i.e., on the truncated Python hash of
+     * an {@code int}, so that keys of other types can be looked up with their hash as well.
+     */
+    private static int firstSlot(int hash, int mask) {
+        int h = hash * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private int findSlot(long key) {
+        int mask = indices.length - 1;
+        int slot = firstSlot((int) key, mask);
+        while (true) {
+            int index = indices[slot];
+            if (index == FREE) {
+                return -1;
+            } else if (index != DELETED && keys[index - 1] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int findEntry(long key) {
+        int slot = findSlot(key);
+        return slot == -1 ? -1 : indices[slot] - 1;
+    }
+
+    public Object get(long key) {
+        int index = findEntry(key);
+        return index == -1 ? null : values[index];
+    }
+
+    public boolean containsKey(long key) {
+        return findSlot(key) != -1;
+    }
+
+    public void put(long key, Object value) {
+        int index = findEntry(key);
+        if (index != -1) {
+            values[index] = value;
+            return;
+        }
+        if (usedEntries == keys.length) {
+            resize();
+        }
+        index = usedEntries++;
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        insertIndex(key, index);
+    }
+
+    public boolean remove(long key) {
+        int slot = findSlot(key);
+        if (slot == -1) {
+            return false;
+        }
+        int index = indices[slot] - 1;
+        indices[slot] = DELETED;
+        values[index] = null;
+        size--;
+        return true;
+    }
+
+    private void insertIndex(long key, int index) {
+        int mask = indices.length - 1;
+        int slot = firstSlot((int) key, mask);
+        while (indices[slot] > 0) {
+            slot = (slot + 1) & mask;
+        }
+        indices[slot] = index + 1;
+    }
+
+    /**
+     * Makes room for a new entry. If at least a quarter of the entries was removed, the entries
+     * are only compacted, otherwise the capacity is doubled.
+     */
+    @TruffleBoundary
+    private void resize() {
+        int capacity = keys.length;
+        if (size > capacity - (capacity >> 2)) {
+            capacity <<= 1;
+            if (capacity > MAX_CAPACITY) {
+                throw new UnsupportedOperationException("map grown too large!");
+            }
+        }
+        long[] newKeys = new long[capacity];
+        Object[] newValues = new Object[capacity];
+        int count = 0;
+        for (int i = 0; i < usedEntries; i++) {
+            if (values[i] != null) {
+                newKeys[count] = keys[i];
+                newValues[count] = values[i];
+                count++;
+            }
+        }
+        keys = newKeys;
+        values = newValues;
+        usedEntries = count;
+        indices = new int[indexSizeFor(capacity)];
+        for (int i = 0; i < count; i++) {
+            insertIndex(keys[i], i);
+        }
+    }
+
+    /**
+     * Boxes a key like the arithmetic nodes do, i.e., as an {@link Integer} if it fits.
+     */
+    private static Object boxKey(long key) {
+        int intKey = (int) key;
+        if (intKey == key) {
+            return intKey;
+        }
+        return key;
+    }
+
+    /**
+     * Finds the entry of a key of any type. Only {@code int}, {@code bool} and integral
+     * {@code float} values can be equal to a stored key, other builtin types can never be. Objects
+     * of other types are compared with the keys that have the same hash.
+     */
+    private int findEntry(Object key, Equivalence eq) {
+        if (key instanceof Integer) {
+            return findEntry((int) key);
+        } else if (key instanceof Long) {
+            return findEntry((long) key);
+        } else if (key instanceof Boolean) {
+            return findEntry((boolean) key ? 1 : 0);
+        } else if (key instanceof Double) {
+            return findEntry((double) key);
+        } else if (key instanceof PFloat && PGuards.cannotBeOverridden(((PFloat) key).getLazyPythonClass())) {
+            return findEntry(((PFloat) key).getValue());
+        } else if (key instanceof String || key instanceof PNone || isExactBuiltin(key)) {
+            return -1;
+        } else if (key instanceof PInt && PGuards.cannotBeOverridden(((PInt) key).getLazyPythonClass())) {
+            PInt pint = (PInt) key;
+            if (pint.getValue().bitLength() < Long.SIZE) {
+                return findEntry(pint.longValue());
+            }
+            return -1;
+        }
+        return findEntryGeneric(key, eq);
+    }
+
+    private int findEntry(double key) {
+        if (key >= -0x1p63 && key < 0x1p63 && (long) key == key) {
+            return findEntry((long) key);
+        }
+        return -1;
+    }
+
+    /**
+     * Whether the key is a {@code str}, {@code tuple} or {@code bytes} whose {@code __eq__} cannot
+     * be overridden.
+     */
+    private static boolean isExactBuiltin(Object key) {
+        if (key instanceof PString || key instanceof PTuple || key instanceof PBytes) {
+            return PGuards.cannotBeOverridden(((PythonObject) key).getLazyPythonClass());
+        }
+        return false;
+    }
+
+    private int findEntryGeneric(Object key, Equivalence eq) {
+        // the hash of an int is its value, so an equal key has the same lower 32 bits
+        int hash = eq.hashCode(key);
+        // '__eq__' may modify the storage
+        int[] currentIndices = indices;
+        long[] currentKeys = keys;
+        int mask = currentIndices.length - 1;
+        int slot = firstSlot(hash, mask);
+        while (true) {
+            int index = currentIndices[slot];
+            if (index == FREE) {
+                return -1;
+            } else if (index != DELETED) {
+                long other = currentKeys[index - 1];
+                if ((int) other == hash && eq.equals(boxKey(other), key)) {
+                    return findEntry(other);
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    @Override
+    public int length() {
+        return size;
+    }
+
+    @Override
+    public boolean hasKey(Object key, Equivalence eq) {
+        return findEntry(key, eq) != -1;
+    }
+
+    @Override
+    public Object getItem(Object key, Equivalence eq) {
+        int index = findEntry(key, eq);
+        return index == -1 ? null : values[index];
+    }
+
+    @Override
+    public void setItem(Object key, Object value, Equivalence eq) {
+        if (key instanceof Integer) {
+            put((int) key, value);
+        } else if (key instanceof Long) {
+            put((long) key, value);
+        } else {
+            int index = findEntry(key, eq);
+            if (index == -1) {
+                // the key must be stored as it is, which needs another storage
+                throw UnmodifiableStorageException.INSTANCE;
+            }
+            values[index] = value;
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Equivalence eq) {
+        int index = findEntry(key, eq);
+        if (index == -1) {
+            return false;
+        }
+        return remove(keys[index]);
+    }
+
+    @Override
+    public void clear() {
+        init(INITIAL_CAPACITY);
+    }
+
+    @Override
+    @TruffleBoundary
+    public HashingStorage copy(Equivalence eq) {
+        return new LongKeyStorage(this);
+    }
+
+    /**
+     * Returns a copy of this storage with the same keys, all mapped to {@code value}.
+     */
+    @TruffleBoundary
+    public LongKeyStorage copyWithValue(Object value) {
+        LongKeyStorage copy = new LongKeyStorage(this);
+        for (int i = 0; i < usedEntries; i++) {
+            if (copy.values[i] != null) {
+                copy.values[i] = value;
+            }
+        }
+        return copy;
+    }
+
+    private abstract class EntriesIterator<T> implements Iterator<T> {
+        private int current;
+
+        public boolean hasNext() {
+            while (current < usedEntries && values[current] == null) {
+                current++;
+            }
+            return current < usedEntries;
+        }
+
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return get(current++);
+        }
+
+        protected abstract T get(int index);
+    }
+
+    @Override
+    public Iterable<Object> keys() {
+        return new Iterable<Object>() {
+            public Iterator<Object> iterator() {
+                return new EntriesIterator<Object>() {
+                    @Override
+                    protected Object get(int index) {
+                        return boxKey(keys[index]);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Iterable<Object> values() {
+        return new Iterable<Object>() {
+            public Iterator<Object> iterator() {
+                return new EntriesIterator<Object>() {
+                    @Override
+                    protected Object get(int index) {
+                        return values[index];
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Iterable<DictEntry> entries() {
+        return new Iterable<DictEntry>() {
+            public Iterator<DictEntry> iterator() {
+                return new EntriesIterator<DictEntry>() {
+                    @Override
+                    protected DictEntry get(int index) {
+                        return new DictEntry(boxKey(keys[index]), values[index]);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        CompilerAsserts.neverPartOfCompilation();
+        StringBuilder builder = new StringBuilder("{");
+        String sep = "";
+        for (DictEntry entry : entries()) {
+            builder.append(sep).append(entry.getKey()).append(": ").append(entry.getValue());
+            sep = ", ";
+        }
+        return builder.append("}").toString();
+    }
+}
@@ -40,16 +40,35 @@
  */
 package com.oracle.graal.python.builtins.objects.common;
 
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.ReentrantLock;
+
 import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
 public abstract class PHashingCollection extends PythonBuiltinObject {
+    private static final AtomicReferenceFieldUpdater<PHashingCollection, ReentrantLock> WRITE_LOCK_UPDATER = AtomicReferenceFieldUpdater.newUpdater(PHashingCollection.class, ReentrantLock.class,
+                    "writeLock");
+
+    /** Serializes accesses from several threads, see {@link WriteLockNode}. Created on first use. */
+    private volatile ReentrantLock writeLock;
 
     public PHashingCollection(LazyPythonClass cls) {
         super(cls);
     }
 
+    @TruffleBoundary
+    public final ReentrantLock getWriteLock() {
+        ReentrantLock lock = writeLock;
+        if (lock == null) {
+            WRITE_LOCK_UPDATER.compareAndSet(this, null, new ReentrantLock());
+            lock = writeLock;
+        }
+        return lock;
+    }
+
     public abstract HashingStorage getDictStorage();
 
     public abstract void setDictStorage(HashingStorage newStorage);
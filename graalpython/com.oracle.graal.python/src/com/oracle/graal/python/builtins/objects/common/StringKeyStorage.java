@@ -0,0 +1,439 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.common;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.object.PythonObject;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Storage for large dicts and sets whose keys are all strings. The keys are kept together with
+ * their hash values next to the values in insertion order, and are found through an
+ * open-addressing index table. Since the hash of a {@code str} is {@link String#hashCode()}, the
+ * cached hash is also the Python hash and lookups never call back into Python code.
+ *
+ * A {@link DynamicObjectStorage.FastDictStorage} switches to this storage when it grows too large
+ * and this storage itself switches to an {@link EconomicMapStorage} when a key that is not a
+ * string is added. Keys of other types are looked up through the index table with their hash.
+ */
+public final class StringKeyStorage extends HashingStorage {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Maximum number of entries allowed in the storage.
+     */
+    private static final int MAX_CAPACITY = 1 << 29;
+
+    /**
+     * Marks a free slot in {@link #indices}. Other slots contain an entry index plus one.
+     */
+    private static final int FREE = 0;
+
+    /**
+     * Marks a slot in {@link #indices} whose entry was removed.
+     */
+    private static final int DELETED = -1;
+
+    private int[] indices;
+    private String[] keys;
+    private int[] hashes;
+    private Object[] values;
+
+    /**
+     * Number of used entries, including removed ones.
+     */
+    private int usedEntries;
+    private int size;
+
+    public StringKeyStorage() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public StringKeyStorage(int expectedSize) {
+        init(Math.max(INITIAL_CAPACITY, expectedSize));
+    }
+
+    private StringKeyStorage(StringKeyStorage other) {
+        this.indices = other.indices.clone();
+        this.keys = other.keys.clone();
+        this.hashes = other.hashes.clone();
+        this.values = other.values.clone();
+        this.usedEntries = other.usedEntries;
+        this.size = other.size;
+    }
+
+    private void init(int capacity) {
+        if (capacity > MAX_CAPACITY) {
+            throw new UnsupportedOperationException("map grown too large!");
+        }
+        keys = new String[capacity];
+        hashes = new int[capacity];
+        values = new Object[capacity];
+        indices = new int[indexSizeFor(capacity)];
+        usedEntries = 0;
+        size = 0;
+    }
+
+    /**
+     * The index table is at least one and a half times as large as the entries arrays, so at
+     * most two thirds of it are ever in use and a probe always reaches a free slot.
+     */
+    private static int indexSizeFor(int capacity) {
+        int minSize = capacity + (capacity >> 1);
+        return Integer.highestOneBit(minSize - 1) << 1;
+    }
+
+    /**
+     * Spreads the higher bits of the string hash, which are otherwise ignored by the mask.
+     */
+    private static int firstSlot(int hash, int mask) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private int findSlot(String key, int hash) {
+        int mask = indices.length - 1;
+        int slot = firstSlot(hash, mask);
+        while (true) {
+            int index = indices[slot];
+            if (index == FREE) {
+                return -1;
+            } else if (index != DELETED) {
+                String other = keys[index - 1];
+                if (other == key || hashes[index - 1] == hash && other.equals(key)) {
+                    return slot;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int findEntry(String key) {
+        int slot = findSlot(key, key.hashCode());
+        return slot == -1 ? -1 : indices[slot] - 1;
+    }
+
+    public Object get(String key) {
+        int index = findEntry(key);
+        return index == -1 ? null : values[index];
+    }
+
+    public boolean containsKey(String key) {
+        return findEntry(key) != -1;
+    }
+
+    public void put(String key, Object value) {
+        int hash = key.hashCode();
+        int slot = findSlot(key, hash);
+        if (slot != -1) {
+            values[indices[slot] - 1] = value;
+            return;
+        }
+        if (usedEntries == keys.length) {
+            resize();
+        }
+        int index = usedEntries++;
+        keys[index] = key;
+        hashes[index] = hash;
+        values[index] = value;
+        size++;
+        insertIndex(hash, index);
+    }
+
+    public boolean remove(String key) {
+        int slot = findSlot(key, key.hashCode());
+        if (slot == -1) {
+            return false;
+        }
+        int index = indices[slot] - 1;
+        indices[slot] = DELETED;
+        keys[index] = null;
+        values[index] = null;
+        size--;
+        return true;
+    }
+
+    private void insertIndex(int hash, int index) {
+        int mask = indices.length - 1;
+        int slot = firstSlot(hash, mask);
+        while (indices[slot] > 0) {
+            slot = (slot + 1) & mask;
+        }
+        indices[slot] = index + 1;
+    }
+
+    /**
+     * Makes room for a new entry. If at least a quarter of the entries was removed, the entries
+     * are only compacted, otherwise the capacity is doubled.
+     */
+    @TruffleBoundary
+    private void resize() {
+        int capacity = keys.length;
+        if (size > capacity - (capacity >> 2)) {
+            capacity <<= 1;
+            if (capacity > MAX_CAPACITY) {
+                throw new UnsupportedOperationException("map grown too large!");
+            }
+        }
+        String[] newKeys = new String[capacity];
+        int[] newHashes = new int[capacity];
+        Object[] newValues = new Object[capacity];
+        int count = 0;
+        for (int i = 0; i < usedEntries; i++) {
+            if (values[i] != null) {
+                newKeys[count] = keys[i];
+                newHashes[count] = hashes[i];
+                newValues[count] = values[i];
+                count++;
+            }
+        }
+        keys = newKeys;
+        hashes = newHashes;
+        values = newValues;
+        usedEntries = count;
+        indices = new int[indexSizeFor(capacity)];
+        for (int i = 0; i < count; i++) {
+            insertIndex(hashes[i], i);
+        }
+    }
+
+    /**
+     * Finds the entry of a key of any type. Builtin numbers, tuples and bytes can never be equal to
+     * a string, objects of other types are compared with the keys that have the same hash.
+     */
+    private int findEntry(Object key, Equivalence eq) {
+        if (key instanceof String) {
+            return findEntry((String) key);
+        } else if (isExactString(key)) {
+            return findEntry(((PString) key).getValue());
+        } else if (key instanceof Integer || key instanceof Long || key instanceof Double || key instanceof Boolean || key instanceof PNone || isExactBuiltin(key)) {
+            return -1;
+        }
+        return findEntryGeneric(key, eq);
+    }
+
+    private static boolean isExactString(Object key) {
+        return key instanceof PString && PGuards.cannotBeOverridden(((PString) key).getLazyPythonClass());
+    }
+
+    /**
+     * Whether the key is an {@code int}, {@code float}, {@code tuple} or {@code bytes} whose
+     * {@code __eq__} cannot be overridden.
+     */
+    private static boolean isExactBuiltin(Object key) {
+        if (key instanceof PInt || key instanceof PFloat || key instanceof PTuple || key instanceof PBytes) {
+            return PGuards.cannotBeOverridden(((PythonObject) key).getLazyPythonClass());
+        }
+        return false;
+    }
+
+    private int findEntryGeneric(Object key, Equivalence eq) {
+        int hash = eq.hashCode(key);
+        // '__eq__' may modify the storage
+        int[] currentIndices = indices;
+        String[] currentKeys = keys;
+        int[] currentHashes = hashes;
+        int mask = currentIndices.length - 1;
+        int slot = firstSlot(hash, mask);
+        while (true) {
+            int index = currentIndices[slot];
+            if (index == FREE) {
+                return -1;
+            } else if (index != DELETED && currentHashes[index - 1] == hash) {
+                String other = currentKeys[index - 1];
+                if (eq.equals(other, key)) {
+                    return findEntry(other);
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    @Override
+    public int length() {
+        return size;
+    }
+
+    @Override
+    public boolean hasKey(Object key, Equivalence eq) {
+        return findEntry(key, eq) != -1;
+    }
+
+    @Override
+    public Object getItem(Object key, Equivalence eq) {
+        int index = findEntry(key, eq);
+        return index == -1 ? null : values[index];
+    }
+
+    @Override
+    public void setItem(Object key, Object value, Equivalence eq) {
+        if (key instanceof String) {
+            put((String) key, value);
+        } else if (isExactString(key)) {
+            put(((PString) key).getValue(), value);
+        } else {
+            int index = findEntry(key, eq);
+            if (index == -1) {
+                // the key must be stored as it is, which needs another storage
+                throw UnmodifiableStorageException.INSTANCE;
+            }
+            values[index] = value;
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Equivalence eq) {
+        int index = findEntry(key, eq);
+        if (index == -1) {
+            return false;
+        }
+        return remove(keys[index]);
+    }
+
+    @Override
+    public void clear() {
+        init(INITIAL_CAPACITY);
+    }
+
+    @Override
+    @TruffleBoundary
+    public HashingStorage copy(Equivalence eq) {
+        return new StringKeyStorage(this);
+    }
+
+    /**
+     * Returns a copy of this storage with the same keys, all mapped to {@code value}.
+     */
+    @TruffleBoundary
+    public StringKeyStorage copyWithValue(Object value) {
+        StringKeyStorage copy = new StringKeyStorage(this);
+        for (int i = 0; i < usedEntries; i++) {
+            if (copy.values[i] != null) {
+                copy.values[i] = value;
+            }
+        }
+        return copy;
+    }
+
+    private abstract class EntriesIterator<T> implements Iterator<T> {
+        private int current;
+
+        public boolean hasNext() {
+            while (current < usedEntries && values[current] == null) {
+                current++;
+            }
+            return current < usedEntries;
+        }
+
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return get(current++);
+        }
+
+        protected abstract T get(int index);
+    }
+
+    @Override
+    public Iterable<Object> keys() {
+        return new Iterable<Object>() {
+            public Iterator<Object> iterator() {
+                return new EntriesIterator<Object>() {
+                    @Override
+                    protected Object get(int index) {
+                        return keys[index];
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Iterable<Object> values() {
+        return new Iterable<Object>() {
+            public Iterator<Object> iterator() {
+                return new EntriesIterator<Object>() {
+                    @Override
+                    protected Object get(int index) {
+                        return values[index];
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Iterable<DictEntry> entries() {
+        return new Iterable<DictEntry>() {
+            public Iterator<DictEntry> iterator() {
+                return new EntriesIterator<DictEntry>() {
+                    @Override
+                    protected DictEntry get(int index) {
+                        return new DictEntry(keys[index], values[index]);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        CompilerAsserts.neverPartOfCompilation();
+        StringBuilder builder = new StringBuilder("{");
+        String sep = "";
+        for (DictEntry entry : entries()) {
+            builder.append(sep).append(entry.getKey()).append(": ").append(entry.getValue());
+            sep = ", ";
+        }
+        return builder.append("}").toString();
+    }
+}
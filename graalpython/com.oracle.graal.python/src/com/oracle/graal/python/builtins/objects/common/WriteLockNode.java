@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.common;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.runtime.GlobalInterpreterLock;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.PythonOptions;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleLanguage.ContextReference;
+import com.oracle.truffle.api.nodes.Node;
+
+/**
+ * Serializes accesses to lists, dicts and sets if the {@link PythonOptions#ThreadSafeCollections}
+ * option is enabled and more than one thread runs Python code. As long as a single thread runs,
+ * which is guarded by {@link PythonContext#getSingleThreadedAssumption()}, taking the lock compiles
+ * to nothing. Reads that look into the storage, e.g. item access, containment checks, iteration
+ * and {@code len}, take the lock as well, since a concurrent write may resize the arrays of the
+ * storage while they are read. The lock is reentrant, because both may call {@code __hash__} and
+ * {@code __eq__}, which may in turn modify the same collection.
+ * Specializations that check the type of a storage in their guards must not be used while
+ * {@link #isLocking()}, since another thread may replace the storage before the lock is taken.
+ *
+ * <pre>
+ * boolean locked = writeLockNode.lock(list);
+ * try {
+ *     // modify the list
+ * } finally {
+ *     writeLockNode.unlock(list, locked);
+ * }
+ * </pre>
+ */
+public abstract class WriteLockNode extends Node {
+
+    /**
+     * Whether {@link #lock} acquires the lock in the current context.
+     */
+    public final boolean isLocking() {
+        return !PythonContext.getSingleThreadedAssumption().isValid() && getContext().isThreadSafeCollections();
+    }
+
+    public final boolean lock(PList list) {
+        if (isLocking()) {
+            acquire(list.getWriteLock());
+            return true;
+        }
+        return false;
+    }
+
+    public final boolean lock(PHashingCollection collection) {
+        if (isLocking()) {
+            acquire(collection.getWriteLock());
+            return true;
+        }
+        return false;
+    }
+
+    public final void unlock(PList list, boolean locked) {
+        if (locked) {
+            release(list.getWriteLock());
+        }
+    }
+
+    public final void unlock(PHashingCollection collection, boolean locked) {
+        if (locked) {
+            release(collection.getWriteLock());
+        }
+    }
+
+    protected abstract PythonContext getContext();
+
+    /**
+     * Takes a free lock right away. Otherwise, the GIL is released while waiting, since the owner
+     * may have handed it over while it runs {@code __eq__} or {@code __hash__}, and needs it back
+     * to release the lock.
+     */
+    private void acquire(ReentrantLock lock) {
+        if (!tryLock(lock)) {
+            GlobalInterpreterLock gil = getContext().getGil();
+            int held = gil.releaseForBlocking();
+            try {
+                lockBlocking(lock);
+            } finally {
+                gil.reacquire(held);
+            }
+        }
+    }
+
+    @TruffleBoundary
+    private static boolean tryLock(ReentrantLock lock) {
+        return lock.tryLock();
+    }
+
+    @TruffleBoundary
+    private static void lockBlocking(ReentrantLock lock) {
+        lock.lock();
+    }
+
+    @TruffleBoundary
+    private static void release(ReentrantLock lock) {
+        lock.unlock();
+    }
+
+    public static WriteLockNode create() {
+        return new CachedWriteLockNode();
+    }
+
+    public static WriteLockNode getUncached() {
+        return UncachedWriteLockNode.INSTANCE;
+    }
+
+    private static final class CachedWriteLockNode extends WriteLockNode {
+        @CompilationFinal private ContextReference<PythonContext> contextRef;
+
+        @Override
+        protected PythonContext getContext() {
+            if (contextRef == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                contextRef = lookupContextReference(PythonLanguage.class);
+            }
+            return contextRef.get();
+        }
+    }
+
+    private static final class UncachedWriteLockNode extends WriteLockNode {
+        private static final UncachedWriteLockNode INSTANCE = new UncachedWriteLockNode();
+
+        @Override
+        protected PythonContext getContext() {
+            return PythonLanguage.getContextRef().get();
+        }
+
+        @Override
+        public boolean isAdoptable() {
+            return false;
+        }
+    }
+}
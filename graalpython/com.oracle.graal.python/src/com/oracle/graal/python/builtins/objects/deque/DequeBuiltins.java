@@ -0,0 +1,530 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.deque;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CONTAINS__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__DELITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__HASH__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__IADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__IMUL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LEN__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REVERSED__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.RuntimeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PDeque)
+public class DequeBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return DequeBuiltinsFactory.getFactories();
+    }
+
+    private static final String MUTATED_DURING_ITERATION = "deque mutated during iteration";
+    private static final String INDEX_OUT_OF_RANGE = "deque index out of range";
+    private static final String POP_FROM_EMPTY = "pop from an empty deque";
+
+    /**
+     * Appends all elements of an iterable to either side of a deque. Extending a deque with
+     * itself takes a snapshot of the elements first.
+     */
+    static final class ExtendHelperNode extends Node {
+        @Child private GetIteratorNode getIteratorNode = GetIteratorNode.create();
+        @Child private GetNextNode getNextNode = GetNextNode.create();
+        private final IsBuiltinClassProfile errorProfile = IsBuiltinClassProfile.create();
+
+        void execute(VirtualFrame frame, PDeque self, Object iterable, boolean left) {
+            if (iterable instanceof PDeque) {
+                for (Object value : ((PDeque) iterable).toArray()) {
+                    add(self, value, left);
+                }
+                return;
+            }
+            Object iterator = getIteratorNode.executeWith(frame, iterable);
+            while (true) {
+                Object value;
+                try {
+                    value = getNextNode.execute(frame, iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(errorProfile);
+                    return;
+                }
+                add(self, value, left);
+            }
+        }
+
+        private static void add(PDeque self, Object value, boolean left) {
+            if (left) {
+                self.appendLeft(value);
+            } else {
+                self.append(value);
+            }
+        }
+
+        static ExtendHelperNode create() {
+            return new ExtendHelperNode();
+        }
+    }
+
+    // deque([iterable[, maxlen]])
+    @Builtin(name = __INIT__, minNumOfPositionalArgs = 1, parameterNames = {"self", "iterable", "maxlen"})
+    @GenerateNodeFactory
+    public abstract static class InitNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        PNone init(VirtualFrame frame, PDeque self, Object iterable, Object maxlen,
+                        @Cached("createOverflow()") CastToIndexNode castToIndexNode,
+                        @Cached("create()") ExtendHelperNode extendNode) {
+            int maxLength = -1;
+            if (!PGuards.isPNone(maxlen)) {
+                maxLength = castToIndexNode.execute(maxlen);
+                if (maxLength < 0) {
+                    throw raise(ValueError, "maxlen must be non-negative");
+                }
+            }
+            if (self.getSize() > 0) {
+                self.clear();
+            }
+            self.setMaxLength(maxLength);
+            if (!PGuards.isPNone(iterable)) {
+                extendNode.execute(frame, self, iterable, false);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "maxlen", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class MaxLenNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object maxlen(PDeque self) {
+            int maxLength = self.getMaxLength();
+            return maxLength < 0 ? PNone.NONE : maxLength;
+        }
+    }
+
+    // deque.append(x)
+    @Builtin(name = "append", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class AppendNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone append(PDeque self, Object value) {
+            self.append(value);
+            return PNone.NONE;
+        }
+    }
+
+    // deque.appendleft(x)
+    @Builtin(name = "appendleft", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class AppendLeftNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone appendLeft(PDeque self, Object value) {
+            self.appendLeft(value);
+            return PNone.NONE;
+        }
+    }
+
+    // deque.pop()
+    @Builtin(name = "pop", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class PopNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object pop(PDeque self) {
+            if (self.getSize() == 0) {
+                throw raise(IndexError, POP_FROM_EMPTY);
+            }
+            return self.pop();
+        }
+    }
+
+    // deque.popleft()
+    @Builtin(name = "popleft", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class PopLeftNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object popLeft(PDeque self) {
+            if (self.getSize() == 0) {
+                throw raise(IndexError, POP_FROM_EMPTY);
+            }
+            return self.popLeft();
+        }
+    }
+
+    // deque.extend(iterable)
+    @Builtin(name = "extend", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class ExtendNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone extend(VirtualFrame frame, PDeque self, Object iterable,
+                        @Cached("create()") ExtendHelperNode extendNode) {
+            extendNode.execute(frame, self, iterable, false);
+            return PNone.NONE;
+        }
+    }
+
+    // deque.extendleft(iterable)
+    @Builtin(name = "extendleft", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class ExtendLeftNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone extendLeft(VirtualFrame frame, PDeque self, Object iterable,
+                        @Cached("create()") ExtendHelperNode extendNode) {
+            extendNode.execute(frame, self, iterable, true);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __IADD__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class IAddNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PDeque iadd(VirtualFrame frame, PDeque self, Object iterable,
+                        @Cached("create()") ExtendHelperNode extendNode) {
+            extendNode.execute(frame, self, iterable, false);
+            return self;
+        }
+    }
+
+    @Builtin(name = __IMUL__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class IMulNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PDeque imul(PDeque self, Object times,
+                        @Cached("createOverflow()") CastToIndexNode castToIndexNode) {
+            int n = castToIndexNode.execute(times);
+            if (n <= 0) {
+                self.clear();
+            } else if (n > 1) {
+                Object[] elements = self.toArray();
+                int maxLength = self.getMaxLength();
+                // with a maximum length, only the last copies can survive
+                int copies = maxLength < 0 || elements.length == 0 ? n - 1 : Math.min(n - 1, maxLength / elements.length + 1);
+                for (int i = 0; i < copies; i++) {
+                    for (Object value : elements) {
+                        self.append(value);
+                    }
+                }
+            }
+            return self;
+        }
+    }
+
+    // deque.clear()
+    @Builtin(name = "clear", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ClearNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone clear(PDeque self) {
+            self.clear();
+            return PNone.NONE;
+        }
+    }
+
+    // deque.rotate(n=1)
+    @Builtin(name = "rotate", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class RotateNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = "isNoValue(n)")
+        PNone rotateDefault(PDeque self, @SuppressWarnings("unused") PNone n) {
+            self.rotate(1);
+            return PNone.NONE;
+        }
+
+        @Specialization
+        PNone rotateInt(PDeque self, int n) {
+            self.rotate(n);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "!isNoValue(n)", replaces = "rotateInt")
+        PNone rotateGeneric(PDeque self, Object n,
+                        @Cached("createOverflow()") CastToIndexNode castToIndexNode) {
+            self.rotate(castToIndexNode.execute(n));
+            return PNone.NONE;
+        }
+    }
+
+    // deque.reverse()
+    @Builtin(name = "reverse", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReverseNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone reverse(PDeque self) {
+            self.reverse();
+            return PNone.NONE;
+        }
+    }
+
+    // deque.count(x)
+    @Builtin(name = "count", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class CountNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        long count(VirtualFrame frame, PDeque self, Object value,
+                        @Cached("create(__EQ__, __EQ__, __EQ__)") BinaryComparisonNode eqNode) {
+            int state = self.getState();
+            long count = 0;
+            for (int i = 0; i < self.getSize(); i++) {
+                if (eqNode.executeBool(frame, self.get(i), value)) {
+                    count++;
+                }
+                if (state != self.getState()) {
+                    throw raise(RuntimeError, MUTATED_DURING_ITERATION);
+                }
+            }
+            return count;
+        }
+    }
+
+    @Builtin(name = __CONTAINS__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class ContainsNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        boolean contains(VirtualFrame frame, PDeque self, Object value,
+                        @Cached("create(__EQ__, __EQ__, __EQ__)") BinaryComparisonNode eqNode) {
+            int state = self.getState();
+            for (int i = 0; i < self.getSize(); i++) {
+                if (eqNode.executeBool(frame, self.get(i), value)) {
+                    return true;
+                }
+                if (state != self.getState()) {
+                    throw raise(RuntimeError, MUTATED_DURING_ITERATION);
+                }
+            }
+            return false;
+        }
+    }
+
+    // deque.index(x[, start[, stop]])
+    @Builtin(name = "index", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    public abstract static class IndexNode extends PythonBuiltinNode {
+        @Specialization
+        int index(VirtualFrame frame, PDeque self, Object value, Object startObj, Object stopObj,
+                        @Cached("create()") CastToIndexNode castToIndexNode,
+                        @Cached("create(__EQ__, __EQ__, __EQ__)") BinaryComparisonNode eqNode) {
+            int size = self.getSize();
+            int start = PGuards.isNoValue(startObj) ? 0 : clamp(castToIndexNode.execute(startObj), size);
+            int stop = PGuards.isNoValue(stopObj) ? size : clamp(castToIndexNode.execute(stopObj), size);
+            int state = self.getState();
+            for (int i = start; i < stop && i < self.getSize(); i++) {
+                if (eqNode.executeBool(frame, self.get(i), value)) {
+                    return i;
+                }
+                if (state != self.getState()) {
+                    throw raise(RuntimeError, MUTATED_DURING_ITERATION);
+                }
+            }
+            throw raise(ValueError, "deque.index(x): x not in deque");
+        }
+
+        private static int clamp(int index, int size) {
+            if (index < 0) {
+                return Math.max(index + size, 0);
+            }
+            return Math.min(index, size);
+        }
+    }
+
+    // deque.insert(i, x)
+    @Builtin(name = "insert", minNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    public abstract static class InsertNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PNone insert(PDeque self, Object indexObj, Object value,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            int size = self.getSize();
+            if (size == self.getMaxLength()) {
+                throw raise(IndexError, "deque already at its maximum size");
+            }
+            int index = castToIndexNode.execute(indexObj);
+            if (index < 0) {
+                index = Math.max(index + size, 0);
+            }
+            self.insert(Math.min(index, size), value);
+            return PNone.NONE;
+        }
+    }
+
+    // deque.remove(x)
+    @Builtin(name = "remove", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class RemoveNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone remove(VirtualFrame frame, PDeque self, Object value,
+                        @Cached("create(__EQ__, __EQ__, __EQ__)") BinaryComparisonNode eqNode) {
+            int state = self.getState();
+            for (int i = 0; i < self.getSize(); i++) {
+                boolean equal = eqNode.executeBool(frame, self.get(i), value);
+                if (state != self.getState()) {
+                    throw raise(IndexError, "deque mutated during remove().");
+                }
+                if (equal) {
+                    self.delete(i);
+                    return PNone.NONE;
+                }
+            }
+            throw raise(ValueError, "deque.remove(x): x not in deque");
+        }
+    }
+
+    @Builtin(name = __LEN__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class LenNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int len(PDeque self) {
+            return self.getSize();
+        }
+    }
+
+    abstract static class IndexAccessNode extends PythonBuiltinNode {
+        @Child private CastToIndexNode castToIndexNode;
+
+        protected int normalize(PDeque self, Object key) {
+            if (castToIndexNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToIndexNode = insert(CastToIndexNode.create(IndexError, val -> {
+                    throw raise(TypeError, "sequence index must be integer, not '%p'", val);
+                }));
+            }
+            int index = castToIndexNode.execute(key);
+            int size = self.getSize();
+            if (index < 0) {
+                index += size;
+            }
+            if (index < 0 || index >= size) {
+                throw raise(IndexError, INDEX_OUT_OF_RANGE);
+            }
+            return index;
+        }
+    }
+
+    @Builtin(name = __GETITEM__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class GetItemNode extends IndexAccessNode {
+        @Specialization
+        Object getItem(PDeque self, Object key) {
+            return self.get(normalize(self, key));
+        }
+    }
+
+    @Builtin(name = __SETITEM__, minNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    public abstract static class SetItemNode extends IndexAccessNode {
+        @Specialization
+        PNone setItem(PDeque self, Object key, Object value) {
+            self.set(normalize(self, key), value);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __DELITEM__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DelItemNode extends IndexAccessNode {
+        @Specialization
+        PNone delItem(PDeque self, Object key) {
+            self.delete(normalize(self, key));
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __ITER__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class IterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PDequeIterator iter(PDeque self) {
+            return factory().createDequeIterator(self);
+        }
+    }
+
+    @Builtin(name = __REVERSED__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReversedNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PDequeIterator reversed(PDeque self) {
+            return factory().createDequeReverseIterator(self);
+        }
+    }
+
+    @Builtin(name = __HASH__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class HashNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object hash(Object self) {
+            throw raise(TypeError, "unhashable type: '%p'", self);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.deque;
+
+import java.util.Arrays;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * A double-ended queue stored in a growable circular array. All positions are logical, i.e.,
+ * {@code 0} is always the leftmost element. The {@code state} counter is incremented on every
+ * structural modification so that iterators can detect concurrent mutation.
+ */
+public final class PDeque extends PythonBuiltinObject {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private Object[] elements = new Object[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+    private int maxLength = -1;
+    private int state;
+
+    public PDeque(LazyPythonClass cls) {
+        super(cls);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the maximum length or {@code -1} if the deque is unbounded
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    public void setMaxLength(int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    public int getState() {
+        return state;
+    }
+
+    private int physical(int index) {
+        int i = head + index;
+        return i >= elements.length ? i - elements.length : i;
+    }
+
+    private void ensureCapacity() {
+        if (size == elements.length) {
+            Object[] newElements = new Object[elements.length << 1];
+            int firstPart = elements.length - head;
+            System.arraycopy(elements, head, newElements, 0, firstPart);
+            System.arraycopy(elements, 0, newElements, firstPart, head);
+            elements = newElements;
+            head = 0;
+        }
+    }
+
+    public Object get(int index) {
+        assert 0 <= index && index < size;
+        return elements[physical(index)];
+    }
+
+    public void set(int index, Object value) {
+        assert 0 <= index && index < size;
+        elements[physical(index)] = value;
+    }
+
+    /**
+     * Appends to the right side. If the deque has reached its maximum length, the leftmost
+     * element is discarded.
+     */
+    public void append(Object value) {
+        if (size == maxLength) {
+            if (maxLength == 0) {
+                return;
+            }
+            popLeft();
+        }
+        ensureCapacity();
+        elements[physical(size)] = value;
+        size++;
+        state++;
+    }
+
+    /**
+     * Appends to the left side. If the deque has reached its maximum length, the rightmost
+     * element is discarded.
+     */
+    public void appendLeft(Object value) {
+        if (size == maxLength) {
+            if (maxLength == 0) {
+                return;
+            }
+            pop();
+        }
+        ensureCapacity();
+        head = head == 0 ? elements.length - 1 : head - 1;
+        elements[head] = value;
+        size++;
+        state++;
+    }
+
+    public Object pop() {
+        assert size > 0;
+        int i = physical(size - 1);
+        Object value = elements[i];
+        elements[i] = null;
+        size--;
+        state++;
+        return value;
+    }
+
+    public Object popLeft() {
+        assert size > 0;
+        Object value = elements[head];
+        elements[head] = null;
+        head = physical(1);
+        size--;
+        state++;
+        return value;
+    }
+
+    /**
+     * Inserts before the given logical index, moving the shorter side of the deque.
+     */
+    public void insert(int index, Object value) {
+        assert 0 <= index && index <= size && size != maxLength;
+        ensureCapacity();
+        if (index < size - index) {
+            head = head == 0 ? elements.length - 1 : head - 1;
+            for (int i = 0; i < index; i++) {
+                elements[physical(i)] = elements[physical(i + 1)];
+            }
+        } else {
+            for (int i = size; i > index; i--) {
+                elements[physical(i)] = elements[physical(i - 1)];
+            }
+        }
+        elements[physical(index)] = value;
+        size++;
+        state++;
+    }
+
+    /**
+     * Removes the element at the given logical index, moving the shorter side of the deque.
+     */
+    public void delete(int index) {
+        assert 0 <= index && index < size;
+        if (index < size - index) {
+            for (int i = index; i > 0; i--) {
+                elements[physical(i)] = elements[physical(i - 1)];
+            }
+            elements[head] = null;
+            head = physical(1);
+        } else {
+            for (int i = index; i < size - 1; i++) {
+                elements[physical(i)] = elements[physical(i + 1)];
+            }
+            elements[physical(size - 1)] = null;
+        }
+        size--;
+        state++;
+    }
+
+    /**
+     * Rotates {@code n} steps to the right, or to the left if {@code n} is negative. Only the
+     * shorter part of the deque is moved, and a full ring buffer is rotated by moving the head.
+     */
+    public void rotate(long n) {
+        if (size <= 1) {
+            return;
+        }
+        int steps = (int) Math.floorMod(n, (long) size);
+        if (steps == 0) {
+            return;
+        }
+        if (size == elements.length) {
+            head = physical(size - steps);
+        } else if (steps <= size - steps) {
+            for (int i = 0; i < steps; i++) {
+                int last = physical(size - 1);
+                head = head == 0 ? elements.length - 1 : head - 1;
+                elements[head] = elements[last];
+                elements[last] = null;
+            }
+        } else {
+            for (int i = 0; i < size - steps; i++) {
+                elements[physical(size)] = elements[head];
+                elements[head] = null;
+                head = physical(1);
+            }
+        }
+        state++;
+    }
+
+    public void reverse() {
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            int pi = physical(i);
+            int pj = physical(j);
+            Object tmp = elements[pi];
+            elements[pi] = elements[pj];
+            elements[pj] = tmp;
+        }
+    }
+
+    public void clear() {
+        elements = new Object[INITIAL_CAPACITY];
+        head = 0;
+        size = 0;
+        state++;
+    }
+
+    public Object[] toArray() {
+        Object[] result = new Object[size];
+        int firstPart = Math.min(size, elements.length - head);
+        System.arraycopy(elements, head, result, 0, firstPart);
+        System.arraycopy(elements, 0, result, firstPart, size - firstPart);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "deque(" + Arrays.toString(toArray()) + ")";
+    }
+}
@@ -57,17 +57,27 @@ import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.ContainsKeyNode;
+import com.oracle.graal.python.builtins.objects.common.KeywordsStorage;
+import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
+import com.oracle.graal.python.builtins.objects.common.WriteLockNode;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.mappingproxy.PMappingproxy;
+import com.oracle.graal.python.builtins.objects.set.PBaseSet;
 import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.subscript.SetItemNode;
+import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -91,6 +101,7 @@ public final class DictBuiltins extends PythonBuiltins {
     public abstract static class InitNode extends PythonBuiltinNode {
 
         @Child private HashingStorageNodes.InitNode initNode;
+        @Child private WriteLockNode writeLockNode = WriteLockNode.create();
 
         private HashingStorageNodes.InitNode getInitNode() {
             if (initNode == null) {
@@ -102,13 +113,21 @@ public final class DictBuiltins extends PythonBuiltins {
 
         @Specialization(guards = "args.length == 1")
         Object doVarargs(VirtualFrame frame, PDict self, Object[] args, PKeyword[] kwargs) {
-            self.setDictStorage(getInitNode().execute(frame, args[0], kwargs));
-            return PNone.NONE;
+            return init(frame, self, args[0], kwargs);
         }
 
         @Specialization(guards = "args.length == 0")
         Object doKeywords(VirtualFrame frame, PDict self, @SuppressWarnings("unused") Object[] args, PKeyword[] kwargs) {
-            self.setDictStorage(getInitNode().execute(frame, NO_VALUE, kwargs));
+            return init(frame, self, NO_VALUE, kwargs);
+        }
+
+        private Object init(VirtualFrame frame, PDict self, Object mapping, PKeyword[] kwargs) {
+            boolean locked = writeLockNode.lock(self);
+            try {
+                self.setDictStorage(getInitNode().execute(frame, mapping, kwargs));
+            } finally {
+                writeLockNode.unlock(self, locked);
+            }
             return PNone.NONE;
         }
 
@@ -141,12 +160,18 @@ public final class DictBuiltins extends PythonBuiltins {
         @Specialization(guards = "!containsKey(frame, dict.getDictStorage(), key)")
         public Object setDefault(VirtualFrame frame, PDict dict, Object key, Object defaultValue,
                         @Cached("create()") HashingCollectionNodes.SetItemNode setItemNode,
-                        @Cached("createBinaryProfile()") ConditionProfile defaultValProfile) {
+                        @Cached("createBinaryProfile()") ConditionProfile defaultValProfile,
+                        @Cached WriteLockNode writeLockNode) {
             Object value = defaultValue;
             if (defaultValProfile.profile(defaultValue == PNone.NO_VALUE)) {
                 value = PNone.NONE;
             }
-            setItemNode.execute(frame, dict, key, value);
+            boolean locked = writeLockNode.lock(dict);
+            try {
+                setItemNode.execute(frame, dict, key, value);
+            } finally {
+                writeLockNode.unlock(dict, locked);
+            }
             return value;
         }
     }
@@ -157,6 +182,7 @@ public final class DictBuiltins extends PythonBuiltins {
     public abstract static class PopNode extends PythonTernaryBuiltinNode {
         @Child private HashingStorageNodes.GetItemNode getItemNode;
         @Child private HashingStorageNodes.DelItemNode delItemNode;
+        @Child private WriteLockNode writeLockNode = WriteLockNode.create();
 
         private HashingStorageNodes.GetItemNode getGetItemNode() {
             if (getItemNode == null) {
@@ -182,12 +208,17 @@ public final class DictBuiltins extends PythonBuiltins {
 
         @Specialization
         public Object popDefault(VirtualFrame frame, PDict dict, Object key, Object defaultValue) {
-            Object retVal = getGetItemNode().execute(frame, dict.getDictStorage(), key);
-            if (retVal != null) {
-                getDelItemNode().execute(frame, dict, dict.getDictStorage(), key);
-                return retVal;
-            } else {
-                return defaultValue;
+            boolean locked = writeLockNode.lock(dict);
+            try {
+                Object retVal = getGetItemNode().execute(frame, dict.getDictStorage(), key);
+                if (retVal != null) {
+                    getDelItemNode().execute(frame, dict, dict.getDictStorage(), key);
+                    return retVal;
+                } else {
+                    return defaultValue;
+                }
+            } finally {
+                writeLockNode.unlock(dict, locked);
             }
         }
     }
@@ -198,16 +229,27 @@ public final class DictBuiltins extends PythonBuiltins {
     public abstract static class PopItemNode extends PythonUnaryBuiltinNode {
 
         @Specialization
-        @TruffleBoundary
-        public Object popItem(PDict dict) {
-            Iterator<DictEntry> iterator = dict.getDictStorage().entries().iterator();
-            if (iterator.hasNext()) {
-                DictEntry entry = iterator.next();
+        public Object popItem(VirtualFrame frame, PDict dict,
+                        @Cached("create()") HashingStorageNodes.DelItemNode delItemNode,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(dict);
+            try {
+                DictEntry entry = getFirstEntry(dict.getDictStorage());
+                if (entry == null) {
+                    throw raise(KeyError, "popitem(): dictionary is empty");
+                }
+                delItemNode.execute(frame, dict, dict.getDictStorage(), entry.getKey());
                 return factory().createTuple(new Object[]{entry.getKey(), entry.getValue()});
-            } else {
-                throw raise(KeyError, "popitem(): dictionary is empty");
+            } finally {
+                writeLockNode.unlock(dict, locked);
             }
         }
+
+        @TruffleBoundary
+        private static DictEntry getFirstEntry(HashingStorage storage) {
+            Iterator<DictEntry> iterator = storage.entries().iterator();
+            return iterator.hasNext() ? iterator.next() : null;
+        }
     }
 
     // keys()
@@ -237,19 +279,29 @@ public final class DictBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     public abstract static class GetNode extends PythonTernaryBuiltinNode {
         @Child private HashingStorageNodes.GetItemNode getItemNode;
+        @Child private WriteLockNode writeLockNode = WriteLockNode.create();
 
         @Specialization(guards = "!isNoValue(defaultValue)")
         public Object doWithDefault(VirtualFrame frame, PDict self, Object key, Object defaultValue) {
-            final Object value = getGetItemNode().execute(frame, self.getDictStorage(), key);
+            final Object value = getItem(frame, self, key);
             return value != null ? value : defaultValue;
         }
 
         @Specialization
         public Object doNoDefault(VirtualFrame frame, PDict self, Object key, @SuppressWarnings("unused") PNone defaultValue) {
-            final Object value = getGetItemNode().execute(frame, self.getDictStorage(), key);
+            final Object value = getItem(frame, self, key);
             return value != null ? value : PNone.NONE;
         }
 
+        private Object getItem(VirtualFrame frame, PDict self, Object key) {
+            boolean locked = writeLockNode.lock(self);
+            try {
+                return getGetItemNode().execute(frame, self.getDictStorage(), key);
+            } finally {
+                writeLockNode.unlock(self, locked);
+            }
+        }
+
         private HashingStorageNodes.GetItemNode getGetItemNode() {
             if (getItemNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -265,8 +317,15 @@ public final class DictBuiltins extends PythonBuiltins {
         @Specialization
         Object getItem(VirtualFrame frame, PDict self, Object key,
                         @Cached("create()") HashingStorageNodes.GetItemNode getItemNode,
-                        @Cached("create(__MISSING__)") LookupAndCallBinaryNode specialNode) {
-            final Object result = getItemNode.execute(frame, self.getDictStorage(), key);
+                        @Cached("create(__MISSING__)") LookupAndCallBinaryNode specialNode,
+                        @Cached WriteLockNode writeLockNode) {
+            final Object result;
+            boolean locked = writeLockNode.lock(self);
+            try {
+                result = getItemNode.execute(frame, self.getDictStorage(), key);
+            } finally {
+                writeLockNode.unlock(self, locked);
+            }
             if (result == null) {
                 return specialNode.executeObject(frame, self, key);
             }
@@ -306,8 +365,14 @@ public final class DictBuiltins extends PythonBuiltins {
     public abstract static class SetItemNode extends PythonTernaryBuiltinNode {
         @Specialization
         Object run(VirtualFrame frame, PDict self, Object key, Object value,
-                        @Cached("create()") HashingCollectionNodes.SetItemNode setItemNode) {
-            setItemNode.execute(frame, self, key, value);
+                        @Cached("create()") HashingCollectionNodes.SetItemNode setItemNode,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(self);
+            try {
+                setItemNode.execute(frame, self, key, value);
+            } finally {
+                writeLockNode.unlock(self, locked);
+            }
             return PNone.NONE;
         }
     }
@@ -317,9 +382,15 @@ public final class DictBuiltins extends PythonBuiltins {
     public abstract static class DelItemNode extends PythonBinaryBuiltinNode {
         @Specialization
         Object run(VirtualFrame frame, PDict self, Object key,
-                        @Cached("create()") HashingStorageNodes.DelItemNode delItemNode) {
-            if (delItemNode.execute(frame, self, self.getDictStorage(), key)) {
-                return PNone.NONE;
+                        @Cached("create()") HashingStorageNodes.DelItemNode delItemNode,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(self);
+            try {
+                if (delItemNode.execute(frame, self, self.getDictStorage(), key)) {
+                    return PNone.NONE;
+                }
+            } finally {
+                writeLockNode.unlock(self, locked);
             }
             throw raise(KeyError, "%s", key);
         }
@@ -368,12 +439,18 @@ public final class DictBuiltins extends PythonBuiltins {
         }
 
         @Specialization
-        boolean run(VirtualFrame frame, PDict self, Object key) {
+        boolean run(VirtualFrame frame, PDict self, Object key,
+                        @Cached WriteLockNode writeLockNode) {
             if (containsKeyNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
                 containsKeyNode = insert(ContainsKeyNode.create());
             }
-            return containsKeyNode.execute(frame, self.getDictStorage(), key);
+            boolean locked = writeLockNode.lock(self);
+            try {
+                return containsKeyNode.execute(frame, self.getDictStorage(), key);
+            } finally {
+                writeLockNode.unlock(self, locked);
+            }
         }
     }
 
@@ -391,8 +468,14 @@ public final class DictBuiltins extends PythonBuiltins {
     public abstract static class LenNode extends PythonUnaryBuiltinNode {
         @Specialization
         public int len(PDict self,
-                        @Cached("create()") HashingStorageNodes.LenNode lenNode) {
-            return lenNode.execute(self.getDictStorage());
+                        @Cached("create()") HashingStorageNodes.LenNode lenNode,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(self);
+            try {
+                return lenNode.execute(self.getDictStorage());
+            } finally {
+                writeLockNode.unlock(self, locked);
+            }
         }
     }
 
@@ -403,8 +486,14 @@ public final class DictBuiltins extends PythonBuiltins {
 
         @Specialization
         public PDict copy(VirtualFrame frame, PDict dict,
-                        @Cached("create()") HashingStorageNodes.CopyNode copyNode) {
-            return factory().createDict(copyNode.execute(frame, dict.getDictStorage()));
+                        @Cached("create()") HashingStorageNodes.CopyNode copyNode,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(dict);
+            try {
+                return factory().createDict(copyNode.execute(frame, dict.getDictStorage()));
+            } finally {
+                writeLockNode.unlock(dict, locked);
+            }
         }
     }
 
@@ -414,12 +503,112 @@ public final class DictBuiltins extends PythonBuiltins {
     public abstract static class ClearNode extends PythonUnaryBuiltinNode {
 
         @Specialization
-        public PDict copy(PDict dict) {
-            dict.getDictStorage().clear();
+        public PDict copy(PDict dict,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(dict);
+            try {
+                dict.getDictStorage().clear();
+            } finally {
+                writeLockNode.unlock(dict, locked);
+            }
             return dict;
         }
     }
 
+    // update([E, ]**F)
+    @Builtin(name = "update", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true)
+    @GenerateNodeFactory
+    public abstract static class UpdateNode extends PythonBuiltinNode {
+        @Child private HashingStorageNodes.UpdateNode updateNode = HashingStorageNodes.UpdateNode.create();
+        @Child private WriteLockNode writeLockNode = WriteLockNode.create();
+
+        @Specialization(guards = "args.length == 0")
+        Object doKeywords(VirtualFrame frame, PDict self, @SuppressWarnings("unused") Object[] args, PKeyword[] kwargs) {
+            if (kwargs.length != 0) {
+                update(frame, self, KeywordsStorage.create(kwargs));
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"args.length == 1", "isBuiltinDict(args)"})
+        Object doDict(VirtualFrame frame, PDict self, Object[] args, PKeyword[] kwargs) {
+            // merge the storages directly, without going through keys() and __getitem__
+            update(frame, self, ((PDict) args[0]).getDictStorage());
+            return doKeywords(frame, self, args, kwargs);
+        }
+
+        @Specialization(guards = {"args.length == 1", "!isBuiltinDict(args)"})
+        Object doMapping(VirtualFrame frame, PDict self, Object[] args, PKeyword[] kwargs,
+                        @Cached("create()") HashingStorageNodes.InitNode initNode) {
+            update(frame, self, initNode.execute(frame, args[0], kwargs));
+            return PNone.NONE;
+        }
+
+        private void update(VirtualFrame frame, PDict self, HashingStorage other) {
+            boolean locked = writeLockNode.lock(self);
+            try {
+                self.setDictStorage(updateNode.execute(frame, self.getDictStorage(), other));
+            } finally {
+                writeLockNode.unlock(self, locked);
+            }
+        }
+
+        @Specialization(guards = "args.length > 1")
+        Object doGeneric(@SuppressWarnings("unused") PDict self, Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
+            throw raise(TypeError, "update expected at most 1 arguments, got %d", args.length);
+        }
+
+        protected static boolean isBuiltinDict(Object[] args) {
+            return args[0] instanceof PDict && PGuards.cannotBeOverridden(((PDict) args[0]).getLazyPythonClass());
+        }
+    }
+
+    // fromkeys(iterable[, value])
+    @Builtin(name = "fromkeys", minNumOfPositionalArgs = 2, parameterNames = {"cls", "iterable", "value"}, isClassmethod = true)
+    @GenerateNodeFactory
+    public abstract static class FromKeysNode extends PythonTernaryBuiltinNode {
+
+        @Specialization
+        Object fromKeys(VirtualFrame frame, Object cls, Object iterable, Object value,
+                        @Cached("create()") CallNode callNode,
+                        @Cached("createBinaryProfile()") ConditionProfile copyKeysProfile,
+                        @Cached("create()") HashingStorageNodes.CopyKeysNode copyKeysNode,
+                        @Cached("create()") GetIteratorNode getIteratorNode,
+                        @Cached("create()") GetNextNode nextNode,
+                        @Cached("create()") IsBuiltinClassProfile errorProfile,
+                        @Cached("create()") SetItemNode setItemNode) {
+            Object val = value == PNone.NO_VALUE ? PNone.NONE : value;
+            Object dict = callNode.execute(frame, cls, new Object[0], PKeyword.EMPTY_KEYWORDS);
+            if (copyKeysProfile.profile(isEmptyBuiltinDict(dict) && isBuiltinKeyCollection(iterable))) {
+                // like CPython, take the keys of a dict or set as they are, without hashing them again
+                ((PDict) dict).setDictStorage(copyKeysNode.execute(frame, ((PHashingCollection) iterable).getDictStorage(), val));
+                return dict;
+            }
+            Object iterator = getIteratorNode.executeWith(frame, iterable);
+            while (true) {
+                Object key;
+                try {
+                    key = nextNode.execute(frame, iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(errorProfile);
+                    return dict;
+                }
+                setItemNode.executeWith(frame, dict, key, val);
+            }
+        }
+
+        private static boolean isEmptyBuiltinDict(Object dict) {
+            return dict instanceof PDict && PGuards.cannotBeOverridden(((PDict) dict).getLazyPythonClass()) && ((PDict) dict).size() == 0;
+        }
+
+        private static boolean isBuiltinKeyCollection(Object iterable) {
+            if (iterable instanceof PBaseSet) {
+                return true;
+            }
+            return iterable instanceof PDict && PGuards.cannotBeOverridden(((PDict) iterable).getLazyPythonClass());
+        }
+    }
+
     // values()
     @Builtin(name = "values", minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
@@ -448,8 +637,17 @@ public final class DictBuiltins extends PythonBuiltins {
         public Object repr(VirtualFrame frame, PDict self,
                         @Cached("create(__REPR__)") LookupAndCallUnaryNode reprKeyNode,
                         @Cached("create(__REPR__)") LookupAndCallUnaryNode reprValueNode,
-                        @Cached("create()") HashingStorageNodes.GetItemNode next) {
+                        @Cached("create()") HashingStorageNodes.GetItemNode next,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(self);
+            try {
+                return doRepr(frame, self, reprKeyNode, reprValueNode, next);
+            } finally {
+                writeLockNode.unlock(self, locked);
+            }
+        }
 
+        private Object doRepr(VirtualFrame frame, PDict self, LookupAndCallUnaryNode reprKeyNode, LookupAndCallUnaryNode reprValueNode, HashingStorageNodes.GetItemNode next) {
             StringBuilder result = new StringBuilder();
             sbAppend(result, "{");
             boolean initial = true;
@@ -35,6 +35,7 @@ import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
+import com.oracle.graal.python.builtins.objects.common.WriteLockNode;
 import com.oracle.graal.python.builtins.objects.dict.PDictView.PDictItemsIterator;
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
@@ -60,12 +61,19 @@ public final class DictItemsIteratorBuiltins extends PythonBuiltins {
     public abstract static class NextNode extends PythonUnaryBuiltinNode {
         @Specialization
         Object run(PDictItemsIterator self,
-                        @Cached("createBinaryProfile()") ConditionProfile profile) {
-            if (profile.profile(hasNext(self))) {
-                DictEntry value = next(self);
-                return factory().createTuple(new Object[]{value.getKey(), value.getValue()});
+                        @Cached("createBinaryProfile()") ConditionProfile profile,
+                        @Cached WriteLockNode writeLockNode) {
+            DictEntry value;
+            boolean locked = writeLockNode.lock(self.getCollection());
+            try {
+                if (!profile.profile(hasNext(self))) {
+                    throw raise(PythonErrorType.StopIteration);
+                }
+                value = next(self);
+            } finally {
+                writeLockNode.unlock(self.getCollection(), locked);
             }
-            throw raise(PythonErrorType.StopIteration);
+            return factory().createTuple(new Object[]{value.getKey(), value.getValue()});
         }
 
         @TruffleBoundary
@@ -34,6 +34,7 @@ import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.common.WriteLockNode;
 import com.oracle.graal.python.builtins.objects.dict.PDictView.PDictKeysIterator;
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
@@ -58,9 +59,15 @@ public final class DictKeysIteratorBuiltins extends PythonBuiltins {
     public abstract static class NextNode extends PythonUnaryBuiltinNode {
         @Specialization
         Object run(PDictKeysIterator self,
-                        @Cached("createBinaryProfile()") ConditionProfile profile) {
-            if (profile.profile(self.getIterator().hasNext())) {
-                return self.getIterator().next();
+                        @Cached("createBinaryProfile()") ConditionProfile profile,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(self.getCollection());
+            try {
+                if (profile.profile(self.hasNext())) {
+                    return self.next();
+                }
+            } finally {
+                writeLockNode.unlock(self.getCollection(), locked);
             }
             throw raise(PythonErrorType.StopIteration);
         }
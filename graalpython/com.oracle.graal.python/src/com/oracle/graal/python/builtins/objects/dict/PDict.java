@@ -25,6 +25,7 @@
  */
 package com.oracle.graal.python.builtins.objects.dict;
 
+import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage;
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage.FastDictStorage;
 import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
@@ -33,7 +34,9 @@ import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage.UnmodifiableStorageException;
 import com.oracle.graal.python.builtins.objects.common.KeywordsStorage;
+import com.oracle.graal.python.builtins.objects.common.LongKeyStorage;
 import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
+import com.oracle.graal.python.builtins.objects.common.StringKeyStorage;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.truffle.api.CompilerAsserts;
@@ -68,7 +71,14 @@ public final class PDict extends PHashingCollection {
         try {
             dictStorage.setItem(key, value, HashingStorage.getSlowPathEquivalence(key));
         } catch (UnmodifiableStorageException e) {
-            HashingStorage newDictStorage = createNewStorage(key instanceof String, size() + 1);
+            HashingStorage newDictStorage;
+            if (dictStorage.length() == 0) {
+                newDictStorage = key instanceof Integer || key instanceof Long ? new LongKeyStorage() : createNewStorage(key instanceof String, 1);
+            } else {
+                // the key cannot be stored in the specialized storage, keep its entries in a generic one
+                newDictStorage = EconomicMapStorage.create(size() + 1, false);
+                newDictStorage.addAll(dictStorage, PythonLanguage.getContextRef().get().getSlowPathEquivalence());
+            }
             newDictStorage.setItem(key, value, HashingStorage.getSlowPathEquivalence(key));
             dictStorage = newDictStorage;
         }
@@ -80,6 +90,8 @@ public final class PDict extends PHashingCollection {
             newDictStorage = new EmptyStorage();
         } else if (isStringKey && expectedSize < DynamicObjectStorage.SIZE_THRESHOLD) {
             newDictStorage = new FastDictStorage();
+        } else if (isStringKey) {
+            newDictStorage = new StringKeyStorage(expectedSize);
         } else {
             newDictStorage = EconomicMapStorage.create(expectedSize, false);
         }
@@ -70,7 +70,7 @@ public abstract class PDictView extends PythonBuiltinObject {
     // -----------------------------------------------------------------------------------------------------------------
     public static final class PDictKeysIterator extends PJavaIteratorIterator<Object> {
         public PDictKeysIterator(LazyPythonClass clazz, PHashingCollection dict) {
-            super(clazz, dict.keys().iterator());
+            super(clazz, dict, dict.keys().iterator());
         }
     }
 
@@ -88,7 +88,7 @@ public abstract class PDictView extends PythonBuiltinObject {
     // -----------------------------------------------------------------------------------------------------------------
     public static final class PDictValuesIterator extends PJavaIteratorIterator<Object> {
         public PDictValuesIterator(LazyPythonClass clazz, PHashingCollection dict) {
-            super(clazz, dict.items().iterator());
+            super(clazz, dict, dict.items().iterator());
         }
     }
 
@@ -106,7 +106,7 @@ public abstract class PDictView extends PythonBuiltinObject {
     // -----------------------------------------------------------------------------------------------------------------
     public static final class PDictItemsIterator extends PJavaIteratorIterator<DictEntry> {
         public PDictItemsIterator(LazyPythonClass clazz, PHashingCollection dict) {
-            super(clazz, dict.entries().iterator());
+            super(clazz, dict, dict.entries().iterator());
         }
     }
 
@@ -27,20 +27,30 @@ package com.oracle.graal.python.builtins.objects.dict;
 
 import java.util.Iterator;
 
+import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
 public abstract class PJavaIteratorIterator<T> extends PythonBuiltinObject {
 
+    private final PHashingCollection collection;
     private final Iterator<T> iterator;
     private int index;
 
-    public PJavaIteratorIterator(LazyPythonClass clazz, Iterator<T> iterator) {
+    public PJavaIteratorIterator(LazyPythonClass clazz, PHashingCollection collection, Iterator<T> iterator) {
         super(clazz);
+        this.collection = collection;
         this.iterator = iterator;
     }
 
+    /**
+     * The collection whose storage is iterated.
+     */
+    public PHashingCollection getCollection() {
+        return collection;
+    }
+
     public Iterator<T> getIterator() {
         return iterator;
     }
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.functools;
+
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.__DICT__;
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.__QUALNAME__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CALL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GET__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REDUCE__;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.DelItemNode;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.GetItemNode;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.SetItemNode;
+import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.functools.PLruCacheWrapper.Link;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode.GetFixedAttributeNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonVarargsBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PLruCacheWrapper)
+public class LruCacheWrapperBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return LruCacheWrapperBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = __CALL__, minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true)
+    @GenerateNodeFactory
+    public abstract static class CallNode extends PythonVarargsBuiltinNode {
+        @Child private com.oracle.graal.python.nodes.call.CallNode callNode = com.oracle.graal.python.nodes.call.CallNode.create();
+        @Child private GetClassNode getClassNode;
+
+        private final IsBuiltinClassProfile isIntProfile = IsBuiltinClassProfile.create();
+        private final IsBuiltinClassProfile isStrProfile = IsBuiltinClassProfile.create();
+
+        @Specialization(guards = "self.getMaxSize() == 0")
+        protected Object doUncached(VirtualFrame frame, PLruCacheWrapper self, Object[] arguments, PKeyword[] keywords) {
+            self.incrementMisses();
+            return callNode.execute(frame, self.getFunction(), arguments, keywords);
+        }
+
+        @Specialization(guards = "isUnbounded(self)")
+        protected Object doUnbounded(VirtualFrame frame, PLruCacheWrapper self, Object[] arguments, PKeyword[] keywords,
+                        @Cached("create()") GetItemNode getItemNode,
+                        @Cached("create()") SetItemNode setItemNode) {
+            Object key = makeKey(self, arguments, keywords);
+            PDict cache = self.getCache();
+            Object result = getItemNode.execute(frame, cache.getDictStorage(), key);
+            if (result != null) {
+                self.incrementHits();
+                return result;
+            }
+            self.incrementMisses();
+            result = callNode.execute(frame, self.getFunction(), arguments, keywords);
+            cache.setDictStorage(setItemNode.execute(frame, cache.getDictStorage(), key, result));
+            return result;
+        }
+
+        @Specialization(guards = "self.getMaxSize() > 0")
+        protected Object doBounded(VirtualFrame frame, PLruCacheWrapper self, Object[] arguments, PKeyword[] keywords,
+                        @Cached("create()") GetItemNode getItemNode,
+                        @Cached("create()") SetItemNode setItemNode,
+                        @Cached("create()") DelItemNode delItemNode) {
+            Object key = makeKey(self, arguments, keywords);
+            PDict cache = self.getCache();
+            Link link = (Link) getItemNode.execute(frame, cache.getDictStorage(), key);
+            if (link != null) {
+                self.incrementHits();
+                self.moveToBack(link);
+                return link.getResult();
+            }
+            self.incrementMisses();
+            Object result = callNode.execute(frame, self.getFunction(), arguments, keywords);
+            if (getItemNode.execute(frame, cache.getDictStorage(), key) != null) {
+                // a recursive call already cached the result for this key
+                return result;
+            }
+            Link oldest = self.getOldest();
+            if (cache.size() < self.getMaxSize() || oldest == null) {
+                link = self.add(key, result);
+            } else {
+                delItemNode.execute(frame, cache, cache.getDictStorage(), oldest.getKey());
+                self.replaceOldest(oldest, key, result);
+                link = oldest;
+            }
+            cache.setDictStorage(setItemNode.execute(frame, cache.getDictStorage(), key, link));
+            return result;
+        }
+
+        @Override
+        public Object varArgExecute(VirtualFrame frame, Object[] arguments, PKeyword[] keywords) throws VarargsBuiltinDirectInvocationNotSupported {
+            Object[] argsWithoutSelf = new Object[arguments.length - 1];
+            System.arraycopy(arguments, 1, argsWithoutSelf, 0, argsWithoutSelf.length);
+            return execute(frame, arguments[0], argsWithoutSelf, keywords);
+        }
+
+        protected static boolean isUnbounded(PLruCacheWrapper self) {
+            return self.getMaxSize() == PLruCacheWrapper.UNBOUNDED;
+        }
+
+        /**
+         * Builds the cache key like CPython: a single {@code int} or {@code str} argument is its own
+         * key, otherwise the key is a tuple of the arguments, followed by the keyword arguments and,
+         * for typed caches, the types of all argument values.
+         */
+        private Object makeKey(PLruCacheWrapper self, Object[] arguments, PKeyword[] keywords) {
+            boolean typed = self.isTyped();
+            if (!typed && keywords.length == 0) {
+                if (arguments.length == 1 && isFastKey(arguments[0])) {
+                    return arguments[0];
+                }
+                return factory().createTuple(arguments);
+            }
+            int length = arguments.length;
+            if (keywords.length > 0) {
+                length += 1 + 2 * keywords.length;
+            }
+            if (typed) {
+                length += arguments.length + keywords.length;
+            }
+            Object[] key = new Object[length];
+            System.arraycopy(arguments, 0, key, 0, arguments.length);
+            int i = arguments.length;
+            if (keywords.length > 0) {
+                key[i++] = self.getKeywordMark();
+                for (PKeyword keyword : keywords) {
+                    key[i++] = keyword.getName();
+                    key[i++] = keyword.getValue();
+                }
+            }
+            if (typed) {
+                for (Object argument : arguments) {
+                    key[i++] = getClass(argument);
+                }
+                for (PKeyword keyword : keywords) {
+                    key[i++] = getClass(keyword.getValue());
+                }
+            }
+            return factory().createTuple(key);
+        }
+
+        private boolean isFastKey(Object argument) {
+            return argument instanceof Integer || argument instanceof Long || argument instanceof String ||
+                            argument instanceof PInt && isIntProfile.profileObject(argument, PythonBuiltinClassType.PInt) ||
+                            argument instanceof PString && isStrProfile.profileObject(argument, PythonBuiltinClassType.PString);
+        }
+
+        private Object getClass(Object object) {
+            if (getClassNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getClassNode = insert(GetClassNode.create());
+            }
+            return getClassNode.execute(object);
+        }
+    }
+
+    @Builtin(name = __GET__, minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    public abstract static class GetNode extends PythonBuiltinNode {
+        @Specialization(guards = "isNoValue(instance) || isNone(instance)")
+        @SuppressWarnings("unused")
+        Object getFunction(PLruCacheWrapper self, Object instance, Object owner) {
+            return self;
+        }
+
+        @Specialization(guards = {"!isNoValue(instance)", "!isNone(instance)"})
+        @SuppressWarnings("unused")
+        Object getMethod(PLruCacheWrapper self, Object instance, Object owner) {
+            return factory().createMethod(instance, self);
+        }
+    }
+
+    @Builtin(name = "cache_info", minNumOfPositionalArgs = 1, doc = "Report cache statistics")
+    @GenerateNodeFactory
+    public abstract static class CacheInfoNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object cacheInfo(VirtualFrame frame, PLruCacheWrapper self,
+                        @Cached("create()") com.oracle.graal.python.nodes.call.CallNode callNode) {
+            Object maxSize = self.getMaxSize() == PLruCacheWrapper.UNBOUNDED ? PNone.NONE : self.getMaxSize();
+            return callNode.execute(frame, self.getCacheInfoType(), self.getHits(), self.getMisses(), maxSize, self.getCache().size());
+        }
+    }
+
+    @Builtin(name = "cache_clear", minNumOfPositionalArgs = 1, doc = "Clear the cache and cache statistics")
+    @GenerateNodeFactory
+    public abstract static class CacheClearNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object cacheClear(PLruCacheWrapper self) {
+            self.clear();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __DICT__, minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class DictNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object dict(PLruCacheWrapper self) {
+            PHashingCollection dict = self.getDict();
+            if (dict == null) {
+                dict = factory().createDictFixedStorage(self);
+                self.setDict(dict);
+            }
+            return dict;
+        }
+    }
+
+    @Builtin(name = __REDUCE__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object reduce(VirtualFrame frame, PLruCacheWrapper self,
+                        @Cached("create(__QUALNAME__)") GetFixedAttributeNode getQualnameNode) {
+            // pickled by reference to the decorated function
+            return getQualnameNode.executeObject(frame, self);
+        }
+    }
+
+    @Builtin(name = "__copy__", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class CopyNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object copy(PLruCacheWrapper self) {
+            return self;
+        }
+    }
+
+    @Builtin(name = "__deepcopy__", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class DeepCopyNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object deepcopy(PLruCacheWrapper self, @SuppressWarnings("unused") Object memo) {
+            return self;
+        }
+    }
+}
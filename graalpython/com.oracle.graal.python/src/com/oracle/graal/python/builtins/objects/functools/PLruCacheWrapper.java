@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.functools;
+
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * The wrapper returned by {@code functools.lru_cache}. Results are stored in a dict with an
+ * {@link EconomicMapStorage}. A bounded cache additionally keeps its entries in a circular doubly
+ * linked list ordered from least to most recently used, so that both a hit and an eviction take
+ * constant time, like the C implementation of CPython.
+ */
+public final class PLruCacheWrapper extends PythonBuiltinObject {
+    /** The value of {@link #getMaxSize()} for caches without a size limit. */
+    public static final int UNBOUNDED = -1;
+
+    /**
+     * An entry of a bounded cache. The cache dict maps the key to its link.
+     */
+    public static final class Link {
+        private Link prev;
+        private Link next;
+        private Object key;
+        private Object result;
+
+        Link() {
+            this.prev = this;
+            this.next = this;
+        }
+
+        public Object getKey() {
+            return key;
+        }
+
+        public Object getResult() {
+            return result;
+        }
+    }
+
+    private final Object function;
+    private final int maxSize;
+    private final boolean typed;
+    private final Object cacheInfoType;
+    private final Object keywordMark;
+    private final PDict cache;
+    private final Link root = new Link();
+    private long hits;
+    private long misses;
+
+    public PLruCacheWrapper(LazyPythonClass cls, Object function, int maxSize, boolean typed, Object cacheInfoType, Object keywordMark, PDict cache) {
+        super(cls);
+        this.function = function;
+        this.maxSize = maxSize;
+        this.typed = typed;
+        this.cacheInfoType = cacheInfoType;
+        this.keywordMark = keywordMark;
+        this.cache = cache;
+    }
+
+    public Object getFunction() {
+        return function;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public boolean isTyped() {
+        return typed;
+    }
+
+    public Object getCacheInfoType() {
+        return cacheInfoType;
+    }
+
+    /**
+     * The object that separates positional from keyword arguments in a cache key.
+     */
+    public Object getKeywordMark() {
+        return keywordMark;
+    }
+
+    public PDict getCache() {
+        return cache;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void incrementHits() {
+        hits++;
+    }
+
+    public void incrementMisses() {
+        misses++;
+    }
+
+    /**
+     * Marks the entry of {@code link} as the most recently used one.
+     */
+    public void moveToBack(Link link) {
+        unlink(link);
+        append(link);
+    }
+
+    /**
+     * Adds a new most recently used entry.
+     */
+    public Link add(Object key, Object result) {
+        Link link = new Link();
+        link.key = key;
+        link.result = result;
+        append(link);
+        return link;
+    }
+
+    /**
+     * @return the least recently used entry or {@code null} if the cache is empty
+     */
+    public Link getOldest() {
+        return root.next == root ? null : root.next;
+    }
+
+    /**
+     * Reuses the least recently used entry {@code oldest} for a new key, making it the most
+     * recently used one. The old key must have been removed from the cache dict.
+     */
+    public void replaceOldest(Link oldest, Object key, Object result) {
+        oldest.key = key;
+        oldest.result = result;
+        moveToBack(oldest);
+    }
+
+    /**
+     * Removes all entries and resets the statistics.
+     */
+    public void clear() {
+        cache.setDictStorage(EconomicMapStorage.create(false));
+        root.prev = root;
+        root.next = root;
+        hits = 0;
+        misses = 0;
+    }
+
+    private void unlink(Link link) {
+        link.prev.next = link.next;
+        link.next.prev = link.prev;
+    }
+
+    private void append(Link link) {
+        Link last = root.prev;
+        link.prev = last;
+        link.next = root;
+        last.next = link;
+        root.prev = link;
+    }
+}
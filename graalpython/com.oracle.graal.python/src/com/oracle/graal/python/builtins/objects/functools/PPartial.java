@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.functools;
+
+import java.util.Arrays;
+
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A {@code functools.partial} object. The keywords are kept in a dict like in CPython, so that
+ * changes to {@code partial.keywords} are seen by later calls.
+ */
+public final class PPartial extends PythonBuiltinObject {
+    private Object function;
+    private Object[] args;
+    private PDict keywords;
+
+    public PPartial(LazyPythonClass cls, Object function, Object[] args, PDict keywords) {
+        super(cls);
+        this.function = function;
+        this.args = args;
+        this.keywords = keywords;
+    }
+
+    public Object getFunction() {
+        return function;
+    }
+
+    public Object[] getArgs() {
+        return args;
+    }
+
+    public PDict getKeywords() {
+        return keywords;
+    }
+
+    public void setState(Object function, Object[] args, PDict keywords) {
+        this.function = function;
+        this.args = args;
+        this.keywords = keywords;
+    }
+
+    public static Object[] concat(Object[] first, Object[] second) {
+        if (first.length == 0) {
+            return second;
+        } else if (second.length == 0) {
+            return first;
+        }
+        Object[] result = new Object[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    /**
+     * Merges keywords like {@code dict(stored, **given)}: values in {@code given} replace those of
+     * the same name in {@code stored} and new names are appended.
+     */
+    public static PKeyword[] mergeKeywords(PKeyword[] stored, PKeyword[] given) {
+        if (given.length == 0) {
+            return stored;
+        } else if (stored.length == 0) {
+            return given;
+        }
+        return doMergeKeywords(stored, given);
+    }
+
+    @TruffleBoundary
+    private static PKeyword[] doMergeKeywords(PKeyword[] stored, PKeyword[] given) {
+        PKeyword[] result = Arrays.copyOf(stored, stored.length + given.length);
+        int length = stored.length;
+        outer: for (PKeyword keyword : given) {
+            for (int i = 0; i < stored.length; i++) {
+                if (stored[i].getName().equals(keyword.getName())) {
+                    result[i] = keyword;
+                    continue outer;
+                }
+            }
+            result[length++] = keyword;
+        }
+        return length == result.length ? result : Arrays.copyOf(result, length);
+    }
+}
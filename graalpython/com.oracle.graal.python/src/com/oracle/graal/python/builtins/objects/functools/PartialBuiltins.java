@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.functools;
+
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.__DICT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CALL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REDUCE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETSTATE__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.builtins.objects.type.TypeNodes.GetNameNode;
+import com.oracle.graal.python.nodes.argument.keywords.ExecuteKeywordStarargsNode.ExpandKeywordStarargsNode;
+import com.oracle.graal.python.nodes.argument.positional.ExecutePositionalStarargsNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.datamodel.IsCallableNode;
+import com.oracle.graal.python.nodes.datamodel.PDataModelEmulationNode.PDataModelEmulationContextManager;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonVarargsBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetLazyClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToStringNode;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PPartial)
+public class PartialBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return PartialBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = __CALL__, minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true)
+    @GenerateNodeFactory
+    public abstract static class CallNode extends PythonVarargsBuiltinNode {
+        @Child private com.oracle.graal.python.nodes.call.CallNode callNode = com.oracle.graal.python.nodes.call.CallNode.create();
+        @Child private ExpandKeywordStarargsNode expandKeywordsNode = ExpandKeywordStarargsNode.create();
+
+        @Specialization
+        protected Object doIt(VirtualFrame frame, PPartial self, Object[] arguments, PKeyword[] keywords) {
+            Object[] args = PPartial.concat(self.getArgs(), arguments);
+            PKeyword[] mergedKeywords = PPartial.mergeKeywords(expandKeywordsNode.executeWith(self.getKeywords()), keywords);
+            return callNode.execute(frame, self.getFunction(), args, mergedKeywords);
+        }
+
+        @Override
+        public Object varArgExecute(VirtualFrame frame, Object[] arguments, PKeyword[] keywords) throws VarargsBuiltinDirectInvocationNotSupported {
+            Object[] argsWithoutSelf = new Object[arguments.length - 1];
+            System.arraycopy(arguments, 1, argsWithoutSelf, 0, argsWithoutSelf.length);
+            return execute(frame, arguments[0], argsWithoutSelf, keywords);
+        }
+    }
+
+    @Builtin(name = "func", minNumOfPositionalArgs = 1, isGetter = true, doc = "function object to use in future partial calls")
+    @GenerateNodeFactory
+    public abstract static class FuncNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object func(PPartial self) {
+            return self.getFunction();
+        }
+    }
+
+    @Builtin(name = "args", minNumOfPositionalArgs = 1, isGetter = true, doc = "tuple of arguments to future partial calls")
+    @GenerateNodeFactory
+    public abstract static class ArgsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTuple args(PPartial self) {
+            return factory().createTuple(self.getArgs());
+        }
+    }
+
+    @Builtin(name = "keywords", minNumOfPositionalArgs = 1, isGetter = true, doc = "dictionary of keyword arguments to future partial calls")
+    @GenerateNodeFactory
+    public abstract static class KeywordsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PDict keywords(PPartial self) {
+            return self.getKeywords();
+        }
+    }
+
+    @Builtin(name = __DICT__, minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class DictNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object dict(PPartial self) {
+            PHashingCollection dict = self.getDict();
+            if (dict == null) {
+                dict = factory().createDictFixedStorage(self);
+                self.setDict(dict);
+            }
+            return dict;
+        }
+    }
+
+    @Builtin(name = __REPR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        String repr(VirtualFrame frame, PPartial self,
+                        @Cached("create()") GetLazyClassNode getClassNode,
+                        @Cached("create()") IsBuiltinClassProfile isPartialProfile,
+                        @Cached("create()") GetNameNode getNameNode,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode reprNode,
+                        @Cached("create()") CastToStringNode castToStringNode,
+                        @Cached("create()") ExpandKeywordStarargsNode expandKeywordsNode) {
+            LazyPythonClass cls = getClassNode.execute(self);
+            StringBuilder sb = new StringBuilder();
+            if (isPartialProfile.profileClass(cls, PythonBuiltinClassType.PPartial)) {
+                append(sb, "functools.");
+            }
+            append(sb, getNameNode.execute(cls));
+            append(sb, "(");
+            append(sb, castToStringNode.execute(frame, reprNode.executeObject(frame, self.getFunction())));
+            for (Object arg : self.getArgs()) {
+                append(sb, ", ");
+                append(sb, castToStringNode.execute(frame, reprNode.executeObject(frame, arg)));
+            }
+            for (PKeyword keyword : expandKeywordsNode.executeWith(self.getKeywords())) {
+                append(sb, ", ");
+                append(sb, keyword.getName());
+                append(sb, "=");
+                append(sb, castToStringNode.execute(frame, reprNode.executeObject(frame, keyword.getValue())));
+            }
+            append(sb, ")");
+            return toString(sb);
+        }
+
+        @TruffleBoundary
+        private static void append(StringBuilder sb, String s) {
+            sb.append(s);
+        }
+
+        @TruffleBoundary
+        private static String toString(StringBuilder sb) {
+            return sb.toString();
+        }
+    }
+
+    @Builtin(name = __REDUCE__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTuple reduce(PPartial self,
+                        @Cached("create()") GetLazyClassNode getClassNode) {
+            Object dict = self.getDict();
+            if (dict == null) {
+                dict = self.getStorage().getShape().getPropertyCount() == 0 ? PNone.NONE : factory().createDictFixedStorage(self);
+            }
+            PTuple state = factory().createTuple(new Object[]{self.getFunction(), factory().createTuple(self.getArgs()), self.getKeywords(), dict});
+            return factory().createTuple(new Object[]{getClassNode.execute(self), factory().createTuple(new Object[]{self.getFunction()}), state});
+        }
+    }
+
+    @Builtin(name = __SETSTATE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class SetStateNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object setState(VirtualFrame frame, PPartial self, PTuple state,
+                        @Cached("create()") IsCallableNode isCallableNode,
+                        @Cached("create()") ExecutePositionalStarargsNode toArrayNode) {
+            Object[] items = toArrayNode.executeWith(frame, state);
+            if (items.length != 4 || !(items[1] instanceof PTuple) || !(items[2] instanceof PDict || items[2] == PNone.NONE) ||
+                            !(items[3] instanceof PDict || items[3] == PNone.NONE)) {
+                throw raise(TypeError, "invalid partial state");
+            }
+            try (PDataModelEmulationContextManager ctxManager = withGlobalState(isCallableNode, frame)) {
+                if (!ctxManager.execute(items[0])) {
+                    throw raise(TypeError, "invalid partial state");
+                }
+            }
+            Object[] args = toArrayNode.executeWith(frame, items[1]);
+            PDict keywords = items[2] == PNone.NONE ? factory().createDict() : (PDict) items[2];
+            self.setState(items[0], args, keywords);
+            if (items[3] != PNone.NONE) {
+                self.getDictUnsetOrSameAsStorageAssumption().invalidate();
+                self.setDict((PDict) items[3]);
+            }
+            return PNone.NONE;
+        }
+
+        @SuppressWarnings("unused")
+        @Specialization(guards = "!isPTuple(state)")
+        Object setState(PPartial self, Object state) {
+            throw raise(TypeError, "invalid partial state");
+        }
+    }
+}
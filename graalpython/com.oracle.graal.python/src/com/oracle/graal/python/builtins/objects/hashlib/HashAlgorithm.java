@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.hashlib;
+
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * The hash algorithms of {@code _hashlib} and their names in the Java security providers.
+ */
+public enum HashAlgorithm {
+    MD5("md5", "MD5", "HmacMD5", 64),
+    SHA1("sha1", "SHA-1", "HmacSHA1", 64),
+    SHA224("sha224", "SHA-224", "HmacSHA224", 64),
+    SHA256("sha256", "SHA-256", "HmacSHA256", 64),
+    SHA384("sha384", "SHA-384", "HmacSHA384", 128),
+    SHA512("sha512", "SHA-512", "HmacSHA512", 128);
+
+    private static final HashAlgorithm[] VALUES = values();
+
+    private final String pythonName;
+    private final String digestName;
+    private final String macName;
+    private final int blockSize;
+
+    HashAlgorithm(String pythonName, String digestName, String macName, int blockSize) {
+        this.pythonName = pythonName;
+        this.digestName = digestName;
+        this.macName = macName;
+        this.blockSize = blockSize;
+    }
+
+    public String getPythonName() {
+        return pythonName;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Looks up an algorithm by its Python name, ignoring case like OpenSSL does.
+     *
+     * @return the algorithm or {@code null} if the name is unknown
+     */
+    @TruffleBoundary
+    public static HashAlgorithm lookup(String name) {
+        for (HashAlgorithm algorithm : VALUES) {
+            if (algorithm.pythonName.equalsIgnoreCase(name)) {
+                return algorithm;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return a new digest or {@code null} if the algorithm is not provided by this JVM
+     */
+    @TruffleBoundary
+    public MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(digestName);
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a MAC initialized with the given key. An empty key is replaced by a block of zeros,
+     * which HMAC treats the same, because {@link SecretKeySpec} rejects empty keys.
+     *
+     * @return the MAC or {@code null} if the algorithm is not provided by this JVM
+     */
+    @TruffleBoundary
+    public Mac createMac(byte[] key) {
+        try {
+            Mac mac = Mac.getInstance(macName);
+            mac.init(new SecretKeySpec(key.length == 0 ? new byte[blockSize] : key, macName));
+            return mac;
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        } catch (InvalidKeyException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.hashlib;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PHash)
+public class HashBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return HashBuiltinsFactory.getFactories();
+    }
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    @TruffleBoundary
+    static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            chars[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+
+    @Builtin(name = "update", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class UpdateNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object update(VirtualFrame frame, PHash self, Object data,
+                        @Cached HashlibNodes.UpdateNode updateNode) {
+            updateNode.execute(frame, self.getDigest(), data);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "digest", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class DigestNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object digest(PHash self) {
+            return factory().createBytes(self.computeDigest());
+        }
+    }
+
+    @Builtin(name = "hexdigest", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HexDigestNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        String hexdigest(PHash self) {
+            return toHex(self.computeDigest());
+        }
+    }
+
+    @Builtin(name = "copy", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class CopyNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object copy(PHash self) {
+            return factory().createHash(self.getAlgorithm(), self.copyDigest());
+        }
+    }
+
+    @Builtin(name = "name", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class NameNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        String name(PHash self) {
+            return self.getAlgorithm().getPythonName();
+        }
+    }
+
+    @Builtin(name = "digest_size", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class DigestSizeNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int digestSize(PHash self) {
+            return getDigestLength(self);
+        }
+
+        @TruffleBoundary
+        private static int getDigestLength(PHash self) {
+            return self.getDigest().getDigestLength();
+        }
+    }
+
+    @Builtin(name = "block_size", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class BlockSizeNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int blockSize(PHash self) {
+            return self.getAlgorithm().getBlockSize();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.hashlib;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.security.MessageDigest;
+
+import javax.crypto.Mac;
+
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
+import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
+import com.oracle.graal.python.builtins.objects.hashlib.HashlibNodesFactory.UpdateNodeGen;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.PNodeWithContext;
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.ImportStatic;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+public abstract class HashlibNodes {
+
+    /**
+     * Feeds a bytes-like object to a {@link MessageDigest} or {@link Mac}. The storage of
+     * {@code bytes} and {@code bytearray} is passed directly, other objects are converted to a
+     * byte array first.
+     */
+    @ImportStatic(PGuards.class)
+    public abstract static class UpdateNode extends PNodeWithContext {
+
+        public abstract void execute(VirtualFrame frame, Object target, Object data);
+
+        @Specialization(guards = "hasByteStorage(data)")
+        static void doBytes(Object target, PIBytesLike data) {
+            ByteSequenceStorage storage = (ByteSequenceStorage) data.getSequenceStorage();
+            update(target, storage.getInternalByteArray(), storage.length());
+        }
+
+        @Specialization(guards = "isString(data)")
+        static void doString(@SuppressWarnings("unused") Object target, @SuppressWarnings("unused") Object data,
+                        @Cached PRaiseNode raise) {
+            throw raise.raise(TypeError, "Unicode-objects must be encoded before hashing");
+        }
+
+        @Specialization(guards = {"!hasByteStorage(data)", "!isString(data)"})
+        static void doGeneric(VirtualFrame frame, Object target, Object data,
+                        @Cached BytesNodes.ToBytesNode toBytesNode) {
+            byte[] bytes = toBytesNode.execute(frame, data);
+            update(target, bytes, bytes.length);
+        }
+
+        static boolean hasByteStorage(Object data) {
+            return data instanceof PIBytesLike && ((PIBytesLike) data).getSequenceStorage() instanceof ByteSequenceStorage;
+        }
+
+        @TruffleBoundary
+        private static void update(Object target, byte[] bytes, int length) {
+            if (target instanceof MessageDigest) {
+                ((MessageDigest) target).update(bytes, 0, length);
+            } else {
+                ((Mac) target).update(bytes, 0, length);
+            }
+        }
+
+        public static UpdateNode create() {
+            return UpdateNodeGen.create();
+        }
+    }
+}
@@ -41,6 +41,7 @@
 package com.oracle.graal.python.builtins.objects.ints;
 
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__LT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__STR__;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
 import java.math.BigInteger;
@@ -89,6 +90,10 @@ import com.oracle.graal.python.nodes.util.CastToIndexNode;
 import com.oracle.graal.python.nodes.util.ExceptionStateNodes.PassCaughtExceptionNode;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
+import com.oracle.graal.python.runtime.formatting.FloatFormatter;
+import com.oracle.graal.python.runtime.formatting.IntegerFormatter;
+import com.oracle.graal.python.runtime.formatting.InternalFormat;
+import com.oracle.graal.python.runtime.formatting.InternalFormat.Formatter;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleLanguage.ContextReference;
@@ -2166,6 +2171,112 @@ public class IntBuiltins extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = SpecialMethodNames.__FORMAT__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    abstract static class FormatNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(guards = "formatString.isEmpty()")
+        Object formatEmpty(VirtualFrame frame, Object self, @SuppressWarnings("unused") String formatString,
+                        @Cached("create(__STR__)") LookupAndCallUnaryNode strNode) {
+            return strNode.executeObject(frame, self);
+        }
+
+        @Specialization(guards = "!formatString.isEmpty()")
+        @TruffleBoundary
+        String format(int self, String formatString) {
+            InternalFormat.Spec spec = InternalFormat.fromText(getCore(), formatString, SpecialMethodNames.__FORMAT__);
+            if (isFloatType(spec.type)) {
+                return formatFloat(self, spec);
+            }
+            return prepareFormatter(spec).format(self).pad().getResult();
+        }
+
+        @Specialization(guards = "!formatString.isEmpty()")
+        @TruffleBoundary
+        String format(long self, String formatString) {
+            return formatBigInteger(BigInteger.valueOf(self), formatString);
+        }
+
+        @Specialization(guards = "!formatString.isEmpty()")
+        @TruffleBoundary
+        String format(PInt self, String formatString) {
+            return formatBigInteger(self.getValue(), formatString);
+        }
+
+        private String formatBigInteger(BigInteger self, String formatString) {
+            InternalFormat.Spec spec = InternalFormat.fromText(getCore(), formatString, SpecialMethodNames.__FORMAT__);
+            if (isFloatType(spec.type)) {
+                double value = self.doubleValue();
+                if (Double.isInfinite(value)) {
+                    throw raise(PythonErrorType.OverflowError, "int too large to convert to float");
+                }
+                return formatFloat(value, spec);
+            }
+            IntegerFormatter formatter = prepareFormatter(spec);
+            formatter.format(self);
+            return formatter.pad().getResult();
+        }
+
+        private String formatFloat(double value, InternalFormat.Spec spec) {
+            if (spec.alternate) {
+                throw Formatter.alternateFormNotAllowed(getCore(), "float");
+            }
+            FloatFormatter formatter = new FloatFormatter(getCore(), spec.withDefaults(InternalFormat.Spec.NUMERIC));
+            formatter.format(value);
+            return formatter.pad().getResult();
+        }
+
+        private static boolean isFloatType(char type) {
+            switch (type) {
+                case 'e':
+                case 'E':
+                case 'f':
+                case 'F':
+                case 'g':
+                case 'G':
+                case '%':
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        private IntegerFormatter prepareFormatter(InternalFormat.Spec spec) {
+            // Slight differences between format types
+            switch (spec.type) {
+                case 'c':
+                    // Character data: specific prohibitions.
+                    if (InternalFormat.Spec.specified(spec.sign)) {
+                        throw Formatter.signNotAllowed(getCore(), "integer", spec.type);
+                    } else if (spec.alternate) {
+                        throw Formatter.alternateFormNotAllowed(getCore(), "integer", spec.type);
+                    }
+                    // fall through
+                case 'x':
+                case 'X':
+                case 'o':
+                case 'b':
+                case 'n':
+                    if (spec.grouping) {
+                        throw Formatter.notAllowed(getCore(), "Grouping", "integer", spec.type);
+                    }
+                    // fall through
+                case InternalFormat.Spec.NONE:
+                case 'd':
+                    // Check for disallowed parts of the specification
+                    if (InternalFormat.Spec.specified(spec.precision)) {
+                        throw Formatter.precisionNotAllowed(getCore(), "integer");
+                    }
+                    // spec may be incomplete. The defaults are those commonly used for numeric
+                    // formats.
+                    return new IntegerFormatter(getCore(), spec.withDefaults(InternalFormat.Spec.NUMERIC));
+                default:
+                    throw Formatter.unknownFormat(getCore(), spec.type, "int");
+            }
+        }
+    }
+
     @Builtin(name = SpecialMethodNames.__STR__, minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     @TypeSystemReference(PythonArithmeticTypes.class)
@@ -0,0 +1,459 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetLazyClassNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.nodes.util.CastToJavaLongNode;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(extendClasses = {PythonBuiltinClassType.PBufferedReader, PythonBuiltinClassType.PBufferedWriter, PythonBuiltinClassType.PBufferedRandom})
+public class BufferedIOBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return BufferedIOBuiltinsFactory.getFactories();
+    }
+
+    abstract static class BufferedSizeNode extends PythonBinaryBuiltinNode {
+        @Child private CastToIndexNode castToIndexNode;
+
+        int toSize(Object size) {
+            if (PGuards.isPNone(size)) {
+                return -1;
+            }
+            if (castToIndexNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToIndexNode = insert(CastToIndexNode.create());
+            }
+            return castToIndexNode.execute(size);
+        }
+    }
+
+    // BufferedReader(raw, buffer_size=DEFAULT_BUFFER_SIZE)
+    @Builtin(name = __INIT__, minNumOfPositionalArgs = 2, parameterNames = {"self", "raw", "buffer_size"})
+    @GenerateNodeFactory
+    public abstract static class InitNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        PNone init(VirtualFrame frame, PBuffered self, Object raw, Object bufferSize,
+                        @Cached("create()") CastToIndexNode castToIndexNode,
+                        @Cached("create()") GetLazyClassNode getClassNode,
+                        @Cached("create(READABLE)") LookupAndCallUnaryNode callReadableNode,
+                        @Cached("create(WRITABLE)") LookupAndCallUnaryNode callWritableNode,
+                        @Cached("create(FILENO)") LookupAndCallUnaryNode callFilenoNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castToBooleanNode,
+                        @Cached("create()") CastToJavaLongNode castToLongNode,
+                        @Cached("create()") BufferedIONode ioNode) {
+            int size = PBuffered.DEFAULT_BUFFER_SIZE;
+            if (!PGuards.isPNone(bufferSize)) {
+                size = castToIndexNode.execute(bufferSize);
+                if (size <= 0) {
+                    throw raise(ValueError, "buffer size must be strictly positive");
+                }
+            }
+            if (self.isReadable() && !castToBooleanNode.executeBoolean(frame, callReadableNode.executeObject(frame, raw))) {
+                throw ioNode.raiseUnsupported("File or stream is not readable.");
+            }
+            if (self.isWritable() && !castToBooleanNode.executeBoolean(frame, callWritableNode.executeObject(frame, raw))) {
+                throw ioNode.raiseUnsupported("File or stream is not writable.");
+            }
+            int fd = -1;
+            if (getClassNode.execute(raw) == getFileIOClass()) {
+                // a plain FileIO is accessed through the channel of its file descriptor
+                fd = (int) castToLongNode.execute(callFilenoNode.executeObject(frame, raw));
+            }
+            self.initialize(raw, fd, size);
+            return PNone.NONE;
+        }
+
+        @TruffleBoundary
+        private Object getFileIOClass() {
+            return getCore().lookupBuiltinModule("_io").getAttribute("FileIO");
+        }
+
+        protected static final String READABLE = "readable";
+        protected static final String WRITABLE = "writable";
+        protected static final String FILENO = "fileno";
+    }
+
+    @Builtin(name = "read", minNumOfPositionalArgs = 1, parameterNames = {"self", "size"})
+    @GenerateNodeFactory
+    public abstract static class ReadNode extends BufferedSizeNode {
+        @Specialization
+        Object read(VirtualFrame frame, PBuffered self, Object size,
+                        @Cached("create()") BufferedIONode ioNode) {
+            byte[] result = ioNode.read(frame, self, toSize(size));
+            return result == null ? PNone.NONE : factory().createBytes(result);
+        }
+    }
+
+    @Builtin(name = "read1", minNumOfPositionalArgs = 1, parameterNames = {"self", "size"})
+    @GenerateNodeFactory
+    public abstract static class Read1Node extends BufferedSizeNode {
+        @Specialization
+        PBytes read1(VirtualFrame frame, PBuffered self, Object size,
+                        @Cached("create()") BufferedIONode ioNode) {
+            return factory().createBytes(ioNode.read1(frame, self, toSize(size)));
+        }
+    }
+
+    @Builtin(name = "peek", minNumOfPositionalArgs = 1, parameterNames = {"self", "size"})
+    @GenerateNodeFactory
+    public abstract static class PeekNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PBytes peek(VirtualFrame frame, PBuffered self, @SuppressWarnings("unused") Object size,
+                        @Cached("create()") BufferedIONode ioNode) {
+            return factory().createBytes(ioNode.peek(frame, self));
+        }
+    }
+
+    @Builtin(name = "readline", minNumOfPositionalArgs = 1, parameterNames = {"self", "size"})
+    @GenerateNodeFactory
+    public abstract static class ReadlineNode extends BufferedSizeNode {
+        @Specialization
+        PBytes readline(VirtualFrame frame, PBuffered self, Object size,
+                        @Cached("create()") BufferedIONode ioNode) {
+            return factory().createBytes(ioNode.readline(frame, self, toSize(size)));
+        }
+    }
+
+    @Builtin(name = "write", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class WriteNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        int write(VirtualFrame frame, PBuffered self, Object data,
+                        @Cached("create()") BytesNodes.ToBytesNode toBytesNode,
+                        @Cached("create()") BufferedIONode ioNode) {
+            return ioNode.write(frame, self, toBytesNode.execute(frame, data));
+        }
+    }
+
+    @Builtin(name = "flush", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class FlushNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone flush(VirtualFrame frame, PBuffered self,
+                        @Cached("create(FLUSH)") LookupAndCallUnaryNode callFlushNode,
+                        @Cached("create()") BufferedIONode ioNode) {
+            ioNode.checkOpen(self);
+            if (self.isWritable()) {
+                ioNode.flushWrites(frame, self);
+                if (self.getFd() < 0) {
+                    callFlushNode.executeObject(frame, self.getRaw());
+                }
+            }
+            return PNone.NONE;
+        }
+
+        protected static final String FLUSH = "flush";
+    }
+
+    @Builtin(name = "tell", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class TellNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        long tell(VirtualFrame frame, PBuffered self,
+                        @Cached("create()") BufferedIONode ioNode) {
+            return ioNode.tell(frame, self);
+        }
+    }
+
+    @Builtin(name = "seek", minNumOfPositionalArgs = 2, parameterNames = {"self", "pos", "whence"})
+    @GenerateNodeFactory
+    public abstract static class SeekNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        long seek(VirtualFrame frame, PBuffered self, Object pos, Object whence,
+                        @Cached("create()") CastToJavaLongNode castToLongNode,
+                        @Cached("create()") CastToIndexNode castToIndexNode,
+                        @Cached("create()") BufferedIONode ioNode) {
+            int how = PGuards.isPNone(whence) ? 0 : castToIndexNode.execute(whence);
+            return ioNode.seek(frame, self, castToLongNode.execute(pos), how);
+        }
+    }
+
+    @Builtin(name = "truncate", minNumOfPositionalArgs = 1, parameterNames = {"self", "pos"})
+    @GenerateNodeFactory
+    public abstract static class TruncateNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object truncate(VirtualFrame frame, PBuffered self, Object pos,
+                        @Cached("create(TRUNCATE)") LookupAndCallBinaryNode callTruncateNode,
+                        @Cached("create()") BufferedIONode ioNode) {
+            ioNode.checkWritable(self);
+            Object position = pos;
+            if (PGuards.isPNone(pos)) {
+                position = ioNode.tell(frame, self);
+            }
+            ioNode.synchronize(frame, self);
+            return callTruncateNode.executeObject(frame, self.getRaw(), position);
+        }
+
+        protected static final String TRUNCATE = "truncate";
+    }
+
+    @Builtin(name = "close", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class CloseNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone close(VirtualFrame frame, PBuffered self,
+                        @Cached("create(CLOSE)") LookupAndCallUnaryNode callCloseNode,
+                        @Cached("create()") BufferedIONode ioNode) {
+            checkAttached(ioNode, self);
+            if (self.isClosed()) {
+                return PNone.NONE;
+            }
+            try {
+                if (self.isWritable()) {
+                    ioNode.flushWrites(frame, self);
+                }
+            } finally {
+                self.setClosed();
+                self.resetRead();
+                callCloseNode.executeObject(frame, self.getRaw());
+            }
+            return PNone.NONE;
+        }
+
+        protected static final String CLOSE = "close";
+    }
+
+    @Builtin(name = "detach", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DetachNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object detach(VirtualFrame frame, PBuffered self,
+                        @Cached("create()") BufferedIONode ioNode) {
+            ioNode.checkOpen(self);
+            ioNode.synchronize(frame, self);
+            Object raw = self.getRaw();
+            self.detach();
+            return raw;
+        }
+    }
+
+    @Builtin(name = "fileno", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class FilenoNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object fileno(VirtualFrame frame, PBuffered self,
+                        @Cached("create(FILENO)") LookupAndCallUnaryNode callNode,
+                        @Cached("create()") BufferedIONode ioNode) {
+            ioNode.checkOpen(self);
+            if (self.getFd() >= 0) {
+                return self.getFd();
+            }
+            return callNode.executeObject(frame, self.getRaw());
+        }
+
+        protected static final String FILENO = "fileno";
+    }
+
+    @Builtin(name = "isatty", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class IsattyNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object isatty(VirtualFrame frame, PBuffered self,
+                        @Cached("create(ISATTY)") LookupAndCallUnaryNode callNode,
+                        @Cached("create()") BufferedIONode ioNode) {
+            ioNode.checkOpen(self);
+            return callNode.executeObject(frame, self.getRaw());
+        }
+
+        protected static final String ISATTY = "isatty";
+    }
+
+    @Builtin(name = "seekable", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class SeekableNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object seekable(VirtualFrame frame, PBuffered self,
+                        @Cached("create(SEEKABLE)") LookupAndCallUnaryNode callNode,
+                        @Cached("create()") BufferedIONode ioNode) {
+            ioNode.checkOpen(self);
+            return callNode.executeObject(frame, self.getRaw());
+        }
+
+        protected static final String SEEKABLE = "seekable";
+    }
+
+    @Builtin(name = "readable", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReadableNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object readable(VirtualFrame frame, PBuffered self,
+                        @Cached("create(READABLE)") LookupAndCallUnaryNode callNode,
+                        @Cached("create()") BufferedIONode ioNode) {
+            ioNode.checkOpen(self);
+            return self.isReadable() ? callNode.executeObject(frame, self.getRaw()) : false;
+        }
+
+        protected static final String READABLE = "readable";
+    }
+
+    @Builtin(name = "writable", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class WritableNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object writable(VirtualFrame frame, PBuffered self,
+                        @Cached("create(WRITABLE)") LookupAndCallUnaryNode callNode,
+                        @Cached("create()") BufferedIONode ioNode) {
+            ioNode.checkOpen(self);
+            return self.isWritable() ? callNode.executeObject(frame, self.getRaw()) : false;
+        }
+
+        protected static final String WRITABLE = "writable";
+    }
+
+    @Builtin(name = "raw", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class RawNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object raw(PBuffered self) {
+            Object raw = self.getRaw();
+            return raw == null ? PNone.NONE : raw;
+        }
+    }
+
+    @Builtin(name = "closed", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class ClosedNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object closed(VirtualFrame frame, PBuffered self,
+                        @Cached("create(CLOSED)") GetAttributeNode getAttributeNode,
+                        @Cached("create()") BufferedIONode ioNode) {
+            checkAttached(ioNode, self);
+            return getAttributeNode.executeObject(frame, self.getRaw());
+        }
+
+        protected static final String CLOSED = "closed";
+    }
+
+    @Builtin(name = "name", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class NameNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object name(VirtualFrame frame, PBuffered self,
+                        @Cached("create(NAME)") GetAttributeNode getAttributeNode,
+                        @Cached("create()") BufferedIONode ioNode) {
+            checkAttached(ioNode, self);
+            return getAttributeNode.executeObject(frame, self.getRaw());
+        }
+
+        protected static final String NAME = "name";
+    }
+
+    @Builtin(name = "mode", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class ModeNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object mode(VirtualFrame frame, PBuffered self,
+                        @Cached("create(MODE)") GetAttributeNode getAttributeNode,
+                        @Cached("create()") BufferedIONode ioNode) {
+            checkAttached(ioNode, self);
+            return getAttributeNode.executeObject(frame, self.getRaw());
+        }
+
+        protected static final String MODE = "mode";
+    }
+
+    /**
+     * The attributes of the raw stream are still accessible after closing.
+     */
+    static void checkAttached(BufferedIONode ioNode, PBuffered self) {
+        if (!self.isInitialized() || self.isDetached()) {
+            ioNode.checkOpen(self);
+        }
+    }
+
+    @Builtin(name = __ITER__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class IterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PBuffered iter(PBuffered self,
+                        @Cached("create()") BufferedIONode ioNode) {
+            ioNode.checkOpen(self);
+            return self;
+        }
+    }
+
+    @Builtin(name = __NEXT__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class NextNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PBytes next(VirtualFrame frame, PBuffered self,
+                        @Cached("create()") BufferedIONode ioNode) {
+            byte[] line = ioNode.readline(frame, self, -1);
+            if (line.length == 0) {
+                throw raise(StopIteration);
+            }
+            return factory().createBytes(line);
+        }
+    }
+}
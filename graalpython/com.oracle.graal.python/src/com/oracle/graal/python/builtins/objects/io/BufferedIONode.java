@@ -0,0 +1,650 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OSError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallTernaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.util.CastToJavaLongNode;
+import com.oracle.graal.python.runtime.GlobalInterpreterLock;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.api.profiles.ValueProfile;
+
+/**
+ * The buffering logic of {@link PBuffered} objects. It is used by the methods of the buffered
+ * streams and by {@code TextIOWrapper} so that reading lines from a text file does not go through
+ * any Python-level calls. Access to the raw stream either uses the channel of the file descriptor
+ * or calls the raw object's {@code read}, {@code write}, {@code seek} and {@code tell} methods.
+ * The GIL is released while reading or writing the channel, so the buffered operations hold the
+ * lock of the {@link PBuffered} object to keep other threads from touching its buffer meanwhile.
+ */
+public final class BufferedIONode extends PythonBuiltinBaseNode {
+    static final String CLOSED_FILE = "I/O operation on closed file.";
+
+    @Child private LookupAndCallBinaryNode callReadNode;
+    @Child private LookupAndCallBinaryNode callWriteNode;
+    @Child private LookupAndCallTernaryNode callSeekNode;
+    @Child private LookupAndCallUnaryNode callTellNode;
+    @Child private BytesNodes.ToBytesNode toBytesNode;
+    @Child private CastToJavaLongNode castToLongNode;
+
+    private final ValueProfile channelProfile = ValueProfile.createClassProfile();
+    private final ConditionProfile directProfile = ConditionProfile.createBinaryProfile();
+
+    public static BufferedIONode create() {
+        return new BufferedIONode();
+    }
+
+    public void checkOpen(PBuffered self) {
+        if (!self.isInitialized()) {
+            throw raise(ValueError, "I/O operation on uninitialized object");
+        } else if (self.isDetached()) {
+            throw raise(ValueError, "raw stream has been detached");
+        } else if (self.isClosed()) {
+            throw raise(ValueError, CLOSED_FILE);
+        }
+    }
+
+    public void checkReadable(PBuffered self) {
+        checkOpen(self);
+        if (!self.isReadable()) {
+            throw raiseUnsupported("read");
+        }
+    }
+
+    public void checkWritable(PBuffered self) {
+        checkOpen(self);
+        if (!self.isWritable()) {
+            throw raiseUnsupported("write");
+        }
+    }
+
+    @TruffleBoundary
+    public PException raiseUnsupported(String message) {
+        Object cls = getCore().lookupBuiltinModule("_io").getAttribute("UnsupportedOperation");
+        return raise(factory().createBaseException((LazyPythonClass) cls, message, new Object[0]));
+    }
+
+    /**
+     * Acquires the lock of the buffered object, releasing the GIL while another thread holds it.
+     * The lock is reentrant, so buffered operations may call each other.
+     */
+    private void enter(PBuffered self) {
+        if (!self.tryLock()) {
+            GlobalInterpreterLock gil = getContext().getGil();
+            int held = gil.releaseForBlocking();
+            try {
+                self.lock();
+            } finally {
+                gil.reacquire(held);
+            }
+        }
+    }
+
+    // access to the raw stream
+
+    private Channel getChannel(PBuffered self) {
+        Channel channel = getContext().getResources().getFileChannel(self.getFd(), channelProfile);
+        if (channel == null) {
+            // the FileIO object was closed behind our back
+            throw raise(ValueError, CLOSED_FILE);
+        }
+        return channel;
+    }
+
+    /**
+     * Reads at most {@code length} bytes from the raw stream.
+     *
+     * @return the number of bytes read, {@code 0} at the end of the stream or {@code -1} if a
+     *         non-blocking raw stream has no data available
+     */
+    public int rawRead(VirtualFrame frame, PBuffered self, byte[] dst, int offset, int length) {
+        if (directProfile.profile(self.getFd() >= 0)) {
+            Channel channel = getChannel(self);
+            if (!(channel instanceof ReadableByteChannel)) {
+                throw raiseUnsupported("File not open for reading");
+            }
+            GlobalInterpreterLock gil = getContext().getGil();
+            int held = gil.releaseForBlocking();
+            try {
+                return Math.max(readChannel((ReadableByteChannel) channel, dst, offset, length), 0);
+            } catch (IOException e) {
+                throw raise(OSError, e);
+            } finally {
+                gil.reacquire(held);
+            }
+        }
+        if (callReadNode == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            callReadNode = insert(LookupAndCallBinaryNode.create("read"));
+        }
+        Object result = callReadNode.executeObject(frame, self.getRaw(), length);
+        if (result == PNone.NONE) {
+            return -1;
+        }
+        byte[] data = getToBytesNode().execute(frame, result);
+        if (data.length > length) {
+            throw raise(OSError, "raw read() returned invalid length %d (should have been between 0 and %d)", data.length, length);
+        }
+        System.arraycopy(data, 0, dst, offset, data.length);
+        return data.length;
+    }
+
+    /**
+     * Writes at most {@code length} bytes to the raw stream.
+     *
+     * @return the number of bytes written or {@code -1} if a non-blocking raw stream would block
+     */
+    public int rawWrite(VirtualFrame frame, PBuffered self, byte[] src, int offset, int length) {
+        if (directProfile.profile(self.getFd() >= 0)) {
+            Channel channel = getChannel(self);
+            if (!(channel instanceof WritableByteChannel)) {
+                throw raiseUnsupported("File not open for writing");
+            }
+            GlobalInterpreterLock gil = getContext().getGil();
+            int held = gil.releaseForBlocking();
+            try {
+                return writeChannel((WritableByteChannel) channel, src, offset, length);
+            } catch (IOException e) {
+                throw raise(OSError, e);
+            } finally {
+                gil.reacquire(held);
+            }
+        }
+        if (callWriteNode == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            callWriteNode = insert(LookupAndCallBinaryNode.create("write"));
+        }
+        Object result = callWriteNode.executeObject(frame, self.getRaw(), factory().createBytes(Arrays.copyOfRange(src, offset, offset + length)));
+        if (result == PNone.NONE) {
+            return -1;
+        }
+        long written = getCastToLongNode().execute(result);
+        if (written < 0 || written > length) {
+            throw raise(OSError, "raw write() returned invalid length %d (should have been between 0 and %d)", written, length);
+        }
+        return (int) written;
+    }
+
+    public long rawSeek(VirtualFrame frame, PBuffered self, long position, int whence) {
+        if (directProfile.profile(self.getFd() >= 0)) {
+            Channel channel = getChannel(self);
+            if (!(channel instanceof SeekableByteChannel)) {
+                throw raiseOSError(frame, OSErrorEnum.ESPIPE);
+            }
+            try {
+                return seekChannel((SeekableByteChannel) channel, position, whence);
+            } catch (IOException e) {
+                throw raise(OSError, e);
+            } catch (IllegalArgumentException e) {
+                throw raiseOSError(frame, OSErrorEnum.EINVAL);
+            }
+        }
+        if (callSeekNode == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            callSeekNode = insert(LookupAndCallTernaryNode.create("seek"));
+        }
+        return getCastToLongNode().execute(callSeekNode.execute(frame, self.getRaw(), position, whence));
+    }
+
+    public long rawTell(VirtualFrame frame, PBuffered self) {
+        if (directProfile.profile(self.getFd() >= 0)) {
+            Channel channel = getChannel(self);
+            if (!(channel instanceof SeekableByteChannel)) {
+                throw raiseOSError(frame, OSErrorEnum.ESPIPE);
+            }
+            try {
+                return positionOf((SeekableByteChannel) channel);
+            } catch (IOException e) {
+                throw raise(OSError, e);
+            }
+        }
+        if (callTellNode == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            callTellNode = insert(LookupAndCallUnaryNode.create("tell"));
+        }
+        return getCastToLongNode().execute(callTellNode.executeObject(frame, self.getRaw()));
+    }
+
+    @TruffleBoundary(allowInlining = true, transferToInterpreterOnException = false)
+    private static int readChannel(ReadableByteChannel channel, byte[] dst, int offset, int length) throws IOException {
+        return channel.read(ByteBuffer.wrap(dst, offset, length));
+    }
+
+    @TruffleBoundary(allowInlining = true, transferToInterpreterOnException = false)
+    private static int writeChannel(WritableByteChannel channel, byte[] src, int offset, int length) throws IOException {
+        return channel.write(ByteBuffer.wrap(src, offset, length));
+    }
+
+    @TruffleBoundary(transferToInterpreterOnException = false)
+    private static long seekChannel(SeekableByteChannel channel, long position, int whence) throws IOException {
+        long target;
+        switch (whence) {
+            case 0:
+                target = position;
+                break;
+            case 1:
+                target = channel.position() + position;
+                break;
+            case 2:
+                target = channel.size() + position;
+                break;
+            default:
+                throw new IllegalArgumentException();
+        }
+        channel.position(target);
+        return target;
+    }
+
+    @TruffleBoundary(allowInlining = true, transferToInterpreterOnException = false)
+    private static long positionOf(SeekableByteChannel channel) throws IOException {
+        return channel.position();
+    }
+
+    // buffered operations
+
+    /**
+     * Writes all pending data to the raw stream.
+     */
+    public void flushWrites(VirtualFrame frame, PBuffered self) {
+        enter(self);
+        try {
+            while (self.getWriteEnd() > 0) {
+                int written = rawWrite(frame, self, self.getBuffer(), 0, self.getWriteEnd());
+                if (written < 0) {
+                    throw raise(OSError, "write could not complete without blocking");
+                }
+                self.consumeWritten(written);
+            }
+        } finally {
+            self.unlock();
+        }
+    }
+
+    /**
+     * Drops the read-ahead data and moves the raw stream back to the logical position.
+     */
+    public void dropReadAhead(VirtualFrame frame, PBuffered self) {
+        enter(self);
+        try {
+            int available = self.getAvailable();
+            self.resetRead();
+            if (available > 0) {
+                rawSeek(frame, self, -available, 1);
+            }
+        } finally {
+            self.unlock();
+        }
+    }
+
+    /**
+     * Refills the read buffer, which must be empty.
+     *
+     * @return the number of bytes read, {@code 0} at the end of the stream or {@code -1} if no
+     *         data is available
+     */
+    public int fill(VirtualFrame frame, PBuffered self) {
+        enter(self);
+        try {
+            assert self.getAvailable() == 0;
+            flushWrites(frame, self);
+            int n = rawRead(frame, self, self.getBuffer(), 0, self.getBufferSize());
+            self.setReadEnd(Math.max(n, 0));
+            return n;
+        } finally {
+            self.unlock();
+        }
+    }
+
+    /**
+     * Reads up to {@code size} bytes or everything until the end of the stream if {@code size}
+     * is negative.
+     *
+     * @return the data or {@code null} if a non-blocking stream has no data available
+     */
+    public byte[] read(VirtualFrame frame, PBuffered self, int size) {
+        enter(self);
+        try {
+            checkReadable(self);
+            if (size < 0) {
+                return readAll(frame, self);
+            }
+            if (self.getAvailable() >= size) {
+                return self.take(size);
+            }
+            ByteArrayOutputStream out = createOutputStream();
+            int remaining = size - appendTaken(out, self, size);
+            while (remaining > 0) {
+                int n;
+                if (remaining >= self.getBufferSize()) {
+                    // large reads bypass the buffer
+                    byte[] chunk = new byte[remaining];
+                    flushWrites(frame, self);
+                    n = rawRead(frame, self, chunk, 0, remaining);
+                    if (n > 0) {
+                        append(out, chunk, n);
+                    }
+                } else {
+                    n = fill(frame, self);
+                    if (n > 0) {
+                        appendTaken(out, self, remaining);
+                        n = Math.min(n, remaining);
+                    }
+                }
+                if (n <= 0) {
+                    if (n < 0 && size(out) == 0) {
+                        return null;
+                    }
+                    break;
+                }
+                remaining -= n;
+            }
+            return toByteArray(out);
+        } finally {
+            self.unlock();
+        }
+    }
+
+    private byte[] readAll(VirtualFrame frame, PBuffered self) {
+        ByteArrayOutputStream out = createOutputStream();
+        appendTaken(out, self, self.getAvailable());
+        byte[] chunk = self.getBuffer();
+        while (true) {
+            flushWrites(frame, self);
+            int n = rawRead(frame, self, chunk, 0, chunk.length);
+            if (n <= 0) {
+                if (n < 0 && size(out) == 0) {
+                    return null;
+                }
+                break;
+            }
+            append(out, chunk, n);
+        }
+        self.resetRead();
+        return toByteArray(out);
+    }
+
+    /**
+     * Reads up to {@code size} bytes with at most one call to the raw stream.
+     */
+    public byte[] read1(VirtualFrame frame, PBuffered self, int size) {
+        enter(self);
+        try {
+            checkReadable(self);
+            int n = size < 0 ? self.getBufferSize() : size;
+            if (n == 0) {
+                return new byte[0];
+            }
+            if (self.getAvailable() == 0 && fill(frame, self) <= 0) {
+                return new byte[0];
+            }
+            return self.take(n);
+        } finally {
+            self.unlock();
+        }
+    }
+
+    /**
+     * Returns the read-ahead data without consuming it, filling the buffer if it is empty.
+     */
+    public byte[] peek(VirtualFrame frame, PBuffered self) {
+        enter(self);
+        try {
+            checkReadable(self);
+            if (self.getAvailable() == 0) {
+                fill(frame, self);
+            }
+            int pos = self.getReadPos();
+            return Arrays.copyOfRange(self.getBuffer(), pos, pos + self.getAvailable());
+        } finally {
+            self.unlock();
+        }
+    }
+
+    /**
+     * Reads up to and including the next {@code '\n'}, but at most {@code limit} bytes if the
+     * limit is not negative.
+     */
+    public byte[] readline(VirtualFrame frame, PBuffered self, int limit) {
+        enter(self);
+        try {
+            checkReadable(self);
+            // fast path: the whole line is in the buffer
+            int newline = self.findNewline(limit);
+            if (newline >= 0) {
+                return self.take(newline - self.getReadPos() + 1);
+            }
+            ByteArrayOutputStream out = null;
+            int remaining = limit;
+            while (true) {
+                newline = self.findNewline(remaining);
+                if (newline >= 0) {
+                    int n = newline - self.getReadPos() + 1;
+                    if (out == null) {
+                        return self.take(n);
+                    }
+                    appendTaken(out, self, n);
+                    break;
+                }
+                if (remaining >= 0 && self.getAvailable() >= remaining) {
+                    if (out == null) {
+                        return self.take(remaining);
+                    }
+                    appendTaken(out, self, remaining);
+                    break;
+                }
+                if (out == null) {
+                    out = createOutputStream();
+                }
+                if (remaining >= 0) {
+                    remaining -= self.getAvailable();
+                }
+                appendTaken(out, self, self.getAvailable());
+                if (fill(frame, self) <= 0) {
+                    break;
+                }
+            }
+            return toByteArray(out);
+        } finally {
+            self.unlock();
+        }
+    }
+
+    /**
+     * Buffers the data and writes out full buffers.
+     */
+    public int write(VirtualFrame frame, PBuffered self, byte[] data) {
+        enter(self);
+        try {
+            checkWritable(self);
+            if (self.getAvailable() > 0) {
+                dropReadAhead(frame, self);
+            } else {
+                self.resetRead();
+            }
+            int length = data.length;
+            if (length <= self.getWriteCapacity()) {
+                self.append(data, 0, length);
+                if (self.getWriteCapacity() == 0) {
+                    flushWrites(frame, self);
+                }
+                return length;
+            }
+            flushWrites(frame, self);
+            if (length >= self.getBufferSize()) {
+                // large writes bypass the buffer
+                int offset = 0;
+                while (offset < length) {
+                    int written = rawWrite(frame, self, data, offset, length - offset);
+                    if (written < 0) {
+                        throw raise(OSError, "write could not complete without blocking");
+                    }
+                    offset += written;
+                }
+            } else {
+                self.append(data, 0, length);
+            }
+            return length;
+        } finally {
+            self.unlock();
+        }
+    }
+
+    public long tell(VirtualFrame frame, PBuffered self) {
+        enter(self);
+        try {
+            checkOpen(self);
+            long position = rawTell(frame, self) - self.getAvailable() + self.getWriteEnd();
+            return Math.max(position, 0);
+        } finally {
+            self.unlock();
+        }
+    }
+
+    public long seek(VirtualFrame frame, PBuffered self, long position, int whence) {
+        enter(self);
+        try {
+            checkOpen(self);
+            if (whence < 0 || whence > 2) {
+                throw raise(ValueError, "whence value %d unsupported", whence);
+            }
+            flushWrites(frame, self);
+            long target = position;
+            if (whence == 1) {
+                int available = self.getAvailable();
+                if (position >= 0 && position <= available) {
+                    // the target is inside of the read buffer
+                    self.skip((int) position);
+                    return rawTell(frame, self) - self.getAvailable();
+                }
+                target -= available;
+            }
+            self.resetRead();
+            return rawSeek(frame, self, target, whence);
+        } finally {
+            self.unlock();
+        }
+    }
+
+    /**
+     * Flushes pending writes and moves the raw stream to the logical position, so that it can be
+     * used directly.
+     */
+    public void synchronize(VirtualFrame frame, PBuffered self) {
+        enter(self);
+        try {
+            flushWrites(frame, self);
+            if (self.getAvailable() > 0) {
+                dropReadAhead(frame, self);
+            }
+        } finally {
+            self.unlock();
+        }
+    }
+
+    private BytesNodes.ToBytesNode getToBytesNode() {
+        if (toBytesNode == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            toBytesNode = insert(BytesNodes.ToBytesNode.create());
+        }
+        return toBytesNode;
+    }
+
+    private CastToJavaLongNode getCastToLongNode() {
+        if (castToLongNode == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            castToLongNode = insert(CastToJavaLongNode.create());
+        }
+        return castToLongNode;
+    }
+
+    @TruffleBoundary
+    private static ByteArrayOutputStream createOutputStream() {
+        return new ByteArrayOutputStream();
+    }
+
+    @TruffleBoundary
+    private static void append(ByteArrayOutputStream out, byte[] data, int length) {
+        out.write(data, 0, length);
+    }
+
+    /**
+     * @return the number of bytes moved from the read-ahead data to the stream
+     */
+    @TruffleBoundary
+    private static int appendTaken(ByteArrayOutputStream out, PBuffered self, int n) {
+        int count = Math.min(n, self.getAvailable());
+        out.write(self.getBuffer(), self.getReadPos(), count);
+        self.skip(count);
+        return count;
+    }
+
+    @TruffleBoundary
+    private static int size(ByteArrayOutputStream out) {
+        return out.size();
+    }
+
+    @TruffleBoundary
+    private static byte[] toByteArray(ByteArrayOutputStream out) {
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Shared state of {@code BufferedReader}, {@code BufferedWriter} and {@code BufferedRandom}. A
+ * single buffer holds either read-ahead data in {@code [readPos, readEnd)} or pending writes in
+ * {@code [0, writeEnd)}, never both. If the raw stream is a plain {@code FileIO}, its file
+ * descriptor is remembered and the channel is accessed directly instead of calling the raw
+ * object's methods.
+ */
+public final class PBuffered extends PythonBuiltinObject {
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final boolean readable;
+    private final boolean writable;
+
+    /** The raw stream; {@code null} before initialization and after {@code detach()}. */
+    private Object raw;
+    /** The file descriptor of a {@code FileIO} raw stream or {@code -1}. */
+    private int fd = -1;
+    private boolean closed;
+
+    /** Held by the thread running a buffered operation, see {@link BufferedIONode}. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private byte[] buffer;
+    private int readPos;
+    private int readEnd;
+    private int writeEnd;
+
+    public PBuffered(LazyPythonClass cls, boolean readable, boolean writable) {
+        super(cls);
+        this.readable = readable;
+        this.writable = writable;
+    }
+
+    public void initialize(Object newRaw, int newFd, int bufferSize) {
+        this.raw = newRaw;
+        this.fd = newFd;
+        this.closed = false;
+        this.buffer = new byte[bufferSize];
+        this.readPos = 0;
+        this.readEnd = 0;
+        this.writeEnd = 0;
+    }
+
+    public boolean isReadable() {
+        return readable;
+    }
+
+    public boolean isWritable() {
+        return writable;
+    }
+
+    public Object getRaw() {
+        return raw;
+    }
+
+    public boolean isInitialized() {
+        return buffer != null;
+    }
+
+    public boolean isDetached() {
+        return buffer != null && raw == null;
+    }
+
+    public void detach() {
+        raw = null;
+        fd = -1;
+    }
+
+    public int getFd() {
+        return fd;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @TruffleBoundary
+    public boolean tryLock() {
+        return lock.tryLock();
+    }
+
+    @TruffleBoundary
+    public void lock() {
+        lock.lock();
+    }
+
+    @TruffleBoundary
+    public void unlock() {
+        lock.unlock();
+    }
+
+    public void setClosed() {
+        closed = true;
+    }
+
+    public int getBufferSize() {
+        return buffer.length;
+    }
+
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    // read-ahead data
+
+    public int getReadPos() {
+        return readPos;
+    }
+
+    public int getAvailable() {
+        return readEnd - readPos;
+    }
+
+    /**
+     * Consumes up to {@code n} bytes of read-ahead data into a new array.
+     */
+    public byte[] take(int n) {
+        int count = Math.min(n, readEnd - readPos);
+        byte[] result = Arrays.copyOfRange(buffer, readPos, readPos + count);
+        readPos += count;
+        return result;
+    }
+
+    public void skip(int n) {
+        readPos += n;
+    }
+
+    /**
+     * @return the index of the first {@code '\n'} in the read-ahead data or {@code -1}
+     */
+    public int findNewline(int limit) {
+        int end = limit < 0 ? readEnd : Math.min(readEnd, readPos + limit);
+        for (int i = readPos; i < end; i++) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Drops the read-ahead data.
+     */
+    public void resetRead() {
+        readPos = 0;
+        readEnd = 0;
+    }
+
+    public void setReadEnd(int readEnd) {
+        this.readPos = 0;
+        this.readEnd = readEnd;
+    }
+
+    // pending writes
+
+    public int getWriteEnd() {
+        return writeEnd;
+    }
+
+    public int getWriteCapacity() {
+        return buffer.length - writeEnd;
+    }
+
+    public void append(byte[] data, int offset, int length) {
+        System.arraycopy(data, offset, buffer, writeEnd, length);
+        writeEnd += length;
+    }
+
+    /**
+     * Marks the first {@code n} pending bytes as written, keeping the rest.
+     */
+    public void consumeWritten(int n) {
+        System.arraycopy(buffer, n, buffer, 0, writeEnd - n);
+        writeEnd -= n;
+    }
+}
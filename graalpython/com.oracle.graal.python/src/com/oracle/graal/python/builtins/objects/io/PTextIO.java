@@ -0,0 +1,344 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * The state of a {@code TextIOWrapper}. Bytes read from the buffer are decoded incrementally:
+ * incomplete sequences at the end of a chunk stay in {@link #undecoded} and decoded characters are
+ * kept untranslated until a line or a number of characters is requested, so that {@code tell()}
+ * can compute the position from the buffer position. Encoded output is collected in a pending
+ * buffer and passed to the buffer in larger chunks.
+ */
+public final class PTextIO extends PythonBuiltinObject {
+    public static final int CHUNK_SIZE = 8192;
+
+    private Object buffer;
+    private boolean detached;
+
+    private String encoding;
+    private String errors;
+    private Charset charset;
+    private CharsetDecoder decoder;
+    private CharsetEncoder encoder;
+
+    /** {@code None} or {@code ''}: any of {@code \n}, {@code \r} and {@code \r\n} ends a line. */
+    private boolean readUniversal;
+    /** {@code None}: line endings are translated to {@code \n} when reading. */
+    private boolean readTranslate;
+    /** The line ending to look for if it is neither universal nor {@code \n}. */
+    private String readNewline;
+    /** The line ending {@code \n} is translated to when writing or {@code null}. */
+    private String writeNewline;
+    private Object newline;
+    private boolean lineBuffering;
+    private boolean writeThrough;
+
+    private ByteBuffer undecoded = ByteBuffer.allocate(0);
+    private String decoded = "";
+    private int decodedPos;
+
+    private byte[] pending = new byte[CHUNK_SIZE];
+    private int pendingLength;
+
+    public PTextIO(LazyPythonClass cls) {
+        super(cls);
+    }
+
+    @TruffleBoundary
+    public void initialize(Object newBuffer, String newEncoding, Charset newCharset, String newErrors, CodingErrorAction errorAction, Object newNewline, String newlineString,
+                    boolean newLineBuffering, boolean newWriteThrough) {
+        this.buffer = newBuffer;
+        this.detached = false;
+        this.encoding = newEncoding;
+        this.errors = newErrors;
+        this.charset = newCharset;
+        this.decoder = newCharset.newDecoder().onMalformedInput(errorAction).onUnmappableCharacter(errorAction);
+        this.encoder = newCharset.newEncoder().onMalformedInput(errorAction).onUnmappableCharacter(errorAction);
+        this.newline = newNewline;
+        this.readUniversal = newlineString == null || newlineString.isEmpty();
+        this.readTranslate = newlineString == null;
+        this.readNewline = readUniversal ? null : newlineString;
+        this.writeNewline = newlineString == null || newlineString.isEmpty() || newlineString.equals("\n") ? null : newlineString;
+        this.lineBuffering = newLineBuffering;
+        this.writeThrough = newWriteThrough;
+        clearReadState();
+        this.pendingLength = 0;
+    }
+
+    public boolean isInitialized() {
+        return buffer != null || detached;
+    }
+
+    public boolean isDetached() {
+        return detached;
+    }
+
+    public Object getBuffer() {
+        return buffer;
+    }
+
+    public void detach() {
+        buffer = null;
+        detached = true;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public String getErrors() {
+        return errors;
+    }
+
+    public Object getNewline() {
+        return newline;
+    }
+
+    public boolean isLineBuffering() {
+        return lineBuffering;
+    }
+
+    public boolean isWriteThrough() {
+        return writeThrough;
+    }
+
+    // decoding
+
+    /**
+     * Drops all read-ahead state, e.g. after a seek or before writing.
+     */
+    @TruffleBoundary
+    public void clearReadState() {
+        if (decoder != null) {
+            decoder.reset();
+        }
+        undecoded = ByteBuffer.allocate(0);
+        decoded = "";
+        decodedPos = 0;
+    }
+
+    public boolean hasReadAhead() {
+        return decodedPos < decoded.length() || undecoded.hasRemaining();
+    }
+
+    public int getDecodedAvailable() {
+        return decoded.length() - decodedPos;
+    }
+
+    /**
+     * Decodes a chunk read from the buffer. An empty chunk marks the end of the stream and
+     * flushes any incomplete sequence.
+     */
+    @TruffleBoundary
+    public void decode(byte[] chunk) throws CharacterCodingException {
+        boolean eof = chunk.length == 0;
+        ByteBuffer in;
+        if (undecoded.hasRemaining()) {
+            in = ByteBuffer.allocate(undecoded.remaining() + chunk.length);
+            in.put(undecoded).put(chunk);
+            in.flip();
+        } else {
+            in = ByteBuffer.wrap(chunk);
+        }
+        CharBuffer out = CharBuffer.allocate((int) (in.remaining() * (double) decoder.maxCharsPerByte()) + 4);
+        CoderResult result = decoder.decode(in, out, eof);
+        if (result.isError()) {
+            result.throwException();
+        }
+        if (eof) {
+            decoder.flush(out);
+        }
+        out.flip();
+        undecoded = in.slice();
+        if (out.hasRemaining()) {
+            decoded = decoded.substring(decodedPos) + out.toString();
+            decodedPos = 0;
+        }
+    }
+
+    /**
+     * @return the number of bytes the remaining read-ahead data occupies in the buffer
+     */
+    @TruffleBoundary
+    public int getReadAheadLength() {
+        int length = undecoded.remaining();
+        if (decodedPos < decoded.length()) {
+            length += charset.encode(decoded.substring(decodedPos)).remaining();
+        }
+        return length;
+    }
+
+    /**
+     * Takes the next line from the decoded characters.
+     *
+     * @return the line or {@code null} if more data is needed to find the end of the line
+     */
+    @TruffleBoundary
+    public String takeLine(int limit, boolean eof) {
+        int start = decodedPos;
+        int length = decoded.length();
+        int end = -1;
+        if (readUniversal) {
+            for (int i = start; i < length; i++) {
+                char c = decoded.charAt(i);
+                if (c == '\n') {
+                    end = i + 1;
+                    break;
+                } else if (c == '\r') {
+                    if (i + 1 < length) {
+                        end = decoded.charAt(i + 1) == '\n' ? i + 2 : i + 1;
+                    } else if (eof) {
+                        end = i + 1;
+                    } else {
+                        // wait for the next chunk to see if this is '\r\n'
+                        return limit >= 0 && i - start >= limit ? takeChars(limit) : null;
+                    }
+                    break;
+                }
+            }
+        } else {
+            String separator = readNewline == null ? "\n" : readNewline;
+            int index = decoded.indexOf(separator, start);
+            if (index >= 0) {
+                end = index + separator.length();
+            }
+        }
+        if (end < 0) {
+            if (eof || (limit >= 0 && length - start >= limit)) {
+                end = length;
+            } else {
+                return null;
+            }
+        }
+        if (limit >= 0 && end - start > limit) {
+            end = start + limit;
+        }
+        decodedPos = end;
+        return translate(decoded.substring(start, end));
+    }
+
+    /**
+     * Takes up to {@code n} translated characters, or all remaining characters if {@code n} is
+     * negative. Unless the end of the stream is reached, the caller makes sure that one character
+     * more than requested is available, so that a {@code \r\n} is not split.
+     */
+    @TruffleBoundary
+    public String takeChars(int n) {
+        if (!readTranslate) {
+            int end = n < 0 ? decoded.length() : Math.min(decoded.length(), decodedPos + n);
+            String result = decoded.substring(decodedPos, end);
+            decodedPos = end;
+            return result;
+        }
+        StringBuilder sb = new StringBuilder();
+        int i = decodedPos;
+        int length = decoded.length();
+        while (i < length && (n < 0 || sb.length() < n)) {
+            char c = decoded.charAt(i++);
+            if (c == '\r') {
+                if (i < length && decoded.charAt(i) == '\n') {
+                    i++;
+                }
+                sb.append('\n');
+            } else {
+                sb.append(c);
+            }
+        }
+        decodedPos = i;
+        return sb.toString();
+    }
+
+    private String translate(String s) {
+        if (readTranslate && s.indexOf('\r') >= 0) {
+            return s.replace("\r\n", "\n").replace('\r', '\n');
+        }
+        return s;
+    }
+
+    // encoding
+
+    /**
+     * Encodes the string into the pending buffer.
+     *
+     * @return {@code true} if the string contains a line ending
+     */
+    @TruffleBoundary
+    public boolean encode(String s) throws CharacterCodingException {
+        boolean hasNewline = s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0;
+        String text = s;
+        if (writeNewline != null && s.indexOf('\n') >= 0) {
+            text = s.replace("\n", writeNewline);
+        }
+        encoder.reset();
+        ByteBuffer bytes = encoder.encode(CharBuffer.wrap(text));
+        int n = bytes.remaining();
+        if (pendingLength + n > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLength + n));
+        }
+        bytes.get(pending, pendingLength, n);
+        pendingLength += n;
+        return hasNewline;
+    }
+
+    public int getPendingLength() {
+        return pendingLength;
+    }
+
+    public byte[] takePending() {
+        byte[] result = Arrays.copyOf(pending, pendingLength);
+        pendingLength = 0;
+        return result;
+    }
+}
@@ -0,0 +1,696 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.LookupError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.UnicodeDecodeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.UnicodeEncodeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.modules.CodecsModuleBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallTernaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.nodes.util.CastToJavaLongNode;
+import com.oracle.graal.python.nodes.util.CastToStringNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PTextIOWrapper)
+public class TextIOWrapperBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return TextIOWrapperBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Access to the underlying buffer. If it is one of the builtin buffered streams, its buffer is
+     * used directly, otherwise its methods are called.
+     */
+    static final class TextIONode extends PythonBuiltinBaseNode {
+        @Child private BufferedIONode bufferedNode = BufferedIONode.create();
+        @Child private LookupAndCallBinaryNode callRead1Node;
+        @Child private LookupAndCallBinaryNode callWriteNode;
+        @Child private LookupAndCallUnaryNode callFlushNode;
+        @Child private LookupAndCallUnaryNode callTellNode;
+        @Child private LookupAndCallTernaryNode callSeekNode;
+        @Child private GetAttributeNode getClosedNode;
+        @Child private CastToBooleanNode castToBooleanNode;
+        @Child private BytesNodes.ToBytesNode toBytesNode;
+        @Child private CastToJavaLongNode castToLongNode;
+
+        private final ConditionProfile bufferedProfile = ConditionProfile.createBinaryProfile();
+
+        static TextIONode create() {
+            return new TextIONode();
+        }
+
+        void checkAttached(PTextIO self) {
+            if (!self.isInitialized()) {
+                throw raise(ValueError, "I/O operation on uninitialized object");
+            } else if (self.isDetached()) {
+                throw raise(ValueError, "underlying buffer has been detached");
+            }
+        }
+
+        void checkOpen(VirtualFrame frame, PTextIO self) {
+            checkAttached(self);
+            if (isClosed(frame, self)) {
+                throw raise(ValueError, BufferedIONode.CLOSED_FILE);
+            }
+        }
+
+        boolean isClosed(VirtualFrame frame, PTextIO self) {
+            Object buffer = self.getBuffer();
+            if (bufferedProfile.profile(buffer instanceof PBuffered)) {
+                return ((PBuffered) buffer).isClosed();
+            }
+            if (getClosedNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getClosedNode = insert(GetAttributeNode.create("closed"));
+            }
+            return getCastToBooleanNode().executeBoolean(frame, getClosedNode.executeObject(frame, buffer));
+        }
+
+        /**
+         * Reads and decodes the next chunk.
+         *
+         * @return {@code true} at the end of the stream
+         */
+        boolean readChunk(VirtualFrame frame, PTextIO self) {
+            flushPending(frame, self);
+            Object buffer = self.getBuffer();
+            byte[] chunk;
+            if (bufferedProfile.profile(buffer instanceof PBuffered)) {
+                chunk = bufferedNode.read1(frame, (PBuffered) buffer, PTextIO.CHUNK_SIZE);
+            } else {
+                if (callRead1Node == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    callRead1Node = insert(LookupAndCallBinaryNode.create("read1"));
+                }
+                Object result = callRead1Node.executeObject(frame, buffer, PTextIO.CHUNK_SIZE);
+                chunk = result == PNone.NONE ? new byte[0] : getToBytesNode().execute(frame, result);
+            }
+            try {
+                self.decode(chunk);
+            } catch (CharacterCodingException e) {
+                throw raise(UnicodeDecodeError, e);
+            }
+            return chunk.length == 0;
+        }
+
+        void write(VirtualFrame frame, PTextIO self, String s) {
+            if (self.hasReadAhead()) {
+                // like CPython, writing discards any read-ahead data
+                self.clearReadState();
+            }
+            boolean hasNewline;
+            try {
+                hasNewline = self.encode(s);
+            } catch (CharacterCodingException e) {
+                throw raise(UnicodeEncodeError, e);
+            }
+            boolean flushLine = self.isLineBuffering() && hasNewline;
+            if (self.getPendingLength() >= PTextIO.CHUNK_SIZE || self.isWriteThrough() || flushLine) {
+                flushPending(frame, self);
+            }
+            if (flushLine) {
+                flushBuffer(frame, self);
+            }
+        }
+
+        void flushPending(VirtualFrame frame, PTextIO self) {
+            if (self.getPendingLength() == 0) {
+                return;
+            }
+            byte[] data = self.takePending();
+            Object buffer = self.getBuffer();
+            if (bufferedProfile.profile(buffer instanceof PBuffered)) {
+                bufferedNode.write(frame, (PBuffered) buffer, data);
+            } else {
+                if (callWriteNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    callWriteNode = insert(LookupAndCallBinaryNode.create("write"));
+                }
+                callWriteNode.executeObject(frame, buffer, factory().createBytes(data));
+            }
+        }
+
+        void flushBuffer(VirtualFrame frame, PTextIO self) {
+            Object buffer = self.getBuffer();
+            if (bufferedProfile.profile(buffer instanceof PBuffered) && ((PBuffered) buffer).getFd() >= 0) {
+                bufferedNode.checkOpen((PBuffered) buffer);
+                bufferedNode.flushWrites(frame, (PBuffered) buffer);
+            } else {
+                if (callFlushNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    callFlushNode = insert(LookupAndCallUnaryNode.create("flush"));
+                }
+                callFlushNode.executeObject(frame, buffer);
+            }
+        }
+
+        long tell(VirtualFrame frame, PTextIO self) {
+            flushPending(frame, self);
+            Object buffer = self.getBuffer();
+            long position;
+            if (bufferedProfile.profile(buffer instanceof PBuffered)) {
+                position = bufferedNode.tell(frame, (PBuffered) buffer);
+            } else {
+                if (callTellNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    callTellNode = insert(LookupAndCallUnaryNode.create("tell"));
+                }
+                position = getCastToLongNode().execute(callTellNode.executeObject(frame, buffer));
+            }
+            return position - self.getReadAheadLength();
+        }
+
+        long seek(VirtualFrame frame, PTextIO self, long position, int whence) {
+            flushPending(frame, self);
+            self.clearReadState();
+            Object buffer = self.getBuffer();
+            if (bufferedProfile.profile(buffer instanceof PBuffered)) {
+                return bufferedNode.seek(frame, (PBuffered) buffer, position, whence);
+            }
+            if (callSeekNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                callSeekNode = insert(LookupAndCallTernaryNode.create("seek"));
+            }
+            return getCastToLongNode().execute(callSeekNode.execute(frame, buffer, position, whence));
+        }
+
+        PException raiseUnsupported(String message) {
+            return bufferedNode.raiseUnsupported(message);
+        }
+
+        private CastToBooleanNode getCastToBooleanNode() {
+            if (castToBooleanNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToBooleanNode = insert(CastToBooleanNode.createIfTrueNode());
+            }
+            return castToBooleanNode;
+        }
+
+        private BytesNodes.ToBytesNode getToBytesNode() {
+            if (toBytesNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                toBytesNode = insert(BytesNodes.ToBytesNode.create());
+            }
+            return toBytesNode;
+        }
+
+        private CastToJavaLongNode getCastToLongNode() {
+            if (castToLongNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToLongNode = insert(CastToJavaLongNode.create());
+            }
+            return castToLongNode;
+        }
+    }
+
+    // TextIOWrapper(buffer, encoding=None, errors=None, newline=None, line_buffering=False,
+    // write_through=False)
+    @Builtin(name = __INIT__, minNumOfPositionalArgs = 2, parameterNames = {"self", "buffer", "encoding", "errors", "newline", "line_buffering", "write_through"})
+    @GenerateNodeFactory
+    public abstract static class InitNode extends PythonBuiltinNode {
+        @Specialization
+        PNone init(VirtualFrame frame, PTextIO self, Object buffer, Object encoding, Object errors, Object newline, Object lineBuffering, Object writeThrough,
+                        @Cached("create()") CastToStringNode castToStringNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castToBooleanNode) {
+            String encodingName = PGuards.isPNone(encoding) ? "utf-8" : castToStringNode.execute(frame, encoding);
+            String errorsName = PGuards.isPNone(errors) ? "strict" : castToStringNode.execute(frame, errors);
+            String newlineString = null;
+            if (!PGuards.isPNone(newline)) {
+                if (!PGuards.isString(newline)) {
+                    throw raise(TypeError, "TextIOWrapper() argument 'newline' must be str or None, not %p", newline);
+                }
+                newlineString = castToStringNode.execute(frame, newline);
+                if (!isValidNewline(newlineString)) {
+                    throw raise(ValueError, "illegal newline value: %s", newlineString);
+                }
+            }
+            Charset charset = lookupCharset(encodingName);
+            if (charset == null) {
+                throw raise(LookupError, "unknown encoding: %s", encodingName);
+            }
+            boolean lineBuffered = !PGuards.isPNone(lineBuffering) && castToBooleanNode.executeBoolean(frame, lineBuffering);
+            boolean writeThroughFlag = !PGuards.isPNone(writeThrough) && castToBooleanNode.executeBoolean(frame, writeThrough);
+            self.initialize(buffer, encodingName, charset, errorsName, CodecsModuleBuiltins.convertCodingErrorAction(errorsName), PGuards.isPNone(newline) ? PNone.NONE : newline,
+                            newlineString, lineBuffered, writeThroughFlag);
+            return PNone.NONE;
+        }
+
+        private static boolean isValidNewline(String newline) {
+            return newline.isEmpty() || newline.equals("\n") || newline.equals("\r") || newline.equals("\r\n");
+        }
+
+        @TruffleBoundary
+        private static Charset lookupCharset(String encoding) {
+            Charset charset = CodecsModuleBuiltins.getCharset(encoding);
+            if (charset == null) {
+                charset = CodecsModuleBuiltins.getCharset(encoding.toLowerCase());
+            }
+            if (charset == null) {
+                try {
+                    charset = Charset.forName(encoding);
+                } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+                    return null;
+                }
+            }
+            return charset;
+        }
+    }
+
+    @Builtin(name = "read", minNumOfPositionalArgs = 1, parameterNames = {"self", "size"})
+    @GenerateNodeFactory
+    public abstract static class ReadNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        String read(VirtualFrame frame, PTextIO self, Object size,
+                        @Cached("create()") CastToIndexNode castToIndexNode,
+                        @Cached("create()") TextIONode ioNode) {
+            ioNode.checkOpen(frame, self);
+            int n = PGuards.isPNone(size) ? -1 : castToIndexNode.execute(size);
+            boolean eof = false;
+            if (n < 0) {
+                while (!eof) {
+                    eof = ioNode.readChunk(frame, self);
+                }
+            } else {
+                // one more character, so that a '\r\n' is not split
+                while (!eof && self.getDecodedAvailable() <= n) {
+                    eof = ioNode.readChunk(frame, self);
+                }
+            }
+            return self.takeChars(n);
+        }
+    }
+
+    @Builtin(name = "readline", minNumOfPositionalArgs = 1, parameterNames = {"self", "size"})
+    @GenerateNodeFactory
+    public abstract static class ReadlineNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        String readline(VirtualFrame frame, PTextIO self, Object size,
+                        @Cached("create()") CastToIndexNode castToIndexNode,
+                        @Cached("create()") TextIONode ioNode) {
+            ioNode.checkOpen(frame, self);
+            return readLine(frame, self, PGuards.isPNone(size) ? -1 : castToIndexNode.execute(size), ioNode);
+        }
+
+        static String readLine(VirtualFrame frame, PTextIO self, int limit, TextIONode ioNode) {
+            boolean eof = false;
+            while (true) {
+                String line = self.takeLine(limit, eof);
+                if (line != null) {
+                    return line;
+                }
+                eof = ioNode.readChunk(frame, self);
+            }
+        }
+    }
+
+    @Builtin(name = "write", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    public abstract static class WriteNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        int write(VirtualFrame frame, PTextIO self, Object s,
+                        @Cached("create()") CastToStringNode castToStringNode,
+                        @Cached("create()") TextIONode ioNode) {
+            ioNode.checkOpen(frame, self);
+            if (!PGuards.isString(s)) {
+                throw raise(TypeError, "write() argument must be str, not %p", s);
+            }
+            String text = castToStringNode.execute(frame, s);
+            ioNode.write(frame, self, text);
+            return codePointCount(text);
+        }
+
+        @TruffleBoundary
+        private static int codePointCount(String s) {
+            return s.codePointCount(0, s.length());
+        }
+    }
+
+    @Builtin(name = "flush", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class FlushNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone flush(VirtualFrame frame, PTextIO self,
+                        @Cached("create()") TextIONode ioNode) {
+            ioNode.checkOpen(frame, self);
+            ioNode.flushPending(frame, self);
+            ioNode.flushBuffer(frame, self);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "close", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class CloseNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone close(VirtualFrame frame, PTextIO self,
+                        @Cached("create(CLOSE)") LookupAndCallUnaryNode callCloseNode,
+                        @Cached("create()") TextIONode ioNode) {
+            ioNode.checkAttached(self);
+            if (ioNode.isClosed(frame, self)) {
+                return PNone.NONE;
+            }
+            try {
+                ioNode.flushPending(frame, self);
+                ioNode.flushBuffer(frame, self);
+            } finally {
+                callCloseNode.executeObject(frame, self.getBuffer());
+            }
+            return PNone.NONE;
+        }
+
+        protected static final String CLOSE = "close";
+    }
+
+    @Builtin(name = "detach", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class DetachNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object detach(VirtualFrame frame, PTextIO self,
+                        @Cached("create()") TextIONode ioNode) {
+            ioNode.checkAttached(self);
+            ioNode.flushPending(frame, self);
+            ioNode.flushBuffer(frame, self);
+            Object buffer = self.getBuffer();
+            self.detach();
+            return buffer;
+        }
+    }
+
+    @Builtin(name = "tell", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class TellNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        long tell(VirtualFrame frame, PTextIO self,
+                        @Cached("create()") TextIONode ioNode) {
+            ioNode.checkOpen(frame, self);
+            return ioNode.tell(frame, self);
+        }
+    }
+
+    @Builtin(name = "seek", minNumOfPositionalArgs = 2, parameterNames = {"self", "cookie", "whence"})
+    @GenerateNodeFactory
+    public abstract static class SeekNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        long seek(VirtualFrame frame, PTextIO self, Object cookie, Object whence,
+                        @Cached("create()") CastToJavaLongNode castToLongNode,
+                        @Cached("create()") CastToIndexNode castToIndexNode,
+                        @Cached("create()") TextIONode ioNode) {
+            ioNode.checkOpen(frame, self);
+            long position = castToLongNode.execute(cookie);
+            int how = PGuards.isPNone(whence) ? 0 : castToIndexNode.execute(whence);
+            switch (how) {
+                case 0:
+                    if (position < 0) {
+                        throw raise(ValueError, "negative seek position %d", position);
+                    }
+                    ioNode.seek(frame, self, position, 0);
+                    return position;
+                case 1:
+                    if (position != 0) {
+                        throw ioNode.raiseUnsupported("can't do nonzero cur-relative seeks");
+                    }
+                    return ioNode.tell(frame, self);
+                case 2:
+                    if (position != 0) {
+                        throw ioNode.raiseUnsupported("can't do nonzero end-relative seeks");
+                    }
+                    return ioNode.seek(frame, self, 0, 2);
+                default:
+                    throw raise(ValueError, "invalid whence (%d, should be 0, 1 or 2)", how);
+            }
+        }
+    }
+
+    @Builtin(name = "truncate", minNumOfPositionalArgs = 1, parameterNames = {"self", "pos"})
+    @GenerateNodeFactory
+    public abstract static class TruncateNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object truncate(VirtualFrame frame, PTextIO self, Object pos,
+                        @Cached("create(TRUNCATE)") LookupAndCallBinaryNode callTruncateNode,
+                        @Cached("create()") TextIONode ioNode) {
+            ioNode.checkOpen(frame, self);
+            ioNode.flushPending(frame, self);
+            ioNode.flushBuffer(frame, self);
+            return callTruncateNode.executeObject(frame, self.getBuffer(), PGuards.isNoValue(pos) ? PNone.NONE : pos);
+        }
+
+        protected static final String TRUNCATE = "truncate";
+    }
+
+    @Builtin(name = "fileno", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class FilenoNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object fileno(VirtualFrame frame, PTextIO self,
+                        @Cached("create(FILENO)") LookupAndCallUnaryNode callNode,
+                        @Cached("create()") TextIONode ioNode) {
+            ioNode.checkAttached(self);
+            return callNode.executeObject(frame, self.getBuffer());
+        }
+
+        protected static final String FILENO = "fileno";
+    }
+
+    @Builtin(name = "isatty", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class IsattyNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object isatty(VirtualFrame frame, PTextIO self,
+                        @Cached("create(ISATTY)") LookupAndCallUnaryNode callNode,
+                        @Cached("create()") TextIONode ioNode) {
+            ioNode.checkAttached(self);
+            return callNode.executeObject(frame, self.getBuffer());
+        }
+
+        protected static final String ISATTY = "isatty";
+    }
+
+    @Builtin(name = "readable", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class ReadableNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object readable(VirtualFrame frame, PTextIO self,
+                        @Cached("create(READABLE)") LookupAndCallUnaryNode callNode,
+                        @Cached("create()") TextIONode ioNode) {
+            ioNode.checkAttached(self);
+            return callNode.executeObject(frame, self.getBuffer());
+        }
+
+        protected static final String READABLE = "readable";
+    }
+
+    @Builtin(name = "writable", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class WritableNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object writable(VirtualFrame frame, PTextIO self,
+                        @Cached("create(WRITABLE)") LookupAndCallUnaryNode callNode,
+                        @Cached("create()") TextIONode ioNode) {
+            ioNode.checkAttached(self);
+            return callNode.executeObject(frame, self.getBuffer());
+        }
+
+        protected static final String WRITABLE = "writable";
+    }
+
+    @Builtin(name = "seekable", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class SeekableNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object seekable(VirtualFrame frame, PTextIO self,
+                        @Cached("create(SEEKABLE)") LookupAndCallUnaryNode callNode,
+                        @Cached("create()") TextIONode ioNode) {
+            ioNode.checkAttached(self);
+            return callNode.executeObject(frame, self.getBuffer());
+        }
+
+        protected static final String SEEKABLE = "seekable";
+    }
+
+    @Builtin(name = "buffer", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class BufferNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object buffer(PTextIO self) {
+            Object buffer = self.getBuffer();
+            return buffer == null ? PNone.NONE : buffer;
+        }
+    }
+
+    @Builtin(name = "encoding", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class EncodingNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object encoding(PTextIO self) {
+            String encoding = self.getEncoding();
+            return encoding == null ? PNone.NONE : encoding;
+        }
+    }
+
+    @Builtin(name = "errors", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class ErrorsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object errors(PTextIO self) {
+            String errors = self.getErrors();
+            return errors == null ? PNone.NONE : errors;
+        }
+    }
+
+    @Builtin(name = "line_buffering", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class LineBufferingNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean lineBuffering(PTextIO self) {
+            return self.isLineBuffering();
+        }
+    }
+
+    @Builtin(name = "write_through", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class WriteThroughNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean writeThrough(PTextIO self) {
+            return self.isWriteThrough();
+        }
+    }
+
+    @Builtin(name = "newlines", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class NewlinesNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone newlines(@SuppressWarnings("unused") PTextIO self) {
+            // the kinds of line endings seen so far are not tracked
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "closed", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class ClosedNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean closed(VirtualFrame frame, PTextIO self,
+                        @Cached("create()") TextIONode ioNode) {
+            ioNode.checkAttached(self);
+            return ioNode.isClosed(frame, self);
+        }
+    }
+
+    @Builtin(name = "name", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class NameNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object name(VirtualFrame frame, PTextIO self,
+                        @Cached("create(NAME)") GetAttributeNode getAttributeNode,
+                        @Cached("create()") TextIONode ioNode) {
+            ioNode.checkAttached(self);
+            return getAttributeNode.executeObject(frame, self.getBuffer());
+        }
+
+        protected static final String NAME = "name";
+    }
+
+    @Builtin(name = __ITER__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class IterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTextIO iter(VirtualFrame frame, PTextIO self,
+                        @Cached("create()") TextIONode ioNode) {
+            ioNode.checkOpen(frame, self);
+            return self;
+        }
+    }
+
+    @Builtin(name = __NEXT__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class NextNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        String next(VirtualFrame frame, PTextIO self,
+                        @Cached("create()") TextIONode ioNode) {
+            ioNode.checkOpen(frame, self);
+            String line = ReadlineNode.readLine(frame, self, -1, ioNode);
+            if (line.isEmpty()) {
+                throw raise(StopIteration);
+            }
+            return line;
+        }
+    }
+}
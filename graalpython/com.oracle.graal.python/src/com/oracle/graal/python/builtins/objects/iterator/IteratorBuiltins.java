@@ -38,6 +38,7 @@ import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.common.SequenceNodes;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.common.WriteLockNode;
 import com.oracle.graal.python.builtins.objects.iterator.PRangeIterator.PRangeReverseIterator;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
@@ -133,20 +134,33 @@ public class IteratorBuiltins extends PythonBuiltins {
         }
 
         @Specialization
-        public Object next(PBaseSetIterator self) {
-            if (self.hasNext()) {
-                return self.next();
+        public Object next(PBaseSetIterator self,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(self.getSet());
+            try {
+                if (self.hasNext()) {
+                    return self.next();
+                }
+            } finally {
+                writeLockNode.unlock(self.getSet(), locked);
             }
             throw raise(StopIteration);
         }
 
         @Specialization(guards = "self.isPList()")
         public Object nextList(PSequenceIterator self,
-                        @Cached("createClassProfile()") ValueProfile storageProfile) {
-            SequenceStorage storage = storageProfile.profile(((PList) self.getPSequence()).getSequenceStorage());
-            int length = storage.length();
-            if (!self.isExhausted() && self.index < length) {
-                return storage.getItemNormalized(self.index++);
+                        @Cached("createClassProfile()") ValueProfile storageProfile,
+                        @Cached WriteLockNode writeLockNode) {
+            PList list = (PList) self.getPSequence();
+            boolean locked = writeLockNode.lock(list);
+            try {
+                SequenceStorage storage = storageProfile.profile(list.getSequenceStorage());
+                int length = storage.length();
+                if (!self.isExhausted() && self.index < length) {
+                    return storage.getItemNormalized(self.index++);
+                }
+            } finally {
+                writeLockNode.unlock(list, locked);
             }
             self.setExhausted();
             throw raise(StopIteration);
@@ -30,14 +30,11 @@ import com.oracle.graal.python.builtins.objects.set.PBaseSet;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 
 public final class PBaseSetIterator extends PJavaIteratorIterator<Object> {
-    private final PBaseSet set;
-
     public PBaseSetIterator(LazyPythonClass clazz, PBaseSet set) {
-        super(clazz, set.getDictStorage().keys().iterator());
-        this.set = set;
+        super(clazz, set, set.getDictStorage().keys().iterator());
     }
 
     public PBaseSet getSet() {
-        return set;
+        return (PBaseSet) getCollection();
     }
 }
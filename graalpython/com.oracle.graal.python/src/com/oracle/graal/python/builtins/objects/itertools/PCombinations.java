@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.itertools;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * Successive {@code r}-length combinations of the pool, optionally allowing individual elements
+ * to be repeated. Used for both {@code combinations} and {@code combinations_with_replacement}.
+ */
+public final class PCombinations extends PythonBuiltinObject {
+    private final Object[] pool;
+    private final int[] indices;
+    private final boolean withReplacement;
+    /** The previous result; {@code null} before the first step. */
+    private Object[] result;
+    private boolean stopped;
+
+    public PCombinations(LazyPythonClass cls, Object[] pool, int r, boolean withReplacement) {
+        super(cls);
+        this.pool = pool;
+        this.indices = new int[r];
+        this.withReplacement = withReplacement;
+        if (withReplacement) {
+            this.stopped = pool.length == 0 && r > 0;
+        } else {
+            for (int i = 0; i < r; i++) {
+                indices[i] = i;
+            }
+            this.stopped = r > pool.length;
+        }
+    }
+
+    /**
+     * @return the next combination or {@code null} when exhausted
+     */
+    public Object[] next() {
+        if (stopped) {
+            return null;
+        }
+        int r = indices.length;
+        int n = pool.length;
+        if (result == null) {
+            result = new Object[r];
+            for (int i = 0; i < r; i++) {
+                result[i] = pool[indices[i]];
+            }
+            return result.clone();
+        }
+        // scan indices right-to-left until finding one that is not at its maximum
+        int i = r - 1;
+        while (i >= 0 && indices[i] == (withReplacement ? n - 1 : i + n - r)) {
+            i--;
+        }
+        if (i < 0) {
+            stopped = true;
+            return null;
+        }
+        // increment it and reset the indices to its right to their lowest possible values
+        if (withReplacement) {
+            int index = indices[i] + 1;
+            for (int j = i; j < r; j++) {
+                indices[j] = index;
+                result[j] = pool[index];
+            }
+        } else {
+            indices[i]++;
+            result[i] = pool[indices[i]];
+            for (int j = i + 1; j < r; j++) {
+                indices[j] = indices[j - 1] + 1;
+                result[j] = pool[indices[j]];
+            }
+        }
+        return result.clone();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.itertools;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * Cartesian product of the pools. The indices work like an odometer with the rightmost index
+ * advancing on every step.
+ */
+public final class PProduct extends PythonBuiltinObject {
+    private final Object[][] pools;
+    private final int[] indices;
+    /** The previous result; {@code null} before the first step. */
+    private Object[] result;
+    private boolean stopped;
+
+    public PProduct(LazyPythonClass cls, Object[][] pools) {
+        super(cls);
+        this.pools = pools;
+        this.indices = new int[pools.length];
+        for (Object[] pool : pools) {
+            if (pool.length == 0) {
+                stopped = true;
+            }
+        }
+    }
+
+    public Object[][] getPools() {
+        return pools;
+    }
+
+    public int[] getIndices() {
+        return indices;
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public boolean isStarted() {
+        return result != null;
+    }
+
+    /**
+     * @return the next result (a fresh array) or {@code null} when exhausted
+     */
+    public Object[] next() {
+        if (stopped) {
+            return null;
+        }
+        if (result == null) {
+            result = new Object[pools.length];
+            for (int i = 0; i < pools.length; i++) {
+                result[i] = pools[i][0];
+            }
+        } else {
+            int i = pools.length - 1;
+            for (; i >= 0; i--) {
+                Object[] pool = pools[i];
+                int index = indices[i] + 1;
+                if (index < pool.length) {
+                    indices[i] = index;
+                    result[i] = pool[index];
+                    break;
+                }
+                // carry over to the next pool on the left
+                indices[i] = 0;
+                result[i] = pool[0];
+            }
+            if (i < 0) {
+                stopped = true;
+                return null;
+            }
+        }
+        return result.clone();
+    }
+
+    /**
+     * Restores the indices of a pickled product object, clamping them to the valid range.
+     */
+    public void setState(int[] newIndices) {
+        if (stopped) {
+            return;
+        }
+        result = new Object[pools.length];
+        for (int i = 0; i < pools.length; i++) {
+            int index = Math.max(0, Math.min(newIndices[i], pools[i].length - 1));
+            indices[i] = index;
+            result[i] = pools[i][index];
+        }
+    }
+}
@@ -62,6 +62,8 @@ import com.oracle.graal.python.builtins.objects.PNotImplemented;
 import com.oracle.graal.python.builtins.objects.common.IndexNodes.NormalizeIndexNode;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.ListGeneralizationNode;
+import com.oracle.graal.python.builtins.objects.common.WriteLockNode;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.iterator.PDoubleSequenceIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PIntegerSequenceIterator;
@@ -76,6 +78,7 @@ import com.oracle.graal.python.nodes.builtins.ListNodes;
 import com.oracle.graal.python.nodes.builtins.ListNodes.AppendNode;
 import com.oracle.graal.python.nodes.builtins.ListNodes.CreateStorageFromIteratorNode;
 import com.oracle.graal.python.nodes.builtins.ListNodes.IndexNode;
+import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
 import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
@@ -95,6 +98,7 @@ import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.TypedSequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
@@ -120,7 +124,17 @@ public class ListBuiltins extends PythonBuiltins {
 
         @Specialization
         public Object repr(VirtualFrame frame, PList self,
-                        @Cached("create(__REPR__)") LookupAndCallUnaryNode repr) {
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode repr,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(self);
+            try {
+                return doRepr(frame, self, repr);
+            } finally {
+                writeLockNode.unlock(self, locked);
+            }
+        }
+
+        private Object doRepr(VirtualFrame frame, PList self, LookupAndCallUnaryNode repr) {
             StringBuilder result = new StringBuilder();
             sbAppend(result, "[");
             SequenceStorage storage = self.getSequenceStorage();
@@ -210,8 +224,14 @@ public class ListBuiltins extends PythonBuiltins {
 
         @Specialization
         protected Object doGeneric(PList self, Object key,
-                        @Cached("create()") SequenceStorageNodes.DeleteNode deleteNode) {
-            deleteNode.execute(self.getSequenceStorage(), key);
+                        @Cached("create()") SequenceStorageNodes.DeleteNode deleteNode,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(self);
+            try {
+                deleteNode.execute(self.getSequenceStorage(), key);
+            } finally {
+                writeLockNode.unlock(self, locked);
+            }
             return PNone.NONE;
         }
 
@@ -228,8 +248,14 @@ public class ListBuiltins extends PythonBuiltins {
 
         @Specialization
         protected Object doScalar(PList self, Object key,
-                        @Cached("createGetItemNode()") SequenceStorageNodes.GetItemNode getItemNode) {
-            return getItemNode.execute(self.getSequenceStorage(), key);
+                        @Cached("createGetItemNode()") SequenceStorageNodes.GetItemNode getItemNode,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(self);
+            try {
+                return getItemNode.execute(self.getSequenceStorage(), key);
+            } finally {
+                writeLockNode.unlock(self, locked);
+            }
         }
 
         protected static SequenceStorageNodes.GetItemNode createGetItemNode() {
@@ -255,8 +281,14 @@ public class ListBuiltins extends PythonBuiltins {
 
         @Specialization
         public Object doGeneric(PList primary, Object key, Object value,
-                        @Cached("createSetItem()") SequenceStorageNodes.SetItemNode setItemNode) {
-            updateStorage(primary, setItemNode.execute(primary.getSequenceStorage(), key, value));
+                        @Cached("createSetItem()") SequenceStorageNodes.SetItemNode setItemNode,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(primary);
+            try {
+                updateStorage(primary, setItemNode.execute(primary.getSequenceStorage(), key, value));
+            } finally {
+                writeLockNode.unlock(primary, locked);
+            }
             return PNone.NONE;
         }
 
@@ -303,8 +335,14 @@ public class ListBuiltins extends PythonBuiltins {
 
         @Specialization
         PNone extendSequence(VirtualFrame frame, PList list, Object iterable,
-                        @Cached("createExtend()") SequenceStorageNodes.ExtendNode extendNode) {
-            updateSequenceStorage(list, extendNode.execute(frame, list.getSequenceStorage(), iterable));
+                        @Cached("createExtend()") SequenceStorageNodes.ExtendNode extendNode,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(list);
+            try {
+                updateSequenceStorage(list, extendNode.execute(frame, list.getSequenceStorage(), iterable));
+            } finally {
+                writeLockNode.unlock(list, locked);
+            }
             return PNone.NONE;
         }
 
@@ -330,31 +368,32 @@ public class ListBuiltins extends PythonBuiltins {
         protected static final String ERROR_MSG = "'%p' object cannot be interpreted as an integer";
 
         @Child private SequenceStorageNodes.LenNode lenNode;
+        @Child private WriteLockNode writeLockNode = WriteLockNode.create();
 
         public abstract PNone execute(VirtualFrame frame, PList list, Object index, Object value);
 
-        @Specialization(guards = "isIntStorage(list)")
+        @Specialization(guards = {"isIntStorage(list)", "!isLocking()"})
         PNone insertIntInt(PList list, int index, int value) {
             IntSequenceStorage target = (IntSequenceStorage) list.getSequenceStorage();
             target.insertIntItem(normalizeIndex(index, target.length()), value);
             return PNone.NONE;
         }
 
-        @Specialization(guards = "isLongStorage(list)")
+        @Specialization(guards = {"isLongStorage(list)", "!isLocking()"})
         PNone insertLongLong(PList list, int index, int value) {
             LongSequenceStorage target = (LongSequenceStorage) list.getSequenceStorage();
             target.insertLongItem(normalizeIndex(index, target.length()), value);
             return PNone.NONE;
         }
 
-        @Specialization(guards = "isLongStorage(list)")
+        @Specialization(guards = {"isLongStorage(list)", "!isLocking()"})
         PNone insertLongLong(PList list, int index, long value) {
             LongSequenceStorage target = (LongSequenceStorage) list.getSequenceStorage();
             target.insertLongItem(normalizeIndex(index, target.length()), value);
             return PNone.NONE;
         }
 
-        @Specialization(guards = "isDoubleStorage(list)")
+        @Specialization(guards = {"isDoubleStorage(list)", "!isLocking()"})
         PNone insertDoubleDouble(PList list, int index, double value) {
             DoubleSequenceStorage target = (DoubleSequenceStorage) list.getSequenceStorage();
             target.insertDoubleItem(normalizeIndex(index, target.length()), value);
@@ -363,7 +402,12 @@ public class ListBuiltins extends PythonBuiltins {
 
         @Specialization(guards = "isNotSpecialCase(list, value)")
         PNone insert(PList list, int index, Object value) {
-            list.insert(normalizeIndex(index, getLength(list.getSequenceStorage())), value);
+            boolean locked = writeLockNode.lock(list);
+            try {
+                list.insert(normalizeIndex(index, getLength(list.getSequenceStorage())), value);
+            } finally {
+                writeLockNode.unlock(list, locked);
+            }
             return PNone.NONE;
         }
 
@@ -420,10 +464,14 @@ public class ListBuiltins extends PythonBuiltins {
         }
 
         protected boolean isNotSpecialCase(PList list, Object value) {
-            return !((PGuards.isIntStorage(list) && value instanceof Integer) || (PGuards.isLongStorage(list) && PGuards.isInteger(value)) ||
+            return isLocking() || !((PGuards.isIntStorage(list) && value instanceof Integer) || (PGuards.isLongStorage(list) && PGuards.isInteger(value)) ||
                             (PGuards.isDoubleStorage(list) && value instanceof Double));
         }
 
+        protected boolean isLocking() {
+            return writeLockNode.isLocking();
+        }
+
         protected boolean isIntegerOrPInt(Object index) {
             return index instanceof Integer || index instanceof PInt;
         }
@@ -455,15 +503,21 @@ public class ListBuiltins extends PythonBuiltins {
                         @Cached("create()") SequenceStorageNodes.DeleteNode deleteNode,
                         @Cached("create()") SequenceStorageNodes.LenNode lenNode,
                         @Cached("createIfTrueNode()") CastToBooleanNode castToBooleanNode,
-                        @Cached("create(__EQ__, __EQ__, __EQ__)") BinaryComparisonNode eqNode) {
-            SequenceStorage listStore = list.getSequenceStorage();
-            int len = lenNode.execute(listStore);
-            for (int i = 0; i < len; i++) {
-                Object object = getItemNode.execute(listStore, i);
-                if (castToBooleanNode.executeBoolean(frame, eqNode.executeWith(frame, object, value))) {
-                    deleteNode.execute(listStore, i);
-                    return PNone.NONE;
+                        @Cached("create(__EQ__, __EQ__, __EQ__)") BinaryComparisonNode eqNode,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(list);
+            try {
+                SequenceStorage listStore = list.getSequenceStorage();
+                int len = lenNode.execute(listStore);
+                for (int i = 0; i < len; i++) {
+                    Object object = getItemNode.execute(listStore, i);
+                    if (castToBooleanNode.executeBoolean(frame, eqNode.executeWith(frame, object, value))) {
+                        deleteNode.execute(listStore, i);
+                        return PNone.NONE;
+                    }
                 }
+            } finally {
+                writeLockNode.unlock(list, locked);
             }
             throw raise(PythonErrorType.ValueError, NOT_IN_LIST_MESSAGE);
         }
@@ -477,23 +531,34 @@ public class ListBuiltins extends PythonBuiltins {
         private static final String POP_INDEX_OUT_OF_RANGE = "pop index out of range";
 
         @Child private SequenceStorageNodes.GetItemNode getItemNode;
+        @Child private WriteLockNode writeLockNode = WriteLockNode.create();
 
         @Specialization
         public Object popLast(PList list, @SuppressWarnings("unused") PNone none,
                         @Cached("createDelete()") SequenceStorageNodes.DeleteNode deleteNode) {
-            SequenceStorage store = list.getSequenceStorage();
-            Object ret = getGetItemNode().execute(store, -1);
-            deleteNode.execute(store, -1);
-            return ret;
+            boolean locked = writeLockNode.lock(list);
+            try {
+                SequenceStorage store = list.getSequenceStorage();
+                Object ret = getGetItemNode().execute(store, -1);
+                deleteNode.execute(store, -1);
+                return ret;
+            } finally {
+                writeLockNode.unlock(list, locked);
+            }
         }
 
         @Specialization(guards = {"!isNoValue(idx)", "!isPSlice(idx)"})
         public Object doIndex(PList list, Object idx,
                         @Cached("createDelete()") SequenceStorageNodes.DeleteNode deleteNode) {
-            SequenceStorage store = list.getSequenceStorage();
-            Object ret = getGetItemNode().execute(store, idx);
-            deleteNode.execute(store, idx);
-            return ret;
+            boolean locked = writeLockNode.lock(list);
+            try {
+                SequenceStorage store = list.getSequenceStorage();
+                Object ret = getGetItemNode().execute(store, idx);
+                deleteNode.execute(store, idx);
+                return ret;
+            } finally {
+                writeLockNode.unlock(list, locked);
+            }
         }
 
         @Fallback
@@ -694,8 +759,14 @@ public class ListBuiltins extends PythonBuiltins {
     public abstract static class ListClearNode extends PythonBuiltinNode {
 
         @Specialization
-        public PNone clear(PList list) {
-            list.setSequenceStorage(EmptySequenceStorage.INSTANCE);
+        public PNone clear(PList list,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(list);
+            try {
+                list.setSequenceStorage(EmptySequenceStorage.INSTANCE);
+            } finally {
+                writeLockNode.unlock(list, locked);
+            }
             return PNone.NONE;
         }
 
@@ -707,8 +778,14 @@ public class ListBuiltins extends PythonBuiltins {
     public abstract static class ListReverseNode extends PythonUnaryBuiltinNode {
 
         @Specialization
-        PList reverse(PList list) {
-            list.reverse();
+        PList reverse(PList list,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(list);
+            try {
+                list.reverse();
+            } finally {
+                writeLockNode.unlock(list, locked);
+            }
             return list;
         }
 
@@ -717,14 +794,241 @@ public class ListBuiltins extends PythonBuiltins {
         }
     }
 
+    // list.sort(*, key=None, reverse=False)
+    @Builtin(name = "sort", minNumOfPositionalArgs = 1, parameterNames = {"self"}, varArgsMarker = true, keywordOnlyNames = {"key", "reverse"})
+    @GenerateNodeFactory
+    public abstract static class ListSortNode extends PythonTernaryBuiltinNode {
+
+        @Child private CastToBooleanNode castToBooleanNode;
+        @Child private WriteLockNode writeLockNode = WriteLockNode.create();
+
+        protected static boolean isNoKey(Object key) {
+            return PGuards.isNoValue(key) || PGuards.isNone(key);
+        }
+
+        protected boolean isLocking() {
+            return writeLockNode.isLocking();
+        }
+
+        @Specialization(guards = {"isNoKey(key)", "isIntStorage(list)", "!isLocking()"})
+        PNone sortInt(VirtualFrame frame, PList list, @SuppressWarnings("unused") Object key, Object reverse) {
+            IntSequenceStorage store = (IntSequenceStorage) list.getSequenceStorage();
+            ListSorting.sort(store.getInternalIntArray(), store.length(), isReverse(frame, reverse));
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"isNoKey(key)", "isLongStorage(list)", "!isLocking()"})
+        PNone sortLong(VirtualFrame frame, PList list, @SuppressWarnings("unused") Object key, Object reverse) {
+            LongSequenceStorage store = (LongSequenceStorage) list.getSequenceStorage();
+            ListSorting.sort(store.getInternalLongArray(), store.length(), isReverse(frame, reverse));
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"isNoKey(key)", "isDoubleStorage(list)", "!isLocking()"})
+        PNone sortDouble(VirtualFrame frame, PList list, @SuppressWarnings("unused") Object key, Object reverse) {
+            DoubleSequenceStorage store = (DoubleSequenceStorage) list.getSequenceStorage();
+            ListSorting.sort(store.getInternalDoubleArray(), store.length(), isReverse(frame, reverse));
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"isNoKey(key)", "isObjectStorage(list)", "!isLocking()"})
+        PNone sortObject(VirtualFrame frame, PList list, Object key, Object reverse,
+                        @Cached("createBinaryProfile()") ConditionProfile allStringsProfile,
+                        @Cached("create()") SequenceStorageNodes.ToArrayNode toArrayNode,
+                        @Cached("create()") CallNode keyCallNode,
+                        @Cached("createLessThan()") BinaryComparisonNode ltNode) {
+            ObjectSequenceStorage store = (ObjectSequenceStorage) list.getSequenceStorage();
+            boolean rev = isReverse(frame, reverse);
+            if (allStringsProfile.profile(ListSorting.sortStrings(store.getInternalArray(), store.length(), rev))) {
+                return PNone.NONE;
+            }
+            return sortGeneric(frame, list, key, rev, toArrayNode, keyCallNode, ltNode);
+        }
+
+        @Specialization
+        PNone sort(VirtualFrame frame, PList list, Object key, Object reverse,
+                        @Cached("create()") SequenceStorageNodes.ToArrayNode toArrayNode,
+                        @Cached("create()") CallNode keyCallNode,
+                        @Cached("createLessThan()") BinaryComparisonNode ltNode) {
+            boolean locked = writeLockNode.lock(list);
+            try {
+                return sortGeneric(frame, list, key, isReverse(frame, reverse), toArrayNode, keyCallNode, ltNode);
+            } finally {
+                writeLockNode.unlock(list, locked);
+            }
+        }
+
+        private PNone sortGeneric(VirtualFrame frame, PList list, Object key, boolean reverse, SequenceStorageNodes.ToArrayNode toArrayNode, CallNode keyCallNode, BinaryComparisonNode ltNode) {
+            SequenceStorage store = list.getSequenceStorage();
+            Object[] values = toArrayNode.execute(store);
+            int n = values.length;
+            // like CPython, the list appears empty while it is being sorted
+            list.setSequenceStorage(EmptySequenceStorage.INSTANCE);
+            boolean success = false;
+            try {
+                Object[] keys;
+                if (isNoKey(key)) {
+                    keys = null;
+                } else {
+                    keys = new Object[n];
+                    for (int i = 0; i < n; i++) {
+                        keys[i] = keyCallNode.execute(frame, key, new Object[]{values[i]}, PKeyword.EMPTY_KEYWORDS);
+                    }
+                }
+                if (reverse) {
+                    // reversing before and after the sort keeps equal elements stable
+                    ListSorting.reverse(values, n);
+                    if (keys != null) {
+                        ListSorting.reverse(keys, n);
+                    }
+                }
+                int kind = ListSorting.getKeyKind(keys != null ? keys : values, n);
+                if (kind != ListSorting.KIND_OBJECT) {
+                    ListSorting.sortDecorated(kind, keys != null ? keys : values, values, n);
+                } else if (keys != null) {
+                    mergeSort(frame, keys, values, n, ltNode);
+                } else {
+                    mergeSort(frame, values, null, n, ltNode);
+                }
+                if (reverse) {
+                    ListSorting.reverse(values, n);
+                }
+                success = true;
+            } finally {
+                if (!success) {
+                    list.setSequenceStorage(store);
+                }
+            }
+            boolean modified = list.getSequenceStorage() != EmptySequenceStorage.INSTANCE;
+            list.setSequenceStorage(createSortedStorage(store, values));
+            if (modified) {
+                throw raise(PythonErrorType.ValueError, "list modified during sort");
+            }
+            return PNone.NONE;
+        }
+
+        /**
+         * Stable merge sort using only {@code <}, see {@link ListSorting} for the primitive
+         * variants.
+         */
+        private static void mergeSort(VirtualFrame frame, Object[] keys, Object[] values, int n, BinaryComparisonNode ltNode) {
+            for (int lo = 0; lo < n; lo += ListSorting.RUN) {
+                int hi = Math.min(n - lo, ListSorting.RUN) + lo;
+                for (int i = lo + 1; i < hi; i++) {
+                    Object pivot = keys[i];
+                    int l = lo;
+                    int r = i;
+                    while (l < r) {
+                        int m = (l + r) >>> 1;
+                        if (ltNode.executeBool(frame, pivot, keys[m])) {
+                            r = m;
+                        } else {
+                            l = m + 1;
+                        }
+                    }
+                    if (l < i) {
+                        System.arraycopy(keys, l, keys, l + 1, i - l);
+                        keys[l] = pivot;
+                        if (values != null) {
+                            Object value = values[i];
+                            System.arraycopy(values, l, values, l + 1, i - l);
+                            values[l] = value;
+                        }
+                    }
+                }
+            }
+            if (n <= ListSorting.RUN) {
+                return;
+            }
+            Object[] srcKeys = keys;
+            Object[] dstKeys = new Object[n];
+            Object[] srcValues = values;
+            Object[] dstValues = values != null ? new Object[n] : null;
+            for (int width = ListSorting.RUN; width < n; width = width > n / 2 ? n : width * 2) {
+                int lo = 0;
+                while (lo < n) {
+                    int mid = lo + Math.min(width, n - lo);
+                    int hi = mid + Math.min(width, n - mid);
+                    int i = lo;
+                    int j = mid;
+                    for (int k = lo; k < hi; k++) {
+                        if (j >= hi || (i < mid && !ltNode.executeBool(frame, srcKeys[j], srcKeys[i]))) {
+                            dstKeys[k] = srcKeys[i];
+                            if (values != null) {
+                                dstValues[k] = srcValues[i];
+                            }
+                            i++;
+                        } else {
+                            dstKeys[k] = srcKeys[j];
+                            if (values != null) {
+                                dstValues[k] = srcValues[j];
+                            }
+                            j++;
+                        }
+                    }
+                    lo = hi;
+                }
+                Object[] tmpKeys = srcKeys;
+                srcKeys = dstKeys;
+                dstKeys = tmpKeys;
+                Object[] tmpValues = srcValues;
+                srcValues = dstValues;
+                dstValues = tmpValues;
+            }
+            if (srcKeys != keys) {
+                System.arraycopy(srcKeys, 0, keys, 0, n);
+                if (values != null) {
+                    System.arraycopy(srcValues, 0, values, 0, n);
+                }
+            }
+        }
+
+        @TruffleBoundary
+        private static SequenceStorage createSortedStorage(SequenceStorage original, Object[] values) {
+            if (original instanceof TypedSequenceStorage) {
+                // the elements did not change, so they still fit into the typed storage
+                for (int i = 0; i < values.length; i++) {
+                    original.setItemNormalized(i, values[i]);
+                }
+                return original;
+            }
+            return new ObjectSequenceStorage(values);
+        }
+
+        private boolean isReverse(VirtualFrame frame, Object reverse) {
+            if (reverse == PNone.NO_VALUE) {
+                return false;
+            }
+            if (castToBooleanNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToBooleanNode = insert(CastToBooleanNode.createIfTrueNode());
+            }
+            return castToBooleanNode.executeBoolean(frame, reverse);
+        }
+
+        protected static BinaryComparisonNode createLessThan() {
+            return BinaryComparisonNode.create(__LT__, __GT__, "<");
+        }
+
+        public static ListSortNode create() {
+            return ListBuiltinsFactory.ListSortNodeFactory.create();
+        }
+    }
+
     @Builtin(name = __LEN__, minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     public abstract static class LenNode extends PythonUnaryBuiltinNode {
 
         @Specialization
         int doGeneric(PList list,
-                        @Cached("create()") SequenceStorageNodes.LenNode lenNode) {
-            return lenNode.execute(list.getSequenceStorage());
+                        @Cached("create()") SequenceStorageNodes.LenNode lenNode,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(list);
+            try {
+                return lenNode.execute(list.getSequenceStorage());
+            } finally {
+                writeLockNode.unlock(list, locked);
+            }
         }
     }
 
@@ -754,8 +1058,14 @@ public class ListBuiltins extends PythonBuiltins {
     abstract static class IAddNode extends PythonBinaryBuiltinNode {
         @Specialization
         PList extendSequence(VirtualFrame frame, PList list, Object iterable,
-                        @Cached("createExtend()") SequenceStorageNodes.ExtendNode extendNode) {
-            updateSequenceStorage(list, extendNode.execute(frame, list.getSequenceStorage(), iterable));
+                        @Cached("createExtend()") SequenceStorageNodes.ExtendNode extendNode,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(list);
+            try {
+                updateSequenceStorage(list, extendNode.execute(frame, list.getSequenceStorage(), iterable));
+            } finally {
+                writeLockNode.unlock(list, locked);
+            }
             return list;
         }
 
@@ -801,12 +1111,17 @@ public class ListBuiltins extends PythonBuiltins {
         @Specialization
         Object doGeneric(PList list, Object right,
                         @Cached("createBinaryProfile()") ConditionProfile updatedProfile,
-                        @Cached("create()") SequenceStorageNodes.RepeatNode repeatNode) {
-
-            SequenceStorage store = list.getSequenceStorage();
-            SequenceStorage updated = repeatNode.execute(store, right);
-            if (updatedProfile.profile(store != updated)) {
-                list.setSequenceStorage(updated);
+                        @Cached("create()") SequenceStorageNodes.RepeatNode repeatNode,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(list);
+            try {
+                SequenceStorage store = list.getSequenceStorage();
+                SequenceStorage updated = repeatNode.execute(store, right);
+                if (updatedProfile.profile(store != updated)) {
+                    list.setSequenceStorage(updated);
+                }
+            } finally {
+                writeLockNode.unlock(list, locked);
             }
             return list;
         }
@@ -926,6 +1241,18 @@ public class ListBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class ContainsNode extends PythonBinaryBuiltinNode {
         @Specialization
+        boolean contains(VirtualFrame frame, PList self, Object other,
+                        @Cached("create()") SequenceStorageNodes.ContainsNode containsNode,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(self);
+            try {
+                return containsNode.execute(frame, self.getSequenceStorage(), other);
+            } finally {
+                writeLockNode.unlock(self, locked);
+            }
+        }
+
+        @Specialization(guards = "!isList(self)")
         boolean contains(VirtualFrame frame, PSequence self, Object other,
                         @Cached("create()") SequenceStorageNodes.ContainsNode containsNode) {
             return containsNode.execute(frame, self.getSequenceStorage(), other);
@@ -973,22 +1300,32 @@ public class ListBuiltins extends PythonBuiltins {
     @Builtin(name = __ITER__, minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     public abstract static class IterNode extends PythonUnaryBuiltinNode {
-        @Specialization(guards = {"isIntStorage(primary)"})
+        @Child private WriteLockNode writeLockNode = WriteLockNode.create();
+
+        /**
+         * The typed iterators read the storage they were created for without knowing the list, so
+         * they cannot take its lock.
+         */
+        protected boolean isLocking() {
+            return writeLockNode.isLocking();
+        }
+
+        @Specialization(guards = {"isIntStorage(primary)", "!isLocking()"})
         public PIntegerSequenceIterator doPListInt(PList primary) {
             return factory().createIntegerSequenceIterator((IntSequenceStorage) primary.getSequenceStorage());
         }
 
-        @Specialization(guards = {"isLongStorage(primary)"})
+        @Specialization(guards = {"isLongStorage(primary)", "!isLocking()"})
         public PLongSequenceIterator doPListLong(PList primary) {
             return factory().createLongSequenceIterator((LongSequenceStorage) primary.getSequenceStorage());
         }
 
-        @Specialization(guards = {"isDoubleStorage(primary)"})
+        @Specialization(guards = {"isDoubleStorage(primary)", "!isLocking()"})
         public PDoubleSequenceIterator doPListDouble(PList primary) {
             return factory().createDoubleSequenceIterator((DoubleSequenceStorage) primary.getSequenceStorage());
         }
 
-        @Specialization(guards = {"!isIntStorage(primary)", "!isLongStorage(primary)", "!isDoubleStorage(primary)"})
+        @Specialization
         public PSequenceIterator doPList(PList primary) {
             return factory().createSequenceIterator(primary);
         }
@@ -0,0 +1,492 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.list;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Stable merge sorts on primitive and string keys, used by {@code list.sort} for homogeneous
+ * storages and for decorated keys. Like CPython, only {@code <} is used for comparisons, so e.g.
+ * {@code -0.0} and {@code 0.0} keep their relative order and {@code NaN} behaves the same way.
+ */
+final class ListSorting {
+    /** Length of the runs sorted with binary insertion sort before merging. */
+    static final int RUN = 32;
+
+    private ListSorting() {
+        // no instances
+    }
+
+    /**
+     * Stable in-place sort of {@code keys[0:n]} with {@code <}. If {@code values} is not
+     * {@code null}, it is permuted in the same way as {@code keys}.
+     */
+    @TruffleBoundary
+    static void sort(long[] keys, Object[] values, int n) {
+        new LongMergeSort(keys, values, n).sort();
+    }
+
+    /** Like {@link #sort(long[], Object[], int)}. */
+    @TruffleBoundary
+    static void sort(double[] keys, Object[] values, int n) {
+        new DoubleMergeSort(keys, values, n).sort();
+    }
+
+    /** Like {@link #sort(long[], Object[], int)}, comparing with {@link String#compareTo}. */
+    @TruffleBoundary
+    static void sort(String[] keys, Object[] values, int n) {
+        new StringMergeSort(keys, values, n).sort();
+    }
+
+    /**
+     * The merge sort shared by all key types: runs of {@link #RUN} elements are sorted with binary
+     * insertion sort and then merged bottom-up, alternating between the keys and a buffer.
+     * Subclasses compare and move their keys, the values are permuted here.
+     */
+    private abstract static class MergeSort {
+        private final Object[] values;
+        private final int n;
+
+        MergeSort(Object[] values, int n) {
+            this.values = values;
+            this.n = n;
+        }
+
+        /** Whether {@code src[i] < src[j]}. */
+        protected abstract boolean less(int i, int j);
+
+        /** Moves {@code src[from]} to {@code src[to]} and shifts {@code src[to:from]} up by one. */
+        protected abstract void insert(int from, int to);
+
+        protected abstract void allocateBuffer(int length);
+
+        /** Sets {@code dst[to] = src[from]}. */
+        protected abstract void move(int from, int to);
+
+        protected abstract void swapBuffers();
+
+        /**
+         * Copies the keys from the buffer if they ended up there.
+         *
+         * @return whether the keys were copied
+         */
+        protected abstract boolean copyBack(int length);
+
+        final void sort() {
+            for (int lo = 0; lo < n; lo += RUN) {
+                int hi = Math.min(n - lo, RUN) + lo;
+                for (int i = lo + 1; i < hi; i++) {
+                    int l = lo;
+                    int r = i;
+                    while (l < r) {
+                        int m = (l + r) >>> 1;
+                        if (less(i, m)) {
+                            r = m;
+                        } else {
+                            l = m + 1;
+                        }
+                    }
+                    if (l < i) {
+                        insert(i, l);
+                        if (values != null) {
+                            Object value = values[i];
+                            System.arraycopy(values, l, values, l + 1, i - l);
+                            values[l] = value;
+                        }
+                    }
+                }
+            }
+            if (n <= RUN) {
+                return;
+            }
+            allocateBuffer(n);
+            Object[] srcValues = values;
+            Object[] dstValues = values != null ? new Object[n] : null;
+            for (int width = RUN; width < n; width = width > n / 2 ? n : width * 2) {
+                int lo = 0;
+                while (lo < n) {
+                    int mid = lo + Math.min(width, n - lo);
+                    int hi = mid + Math.min(width, n - mid);
+                    int i = lo;
+                    int j = mid;
+                    for (int k = lo; k < hi; k++) {
+                        if (j >= hi || (i < mid && !less(j, i))) {
+                            move(i, k);
+                            if (values != null) {
+                                dstValues[k] = srcValues[i];
+                            }
+                            i++;
+                        } else {
+                            move(j, k);
+                            if (values != null) {
+                                dstValues[k] = srcValues[j];
+                            }
+                            j++;
+                        }
+                    }
+                    lo = hi;
+                }
+                swapBuffers();
+                Object[] tmpValues = srcValues;
+                srcValues = dstValues;
+                dstValues = tmpValues;
+            }
+            if (copyBack(n) && values != null) {
+                System.arraycopy(srcValues, 0, values, 0, n);
+            }
+        }
+    }
+
+    private static final class LongMergeSort extends MergeSort {
+        private final long[] keys;
+        private long[] src;
+        private long[] dst;
+
+        LongMergeSort(long[] keys, Object[] values, int n) {
+            super(values, n);
+            this.keys = keys;
+            this.src = keys;
+        }
+
+        @Override
+        protected boolean less(int i, int j) {
+            return src[i] < src[j];
+        }
+
+        @Override
+        protected void insert(int from, int to) {
+            long key = src[from];
+            System.arraycopy(src, to, src, to + 1, from - to);
+            src[to] = key;
+        }
+
+        @Override
+        protected void allocateBuffer(int length) {
+            dst = new long[length];
+        }
+
+        @Override
+        protected void move(int from, int to) {
+            dst[to] = src[from];
+        }
+
+        @Override
+        protected void swapBuffers() {
+            long[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+
+        @Override
+        protected boolean copyBack(int length) {
+            if (src != keys) {
+                System.arraycopy(src, 0, keys, 0, length);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static final class DoubleMergeSort extends MergeSort {
+        private final double[] keys;
+        private double[] src;
+        private double[] dst;
+
+        DoubleMergeSort(double[] keys, Object[] values, int n) {
+            super(values, n);
+            this.keys = keys;
+            this.src = keys;
+        }
+
+        @Override
+        protected boolean less(int i, int j) {
+            return src[i] < src[j];
+        }
+
+        @Override
+        protected void insert(int from, int to) {
+            double key = src[from];
+            System.arraycopy(src, to, src, to + 1, from - to);
+            src[to] = key;
+        }
+
+        @Override
+        protected void allocateBuffer(int length) {
+            dst = new double[length];
+        }
+
+        @Override
+        protected void move(int from, int to) {
+            dst[to] = src[from];
+        }
+
+        @Override
+        protected void swapBuffers() {
+            double[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+
+        @Override
+        protected boolean copyBack(int length) {
+            if (src != keys) {
+                System.arraycopy(src, 0, keys, 0, length);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static final class StringMergeSort extends MergeSort {
+        private final String[] keys;
+        private String[] src;
+        private String[] dst;
+
+        StringMergeSort(String[] keys, Object[] values, int n) {
+            super(values, n);
+            this.keys = keys;
+            this.src = keys;
+        }
+
+        @Override
+        protected boolean less(int i, int j) {
+            return src[i].compareTo(src[j]) < 0;
+        }
+
+        @Override
+        protected void insert(int from, int to) {
+            String key = src[from];
+            System.arraycopy(src, to, src, to + 1, from - to);
+            src[to] = key;
+        }
+
+        @Override
+        protected void allocateBuffer(int length) {
+            dst = new String[length];
+        }
+
+        @Override
+        protected void move(int from, int to) {
+            dst[to] = src[from];
+        }
+
+        @Override
+        protected void swapBuffers() {
+            String[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+
+        @Override
+        protected boolean copyBack(int length) {
+            if (src != keys) {
+                System.arraycopy(src, 0, keys, 0, length);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    static final int KIND_OBJECT = 0;
+    static final int KIND_LONG = 1;
+    static final int KIND_DOUBLE = 2;
+    static final int KIND_STRING = 3;
+
+    /**
+     * Determines if all keys can be compared as primitive {@code long}, {@code double} or
+     * {@code String} values.
+     */
+    @TruffleBoundary
+    static int getKeyKind(Object[] keys, int n) {
+        if (n == 0) {
+            return KIND_OBJECT;
+        }
+        int kind;
+        Object first = keys[0];
+        if (first instanceof Integer || first instanceof Long || first instanceof Boolean) {
+            kind = KIND_LONG;
+        } else if (first instanceof Double) {
+            kind = KIND_DOUBLE;
+        } else if (first instanceof String) {
+            kind = KIND_STRING;
+        } else {
+            return KIND_OBJECT;
+        }
+        for (int i = 1; i < n; i++) {
+            Object key = keys[i];
+            boolean sameKind;
+            switch (kind) {
+                case KIND_LONG:
+                    sameKind = key instanceof Integer || key instanceof Long || key instanceof Boolean;
+                    break;
+                case KIND_DOUBLE:
+                    sameKind = key instanceof Double;
+                    break;
+                default:
+                    sameKind = key instanceof String;
+                    break;
+            }
+            if (!sameKind) {
+                return KIND_OBJECT;
+            }
+        }
+        return kind;
+    }
+
+    /**
+     * Sorts {@code values} by the primitive (or string) decoration of {@code keys}. Must only be
+     * called if {@link #getKeyKind} returned something other than {@link #KIND_OBJECT}.
+     */
+    @TruffleBoundary
+    static void sortDecorated(int kind, Object[] keys, Object[] values, int n) {
+        switch (kind) {
+            case KIND_LONG:
+                long[] longKeys = new long[n];
+                for (int i = 0; i < n; i++) {
+                    Object key = keys[i];
+                    longKeys[i] = key instanceof Boolean ? (((Boolean) key) ? 1 : 0) : ((Number) key).longValue();
+                }
+                sort(longKeys, values, n);
+                break;
+            case KIND_DOUBLE:
+                double[] doubleKeys = new double[n];
+                for (int i = 0; i < n; i++) {
+                    doubleKeys[i] = (double) keys[i];
+                }
+                sort(doubleKeys, values, n);
+                break;
+            case KIND_STRING:
+                String[] stringKeys = new String[n];
+                for (int i = 0; i < n; i++) {
+                    stringKeys[i] = (String) keys[i];
+                }
+                sort(stringKeys, values, n);
+                break;
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * Sorts {@code values[0:n]} in place if all of them are strings.
+     *
+     * @return {@code false} if the values are not all strings
+     */
+    @TruffleBoundary
+    static boolean sortStrings(Object[] values, int n, boolean reverse) {
+        if (getKeyKind(values, n) != KIND_STRING) {
+            return false;
+        }
+        String[] keys = new String[n];
+        if (reverse) {
+            for (int i = 0; i < n; i++) {
+                keys[i] = (String) values[n - 1 - i];
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                keys[i] = (String) values[i];
+            }
+        }
+        sort(keys, null, n);
+        if (reverse) {
+            for (int i = 0; i < n; i++) {
+                values[i] = keys[n - 1 - i];
+            }
+        } else {
+            System.arraycopy(keys, 0, values, 0, n);
+        }
+        return true;
+    }
+
+    @TruffleBoundary
+    static void sort(int[] values, int n, boolean reverse) {
+        Arrays.sort(values, 0, n);
+        if (reverse) {
+            for (int i = 0, j = n - 1; i < j; i++, j--) {
+                int tmp = values[i];
+                values[i] = values[j];
+                values[j] = tmp;
+            }
+        }
+    }
+
+    @TruffleBoundary
+    static void sort(long[] values, int n, boolean reverse) {
+        Arrays.sort(values, 0, n);
+        if (reverse) {
+            for (int i = 0, j = n - 1; i < j; i++, j--) {
+                long tmp = values[i];
+                values[i] = values[j];
+                values[j] = tmp;
+            }
+        }
+    }
+
+    @TruffleBoundary
+    static void sort(double[] values, int n, boolean reverse) {
+        // cannot use Arrays.sort, it orders -0.0 before 0.0 and places NaN values last
+        if (reverse) {
+            reverse(values, n);
+        }
+        sort(values, null, n);
+        if (reverse) {
+            reverse(values, n);
+        }
+    }
+
+    private static void reverse(double[] array, int n) {
+        for (int i = 0, j = n - 1; i < j; i++, j--) {
+            double tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+
+    static void reverse(Object[] array, int n) {
+        for (int i = 0, j = n - 1; i < j; i++, j--) {
+            Object tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+}
@@ -25,16 +25,26 @@
  */
 package com.oracle.graal.python.builtins.objects.list;
 
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.oracle.graal.python.builtins.objects.common.WriteLockNode;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.runtime.sequence.PSequence;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStoreException;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.nodes.UnexpectedResultException;
 
 public final class PList extends PSequence {
+    private static final AtomicReferenceFieldUpdater<PList, ReentrantLock> WRITE_LOCK_UPDATER = AtomicReferenceFieldUpdater.newUpdater(PList.class, ReentrantLock.class, "writeLock");
+
     private SequenceStorage store;
 
+    /** Serializes accesses from several threads, see {@link WriteLockNode}. Created on first use. */
+    private volatile ReentrantLock writeLock;
+
     public PList(LazyPythonClass cls, SequenceStorage store) {
         super(cls);
         this.store = store;
@@ -50,6 +60,16 @@ public final class PList extends PSequence {
         this.store = newStorage;
     }
 
+    @TruffleBoundary
+    public final ReentrantLock getWriteLock() {
+        ReentrantLock lock = writeLock;
+        if (lock == null) {
+            WRITE_LOCK_UPDATER.compareAndSet(this, null, new ReentrantLock());
+            lock = writeLock;
+        }
+        return lock;
+    }
+
     @Override
     public final String toString() {
         StringBuilder buf = new StringBuilder("[");
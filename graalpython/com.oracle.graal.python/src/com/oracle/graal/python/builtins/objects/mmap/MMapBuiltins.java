@@ -58,31 +58,20 @@ import static com.oracle.graal.python.nodes.SpecialMethodNames.__RMUL__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__STR__;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.channels.Channel;
-import java.nio.channels.SeekableByteChannel;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.modules.MMapModuleBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
-import com.oracle.graal.python.builtins.objects.bytes.AbstractBytesBuiltins.BytesLikeNoGeneralizationNode;
 import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
 import com.oracle.graal.python.builtins.objects.bytes.PBytes;
-import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
-import com.oracle.graal.python.builtins.objects.common.SequenceNodes;
-import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
-import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
-import com.oracle.graal.python.builtins.objects.mmap.MMapBuiltinsFactory.InternalLenNodeGen;
 import com.oracle.graal.python.builtins.objects.slice.PSlice;
-import com.oracle.graal.python.builtins.objects.slice.PSlice.SliceInfo;
-import com.oracle.graal.python.nodes.PNodeWithContext;
-import com.oracle.graal.python.nodes.PRaiseNode;
-import com.oracle.graal.python.nodes.PRaiseOSErrorNode;
+import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
@@ -93,15 +82,7 @@ import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
 import com.oracle.graal.python.nodes.util.CastToByteNode;
 import com.oracle.graal.python.nodes.util.CastToIndexNode;
 import com.oracle.graal.python.nodes.util.CastToJavaLongNode;
-import com.oracle.graal.python.nodes.util.ChannelNodes;
-import com.oracle.graal.python.nodes.util.ChannelNodes.ReadByteFromChannelNode;
-import com.oracle.graal.python.nodes.util.ChannelNodes.ReadFromChannelNode;
-import com.oracle.graal.python.nodes.util.ChannelNodes.WriteByteToChannelNode;
-import com.oracle.graal.python.nodes.util.ChannelNodes.WriteToChannelNode;
-import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
-import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives;
-import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
@@ -114,70 +95,8 @@ import com.oracle.truffle.api.profiles.ConditionProfile;
 @CoreFunctions(extendClasses = PythonBuiltinClassType.PMMap)
 public class MMapBuiltins extends PythonBuiltins {
 
-    protected interface MMapBaseNode {
-        @TruffleBoundary
-        default long position(SeekableByteChannel ch) throws IOException {
-            return ch.position();
-        }
-
-        @TruffleBoundary
-        default void position(SeekableByteChannel ch, long offset) throws IOException {
-            ch.position(offset);
-        }
-
-        @TruffleBoundary
-        default long size(SeekableByteChannel ch) throws IOException {
-            return ch.size();
-        }
-    }
-
-    protected interface ByteReadingNode extends MMapBaseNode {
-
-        default ReadByteFromChannelNode createValueError(PRaiseNode raise) {
-            return ReadByteFromChannelNode.create(() -> new ChannelNodes.ReadByteErrorHandler() {
-
-                @Override
-                public int execute(Channel channel) {
-                    throw raise.raise(PythonBuiltinClassType.ValueError, "read byte out of range");
-                }
-            });
-        }
-
-        default ReadByteFromChannelNode createIndexError(PRaiseNode raise) {
-            return ReadByteFromChannelNode.create(() -> new ChannelNodes.ReadByteErrorHandler() {
-
-                @Override
-                public int execute(Channel channel) {
-                    throw raise.raise(PythonBuiltinClassType.IndexError, "mmap index out of range");
-                }
-            });
-
-        }
-    }
-
-    protected interface ByteWritingNode extends MMapBaseNode {
-
-        default WriteByteToChannelNode createValueError(PRaiseNode raise) {
-            return WriteByteToChannelNode.create(() -> new ChannelNodes.WriteByteErrorHandler() {
-
-                @Override
-                public void execute(Channel channel, byte b) {
-                    throw raise.raise(PythonBuiltinClassType.ValueError, "write byte out of range");
-                }
-            });
-        }
-
-        default WriteByteToChannelNode createIndexError(PRaiseNode raise) {
-            return WriteByteToChannelNode.create(() -> new ChannelNodes.WriteByteErrorHandler() {
-
-                @Override
-                public void execute(Channel channel, byte b) {
-                    throw raise.raise(PythonBuiltinClassType.IndexError, "mmap index out of range");
-                }
-            });
-
-        }
-    }
+    private static final String CLOSED_MESSAGE = "mmap closed or invalid";
+    private static final String READONLY_MESSAGE = "mmap can't modify a readonly memory map.";
 
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
@@ -246,7 +165,7 @@ public class MMapBuiltins extends PythonBuiltins {
 
     @Builtin(name = __GETITEM__, minNumOfPositionalArgs = 2)
     @GenerateNodeFactory
-    public abstract static class GetItemNode extends PythonBuiltinNode implements ByteReadingNode {
+    public abstract static class GetItemNode extends PythonBinaryBuiltinNode {
 
         public abstract Object executeObject(VirtualFrame frame, PMMap self, Object idxObj);
 
@@ -255,131 +174,97 @@ public class MMapBuiltins extends PythonBuiltins {
         public abstract long executeLong(VirtualFrame frame, PMMap self, Object idxObj);
 
         @Specialization(guards = "!isPSlice(idxObj)")
-        int doSingle(VirtualFrame frame, PMMap self, Object idxObj,
-                        @SuppressWarnings("unused") @Cached PRaiseNode raise,
-                        @Cached("createIndexError(raise)") ReadByteFromChannelNode readByteNode,
+        int doSingle(PMMap self, Object idxObj,
                         @Cached("create()") CastToJavaLongNode castToLongNode,
-                        @Cached("create()") InternalLenNode lenNode) {
-
-            try {
-                long i = castToLongNode.execute(idxObj);
-                long len = lenNode.execute(frame, self);
-                SeekableByteChannel channel = self.getChannel();
-                long idx = i < 0 ? i + len : i;
-
-                // save current position
-                long oldPos = position(channel);
-
-                position(channel, idx);
-                int res = readByteNode.execute(channel) & 0xFF;
-
-                // restore position
-                position(channel, oldPos);
-
-                return res;
-
-            } catch (IOException e) {
-                throw raise(PythonBuiltinClassType.OSError, e);
+                        @Cached("createBinaryProfile()") ConditionProfile outOfRangeProfile) {
+            checkOpen(self);
+            long i = castToLongNode.execute(idxObj);
+            long len = self.getLength();
+            long idx = i < 0 ? i + len : i;
+            if (outOfRangeProfile.profile(idx < 0 || idx >= len)) {
+                throw raise(PythonBuiltinClassType.IndexError, "mmap index out of range");
             }
+            return self.getByte(idx) & 0xFF;
         }
 
         @Specialization
-        Object doSlice(VirtualFrame frame, PMMap self, PSlice idx,
-                        @Cached("create()") ReadFromChannelNode readNode,
-                        @Cached("create()") InternalLenNode lenNode) {
-            try {
-                long len = lenNode.execute(frame, self);
-                SliceInfo info = idx.computeIndices(PInt.intValueExact(len));
-                SeekableByteChannel channel = self.getChannel();
-
-                // save current position
-                long oldPos = position(channel);
-
-                position(channel, info.start);
-                ByteSequenceStorage s = readNode.execute(channel, info.length);
-
-                // restore position
-                position(channel, oldPos);
+        PBytes doSlice(PMMap self, PSlice idx,
+                        @Cached("createBinaryProfile()") ConditionProfile stepOneProfile) {
+            checkOpen(self);
+            MMapSliceInfo info = computeIndices(this, idx, self.getLength());
+            if (info.length > Integer.MAX_VALUE) {
+                throw raise(PythonBuiltinClassType.OverflowError, "mmap slice is too large for a bytes object");
+            }
+            int len = (int) info.length;
+            byte[] result = new byte[len];
+            if (stepOneProfile.profile(info.step == 1)) {
+                self.getBytes(info.start, result, 0, len);
+            } else {
+                long j = info.start;
+                for (int i = 0; i < len; i++, j += info.step) {
+                    result[i] = self.getByte(j);
+                }
+            }
+            return factory().createBytes(result);
+        }
 
-                return factory().createBytes(s);
-            } catch (IOException e) {
-                throw raise(PythonBuiltinClassType.OSError, e);
+        private void checkOpen(PMMap self) {
+            if (self.isClosed()) {
+                throw raise(PythonBuiltinClassType.ValueError, CLOSED_MESSAGE);
             }
         }
 
         public static GetItemNode create() {
-            return MMapBuiltinsFactory.GetItemNodeFactory.create(null);
+            return MMapBuiltinsFactory.GetItemNodeFactory.create();
         }
     }
 
     @Builtin(name = SpecialMethodNames.__SETITEM__, minNumOfPositionalArgs = 3)
     @GenerateNodeFactory
-    abstract static class SetItemNode extends PythonBuiltinNode implements ByteWritingNode {
+    abstract static class SetItemNode extends PythonBuiltinNode {
 
         @Specialization(guards = "!isPSlice(idxObj)")
-        PNone doSingle(VirtualFrame frame, PMMap self, Object idxObj, Object val,
-                        @SuppressWarnings("unused") @Cached PRaiseNode raise,
-                        @Cached("createIndexError(raise)") WriteByteToChannelNode writeByteNode,
+        PNone doSingle(PMMap self, Object idxObj, Object val,
                         @Cached("create()") CastToJavaLongNode castToLongNode,
                         @Cached("createCoerce()") CastToByteNode castToByteNode,
-                        @Cached("create()") InternalLenNode lenNode,
                         @Cached("createBinaryProfile()") ConditionProfile outOfRangeProfile) {
-
-            try {
-                long i = castToLongNode.execute(idxObj);
-                long len = lenNode.execute(frame, self);
-                SeekableByteChannel channel = self.getChannel();
-                long idx = i < 0 ? i + len : i;
-
-                if (outOfRangeProfile.profile(idx < 0 || idx >= len)) {
-                    throw raise(PythonBuiltinClassType.IndexError, "mmap index out of range");
-                }
-
-                // save current position
-                long oldPos = position(channel);
-
-                position(channel, idx);
-                writeByteNode.execute(channel, castToByteNode.execute(val));
-
-                // restore position
-                position(channel, oldPos);
-
-                return PNone.NONE;
-
-            } catch (IOException e) {
-                throw raise(PythonBuiltinClassType.OSError, e);
+            checkWritable(self);
+            long i = castToLongNode.execute(idxObj);
+            long len = self.getLength();
+            long idx = i < 0 ? i + len : i;
+            if (outOfRangeProfile.profile(idx < 0 || idx >= len)) {
+                throw raise(PythonBuiltinClassType.IndexError, "mmap index out of range");
             }
+            self.putByte(idx, castToByteNode.execute(val));
+            return PNone.NONE;
         }
 
         @Specialization
-        PNone doSlice(VirtualFrame frame, PMMap self, PSlice idx, PIBytesLike val,
-                        @Cached("create()") WriteToChannelNode writeNode,
-                        @Cached("create()") SequenceNodes.GetSequenceStorageNode getStorageNode,
-                        @Cached("create()") InternalLenNode lenNode,
-                        @Cached("createBinaryProfile()") ConditionProfile invalidStepProfile) {
-
-            try {
-                long len = lenNode.execute(frame, self);
-                SliceInfo info = idx.computeIndices(PInt.intValueExact(len));
-                SeekableByteChannel channel = self.getChannel();
-
-                if (invalidStepProfile.profile(info.step != 1)) {
-                    throw raise(PythonBuiltinClassType.SystemError, "step != 1 not supported");
+        PNone doSlice(VirtualFrame frame, PMMap self, PSlice idx, Object val,
+                        @Cached("create()") BytesNodes.ToBytesNode toBytesNode,
+                        @Cached("createBinaryProfile()") ConditionProfile stepOneProfile) {
+            checkWritable(self);
+            MMapSliceInfo info = computeIndices(this, idx, self.getLength());
+            byte[] data = toBytesNode.execute(frame, val);
+            if (data.length != info.length) {
+                throw raise(PythonBuiltinClassType.IndexError, "mmap slice assignment is wrong size");
+            }
+            if (stepOneProfile.profile(info.step == 1)) {
+                self.putBytes(info.start, data, 0, data.length);
+            } else {
+                long j = info.start;
+                for (int i = 0; i < data.length; i++, j += info.step) {
+                    self.putByte(j, data[i]);
                 }
+            }
+            return PNone.NONE;
+        }
 
-                // save current position
-                long oldPos = position(channel);
-
-                position(channel, info.start);
-                writeNode.execute(channel, getStorageNode.execute(val), info.length);
-
-                // restore position
-                position(channel, oldPos);
-
-                return PNone.NONE;
-
-            } catch (IOException e) {
-                throw raise(PythonBuiltinClassType.OSError, e);
+        private void checkWritable(PMMap self) {
+            if (self.isClosed()) {
+                throw raise(PythonBuiltinClassType.ValueError, CLOSED_MESSAGE);
+            } else if (self.isReadonly()) {
+                throw raise(PythonBuiltinClassType.TypeError, READONLY_MESSAGE);
             }
         }
 
@@ -390,11 +275,10 @@ public class MMapBuiltins extends PythonBuiltins {
 
     @Builtin(name = __LEN__, minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
-    public abstract static class LenNode extends PythonBuiltinNode {
+    public abstract static class LenNode extends PythonUnaryBuiltinNode {
         @Specialization
-        long len(VirtualFrame frame, PMMap self,
-                        @Cached("create()") InternalLenNode lenNode) {
-            return lenNode.execute(frame, self);
+        long len(PMMap self) {
+            return self.getLength();
         }
     }
 
@@ -424,19 +308,14 @@ public class MMapBuiltins extends PythonBuiltins {
     abstract static class CloseNode extends PythonUnaryBuiltinNode {
 
         @Specialization
-        PNone doClose(PMMap self) {
+        PNone doClose(VirtualFrame frame, PMMap self) {
             try {
-                close(self);
+                self.close();
             } catch (IOException e) {
-                // TODO(fa): ignore ?
+                throw raiseOSError(frame, OSErrorEnum.EIO, e);
             }
             return PNone.NONE;
         }
-
-        @TruffleBoundary
-        private static void close(PMMap self) throws IOException {
-            self.getChannel().close();
-        }
     }
 
     @Builtin(name = "closed", minNumOfPositionalArgs = 1, isGetter = true)
@@ -444,47 +323,56 @@ public class MMapBuiltins extends PythonBuiltins {
     abstract static class ClosedNode extends PythonUnaryBuiltinNode {
 
         @Specialization
-        @TruffleBoundary
         boolean close(PMMap self) {
-            return !self.getChannel().isOpen();
+            return self.isClosed();
         }
     }
 
     @Builtin(name = "size", minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
-    abstract static class SizeNode extends PythonBuiltinNode {
+    abstract static class SizeNode extends PythonUnaryBuiltinNode {
 
         @Specialization
-        long size(VirtualFrame frame, PMMap self,
-                        @Cached("create()") InternalLenNode lenNode) {
-            return lenNode.execute(frame, self);
+        long size(VirtualFrame frame, PMMap self) {
+            if (self.isClosed()) {
+                throw raise(PythonBuiltinClassType.ValueError, CLOSED_MESSAGE);
+            }
+            try {
+                return self.getFileSize();
+            } catch (IOException e) {
+                throw raiseOSError(frame, OSErrorEnum.EIO, e);
+            }
         }
     }
 
     @Builtin(name = "tell", minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
-    abstract static class TellNode extends PythonBuiltinNode implements ByteReadingNode {
+    abstract static class TellNode extends PythonUnaryBuiltinNode {
         @Specialization
-        long readline(VirtualFrame frame, PMMap self) {
-            try {
-                SeekableByteChannel channel = self.getChannel();
-                return position(channel) - self.getOffset();
-            } catch (IOException e) {
-                throw raiseOSError(frame, OSErrorEnum.EIO, e);
+        long tell(PMMap self) {
+            if (self.isClosed()) {
+                throw raise(PythonBuiltinClassType.ValueError, CLOSED_MESSAGE);
             }
+            return self.getPosition();
         }
     }
 
     @Builtin(name = "read_byte", minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     @TypeSystemReference(PythonArithmeticTypes.class)
-    abstract static class ReadByteNode extends PythonUnaryBuiltinNode implements ByteReadingNode {
+    abstract static class ReadByteNode extends PythonUnaryBuiltinNode {
 
         @Specialization
-        int readByte(PMMap self,
-                        @SuppressWarnings("unused") @Cached PRaiseNode raise,
-                        @Cached("createValueError(raise)") ReadByteFromChannelNode readByteNode) {
-            return readByteNode.execute(self.getChannel());
+        int readByte(PMMap self) {
+            if (self.isClosed()) {
+                throw raise(PythonBuiltinClassType.ValueError, CLOSED_MESSAGE);
+            }
+            long pos = self.getPosition();
+            if (pos >= self.getLength()) {
+                throw raise(PythonBuiltinClassType.ValueError, "read byte out of range");
+            }
+            self.setPosition(pos + 1);
+            return self.getByte(pos) & 0xFF;
         }
     }
 
@@ -494,66 +382,57 @@ public class MMapBuiltins extends PythonBuiltins {
     abstract static class ReadNode extends PythonBuiltinNode {
 
         @Specialization
-        PBytes readUnlimited(PMMap self, @SuppressWarnings("unused") PNone n,
-                        @Cached("create()") ReadFromChannelNode readChannelNode) {
+        PBytes readUnlimited(PMMap self, @SuppressWarnings("unused") PNone n) {
             // intentionally accept NO_VALUE and NONE; both mean that we read unlimited amount of
             // bytes
-            ByteSequenceStorage res = readChannelNode.execute(self.getChannel(), ReadFromChannelNode.MAX_READ);
-            return factory().createBytes(res);
+            return read(self, Long.MAX_VALUE);
         }
 
         @Specialization(guards = "!isNoValue(n)")
         PBytes read(PMMap self, Object n,
-                        @Cached("create()") ReadFromChannelNode readChannelNode,
                         @Cached("create()") CastToIndexNode castToIndexNode,
                         @Cached("createBinaryProfile()") ConditionProfile negativeProfile) {
             int nread = castToIndexNode.execute(n);
             if (negativeProfile.profile(nread < 0)) {
-                return readUnlimited(self, PNone.NO_VALUE, readChannelNode);
+                return readUnlimited(self, PNone.NO_VALUE);
             }
-            ByteSequenceStorage res = readChannelNode.execute(self.getChannel(), nread);
-            return factory().createBytes(res);
+            return read(self, nread);
         }
 
+        private PBytes read(PMMap self, long n) {
+            if (self.isClosed()) {
+                throw raise(PythonBuiltinClassType.ValueError, CLOSED_MESSAGE);
+            }
+            long pos = self.getPosition();
+            int len = (int) Math.min(Math.min(n, self.getLength() - pos), Integer.MAX_VALUE);
+            byte[] result = new byte[len];
+            self.getBytes(pos, result, 0, len);
+            self.setPosition(pos + len);
+            return factory().createBytes(result);
+        }
     }
 
     @Builtin(name = "readline", minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
-    abstract static class ReadlineNode extends PythonUnaryBuiltinNode implements ByteReadingNode {
+    abstract static class ReadlineNode extends PythonUnaryBuiltinNode {
 
-        @Specialization
-        Object readline(PMMap self,
-                        @Cached SequenceStorageNodes.AppendNode appendNode) {
+        private static final byte[] NEWLINE = {'\n'};
 
-            try {
-                ByteBuffer buf = ByteBuffer.allocate(4096);
-                SeekableByteChannel channel = self.getChannel();
-                ByteSequenceStorage res = new ByteSequenceStorage(16);
-                // search for newline char
-                outer: while (readIntoBuffer(channel, buf) > 0) {
-                    buf.flip();
-                    while (buf.hasRemaining()) {
-                        byte b = buf.get();
-                        // CPython really tests for '\n' only
-                        if (b != (byte) '\n') {
-                            appendNode.execute(res, b, BytesLikeNoGeneralizationNode.SUPPLIER);
-                        } else {
-                            // recover correct position (i.e. number of remaining bytes in buffer)
-                            position(channel, position(channel) - buf.remaining() - 1);
-                            break outer;
-                        }
-                    }
-                    buf.clear();
-                }
-                return factory().createBytes(res);
-            } catch (IOException e) {
-                throw raise(PythonBuiltinClassType.OSError, e);
+        @Specialization
+        PBytes readline(PMMap self) {
+            if (self.isClosed()) {
+                throw raise(PythonBuiltinClassType.ValueError, CLOSED_MESSAGE);
             }
-        }
-
-        @TruffleBoundary(allowInlining = true)
-        private static int readIntoBuffer(SeekableByteChannel ch, ByteBuffer dst) throws IOException {
-            return ch.read(dst);
+            long pos = self.getPosition();
+            long length = self.getLength();
+            // CPython really tests for '\n' only
+            long eol = self.find(NEWLINE, pos, length);
+            long end = eol < 0 ? length : eol + 1;
+            int len = (int) Math.min(end - pos, Integer.MAX_VALUE);
+            byte[] result = new byte[len];
+            self.getBytes(pos, result, 0, len);
+            self.setPosition(pos + len);
+            return factory().createBytes(result);
         }
     }
 
@@ -562,71 +441,92 @@ public class MMapBuiltins extends PythonBuiltins {
     abstract static class WriteNode extends PythonBinaryBuiltinNode {
 
         @Specialization
-        int writeBytesLike(PMMap self, PIBytesLike bytesLike,
-                        @Cached("create()") WriteToChannelNode writeNode,
-                        @Cached("create()") SequenceNodes.GetSequenceStorageNode getStorageNode) {
-            SeekableByteChannel channel = self.getChannel();
-            return writeNode.execute(channel, getStorageNode.execute(bytesLike), Integer.MAX_VALUE);
+        int write(VirtualFrame frame, PMMap self, Object data,
+                        @Cached("create()") BytesNodes.ToBytesNode toBytesNode) {
+            if (self.isClosed()) {
+                throw raise(PythonBuiltinClassType.ValueError, CLOSED_MESSAGE);
+            } else if (self.isReadonly()) {
+                throw raise(PythonBuiltinClassType.TypeError, READONLY_MESSAGE);
+            }
+            byte[] bytes = toBytesNode.execute(frame, data);
+            long pos = self.getPosition();
+            if (self.getLength() - pos < bytes.length) {
+                throw raise(PythonBuiltinClassType.ValueError, "data out of range");
+            }
+            self.putBytes(pos, bytes, 0, bytes.length);
+            self.setPosition(pos + bytes.length);
+            return bytes.length;
         }
+    }
+
+    @Builtin(name = "write_byte", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class WriteByteNode extends PythonBinaryBuiltinNode {
 
         @Specialization
-        int writeMemoryview(VirtualFrame frame, PMMap self, PMemoryView memoryView,
-                        @Cached("create()") WriteToChannelNode writeNode,
-                        @Cached("create()") BytesNodes.ToBytesNode toBytesNode) {
-            byte[] data = toBytesNode.execute(frame, memoryView);
-            return writeNode.execute(self.getChannel(), new ByteSequenceStorage(data), Integer.MAX_VALUE);
+        PNone writeByte(PMMap self, Object val,
+                        @Cached("createCoerce()") CastToByteNode castToByteNode) {
+            if (self.isClosed()) {
+                throw raise(PythonBuiltinClassType.ValueError, CLOSED_MESSAGE);
+            } else if (self.isReadonly()) {
+                throw raise(PythonBuiltinClassType.TypeError, READONLY_MESSAGE);
+            }
+            long pos = self.getPosition();
+            if (pos >= self.getLength()) {
+                throw raise(PythonBuiltinClassType.ValueError, "write byte out of range");
+            }
+            self.putByte(pos, castToByteNode.execute(val));
+            self.setPosition(pos + 1);
+            return PNone.NONE;
+        }
+
+        protected static CastToByteNode createCoerce() {
+            return CastToByteNode.create(true);
         }
     }
 
     @Builtin(name = "seek", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3)
     @GenerateNodeFactory
     @TypeSystemReference(PythonArithmeticTypes.class)
-    abstract static class SeekNode extends PythonBuiltinNode implements MMapBaseNode {
+    abstract static class SeekNode extends PythonBuiltinNode {
         @Child private CastToIndexNode castToLongNode;
 
         private final BranchProfile errorProfile = BranchProfile.create();
 
         @Specialization(guards = "isNoValue(how)")
-        Object seek(VirtualFrame frame, PMMap self, long dist, @SuppressWarnings("unused") PNone how) {
-            return seek(frame, self, dist, 0);
+        Object seek(PMMap self, long dist, @SuppressWarnings("unused") PNone how) {
+            return seek(self, dist, 0);
         }
 
         @Specialization
-        Object seek(VirtualFrame frame, PMMap self, long dist, Object how) {
-            try {
-                SeekableByteChannel channel = self.getChannel();
-                long size;
-                if (self.getLength() == 0) {
-                    size = size(channel) - self.getOffset();
-                } else {
-                    size = self.getLength();
-                }
-                long where;
-                int ihow = castToInt(how);
-                switch (ihow) {
-                    case 0: /* relative to start */
-                        where = dist;
-                        break;
-                    case 1: /* relative to current position */
-                        where = position(channel) + dist;
-                        break;
-                    case 2: /* relative to end */
-                        where = size + dist;
-                        break;
-                    default:
-                        errorProfile.enter();
-                        throw raise(PythonBuiltinClassType.ValueError, "unknown seek type");
-                }
-                if (where > size || where < 0) {
+        Object seek(PMMap self, long dist, Object how) {
+            if (self.isClosed()) {
+                errorProfile.enter();
+                throw raise(PythonBuiltinClassType.ValueError, CLOSED_MESSAGE);
+            }
+            long size = self.getLength();
+            long where;
+            int ihow = castToInt(how);
+            switch (ihow) {
+                case 0: /* relative to start */
+                    where = dist;
+                    break;
+                case 1: /* relative to current position */
+                    where = self.getPosition() + dist;
+                    break;
+                case 2: /* relative to end */
+                    where = size + dist;
+                    break;
+                default:
                     errorProfile.enter();
-                    throw raise(PythonBuiltinClassType.ValueError, "seek out of range");
-                }
-                position(channel, where);
-                return PNone.NONE;
-            } catch (IOException e) {
+                    throw raise(PythonBuiltinClassType.ValueError, "unknown seek type");
+            }
+            if (where > size || where < 0) {
                 errorProfile.enter();
-                throw raiseOSError(frame, OSErrorEnum.EIO, e);
+                throw raise(PythonBuiltinClassType.ValueError, "seek out of range");
             }
+            self.setPosition(where);
+            return PNone.NONE;
         }
 
         private int castToInt(Object val) {
@@ -641,80 +541,30 @@ public class MMapBuiltins extends PythonBuiltins {
     @Builtin(name = "find", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
     @GenerateNodeFactory
     @TypeSystemReference(PythonArithmeticTypes.class)
-    public abstract static class FindNode extends PythonBuiltinNode implements ByteReadingNode {
-
-        @Child private SequenceStorageNodes.GetItemNode getRightItemNode;
-
-        public abstract long execute(PMMap bytes, Object sub, Object starting, Object ending);
+    public abstract static class FindNode extends PythonBuiltinNode {
 
         @Specialization
-        long find(PMMap primary, PIBytesLike sub, Object starting, Object ending,
-                        @SuppressWarnings("unused") @Cached PRaiseNode raise,
-                        @Cached("createValueError(raise)") ReadByteFromChannelNode readByteNode) {
-            try {
-                SeekableByteChannel channel = primary.getChannel();
-                long len1 = size(channel);
-
-                SequenceStorage needle = sub.getSequenceStorage();
-                int len2 = needle.length();
-
-                long s = castToLong(starting, 0);
-                long e = castToLong(ending, len1);
-
-                long start = s < 0 ? s + len1 : s;
-                long end = e < 0 ? e + len1 : e;
-
-                if (start >= len1 || len1 < len2) {
-                    return -1;
-                } else if (end > len1) {
-                    end = len1;
-                }
-
-                // TODO implement a more efficient algorithm
-                outer: for (long i = start; i < end; i++) {
-                    // TODO(fa) don't seek but use circular buffer
-                    position(channel, i);
-                    for (int j = 0; j < len2; j++) {
-                        int hb = readByteNode.execute(channel);
-                        int nb = getGetRightItemNode().executeInt(needle, j);
-                        if (nb != hb || i + j >= end) {
-                            continue outer;
-                        }
-                    }
-                    return i;
-                }
-                return -1;
-            } catch (IOException e) {
-                throw raise(PythonBuiltinClassType.OSError, e);
-            }
+        long find(PMMap primary, int sub, Object starting, Object ending) {
+            return find(primary, new byte[]{(byte) sub}, starting, ending);
         }
 
-        @Specialization
-        long find(PMMap primary, int sub, Object starting, @SuppressWarnings("unused") Object ending,
-                        @SuppressWarnings("unused") @Cached PRaiseNode raise,
-                        @Cached("createValueError(raise)") ReadByteFromChannelNode readByteNode) {
-            try {
-                SeekableByteChannel channel = primary.getChannel();
-                long len1 = size(channel);
-
-                long s = castToLong(starting, 0);
-                long e = castToLong(ending, len1);
-
-                long start = s < 0 ? s + len1 : s;
-                long end = Math.max(e < 0 ? e + len1 : e, len1);
-
-                position(channel, start);
+        @Specialization(guards = "!isInteger(sub)")
+        long find(VirtualFrame frame, PMMap primary, Object sub, Object starting, Object ending,
+                        @Cached("create()") BytesNodes.ToBytesNode toBytesNode) {
+            return find(primary, toBytesNode.execute(frame, sub), starting, ending);
+        }
 
-                for (long i = start; i < end; i++) {
-                    int hb = readByteNode.execute(channel);
-                    if (hb == sub) {
-                        return i;
-                    }
-                }
-                return -1;
-            } catch (IOException e) {
-                throw raise(PythonBuiltinClassType.OSError, e);
+        private long find(PMMap primary, byte[] needle, Object starting, Object ending) {
+            if (primary.isClosed()) {
+                throw raise(PythonBuiltinClassType.ValueError, CLOSED_MESSAGE);
             }
+            long len = primary.getLength();
+            long s = castToLong(starting, primary.getPosition());
+            long e = castToLong(ending, len);
+
+            long start = s < 0 ? Math.max(s + len, 0) : Math.min(s, len);
+            long end = e < 0 ? Math.max(e + len, 0) : Math.min(e, len);
+            return primary.find(needle, start, end);
         }
 
         // TODO(fa): use node
@@ -730,64 +580,111 @@ public class MMapBuiltins extends PythonBuiltins {
             }
             return defaultVal;
         }
-
-        private SequenceStorageNodes.GetItemNode getGetRightItemNode() {
-            if (getRightItemNode == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                getRightItemNode = insert(SequenceStorageNodes.GetItemNode.create());
-            }
-            return getRightItemNode;
-        }
     }
 
-    abstract static class InternalLenNode extends PNodeWithContext implements MMapBaseNode {
-
-        public abstract long execute(VirtualFrame frame, PMMap self);
+    @Builtin(name = "flush", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    abstract static class FlushNode extends PythonBuiltinNode {
 
-        @Specialization(guards = "self.getLength() == 0")
-        long doFull(VirtualFrame frame, PMMap self,
-                        @Cached PRaiseOSErrorNode raise,
-                        @Cached("create()") BranchProfile profile) {
+        @Specialization
+        PNone flush(VirtualFrame frame, PMMap self, Object offsetObj, Object sizeObj,
+                        @Cached("create()") CastToJavaLongNode castToLongNode) {
+            if (self.isClosed()) {
+                throw raise(PythonBuiltinClassType.ValueError, CLOSED_MESSAGE);
+            }
+            long offset = PGuards.isNoValue(offsetObj) ? 0 : castToLongNode.execute(offsetObj);
+            long size = PGuards.isNoValue(sizeObj) ? self.getLength() : castToLongNode.execute(sizeObj);
+            if (size < 0 || offset < 0 || self.getLength() - offset < size) {
+                throw raise(PythonBuiltinClassType.ValueError, "flush values out of range");
+            }
             try {
-                return size(self.getChannel()) - self.getOffset();
+                self.flush(offset, size);
             } catch (IOException e) {
-                profile.enter();
-                throw raise.raiseOSError(frame, OSErrorEnum.EIO, e);
+                throw raiseOSError(frame, OSErrorEnum.EIO, e);
             }
+            return PNone.NONE;
         }
+    }
 
-        @Specialization(guards = "self.getLength() > 0")
-        long doWindow(@SuppressWarnings("unused") VirtualFrame frame, PMMap self) {
-            return self.getLength();
-        }
+    @Builtin(name = "madvise", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    abstract static class MadviseNode extends PythonBuiltinNode {
 
         @Specialization
-        long doGeneric(VirtualFrame frame, PMMap self,
-                        @Cached PRaiseOSErrorNode raise) {
-            if (self.getLength() == 0) {
-                try {
-                    return size(self.getChannel()) - self.getOffset();
-                } catch (IOException e) {
-                    throw raise.raiseOSError(frame, OSErrorEnum.EIO, e);
-                }
+        PNone madvise(PMMap self, int option, Object startObj, Object lengthObj,
+                        @Cached("create()") CastToJavaLongNode castToLongNode) {
+            if (self.isClosed()) {
+                throw raise(PythonBuiltinClassType.ValueError, CLOSED_MESSAGE);
             }
-            return self.getLength();
+            long start = PGuards.isNoValue(startObj) ? 0 : castToLongNode.execute(startObj);
+            long length = PGuards.isNoValue(lengthObj) ? self.getLength() : castToLongNode.execute(lengthObj);
+            if (start < 0 || start >= self.getLength()) {
+                throw raise(PythonBuiltinClassType.ValueError, "madvise start out of bounds");
+            } else if (length < 0) {
+                throw raise(PythonBuiltinClassType.ValueError, "madvise length invalid");
+            }
+            // Java only offers to preload the mapping, all other advices are hints we can ignore
+            if (option == MMapModuleBuiltins.MADV_WILLNEED) {
+                self.load();
+            }
+            return PNone.NONE;
         }
+    }
+
+    private static final class MMapSliceInfo {
+        final long start;
+        final long step;
+        final long length;
 
-        public static InternalLenNode create() {
-            return InternalLenNodeGen.create();
+        MMapSliceInfo(long start, long step, long length) {
+            this.start = start;
+            this.step = step;
+            this.length = length;
         }
     }
 
-    @Builtin(name = "flush", minNumOfPositionalArgs = 1)
-    @GenerateNodeFactory
-    abstract static class FlushNode extends PythonUnaryBuiltinNode {
-
-        @Specialization
-        Object seek(@SuppressWarnings("unused") PMMap self) {
-            return PNone.NONE;
+    /**
+     * Like {@link PSlice#computeIndices(int)}, but for maps that may be larger than 2 GiB. The
+     * components of a slice are {@code int}s that saturate if the given index does not fit, so on
+     * such a map a saturated component is rejected instead of silently accessing the wrong bytes.
+     */
+    private static MMapSliceInfo computeIndices(PythonBuiltinBaseNode node, PSlice slice, long length) {
+        if (length > Integer.MAX_VALUE && (isSaturated(slice.getStart()) || isSaturated(slice.getStop()) || isSaturated(slice.getStep()))) {
+            throw node.raise(PythonBuiltinClassType.OverflowError, "mmap slice index out of range");
+        }
+        long step = slice.getStep() == PSlice.MISSING_INDEX ? 1 : slice.getStep();
+        if (step == 0) {
+            throw node.raise(PythonBuiltinClassType.ValueError, "slice step cannot be zero");
         }
+        long start = adjustIndex(slice.getStart(), step < 0 ? length - 1 : 0, step, length);
+        long stop = adjustIndex(slice.getStop(), step < 0 ? -1 : length, step, length);
+        long sliceLength;
+        if ((step < 0 && stop >= start) || (step > 0 && start >= stop)) {
+            sliceLength = 0;
+        } else if (step < 0) {
+            sliceLength = (stop - start + 1) / step + 1;
+        } else {
+            sliceLength = (stop - start - 1) / step + 1;
+        }
+        return new MMapSliceInfo(start, step, sliceLength);
+    }
 
+    private static boolean isSaturated(int component) {
+        return component == Integer.MAX_VALUE || component == PSlice.MISSING_INDEX + 1;
     }
 
+    private static long adjustIndex(int component, long defaultIndex, long step, long length) {
+        if (component == PSlice.MISSING_INDEX) {
+            return defaultIndex;
+        }
+        long index = component < 0 ? component + length : component;
+        if (index < 0) {
+            return step < 0 ? -1 : 0;
+        } else if (index >= length) {
+            return step < 0 ? length - 1 : length;
+        }
+        return index;
+    }
 }
@@ -40,26 +40,88 @@
  */
 package com.oracle.graal.python.builtins.objects.mmap;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.channels.SeekableByteChannel;
 
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
+/**
+ * A memory map. The mapped region is held in one or more {@link ByteBuffer buffers} of at most
+ * {@link #CHUNK_SIZE} bytes each, since a single buffer cannot be larger than 2 GiB. If the file
+ * can be mapped (i.e. its channel is a {@link FileChannel}), these are {@link MappedByteBuffer
+ * mapped byte buffers}; otherwise the region is read into heap buffers and written back on
+ * {@link #flush} and {@link #close}. Anonymous maps always use heap buffers.
+ */
 public final class PMMap extends PythonObject {
+    private static final int CHUNK_SHIFT = 30;
+    public static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1;
 
-    private final SeekableByteChannel mappedByteBuffer;
+    private final SeekableByteChannel channel;
     private final long length;
     private final long offset;
+    private final boolean readonly;
+    private final boolean writeBack;
+
+    private ByteBuffer[] buffers;
+    private long pos;
 
-    public PMMap(LazyPythonClass pythonClass, SeekableByteChannel mappedByteBuffer, long length, long offset) {
+    public PMMap(LazyPythonClass pythonClass, SeekableByteChannel channel, ByteBuffer[] buffers, long length, long offset, boolean readonly, boolean writeBack) {
         super(pythonClass);
-        this.mappedByteBuffer = mappedByteBuffer;
+        this.channel = channel;
+        this.buffers = buffers;
         this.length = length;
         this.offset = offset;
+        this.readonly = readonly;
+        this.writeBack = writeBack;
+    }
+
+    /**
+     * Maps {@code length} bytes of the channel starting at {@code offset}.
+     */
+    @TruffleBoundary
+    public static ByteBuffer[] map(SeekableByteChannel channel, MapMode mode, long offset, long length) throws IOException {
+        ByteBuffer[] buffers = new ByteBuffer[getChunkCount(length)];
+        if (channel instanceof FileChannel) {
+            for (int i = 0; i < buffers.length; i++) {
+                long chunkStart = i * CHUNK_SIZE;
+                buffers[i] = ((FileChannel) channel).map(mode, offset + chunkStart, Math.min(CHUNK_SIZE, length - chunkStart));
+            }
+        } else {
+            // the file system does not support mapping, so read the region into memory
+            channel.position(offset);
+            for (int i = 0; i < buffers.length; i++) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(CHUNK_SIZE, length - i * CHUNK_SIZE));
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // read until the buffer is full or EOF is reached
+                }
+                buffer.clear();
+                buffers[i] = buffer;
+            }
+        }
+        return buffers;
     }
 
-    public SeekableByteChannel getChannel() {
-        return mappedByteBuffer;
+    /**
+     * Allocates zero-filled memory for an anonymous map.
+     */
+    @TruffleBoundary
+    public static ByteBuffer[] allocate(long length) {
+        ByteBuffer[] buffers = new ByteBuffer[getChunkCount(length)];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.allocate((int) Math.min(CHUNK_SIZE, length - i * CHUNK_SIZE));
+        }
+        return buffers;
+    }
+
+    private static int getChunkCount(long length) {
+        return (int) ((length + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
     }
 
     public long getLength() {
@@ -69,4 +131,163 @@ public final class PMMap extends PythonObject {
     public long getOffset() {
         return offset;
     }
+
+    /**
+     * Returns the size of the underlying file, or the length of the map if it is anonymous.
+     */
+    @TruffleBoundary
+    public long getFileSize() throws IOException {
+        return channel != null ? channel.size() : length;
+    }
+
+    public long getPosition() {
+        return pos;
+    }
+
+    public void setPosition(long pos) {
+        this.pos = pos;
+    }
+
+    public boolean isReadonly() {
+        return readonly;
+    }
+
+    public boolean isClosed() {
+        return buffers == null;
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    public byte getByte(long idx) {
+        return buffers[(int) (idx >>> CHUNK_SHIFT)].get((int) (idx & CHUNK_MASK));
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    public void putByte(long idx, byte b) {
+        buffers[(int) (idx >>> CHUNK_SHIFT)].put((int) (idx & CHUNK_MASK), b);
+    }
+
+    /**
+     * Copies {@code len} bytes starting at {@code idx} into {@code dst}.
+     */
+    @TruffleBoundary
+    public void getBytes(long idx, byte[] dst, int dstOffset, int len) {
+        long cur = idx;
+        int done = 0;
+        while (done < len) {
+            ByteBuffer chunk = buffers[(int) (cur >>> CHUNK_SHIFT)].duplicate();
+            int chunkPos = (int) (cur & CHUNK_MASK);
+            int n = Math.min(len - done, chunk.limit() - chunkPos);
+            chunk.position(chunkPos);
+            chunk.get(dst, dstOffset + done, n);
+            done += n;
+            cur += n;
+        }
+    }
+
+    /**
+     * Copies {@code len} bytes from {@code src} to the map starting at {@code idx}.
+     */
+    @TruffleBoundary
+    public void putBytes(long idx, byte[] src, int srcOffset, int len) {
+        long cur = idx;
+        int done = 0;
+        while (done < len) {
+            ByteBuffer chunk = buffers[(int) (cur >>> CHUNK_SHIFT)].duplicate();
+            int chunkPos = (int) (cur & CHUNK_MASK);
+            int n = Math.min(len - done, chunk.limit() - chunkPos);
+            chunk.position(chunkPos);
+            chunk.put(src, srcOffset + done, n);
+            done += n;
+            cur += n;
+        }
+    }
+
+    /**
+     * Returns the index of the first occurrence of {@code needle} in {@code [start, end)}, or
+     * {@code -1}.
+     */
+    @TruffleBoundary
+    public long find(byte[] needle, long start, long end) {
+        if (needle.length == 0) {
+            return start <= end ? start : -1;
+        }
+        byte first = needle[0];
+        long last = end - needle.length;
+        outer: for (long i = start; i <= last; i++) {
+            if (getByte(i) != first) {
+                continue;
+            }
+            for (int j = 1; j < needle.length; j++) {
+                if (getByte(i + j) != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Writes modifications in {@code [start, start + size)} back to the underlying file.
+     */
+    @TruffleBoundary
+    public void flush(long start, long size) throws IOException {
+        if (channel == null || readonly) {
+            return;
+        }
+        if (writeBack) {
+            long cur = start;
+            long end = start + size;
+            while (cur < end) {
+                // write a view of the chunk, so that nothing is copied
+                ByteBuffer src = buffers[(int) (cur >>> CHUNK_SHIFT)].duplicate();
+                int chunkPos = (int) (cur & CHUNK_MASK);
+                int n = (int) Math.min(src.limit() - chunkPos, end - cur);
+                src.limit(chunkPos + n);
+                src.position(chunkPos);
+                channel.position(offset + cur);
+                while (src.hasRemaining()) {
+                    channel.write(src);
+                }
+                cur += n;
+            }
+        } else {
+            for (ByteBuffer buffer : buffers) {
+                if (buffer instanceof MappedByteBuffer) {
+                    ((MappedByteBuffer) buffer).force();
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads the mapped region into physical memory. This is a hint and has no effect for maps
+     * that are not backed by a file mapping.
+     */
+    @TruffleBoundary
+    public void load() {
+        for (ByteBuffer buffer : buffers) {
+            if (buffer instanceof MappedByteBuffer) {
+                ((MappedByteBuffer) buffer).load();
+            }
+        }
+    }
+
+    @TruffleBoundary
+    public void close() throws IOException {
+        if (buffers == null) {
+            return;
+        }
+        try {
+            if (writeBack) {
+                flush(0, length);
+            }
+        } finally {
+            // the mapping itself is released when the buffers are garbage collected
+            buffers = null;
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
 }
@@ -68,6 +68,9 @@ import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.function.PBuiltinFunction;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.object.ObjectBuiltinsFactory.GetAttributeNodeFactory;
+import com.oracle.graal.python.builtins.objects.property.PProperty;
+import com.oracle.graal.python.builtins.objects.property.PropertyBuiltins.GetPropertyValueNode;
+import com.oracle.graal.python.builtins.objects.property.PropertyBuiltins.SetPropertyValueNode;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.graal.python.builtins.objects.type.PythonAbstractClass;
 import com.oracle.graal.python.builtins.objects.type.PythonBuiltinClass;
@@ -368,6 +371,7 @@ public class ObjectBuiltins extends PythonBuiltins {
         private final BranchProfile errorProfile = BranchProfile.create();
         private final ConditionProfile typeIsObjectProfile = ConditionProfile.createBinaryProfile();
         private final ConditionProfile getClassProfile = ConditionProfile.createBinaryProfile();
+        private final IsBuiltinClassProfile isPropertyProfile = IsBuiltinClassProfile.create();
 
         @Child private LookupAttributeInMRONode.Dynamic lookup = LookupAttributeInMRONode.Dynamic.create();
         @Child private GetLazyClassNode getObjectClassNode = GetLazyClassNode.create();
@@ -376,6 +380,7 @@ public class ObjectBuiltins extends PythonBuiltins {
         @Child private LookupAttributeInMRONode lookupSetNode;
         @Child private LookupAttributeInMRONode lookupDeleteNode;
         @Child private CallTernaryMethodNode dispatchGet;
+        @Child private GetPropertyValueNode getPropertyValueNode;
         @Child private ReadAttributeFromObjectNode attrRead;
 
         @Specialization
@@ -386,6 +391,10 @@ public class ObjectBuiltins extends PythonBuiltins {
             if (descr != PNone.NO_VALUE) {
                 hasDescProfile.enter();
                 dataDescClass = getDataClass(descr);
+                if (isPropertyProfile.profileClass(dataDescClass, PythonBuiltinClassType.PProperty) && type != object) {
+                    // builtin properties are data descriptors, call the getter right away
+                    return getPropertyValue(frame, (PProperty) descr, object);
+                }
                 Object delete = PNone.NO_VALUE;
                 Object set = lookupSet(dataDescClass);
                 if (set == PNone.NO_VALUE) {
@@ -434,6 +443,14 @@ public class ObjectBuiltins extends PythonBuiltins {
             return attrRead.execute(object, key);
         }
 
+        private Object getPropertyValue(VirtualFrame frame, PProperty property, Object object) {
+            if (getPropertyValueNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getPropertyValueNode = insert(GetPropertyValueNode.create());
+            }
+            return getPropertyValueNode.execute(frame, property, object);
+        }
+
         private Object dispatch(VirtualFrame frame, Object object, Object type, Object descr, Object get) {
             if (dispatchGet == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -498,11 +515,18 @@ public class ObjectBuiltins extends PythonBuiltins {
                         @Cached("create()") GetClassNode getDataClassNode,
                         @Cached("create(__SET__)") LookupAttributeInMRONode lookupSetNode,
                         @Cached("create()") CallTernaryMethodNode callSetNode,
-                        @Cached("create()") WriteAttributeToObjectNode writeNode) {
+                        @Cached("create()") WriteAttributeToObjectNode writeNode,
+                        @Cached("create()") IsBuiltinClassProfile isPropertyProfile,
+                        @Cached("create()") SetPropertyValueNode setPropertyValueNode) {
             LazyPythonClass type = getObjectClassNode.execute(object);
             Object descr = getExisting.execute(type, key);
             if (descr != PNone.NO_VALUE) {
                 PythonAbstractClass dataDescClass = getDataClassNode.execute(descr);
+                if (isPropertyProfile.profileClass(dataDescClass, PythonBuiltinClassType.PProperty)) {
+                    // builtin properties are data descriptors, call the setter right away
+                    setPropertyValueNode.execute(frame, (PProperty) descr, object, value);
+                    return PNone.NONE;
+                }
                 Object set = lookupSetNode.execute(dataDescClass);
                 if (PGuards.isCallable(set)) {
                     callSetNode.execute(frame, set, descr, object, value);
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.property;
+
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.__DOC__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__DELETE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GET__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SET__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.AttributeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode.GetFixedAttributeNode;
+import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
+import com.oracle.graal.python.nodes.attributes.WriteAttributeToObjectNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.CallBinaryMethodNode;
+import com.oracle.graal.python.nodes.call.special.CallUnaryMethodNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetLazyClassNode;
+import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.profiles.BranchProfile;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PProperty)
+public class PropertyBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return PropertyBuiltinsFactory.getFactories();
+    }
+
+    private static Object nullToNone(Object value) {
+        return value == null ? PNone.NONE : value;
+    }
+
+    /**
+     * Calls the getter of a property. {@code object.__getattribute__} uses this directly for
+     * instances of the builtin {@code property} type, so a property read is a call of
+     * {@code fget} without looking up and calling {@code __get__} first.
+     */
+    public static final class GetPropertyValueNode extends PythonBuiltinBaseNode {
+        @Child private CallUnaryMethodNode callNode = CallUnaryMethodNode.create();
+        private final BranchProfile errorProfile = BranchProfile.create();
+
+        public Object execute(VirtualFrame frame, PProperty property, Object instance) {
+            Object fget = property.getFget();
+            if (fget == null) {
+                errorProfile.enter();
+                throw raise(AttributeError, "unreadable attribute");
+            }
+            return callNode.executeObject(frame, fget, instance);
+        }
+
+        public static GetPropertyValueNode create() {
+            return new GetPropertyValueNode();
+        }
+    }
+
+    /** Calls the setter of a property, used like {@link GetPropertyValueNode}. */
+    public static final class SetPropertyValueNode extends PythonBuiltinBaseNode {
+        @Child private CallBinaryMethodNode callNode = CallBinaryMethodNode.create();
+        private final BranchProfile errorProfile = BranchProfile.create();
+
+        public void execute(VirtualFrame frame, PProperty property, Object instance, Object value) {
+            Object fset = property.getFset();
+            if (fset == null) {
+                errorProfile.enter();
+                throw raise(AttributeError, "can't set attribute");
+            }
+            callNode.executeObject(frame, fset, instance, value);
+        }
+
+        public static SetPropertyValueNode create() {
+            return new SetPropertyValueNode();
+        }
+    }
+
+    @Builtin(name = __INIT__, minNumOfPositionalArgs = 1, parameterNames = {"self", "fget", "fset", "fdel", "doc"})
+    @GenerateNodeFactory
+    abstract static class InitNode extends PythonBuiltinNode {
+        private final IsBuiltinClassProfile attributeErrorProfile = IsBuiltinClassProfile.create();
+
+        @Specialization
+        Object init(VirtualFrame frame, PProperty self, Object fget, Object fset, Object fdel, Object doc,
+                        @Cached("create(__DOC__)") GetFixedAttributeNode getDocNode,
+                        @Cached WriteAttributeToObjectNode writeDocNode) {
+            Object getter = noneToNull(fget);
+            Object propertyDoc = PGuards.isNoValue(doc) ? PNone.NONE : doc;
+            boolean docFromGetter = false;
+            if (propertyDoc == PNone.NONE && getter != null) {
+                // if no docstring was given, use the getter's
+                try {
+                    Object getterDoc = getDocNode.executeObject(frame, getter);
+                    if (getterDoc != PNone.NONE) {
+                        propertyDoc = getterDoc;
+                        docFromGetter = true;
+                    }
+                } catch (PException e) {
+                    e.expectAttributeError(attributeErrorProfile);
+                }
+            }
+            self.init(getter, noneToNull(fset), noneToNull(fdel), docFromGetter);
+            writeDocNode.execute(self, __DOC__, propertyDoc);
+            return PNone.NONE;
+        }
+
+        private static Object noneToNull(Object value) {
+            return PGuards.isPNone(value) ? null : value;
+        }
+    }
+
+    @Builtin(name = __GET__, minNumOfPositionalArgs = 2, parameterNames = {"self", "instance", "owner"})
+    @GenerateNodeFactory
+    abstract static class GetNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object get(VirtualFrame frame, PProperty self, Object instance, @SuppressWarnings("unused") Object owner,
+                        @Cached GetPropertyValueNode getValueNode) {
+            if (PGuards.isPNone(instance)) {
+                return self;
+            }
+            return getValueNode.execute(frame, self, instance);
+        }
+    }
+
+    @Builtin(name = __SET__, minNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class SetNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object set(VirtualFrame frame, PProperty self, Object instance, Object value,
+                        @Cached SetPropertyValueNode setValueNode) {
+            setValueNode.execute(frame, self, instance, value);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __DELETE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class DeleteNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object delete(VirtualFrame frame, PProperty self, Object instance,
+                        @Cached CallUnaryMethodNode callNode,
+                        @Cached("create()") BranchProfile errorProfile) {
+            Object fdel = self.getFdel();
+            if (fdel == null) {
+                errorProfile.enter();
+                throw raise(AttributeError, "can't delete attribute");
+            }
+            callNode.executeObject(frame, fdel, instance);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "fget", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class FgetNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object fget(PProperty self) {
+            return nullToNone(self.getFget());
+        }
+    }
+
+    @Builtin(name = "fset", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class FsetNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object fset(PProperty self) {
+            return nullToNone(self.getFset());
+        }
+    }
+
+    @Builtin(name = "fdel", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class FdelNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object fdel(PProperty self) {
+            return nullToNone(self.getFdel());
+        }
+    }
+
+    @Builtin(name = "__isabstractmethod__", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class IsAbstractMethodNode extends PythonUnaryBuiltinNode {
+        @Child private GetFixedAttributeNode getAttributeNode = GetFixedAttributeNode.create("__isabstractmethod__");
+        @Child private CastToBooleanNode castToBooleanNode = CastToBooleanNode.createIfTrueNode();
+        private final IsBuiltinClassProfile attributeErrorProfile = IsBuiltinClassProfile.create();
+
+        @Specialization
+        boolean isAbstract(VirtualFrame frame, PProperty self) {
+            return isAbstract(frame, self.getFget()) || isAbstract(frame, self.getFset()) || isAbstract(frame, self.getFdel());
+        }
+
+        private boolean isAbstract(VirtualFrame frame, Object function) {
+            if (function == null) {
+                return false;
+            }
+            try {
+                return castToBooleanNode.executeBoolean(frame, getAttributeNode.executeObject(frame, function));
+            } catch (PException e) {
+                e.expectAttributeError(attributeErrorProfile);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Base class of {@code getter}, {@code setter} and {@code deleter}, which return a copy of the
+     * property with one accessor replaced. Like in CPython, the copy is created by calling the
+     * type of the property, so that subclasses get an instance of their own type.
+     */
+    abstract static class CopyNode extends PythonBinaryBuiltinNode {
+        @Child private GetLazyClassNode getClassNode = GetLazyClassNode.create();
+        @Child private ReadAttributeFromObjectNode readDocNode = ReadAttributeFromObjectNode.create();
+        @Child private CallNode callNode = CallNode.create();
+
+        protected Object copy(VirtualFrame frame, PProperty self, Object fget, Object fset, Object fdel) {
+            Object doc;
+            if (self.isGetterDoc() && !PGuards.isPNone(fget)) {
+                // let the copy take the docstring from its getter
+                doc = PNone.NONE;
+            } else {
+                doc = readDocNode.execute(self, __DOC__);
+                if (doc == PNone.NO_VALUE) {
+                    doc = PNone.NONE;
+                }
+            }
+            Object[] args = new Object[]{nullToNone(fget), nullToNone(fset), nullToNone(fdel), doc};
+            return callNode.execute(frame, getClassNode.execute(self), args, PKeyword.EMPTY_KEYWORDS);
+        }
+    }
+
+    @Builtin(name = "getter", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GetterNode extends CopyNode {
+        @Specialization
+        Object getter(VirtualFrame frame, PProperty self, Object function) {
+            return copy(frame, self, function, self.getFset(), self.getFdel());
+        }
+    }
+
+    @Builtin(name = "setter", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class SetterNode extends CopyNode {
+        @Specialization
+        Object setter(VirtualFrame frame, PProperty self, Object function) {
+            return copy(frame, self, self.getFget(), function, self.getFdel());
+        }
+    }
+
+    @Builtin(name = "deleter", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class DeleterNode extends CopyNode {
+        @Specialization
+        Object deleter(VirtualFrame frame, PProperty self, Object function) {
+            return copy(frame, self, self.getFget(), self.getFset(), function);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.queue;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.QueueEmpty;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToDoubleNode;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PSimpleQueue)
+public class SimpleQueueBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return SimpleQueueBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * A blocked {@code get} wakes up at least this often to run pending asynchronous actions like
+     * signal handlers.
+     */
+    private static final long ASYNC_ACTION_INTERVAL_NANOS = 50_000_000L;
+
+    @Builtin(name = "put", minNumOfPositionalArgs = 2, parameterNames = {"self", "item", "block", "timeout"})
+    @GenerateNodeFactory
+    abstract static class PutNode extends PythonBuiltinNode {
+        @Specialization
+        @SuppressWarnings("unused")
+        Object put(PSimpleQueue self, Object item, Object block, Object timeout) {
+            // the queue is unbounded, so 'block' and 'timeout' do not matter
+            self.put(item);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "put_nowait", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class PutNoWaitNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object put(PSimpleQueue self, Object item) {
+            self.put(item);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "get", minNumOfPositionalArgs = 1, parameterNames = {"self", "block", "timeout"})
+    @GenerateNodeFactory
+    abstract static class GetNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object get(VirtualFrame frame, PSimpleQueue self, Object block, Object timeout,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castToBooleanNode,
+                        @Cached CastToDoubleNode castToDoubleNode,
+                        @Cached("createBinaryProfile()") ConditionProfile availableProfile) {
+            Object item = self.poll();
+            if (availableProfile.profile(item != null)) {
+                return item;
+            }
+            boolean isBlocking = PGuards.isPNone(block) || castToBooleanNode.executeBoolean(frame, block);
+            if (!isBlocking) {
+                throw raise(QueueEmpty);
+            }
+            long timeoutNanos = -1;
+            if (!PGuards.isPNone(timeout)) {
+                double seconds = castToDoubleNode.execute(frame, timeout);
+                if (seconds < 0) {
+                    throw raise(ValueError, "'timeout' must be a non-negative number");
+                }
+                timeoutNanos = (long) (seconds * 1e9);
+            }
+            item = waitForItem(getContext(), self, timeoutNanos);
+            if (item == null) {
+                throw raise(QueueEmpty);
+            }
+            return item;
+        }
+
+        /**
+         * Waits for an item in slices, running the context's asynchronous actions in between.
+         *
+         * @return the item or {@code null} if the timeout elapsed or the thread was interrupted
+         */
+        @TruffleBoundary
+        private static Object waitForItem(PythonContext context, PSimpleQueue self, long timeoutNanos) {
+            long deadline = System.nanoTime() + timeoutNanos;
+            while (true) {
+                long wait = ASYNC_ACTION_INTERVAL_NANOS;
+                if (timeoutNanos >= 0) {
+                    wait = Math.min(wait, deadline - System.nanoTime());
+                    if (wait <= 0) {
+                        return self.poll();
+                    }
+                }
+                int held = context.getGil().releaseForBlocking();
+                try {
+                    Object item = self.poll(wait);
+                    if (item != null) {
+                        return item;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                } finally {
+                    context.getGil().reacquire(held);
+                }
+                context.triggerAsyncActions();
+            }
+        }
+    }
+
+    @Builtin(name = "get_nowait", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class GetNoWaitNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object get(PSimpleQueue self) {
+            Object item = self.poll();
+            if (item == null) {
+                throw raise(QueueEmpty);
+            }
+            return item;
+        }
+    }
+
+    @Builtin(name = "empty", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class EmptyNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean empty(PSimpleQueue self) {
+            return self.isEmpty();
+        }
+    }
+
+    @Builtin(name = "qsize", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class QsizeNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int qsize(PSimpleQueue self) {
+            return self.size();
+        }
+    }
+}
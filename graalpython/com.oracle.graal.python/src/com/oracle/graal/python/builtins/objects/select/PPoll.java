@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.select;
+
+import java.io.IOException;
+import java.nio.channels.Channel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.runtime.GlobalInterpreterLock;
+import com.oracle.graal.python.runtime.PosixResources;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A set of file descriptors and the events they are polled for, backed by a {@link Selector}.
+ * Non-blocking channels (e.g. sockets) stay registered with the selector between calls to
+ * {@link #poll}. Blocking channels (e.g. pipes) are only switched to non-blocking mode and
+ * registered for the duration of a call, so that reading and writing them keeps blocking. Channels
+ * that are not selectable (e.g. regular files) are always ready.
+ */
+public final class PPoll extends PythonBuiltinObject {
+    public static final int POLLIN = 0x001;
+    public static final int POLLPRI = 0x002;
+    public static final int POLLOUT = 0x004;
+    public static final int POLLERR = 0x008;
+    public static final int POLLHUP = 0x010;
+    public static final int POLLNVAL = 0x020;
+    public static final int POLLRDNORM = 0x040;
+    public static final int POLLRDBAND = 0x080;
+    public static final int POLLWRNORM = 0x100;
+    public static final int POLLWRBAND = 0x200;
+
+    private static final int READ_EVENTS = POLLIN | POLLPRI | POLLRDNORM | POLLRDBAND;
+    private static final int WRITE_EVENTS = POLLOUT | POLLWRNORM | POLLWRBAND;
+
+    private final Map<Integer, Integer> fds = new LinkedHashMap<>();
+    private Selector selector;
+
+    public PPoll(LazyPythonClass cls) {
+        super(cls);
+    }
+
+    @TruffleBoundary
+    public void register(int fd, int events) {
+        fds.put(fd, events);
+    }
+
+    /**
+     * Changes the events of a registered file descriptor. Returns {@code false} if it is not
+     * registered.
+     */
+    @TruffleBoundary
+    public boolean modify(int fd, int events) {
+        if (!fds.containsKey(fd)) {
+            return false;
+        }
+        fds.put(fd, events);
+        return true;
+    }
+
+    /**
+     * Removes a file descriptor. Returns {@code false} if it is not registered.
+     */
+    @TruffleBoundary
+    public boolean unregister(int fd) throws IOException {
+        if (fds.remove(fd) == null) {
+            return false;
+        }
+        if (selector != null) {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Integer && (Integer) key.attachment() == fd) {
+                    key.cancel();
+                }
+            }
+            // flush the cancelled keys so that the channel may be registered again
+            selector.selectNow();
+            selector.selectedKeys().clear();
+        }
+        return true;
+    }
+
+    /**
+     * Waits until at least one of the registered file descriptors is ready or the timeout (in
+     * milliseconds, negative for infinite) expires. Returns pairs of file descriptor and ready
+     * events. The GIL is released while waiting.
+     */
+    @TruffleBoundary
+    public List<int[]> poll(GlobalInterpreterLock gil, PosixResources resources, long timeoutMillis) throws IOException {
+        if (selector == null) {
+            selector = Selector.open();
+        }
+        return poll(gil, selector, resources, fds, timeoutMillis);
+    }
+
+    /**
+     * Like {@link #poll(GlobalInterpreterLock, PosixResources, long)}, but for a one-off set of
+     * file descriptors. This is used by {@code select.select}.
+     */
+    @TruffleBoundary
+    public static List<int[]> pollOnce(GlobalInterpreterLock gil, PosixResources resources, Map<Integer, Integer> fds, long timeoutMillis) throws IOException {
+        try (Selector selector = Selector.open()) {
+            return poll(gil, selector, resources, fds, timeoutMillis);
+        }
+    }
+
+    private static List<int[]> poll(GlobalInterpreterLock gil, Selector selector, PosixResources resources, Map<Integer, Integer> fds, long timeoutMillis) throws IOException {
+        List<int[]> result = new ArrayList<>();
+        List<SelectableChannel> madeNonBlocking = new ArrayList<>();
+        try {
+            for (Map.Entry<Integer, Integer> entry : fds.entrySet()) {
+                int fd = entry.getKey();
+                int events = entry.getValue();
+                Channel channel = resources.getFileChannel(fd);
+                if (channel == null || !channel.isOpen()) {
+                    result.add(new int[]{fd, POLLNVAL});
+                } else if (!(channel instanceof SelectableChannel)) {
+                    int revents = 0;
+                    if (channel instanceof ReadableByteChannel) {
+                        revents |= events & READ_EVENTS;
+                    }
+                    if (channel instanceof WritableByteChannel) {
+                        revents |= events & WRITE_EVENTS;
+                    }
+                    if (revents != 0) {
+                        result.add(new int[]{fd, revents});
+                    }
+                } else {
+                    SelectableChannel selectable = (SelectableChannel) channel;
+                    if (selectable.isBlocking()) {
+                        selectable.configureBlocking(false);
+                        madeNonBlocking.add(selectable);
+                    }
+                    SelectionKey key = selectable.keyFor(selector);
+                    if (key != null && !key.isValid()) {
+                        selector.selectNow();
+                        key = null;
+                    }
+                    int ops = toOps(selectable, events);
+                    if (key == null) {
+                        selectable.register(selector, ops, fd);
+                    } else {
+                        key.interestOps(ops);
+                        key.attach(fd);
+                    }
+                }
+            }
+            selector.selectedKeys().clear();
+            if (!result.isEmpty() || timeoutMillis == 0) {
+                selector.selectNow();
+            } else {
+                int held = gil.releaseForBlocking();
+                try {
+                    if (timeoutMillis < 0) {
+                        while (selector.select() == 0) {
+                            // woken up without any channel being ready
+                        }
+                    } else {
+                        selector.select(timeoutMillis);
+                    }
+                } finally {
+                    gil.reacquire(held);
+                }
+            }
+            for (SelectionKey key : selector.selectedKeys()) {
+                int fd = (Integer) key.attachment();
+                int revents = fromOps(key.readyOps()) & fds.getOrDefault(fd, 0);
+                if (revents != 0) {
+                    result.add(new int[]{fd, revents});
+                }
+            }
+            selector.selectedKeys().clear();
+        } finally {
+            if (!madeNonBlocking.isEmpty()) {
+                for (SelectableChannel channel : madeNonBlocking) {
+                    SelectionKey key = channel.keyFor(selector);
+                    if (key != null) {
+                        key.cancel();
+                    }
+                }
+                selector.selectNow();
+                selector.selectedKeys().clear();
+                for (SelectableChannel channel : madeNonBlocking) {
+                    channel.configureBlocking(true);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int toOps(SelectableChannel channel, int events) {
+        int ops = 0;
+        if ((events & READ_EVENTS) != 0) {
+            ops |= channel instanceof ServerSocketChannel ? SelectionKey.OP_ACCEPT : SelectionKey.OP_READ;
+        }
+        if ((events & WRITE_EVENTS) != 0) {
+            boolean connecting = channel instanceof SocketChannel && ((SocketChannel) channel).isConnectionPending();
+            ops |= connecting ? SelectionKey.OP_CONNECT : SelectionKey.OP_WRITE;
+        }
+        return ops & channel.validOps();
+    }
+
+    private static int fromOps(int ops) {
+        int events = 0;
+        if ((ops & (SelectionKey.OP_READ | SelectionKey.OP_ACCEPT)) != 0) {
+            events |= READ_EVENTS;
+        }
+        if ((ops & (SelectionKey.OP_WRITE | SelectionKey.OP_CONNECT)) != 0) {
+            events |= WRITE_EVENTS;
+        }
+        return events;
+    }
+
+    @TruffleBoundary
+    public void close() throws IOException {
+        if (selector != null) {
+            selector.close();
+            selector = null;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.select;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.modules.SelectModuleBuiltins.FilenoNode;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToDoubleNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PPoll)
+public class PollBuiltins extends PythonBuiltins {
+
+    private static final int DEFAULT_EVENTS = PPoll.POLLIN | PPoll.POLLPRI | PPoll.POLLOUT;
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return PollBuiltinsFactory.getFactories();
+    }
+
+    // register(fd[, eventmask])
+    @Builtin(name = "register", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class RegisterNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object register(VirtualFrame frame, PPoll self, Object fdObj, Object eventsObj,
+                        @Cached("create()") FilenoNode filenoNode,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            int fd = filenoNode.execute(frame, fdObj);
+            int events = PGuards.isNoValue(eventsObj) ? DEFAULT_EVENTS : castToIndexNode.execute(eventsObj);
+            self.register(fd, events);
+            return PNone.NONE;
+        }
+    }
+
+    // modify(fd, eventmask)
+    @Builtin(name = "modify", minNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class ModifyNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object modify(VirtualFrame frame, PPoll self, Object fdObj, Object eventsObj,
+                        @Cached("create()") FilenoNode filenoNode,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            int fd = filenoNode.execute(frame, fdObj);
+            if (!self.modify(fd, castToIndexNode.execute(eventsObj))) {
+                throw raiseOSError(frame, OSErrorEnum.ENOENT);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    // unregister(fd)
+    @Builtin(name = "unregister", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class UnregisterNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object unregister(VirtualFrame frame, PPoll self, Object fdObj,
+                        @Cached("create()") FilenoNode filenoNode) {
+            int fd = filenoNode.execute(frame, fdObj);
+            boolean removed;
+            try {
+                removed = self.unregister(fd);
+            } catch (IOException e) {
+                throw raise(PythonBuiltinClassType.OSError, e);
+            }
+            if (!removed) {
+                throw raise(PythonBuiltinClassType.KeyError, "%d", fd);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    // poll([timeout])
+    @Builtin(name = "poll", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class PollNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object poll(VirtualFrame frame, PPoll self, Object timeoutObj,
+                        @Cached("create()") CastToDoubleNode castToDoubleNode) {
+            // the timeout is given in milliseconds, None or a negative value wait forever
+            long timeoutMillis = -1;
+            if (!PGuards.isPNone(timeoutObj)) {
+                double millis = castToDoubleNode.execute(frame, timeoutObj);
+                timeoutMillis = millis < 0 ? -1 : (long) Math.ceil(millis);
+            }
+            List<int[]> ready;
+            try {
+                ready = self.poll(getContext().getGil(), getContext().getResources(), timeoutMillis);
+            } catch (IOException e) {
+                throw raise(PythonBuiltinClassType.OSError, e);
+            }
+            return factory().createList(toTuples(ready));
+        }
+
+        @TruffleBoundary
+        private Object[] toTuples(List<int[]> ready) {
+            Object[] result = new Object[ready.size()];
+            for (int i = 0; i < result.length; i++) {
+                int[] fdAndEvents = ready.get(i);
+                result[i] = factory().createTuple(new Object[]{fdAndEvents[0], fdAndEvents[1]});
+            }
+            return result;
+        }
+    }
+}
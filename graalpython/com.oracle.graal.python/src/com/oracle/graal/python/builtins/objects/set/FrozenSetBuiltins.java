@@ -30,6 +30,7 @@ import static com.oracle.graal.python.nodes.SpecialMethodNames.__CONTAINS__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__GE__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__GT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__HASH__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__LEN__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__LE__;
@@ -45,6 +46,7 @@ import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.modules.BuiltinFunctions;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.PNotImplemented;
 import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
@@ -54,6 +56,7 @@ import com.oracle.graal.python.builtins.objects.common.HashingStorage.Equivalenc
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.PythonEquivalence;
 import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
+import com.oracle.graal.python.builtins.objects.common.WriteLockNode;
 import com.oracle.graal.python.builtins.objects.dict.PDictView;
 import com.oracle.graal.python.builtins.objects.set.FrozenSetBuiltinsFactory.BinaryUnionNodeGen;
 import com.oracle.graal.python.builtins.objects.str.PString;
@@ -62,6 +65,7 @@ import com.oracle.graal.python.nodes.PNodeWithContext;
 import com.oracle.graal.python.nodes.PNodeWithGlobalState;
 import com.oracle.graal.python.nodes.PNodeWithGlobalState.DefaultContextManager;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
 import com.oracle.graal.python.nodes.control.GetNextNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
@@ -70,6 +74,7 @@ import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.nodes.object.GetLazyClassNode;
 import com.oracle.graal.python.nodes.object.IsBuiltinClassProfile;
+import com.oracle.graal.python.nodes.util.CastToJavaLongNode;
 import com.oracle.graal.python.nodes.util.ExceptionStateNodes.PassCaughtExceptionNode;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.exception.PException;
@@ -109,8 +114,14 @@ public final class FrozenSetBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class LenNode extends PythonUnaryBuiltinNode {
         @Specialization
-        public int len(PBaseSet self) {
-            return self.size();
+        public int len(PBaseSet self,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(self);
+            try {
+                return self.size();
+            } finally {
+                writeLockNode.unlock(self, locked);
+            }
         }
     }
 
@@ -351,8 +362,14 @@ public final class FrozenSetBuiltins extends PythonBuiltins {
     abstract static class ContainsNode extends PythonBinaryBuiltinNode {
         @Specialization
         boolean contains(VirtualFrame frame, PBaseSet self, Object key,
-                        @Cached("create()") HashingStorageNodes.ContainsKeyNode containsKeyNode) {
-            return containsKeyNode.execute(frame, self.getDictStorage(), key);
+                        @Cached("create()") HashingStorageNodes.ContainsKeyNode containsKeyNode,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(self);
+            try {
+                return containsKeyNode.execute(frame, self.getDictStorage(), key);
+            } finally {
+                writeLockNode.unlock(self, locked);
+            }
         }
     }
 
@@ -409,6 +426,114 @@ public final class FrozenSetBuiltins extends PythonBuiltins {
         }
     }
 
+    abstract static class SetAlgebraNode extends PythonBuiltinNode {
+        @Child private SetNodes.ConstructSetNode constructSetNode;
+
+        private final ConditionProfile isSetProfile = ConditionProfile.createBinaryProfile();
+        @CompilationFinal private ValueProfile setTypeProfile;
+
+        protected HashingStorage getStorage(VirtualFrame frame, Object other) {
+            if (isSetProfile.profile(other instanceof PBaseSet)) {
+                return ((PBaseSet) other).getDictStorage();
+            }
+            if (constructSetNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                constructSetNode = insert(SetNodes.ConstructSetNode.create());
+            }
+            return constructSetNode.executeWith(frame, other).getDictStorage();
+        }
+
+        protected PBaseSet create(PBaseSet left, HashingStorage storage) {
+            if (setTypeProfile == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                setTypeProfile = ValueProfile.createClassProfile();
+            }
+            if (setTypeProfile.profile(left) instanceof PFrozenSet) {
+                return factory().createFrozenSet(storage);
+            }
+            return factory().createSet(storage);
+        }
+    }
+
+    @Builtin(name = "difference", minNumOfPositionalArgs = 1, takesVarArgs = true)
+    @GenerateNodeFactory
+    abstract static class DifferenceNode extends SetAlgebraNode {
+
+        @Specialization(guards = "args.length == 0")
+        PBaseSet doCopy(VirtualFrame frame, PBaseSet self, @SuppressWarnings("unused") Object[] args,
+                        @Cached("create()") HashingStorageNodes.CopyNode copyNode) {
+            return create(self, copyNode.execute(frame, self.getDictStorage()));
+        }
+
+        @Specialization(guards = "args.length != 0")
+        PBaseSet doDifference(VirtualFrame frame, PBaseSet self, Object[] args,
+                        @Cached("create()") HashingStorageNodes.DiffNode diffNode) {
+            HashingStorage storage = self.getDictStorage();
+            for (int i = 0; i < args.length; i++) {
+                storage = diffNode.execute(frame, storage, getStorage(frame, args[i]));
+            }
+            return create(self, storage);
+        }
+    }
+
+    @Builtin(name = "intersection", minNumOfPositionalArgs = 1, takesVarArgs = true)
+    @GenerateNodeFactory
+    abstract static class IntersectionNode extends SetAlgebraNode {
+
+        @Specialization(guards = "args.length == 0")
+        PBaseSet doCopy(VirtualFrame frame, PBaseSet self, @SuppressWarnings("unused") Object[] args,
+                        @Cached("create()") HashingStorageNodes.CopyNode copyNode) {
+            return create(self, copyNode.execute(frame, self.getDictStorage()));
+        }
+
+        @Specialization(guards = "args.length != 0")
+        PBaseSet doIntersection(VirtualFrame frame, PBaseSet self, Object[] args,
+                        @Cached("create()") HashingStorageNodes.IntersectNode intersectNode) {
+            HashingStorage storage = self.getDictStorage();
+            for (int i = 0; i < args.length; i++) {
+                storage = intersectNode.execute(frame, storage, getStorage(frame, args[i]));
+            }
+            return create(self, storage);
+        }
+    }
+
+    @Builtin(name = __HASH__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class HashNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        long frozenSetHash(VirtualFrame frame, PFrozenSet self,
+                        @Cached("create(__HASH__)") LookupAndCallUnaryNode lookupHashAttributeNode,
+                        @Cached("create()") BuiltinFunctions.IsInstanceNode isInstanceNode,
+                        @Cached("createLossy()") CastToJavaLongNode castToLongNode) {
+            // adapted from https://github.com/python/cpython/blob/v3.7.0/Objects/setobject.c#L767
+            HashingStorage storage = self.getDictStorage();
+            long hash = 0;
+            for (Object key : storage.keys()) {
+                Object hashValue = lookupHashAttributeNode.executeObject(frame, key);
+                if (!isInstanceNode.executeWith(frame, hashValue, getBuiltinPythonClass(PythonBuiltinClassType.PInt))) {
+                    throw raise(PythonErrorType.TypeError, "__hash__ method should return an integer");
+                }
+                hash ^= shuffleBits(castToLongNode.execute(hashValue));
+            }
+            hash ^= (storage.length() + 1L) * 1927868237L;
+            hash ^= (hash >>> 11) ^ (hash >>> 25);
+            hash = hash * 69069L + 907133923L;
+            if (hash == -1) {
+                hash = 590923713L;
+            }
+            return hash;
+        }
+
+        @Fallback
+        Object doGeneric(Object self) {
+            throw raise(PythonErrorType.TypeError, "unhashable type: '%p'", self);
+        }
+
+        private static long shuffleBits(long h) {
+            return ((h ^ 89869747L) ^ (h << 16)) * 3644798167L;
+        }
+    }
+
     abstract static class BinaryUnionNode extends PNodeWithContext {
         @Child private Equivalence equivalenceNode;
 
@@ -428,6 +553,7 @@ public final class FrozenSetBuiltins extends PythonBuiltins {
                         @CachedContext(PythonLanguage.class) ContextReference<PythonContext> contextRef,
                         @Cached PassCaughtExceptionNode passExceptionNode) {
             try (DefaultContextManager ctxManager = PNodeWithGlobalState.transferToContext(contextRef, passExceptionNode.execute(frame))) {
+                selfStorage.ensureCapacity(other.getDictStorage().length(), getEquivalence());
                 for (Object key : other.getDictStorage().keys()) {
                     selfStorage.setItem(key, PNone.NO_VALUE, getEquivalence());
                 }
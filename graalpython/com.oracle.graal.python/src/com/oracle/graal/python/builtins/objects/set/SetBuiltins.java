@@ -25,9 +25,7 @@
  */
 package com.oracle.graal.python.builtins.objects.set;
 
-import static com.oracle.graal.python.nodes.SpecialMethodNames.__HASH__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__OR__;
-import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
 
 import java.util.Iterator;
 import java.util.List;
@@ -38,9 +36,13 @@ import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.common.HashingCollectionNodes;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes;
+import com.oracle.graal.python.builtins.objects.common.WriteLockNode;
+import com.oracle.graal.python.builtins.objects.set.FrozenSetBuiltins.BinaryUnionNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
@@ -49,6 +51,7 @@ import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.ValueProfile;
 
 @CoreFunctions(extendClasses = PythonBuiltinClassType.PSet)
@@ -65,8 +68,14 @@ public final class SetBuiltins extends PythonBuiltins {
 
         @Specialization
         public Object clear(PSet self,
-                        @Cached("createClassProfile()") ValueProfile storageProfile) {
-            storageProfile.profile(self.getDictStorage()).clear();
+                        @Cached("createClassProfile()") ValueProfile storageProfile,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(self);
+            try {
+                storageProfile.profile(self.getDictStorage()).clear();
+            } finally {
+                writeLockNode.unlock(self, locked);
+            }
             return PNone.NONE;
         }
     }
@@ -77,18 +86,78 @@ public final class SetBuiltins extends PythonBuiltins {
 
         @Specialization
         public Object add(VirtualFrame frame, PSet self, Object o,
-                        @Cached("create()") HashingCollectionNodes.SetItemNode setItemNode) {
-            setItemNode.execute(frame, self, o, PNone.NO_VALUE);
+                        @Cached("create()") HashingCollectionNodes.SetItemNode setItemNode,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(self);
+            try {
+                setItemNode.execute(frame, self, o, PNone.NO_VALUE);
+            } finally {
+                writeLockNode.unlock(self, locked);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "update", minNumOfPositionalArgs = 1, takesVarArgs = true)
+    @GenerateNodeFactory
+    public abstract static class UpdateNode extends PythonBuiltinNode {
+
+        @Specialization
+        Object update(VirtualFrame frame, PSet self, Object[] args,
+                        @Cached("createBinaryProfile()") ConditionProfile isSetProfile,
+                        @Cached("create()") HashingStorageNodes.UpdateNode updateNode,
+                        @Cached("create()") BinaryUnionNode binaryUnionNode,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(self);
+            try {
+                for (int i = 0; i < args.length; i++) {
+                    Object other = args[i];
+                    if (isSetProfile.profile(other instanceof PBaseSet)) {
+                        self.setDictStorage(updateNode.execute(frame, self.getDictStorage(), ((PBaseSet) other).getDictStorage()));
+                    } else {
+                        binaryUnionNode.execute(frame, self, self.getDictStorage(), other);
+                    }
+                }
+            } finally {
+                writeLockNode.unlock(self, locked);
+            }
             return PNone.NONE;
         }
     }
 
-    @Builtin(name = __HASH__, minNumOfPositionalArgs = 1)
+    @Builtin(name = "difference_update", minNumOfPositionalArgs = 1, takesVarArgs = true)
     @GenerateNodeFactory
-    public abstract static class HashNode extends PythonUnaryBuiltinNode {
+    public abstract static class DifferenceUpdateNode extends PythonBuiltinNode {
+
         @Specialization
-        Object doGeneric(Object self) {
-            throw raise(TypeError, "unhashable type: '%p'", self);
+        Object differenceUpdate(VirtualFrame frame, PSet self, Object[] args,
+                        @Cached("createBinaryProfile()") ConditionProfile isSelfProfile,
+                        @Cached("createBinaryProfile()") ConditionProfile isSetProfile,
+                        @Cached("create()") SetNodes.ConstructSetNode constructSetNode,
+                        @Cached("create()") HashingStorageNodes.DelItemNode delItemNode,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(self);
+            try {
+                for (int i = 0; i < args.length; i++) {
+                    Object other = args[i];
+                    if (isSelfProfile.profile(other == self)) {
+                        self.getDictStorage().clear();
+                        continue;
+                    }
+                    HashingStorage otherStorage;
+                    if (isSetProfile.profile(other instanceof PBaseSet)) {
+                        otherStorage = ((PBaseSet) other).getDictStorage();
+                    } else {
+                        otherStorage = constructSetNode.executeWith(frame, other).getDictStorage();
+                    }
+                    for (Object key : otherStorage.keys()) {
+                        delItemNode.execute(frame, self, self.getDictStorage(), key);
+                    }
+                }
+            } finally {
+                writeLockNode.unlock(self, locked);
+            }
+            return PNone.NONE;
         }
     }
 
@@ -113,9 +182,16 @@ public final class SetBuiltins extends PythonBuiltins {
     abstract static class RemoveNode extends PythonBinaryBuiltinNode {
         @Specialization
         Object remove(VirtualFrame frame, PBaseSet self, Object other,
-                        @Cached("create()") HashingStorageNodes.DelItemNode delItemNode) {
-
-            if (!delItemNode.execute(frame, self, self.getDictStorage(), other)) {
+                        @Cached("create()") HashingStorageNodes.DelItemNode delItemNode,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean removed;
+            boolean locked = writeLockNode.lock(self);
+            try {
+                removed = delItemNode.execute(frame, self, self.getDictStorage(), other);
+            } finally {
+                writeLockNode.unlock(self, locked);
+            }
+            if (!removed) {
                 throw raise(PythonErrorType.KeyError, "%s", other);
             }
             return PNone.NONE;
@@ -127,9 +203,14 @@ public final class SetBuiltins extends PythonBuiltins {
     abstract static class DiscardNode extends PythonBinaryBuiltinNode {
         @Specialization
         Object discard(VirtualFrame frame, PBaseSet self, Object other,
-                        @Cached("create()") HashingStorageNodes.DelItemNode delItemNode) {
-
-            delItemNode.execute(frame, self, self.getDictStorage(), other);
+                        @Cached("create()") HashingStorageNodes.DelItemNode delItemNode,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(self);
+            try {
+                delItemNode.execute(frame, self, self.getDictStorage(), other);
+            } finally {
+                writeLockNode.unlock(self, locked);
+            }
             return PNone.NONE;
         }
     }
@@ -139,13 +220,18 @@ public final class SetBuiltins extends PythonBuiltins {
     abstract static class PopNode extends PythonUnaryBuiltinNode {
         @Specialization
         Object remove(VirtualFrame frame, PBaseSet self,
-                        @Cached("create()") HashingStorageNodes.DelItemNode delItemNode) {
-
-            Iterator<Object> iterator = self.getDictStorage().keys().iterator();
-            if (iterator.hasNext()) {
-                Object next = iterator.next();
-                delItemNode.execute(frame, self, self.getDictStorage(), next);
-                return next;
+                        @Cached("create()") HashingStorageNodes.DelItemNode delItemNode,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(self);
+            try {
+                Iterator<Object> iterator = self.getDictStorage().keys().iterator();
+                if (iterator.hasNext()) {
+                    Object next = iterator.next();
+                    delItemNode.execute(frame, self, self.getDictStorage(), next);
+                    return next;
+                }
+            } finally {
+                writeLockNode.unlock(self, locked);
             }
             throw raise(PythonErrorType.KeyError, "pop from an emtpy set");
         }
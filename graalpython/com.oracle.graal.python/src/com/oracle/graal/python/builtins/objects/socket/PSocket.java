@@ -40,11 +40,39 @@
  */
 package com.oracle.graal.python.builtins.objects.socket;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.nio.channels.AlreadyBoundException;
+import java.nio.channels.AlreadyConnectedException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.NetworkChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.graal.python.runtime.GlobalInterpreterLock;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
+/**
+ * A socket backed by a {@link SelectableChannel}. Stream sockets only know whether they are a
+ * client ({@link SocketChannel}) or a server ({@link ServerSocketChannel}) once they connect or
+ * listen, so their channel is created lazily. Datagram sockets always use a
+ * {@link DatagramChannel}.
+ *
+ * A negative timeout means blocking mode, a timeout of zero means non-blocking mode. The channel
+ * itself is always in non-blocking mode, so that it can be registered with selectors (e.g. by the
+ * {@code select} module) at any time. Blocking operations are emulated by retrying after
+ * {@link #waitFor waiting} for readiness with a {@link Selector}.
+ */
 public class PSocket extends PythonBuiltinObject {
     public static final int AF_UNSPEC = 0;
     public static final int AF_INET = 2;
@@ -53,15 +81,36 @@ public class PSocket extends PythonBuiltinObject {
     public static final int SOCK_DGRAM = 1;
     public static final int SOCK_STREAM = 2;
 
+    public static final int SOL_SOCKET = 1;
+    public static final int SO_REUSEADDR = 2;
+    public static final int SO_TYPE = 3;
+    public static final int SO_ERROR = 4;
+    public static final int SO_BROADCAST = 6;
+    public static final int SO_SNDBUF = 7;
+    public static final int SO_RCVBUF = 8;
+    public static final int SO_KEEPALIVE = 9;
+
+    public static final int IPPROTO_TCP = 6;
+    public static final int IPPROTO_UDP = 17;
+    public static final int TCP_NODELAY = 1;
+
+    public static final int SHUT_RD = 0;
+    public static final int SHUT_WR = 1;
+    public static final int SHUT_RDWR = 2;
+
     private static final InetSocketAddress EPHEMERAL_ADDRESS = new InetSocketAddress(0);
 
     private final int family;
     private final int type;
     private final int proto;
 
-    private double timeout;
-
-    private InetSocketAddress address = EPHEMERAL_ADDRESS;
+    private int fileno = -1;
+    private double timeout = -1.0;
+    private SelectableChannel channel;
+    private Selector selector;
+    private boolean closed;
+    /** Options set before the channel was created. */
+    private Map<SocketOption<?>, Object> options;
 
     public PSocket(LazyPythonClass cls, int family, int type, int proto) {
         super(cls);
@@ -82,16 +131,81 @@ public class PSocket extends PythonBuiltinObject {
         return proto;
     }
 
+    public int getFileno() {
+        return fileno;
+    }
+
+    public void setFileno(int fileno) {
+        this.fileno = fileno;
+    }
+
     public double getTimeout() {
         return timeout;
     }
 
-    public void setTimeout(double timeout) {
-        this.timeout = timeout;
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public SelectableChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Sets the channel and configures its blocking mode according to the current timeout.
+     */
+    @TruffleBoundary
+    public void setChannel(SelectableChannel channel) throws IOException {
+        if (this.channel != null && this.channel != channel) {
+            closeSelector();
+            this.channel.close();
+        }
+        this.channel = channel;
+        if (channel != null) {
+            channel.configureBlocking(false);
+            if (options != null && channel instanceof NetworkChannel) {
+                applyOptions((NetworkChannel) channel);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void applyOptions(NetworkChannel networkChannel) throws IOException {
+        Set<SocketOption<?>> supported = networkChannel.supportedOptions();
+        for (Map.Entry<SocketOption<?>, Object> entry : options.entrySet()) {
+            if (supported.contains(entry.getKey())) {
+                networkChannel.setOption((SocketOption<Object>) entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Sets a socket option. Options are remembered so that they can be applied to channels that
+     * are created later, e.g. when a stream socket starts listening or connecting.
+     */
+    @TruffleBoundary
+    public <T> void setOption(SocketOption<T> option, T value) throws IOException {
+        if (options == null) {
+            options = new HashMap<>();
+        }
+        options.put(option, value);
+        if (channel instanceof NetworkChannel && ((NetworkChannel) channel).supportedOptions().contains(option)) {
+            ((NetworkChannel) channel).setOption(option, value);
+        }
+    }
+
+    @TruffleBoundary
+    public Object getOption(SocketOption<?> option) throws IOException {
+        if (channel instanceof NetworkChannel && ((NetworkChannel) channel).supportedOptions().contains(option)) {
+            return ((NetworkChannel) channel).getOption(option);
+        } else if (options != null) {
+            return options.get(option);
+        }
+        return null;
     }
 
-    public InetSocketAddress getAddress() {
-        return address;
+    public void setTimeout(double timeout) {
+        this.timeout = timeout;
     }
 
     public void setBlocking(boolean blocking) {
@@ -101,4 +215,174 @@ public class PSocket extends PythonBuiltinObject {
             this.setTimeout(0.0);
         }
     }
+
+    /**
+     * Returns the {@link System#nanoTime()} by which an operation that starts now has to complete.
+     * The deadline is only meaningful if the socket has a positive timeout.
+     */
+    public long getDeadline() {
+        return System.nanoTime() + (long) (timeout * 1000000000);
+    }
+
+    /**
+     * Waits until the channel is ready for the given {@link SelectionKey} operation. Returns
+     * {@code false} if the {@link #getDeadline deadline} passed or the socket is in non-blocking
+     * mode. The GIL is released while waiting.
+     */
+    @TruffleBoundary
+    public boolean waitFor(GlobalInterpreterLock gil, int op, long deadline) throws IOException {
+        if (timeout == 0) {
+            return false;
+        }
+        if (selector == null) {
+            selector = Selector.open();
+        }
+        SelectionKey key = channel.keyFor(selector);
+        if (key == null) {
+            key = channel.register(selector, op);
+        } else {
+            key.interestOps(op);
+        }
+        int held = gil.releaseForBlocking();
+        try {
+            if (timeout < 0) {
+                while (selector.select() == 0) {
+                    // woken up without the channel being ready
+                }
+                return true;
+            }
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                // round up, a zero timeout would make the selector block indefinitely
+                if (selector.select((remaining + 999999) / 1000000) > 0) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            gil.reacquire(held);
+            selector.selectedKeys().clear();
+        }
+    }
+
+    /**
+     * Returns the local address of the socket, or the ephemeral address if it is not bound.
+     */
+    @TruffleBoundary
+    public InetSocketAddress getAddress() throws IOException {
+        if (channel instanceof NetworkChannel) {
+            SocketAddress address = ((NetworkChannel) channel).getLocalAddress();
+            if (address instanceof InetSocketAddress) {
+                return (InetSocketAddress) address;
+            }
+        }
+        return EPHEMERAL_ADDRESS;
+    }
+
+    /**
+     * Returns the remote address of a connected socket, or {@code null}.
+     */
+    @TruffleBoundary
+    public InetSocketAddress getPeerAddress() throws IOException {
+        SocketAddress address = null;
+        if (channel instanceof SocketChannel) {
+            address = ((SocketChannel) channel).getRemoteAddress();
+        } else if (channel instanceof DatagramChannel) {
+            address = ((DatagramChannel) channel).getRemoteAddress();
+        }
+        return (InetSocketAddress) address;
+    }
+
+    /**
+     * Binds the socket. A stream socket does not know yet whether it will listen or connect, so it
+     * is bound with an unconnected {@link SocketChannel}, which reserves the address without
+     * accepting connections. {@link #openServerChannel} moves the address to a server channel once
+     * the socket starts listening.
+     */
+    @TruffleBoundary
+    public void bind(InetSocketAddress address) throws IOException {
+        if (type == SOCK_DGRAM) {
+            ((DatagramChannel) channel).bind(address);
+        } else {
+            if (channel != null) {
+                throw new AlreadyBoundException();
+            }
+            SocketChannel client = SocketChannel.open();
+            setChannel(client);
+            client.bind(address);
+        }
+    }
+
+    /**
+     * Makes sure a stream socket has a listening server channel, keeping the local address if the
+     * socket was bound.
+     */
+    @TruffleBoundary
+    public ServerSocketChannel openServerChannel(int backlog) throws IOException {
+        if (channel instanceof ServerSocketChannel) {
+            return (ServerSocketChannel) channel;
+        }
+        SocketAddress local = EPHEMERAL_ADDRESS;
+        if (channel instanceof SocketChannel) {
+            SocketChannel client = (SocketChannel) channel;
+            if (client.isConnected() || client.isConnectionPending()) {
+                throw new AlreadyConnectedException();
+            }
+            if (client.getLocalAddress() != null) {
+                local = client.getLocalAddress();
+            }
+            // release the address before the server channel takes it over
+            client.close();
+        }
+        ServerSocketChannel server = ServerSocketChannel.open();
+        setChannel(server);
+        server.bind(local, backlog);
+        return server;
+    }
+
+    /**
+     * Makes sure a stream socket has a client channel. A bound socket already has one.
+     */
+    @TruffleBoundary
+    public SocketChannel openClientChannel() throws IOException {
+        if (channel instanceof SocketChannel) {
+            return (SocketChannel) channel;
+        } else if (channel instanceof ServerSocketChannel) {
+            throw new AlreadyConnectedException();
+        }
+        SocketChannel client = SocketChannel.open();
+        setChannel(client);
+        return client;
+    }
+
+    @TruffleBoundary
+    public void close() throws IOException {
+        closed = true;
+        try {
+            closeSelector();
+        } finally {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Forgets the channel without closing it, e.g. because the file descriptor was detached.
+     */
+    @TruffleBoundary
+    public void detach() throws IOException {
+        closed = true;
+        closeSelector();
+        channel = null;
+        fileno = -1;
+    }
+
+    private void closeSelector() throws IOException {
+        if (selector != null) {
+            Selector s = selector;
+            selector = null;
+            s.close();
+        }
+    }
 }
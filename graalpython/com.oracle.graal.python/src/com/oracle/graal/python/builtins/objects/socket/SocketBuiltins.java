@@ -40,6 +40,29 @@
  */
 package com.oracle.graal.python.builtins.objects.socket;
 
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+
+import java.io.IOException;
+import java.net.BindException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.AlreadyBoundException;
+import java.nio.channels.AlreadyConnectedException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ConnectionPendingException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.NotYetConnectedException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.UnresolvedAddressException;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
@@ -48,14 +71,37 @@ import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
+import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.PRaiseNode;
+import com.oracle.graal.python.nodes.attributes.LookupInheritedAttributeNode;
+import com.oracle.graal.python.nodes.call.special.CallTernaryMethodNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToDoubleNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.nodes.util.CastToStringNode;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
 
 @CoreFunctions(extendClasses = PythonBuiltinClassType.PSocket)
 @SuppressWarnings("unused")
@@ -66,13 +112,48 @@ public class SocketBuiltins extends PythonBuiltins {
         return SocketBuiltinsFactory.getFactories();
     }
 
-    // accept()
-    @Builtin(name = "accept", minNumOfPositionalArgs = 1)
+    // __init__(family=AF_INET, type=SOCK_STREAM, proto=0, fileno=None)
+    @Builtin(name = __INIT__, minNumOfPositionalArgs = 1, parameterNames = {"self", "family", "type", "proto", "fileno"})
+    @GenerateNodeFactory
+    abstract static class InitNode extends PythonBuiltinNode {
+        @Specialization
+        Object init(PSocket self, Object family, Object type, Object proto, Object fileno) {
+            // the socket was fully initialized by __new__
+            return PNone.NONE;
+        }
+    }
+
+    // _accept()
+    @Builtin(name = "_accept", minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     abstract static class AcceptNode extends PythonUnaryBuiltinNode {
         @Specialization
-        Object accept(PSocket socket) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object accept(VirtualFrame frame, PSocket socket) {
+            checkOpen(this, frame, socket);
+            if (!(socket.getChannel() instanceof ServerSocketChannel)) {
+                throw raiseOSError(frame, OSErrorEnum.EINVAL);
+            }
+            try {
+                SocketChannel accepted;
+                long deadline = socket.getDeadline();
+                while ((accepted = doAccept((ServerSocketChannel) socket.getChannel())) == null) {
+                    waitFor(this, frame, socket, SelectionKey.OP_ACCEPT, deadline);
+                }
+                int fd = getContext().getResources().openSocket(accepted);
+                return factory().createTuple(new Object[]{fd, createAddressTuple(factory(), getRemoteAddress(accepted))});
+            } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+                throw raiseSocketError(this, frame, e);
+            }
+        }
+
+        @TruffleBoundary
+        private static SocketChannel doAccept(ServerSocketChannel server) throws IOException {
+            return server.accept();
+        }
+
+        @TruffleBoundary
+        private static InetSocketAddress getRemoteAddress(SocketChannel channel) throws IOException {
+            return (InetSocketAddress) channel.getRemoteAddress();
         }
     }
 
@@ -81,8 +162,17 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class BindNode extends PythonBinaryBuiltinNode {
         @Specialization
-        Object bind(PSocket socket, Object address) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object bind(VirtualFrame frame, PSocket socket, Object address,
+                        @Cached("create()") AddressNode addressNode) {
+            checkOpen(this, frame, socket);
+            InetSocketAddress inetAddress = addressNode.execute(frame, "bind", address);
+            try {
+                socket.bind(inetAddress);
+                getContext().getResources().fdopen(socket.getFileno(), socket.getChannel());
+            } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+                throw raiseSocketError(this, frame, e);
+            }
+            return PNone.NONE;
         }
     }
 
@@ -91,8 +181,16 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class CloseNode extends PythonUnaryBuiltinNode {
         @Specialization
-        Object close(PSocket socket) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object close(VirtualFrame frame, PSocket socket) {
+            if (!socket.isClosed()) {
+                getContext().getResources().close(socket.getFileno());
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    throw raiseSocketError(this, frame, e);
+                }
+            }
+            return PNone.NONE;
         }
     }
 
@@ -101,8 +199,71 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class ConnectNode extends PythonBinaryBuiltinNode {
         @Specialization
-        Object connect(PSocket socket, Object address) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object connect(VirtualFrame frame, PSocket socket, Object address,
+                        @Cached("create()") AddressNode addressNode) {
+            checkOpen(this, frame, socket);
+            InetSocketAddress inetAddress = addressNode.execute(frame, "connect", address);
+            OSErrorEnum error;
+            try {
+                error = doConnect(getContext(), socket, inetAddress);
+            } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+                throw raiseSocketError(this, frame, e);
+            }
+            if (error == OSErrorEnum.ETIMEDOUT) {
+                throw raiseTimeout(this);
+            } else if (error != null) {
+                throw raiseOSError(frame, error);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    // connect_ex(address)
+    @Builtin(name = "connect_ex", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class ConnectExNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        int connect(VirtualFrame frame, PSocket socket, Object address,
+                        @Cached("create()") AddressNode addressNode) {
+            checkOpen(this, frame, socket);
+            InetSocketAddress inetAddress = addressNode.execute(frame, "connect_ex", address);
+            OSErrorEnum error;
+            try {
+                error = doConnect(getContext(), socket, inetAddress);
+            } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+                error = getErrorFor(e);
+            }
+            if (error == OSErrorEnum.ETIMEDOUT) {
+                // CPython reports a timeout as EWOULDBLOCK here
+                return OSErrorEnum.EWOULDBLOCK.getNumber();
+            }
+            return error == null ? 0 : error.getNumber();
+        }
+    }
+
+    // detach()
+    @Builtin(name = "detach", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class DetachNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int detach(VirtualFrame frame, PSocket socket) {
+            int fd = socket.getFileno();
+            try {
+                socket.detach();
+            } catch (IOException e) {
+                throw raiseSocketError(this, frame, e);
+            }
+            return fd;
+        }
+    }
+
+    // fileno()
+    @Builtin(name = "fileno", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class FilenoNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int fileno(PSocket socket) {
+            return socket.isClosed() ? -1 : socket.getFileno();
         }
     }
 
@@ -111,8 +272,18 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class GetPeerNameNode extends PythonUnaryBuiltinNode {
         @Specialization
-        Object get(PSocket socket) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object get(VirtualFrame frame, PSocket socket) {
+            checkOpen(this, frame, socket);
+            InetSocketAddress address;
+            try {
+                address = socket.getPeerAddress();
+            } catch (IOException e) {
+                throw raiseSocketError(this, frame, e);
+            }
+            if (address == null) {
+                throw raiseOSError(frame, OSErrorEnum.ENOTCONN);
+            }
+            return createAddressTuple(factory(), address);
         }
     }
 
@@ -121,8 +292,13 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class GetSockNameNode extends PythonUnaryBuiltinNode {
         @Specialization
-        Object get(PSocket socket) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object get(VirtualFrame frame, PSocket socket) {
+            checkOpen(this, frame, socket);
+            try {
+                return createAddressTuple(factory(), socket.getAddress());
+            } catch (IOException e) {
+                throw raiseSocketError(this, frame, e);
+            }
         }
     }
 
@@ -132,7 +308,7 @@ public class SocketBuiltins extends PythonBuiltins {
     abstract static class GetBlockingNode extends PythonUnaryBuiltinNode {
         @Specialization
         boolean get(PSocket socket) {
-            return false;
+            return socket.getTimeout() != 0.0;
         }
     }
 
@@ -142,17 +318,34 @@ public class SocketBuiltins extends PythonBuiltins {
     abstract static class GetTimeoutNode extends PythonUnaryBuiltinNode {
         @Specialization
         Object get(PSocket socket) {
-            return PNone.NONE;
+            double timeout = socket.getTimeout();
+            if (timeout < 0) {
+                return PNone.NONE;
+            }
+            return timeout;
         }
     }
 
-    // listen
-    @Builtin(name = "listen", minNumOfPositionalArgs = 1)
+    // listen([backlog])
+    @Builtin(name = "listen", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
     @GenerateNodeFactory
-    abstract static class ListenNode extends PythonUnaryBuiltinNode {
+    abstract static class ListenNode extends PythonBinaryBuiltinNode {
         @Specialization
-        Object listen(PSocket socket) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object listen(VirtualFrame frame, PSocket socket, Object backlogObj,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            checkOpen(this, frame, socket);
+            if (socket.getType() != PSocket.SOCK_STREAM) {
+                throw raiseOSError(frame, OSErrorEnum.EOPNOTSUPP);
+            }
+            int backlog = backlogObj == PNone.NO_VALUE ? DEFAULT_BACKLOG : Math.max(castToIndexNode.execute(backlogObj), 0);
+            try {
+                // the backlog cannot be changed once the socket is listening
+                socket.openServerChannel(backlog);
+                getContext().getResources().fdopen(socket.getFileno(), socket.getChannel());
+            } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+                throw raiseSocketError(this, frame, e);
+            }
+            return PNone.NONE;
         }
     }
 
@@ -161,8 +354,76 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class RecvNode extends PythonTernaryBuiltinNode {
         @Specialization
-        Object recv(PSocket socket, int bufsize, int flags) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object recv(VirtualFrame frame, PSocket socket, Object bufsizeObj, Object flags,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            int bufsize = castToIndexNode.execute(bufsizeObj);
+            if (bufsize < 0) {
+                throw raise(PythonBuiltinClassType.ValueError, "negative buffersize in recv");
+            }
+            byte[] bytes = new byte[bufsize];
+            int n = doRecv(this, frame, socket, wrap(bytes, 0, bufsize));
+            return factory().createBytes(new ByteSequenceStorage(bytes, n));
+        }
+    }
+
+    // recv_into(buffer[, nbytes[, flags]])
+    @Builtin(name = "recv_into", minNumOfPositionalArgs = 2, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class RecvIntoNode extends PythonBuiltinNode {
+        @Specialization(guards = "isByteStorage(buffer)")
+        int recvInto(VirtualFrame frame, PSocket socket, PByteArray buffer, Object nbytesObj, @SuppressWarnings("unused") Object flags,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            SequenceStorage storage = buffer.getSequenceStorage();
+            int nbytes = getNBytes(castToIndexNode, nbytesObj, storage.length());
+            // read directly into the bytearray's storage
+            return doRecv(this, frame, socket, wrap(((ByteSequenceStorage) storage).getInternalByteArray(), 0, nbytes));
+        }
+
+        /**
+         * Any other object supporting item assignment (e.g. a memoryview or a bytearray with a
+         * generalized storage) is filled through {@code __setitem__} after receiving into a
+         * temporary buffer.
+         */
+        @Specialization(guards = {"!isByteStorage(buffer)", "!isImmutable(buffer)"})
+        int recvInto(VirtualFrame frame, PSocket socket, Object buffer, Object nbytesObj, @SuppressWarnings("unused") Object flags,
+                        @Cached("create()") CastToIndexNode castToIndexNode,
+                        @Cached("create(__LEN__)") LookupAndCallUnaryNode lenNode,
+                        @Cached("create(__SETITEM__)") LookupInheritedAttributeNode getSetItemNode,
+                        @Cached("create()") CallTernaryMethodNode callSetItemNode) {
+            Object setItem = getSetItemNode.execute(buffer);
+            if (setItem == PNone.NO_VALUE) {
+                throw raise(PythonBuiltinClassType.TypeError, "recv_into() argument 1 must be read-write bytes-like object, not %p", buffer);
+            }
+            int nbytes = getNBytes(castToIndexNode, nbytesObj, castToIndexNode.execute(lenNode.executeObject(frame, buffer)));
+            byte[] bytes = new byte[nbytes];
+            int n = doRecv(this, frame, socket, wrap(bytes, 0, nbytes));
+            callSetItemNode.execute(frame, setItem, buffer, factory().createSlice(0, n, 1), factory().createBytes(new ByteSequenceStorage(bytes, n)));
+            return n;
+        }
+
+        @Fallback
+        int recvInto(@SuppressWarnings("unused") Object socket, Object buffer, @SuppressWarnings("unused") Object nbytesObj, @SuppressWarnings("unused") Object flags) {
+            throw raise(PythonBuiltinClassType.TypeError, "recv_into() argument 1 must be read-write bytes-like object, not %p", buffer);
+        }
+
+        private int getNBytes(CastToIndexNode castToIndexNode, Object nbytesObj, int len) {
+            int nbytes = nbytesObj == PNone.NO_VALUE ? 0 : castToIndexNode.execute(nbytesObj);
+            if (nbytes < 0) {
+                throw raise(PythonBuiltinClassType.ValueError, "negative buffersize in recv_into");
+            } else if (nbytes == 0) {
+                return len;
+            } else if (nbytes > len) {
+                throw raise(PythonBuiltinClassType.ValueError, "buffer too small for requested bytes");
+            }
+            return nbytes;
+        }
+
+        protected static boolean isByteStorage(Object buffer) {
+            return buffer instanceof PByteArray && ((PByteArray) buffer).getSequenceStorage() instanceof ByteSequenceStorage;
+        }
+
+        protected static boolean isImmutable(Object buffer) {
+            return buffer instanceof PBytes || isString(buffer);
         }
     }
 
@@ -171,8 +432,42 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class RecvFromNode extends PythonTernaryBuiltinNode {
         @Specialization
-        Object recvFrom(PSocket socket, int bufsize, int flags) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object recvFrom(VirtualFrame frame, PSocket socket, Object bufsizeObj, Object flags,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            int bufsize = castToIndexNode.execute(bufsizeObj);
+            if (bufsize < 0) {
+                throw raise(PythonBuiltinClassType.ValueError, "negative buffersize in recvfrom");
+            }
+            checkOpen(this, frame, socket);
+            if (!(socket.getChannel() instanceof DatagramChannel)) {
+                // connected stream sockets do not report an address
+                byte[] bytes = new byte[bufsize];
+                int n = doRecv(this, frame, socket, wrap(bytes, 0, bufsize));
+                return factory().createTuple(new Object[]{factory().createBytes(new ByteSequenceStorage(bytes, n)), PNone.NONE});
+            }
+            byte[] bytes = new byte[bufsize];
+            ByteBuffer buffer = wrap(bytes, 0, bufsize);
+            InetSocketAddress from;
+            try {
+                long deadline = socket.getDeadline();
+                while ((from = doReceive((DatagramChannel) socket.getChannel(), buffer)) == null) {
+                    waitFor(this, frame, socket, SelectionKey.OP_READ, deadline);
+                }
+            } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+                throw raiseSocketError(this, frame, e);
+            }
+            PBytes data = factory().createBytes(new ByteSequenceStorage(bytes, position(buffer)));
+            return factory().createTuple(new Object[]{data, createAddressTuple(factory(), from)});
+        }
+
+        @TruffleBoundary
+        private static InetSocketAddress doReceive(DatagramChannel channel, ByteBuffer buffer) throws IOException {
+            return (InetSocketAddress) channel.receive(buffer);
+        }
+
+        @TruffleBoundary(allowInlining = true)
+        private static int position(ByteBuffer buffer) {
+            return buffer.position();
         }
     }
 
@@ -191,8 +486,9 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class SendNode extends PythonTernaryBuiltinNode {
         @Specialization
-        Object send(PSocket socket, Object bytes, int flags) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        int send(VirtualFrame frame, PSocket socket, Object bytes, Object flags,
+                        @Cached("create()") BytesNodes.ToBytesNode toBytesNode) {
+            return doSend(this, frame, socket, getBuffer(frame, bytes, toBytesNode), false);
         }
     }
 
@@ -201,8 +497,10 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class SendAllNode extends PythonTernaryBuiltinNode {
         @Specialization
-        Object sendAll(PSocket socket, Object bytes, int flags) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object sendAll(VirtualFrame frame, PSocket socket, Object bytes, Object flags,
+                        @Cached("create()") BytesNodes.ToBytesNode toBytesNode) {
+            doSend(this, frame, socket, getBuffer(frame, bytes, toBytesNode), true);
+            return PNone.NONE;
         }
     }
 
@@ -212,8 +510,31 @@ public class SocketBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class SendToNode extends PythonBuiltinNode {
         @Specialization
-        Object sendTo(PSocket socket, Object bytes, int flags, Object address) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        int sendTo(VirtualFrame frame, PSocket socket, Object bytes, Object flagsOrAddress, Object maybeAddress,
+                        @Cached("create()") BytesNodes.ToBytesNode toBytesNode,
+                        @Cached("create()") AddressNode addressNode) {
+            checkOpen(this, frame, socket);
+            Object address = maybeAddress == PNone.NO_VALUE ? flagsOrAddress : maybeAddress;
+            InetSocketAddress inetAddress = addressNode.execute(frame, "sendto", address);
+            if (!(socket.getChannel() instanceof DatagramChannel)) {
+                throw raiseOSError(frame, OSErrorEnum.EISCONN);
+            }
+            ByteBuffer buffer = getBuffer(frame, bytes, toBytesNode);
+            try {
+                int n;
+                long deadline = socket.getDeadline();
+                while ((n = doSend((DatagramChannel) socket.getChannel(), buffer, inetAddress)) == 0 && hasRemaining(buffer)) {
+                    waitFor(this, frame, socket, SelectionKey.OP_WRITE, deadline);
+                }
+                return n;
+            } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+                throw raiseSocketError(this, frame, e);
+            }
+        }
+
+        @TruffleBoundary
+        private static int doSend(DatagramChannel channel, ByteBuffer buffer, SocketAddress address) throws IOException {
+            return channel.send(buffer, address);
         }
     }
 
@@ -227,23 +548,145 @@ public class SocketBuiltins extends PythonBuiltins {
         }
     }
 
+    // setblocking(flag)
+    @Builtin(name = "setblocking", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class SetBlockingNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object setBlocking(PSocket socket, boolean blocking) {
+            socket.setBlocking(blocking);
+            return PNone.NONE;
+        }
+
+        @Specialization
+        Object setBlocking(PSocket socket, int blocking) {
+            return setBlocking(socket, blocking != 0);
+        }
+    }
+
     // settimeout(value)
     @Builtin(name = "settimeout", minNumOfPositionalArgs = 2)
     @GenerateNodeFactory
     abstract static class SetTimeoutNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = "isNone(value)")
+        Object setTimeout(PSocket socket, PNone value) {
+            socket.setTimeout(-1.0);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "!isNone(value)")
+        Object setTimeout(VirtualFrame frame, PSocket socket, Object value,
+                        @Cached("create()") CastToDoubleNode castToDoubleNode) {
+            double timeout = castToDoubleNode.execute(frame, value);
+            if (timeout < 0) {
+                throw raise(PythonBuiltinClassType.ValueError, "Timeout value out of range");
+            }
+            socket.setTimeout(timeout);
+            return PNone.NONE;
+        }
+    }
+
+    // setsockopt(level, option, value)
+    @Builtin(name = "setsockopt", minNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class SetSockOptNode extends PythonBuiltinNode {
         @Specialization
-        Object family(PSocket socket, double value) {
+        Object setSockOpt(VirtualFrame frame, PSocket socket, Object levelObj, Object optionObj, Object valueObj,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            checkOpen(this, frame, socket);
+            SocketOption<?> option = getOption(castToIndexNode.execute(levelObj), castToIndexNode.execute(optionObj));
+            if (option == null) {
+                throw raiseOSError(frame, OSErrorEnum.ENOPROTOOPT);
+            }
+            int value = castToIndexNode.execute(valueObj);
+            try {
+                setOption(socket, option, value);
+            } catch (IOException | UnsupportedOperationException | IllegalArgumentException e) {
+                throw raiseOSError(frame, OSErrorEnum.ENOPROTOOPT);
+            }
             return PNone.NONE;
         }
+
+        @TruffleBoundary
+        @SuppressWarnings("unchecked")
+        private static void setOption(PSocket socket, SocketOption<?> option, int value) throws IOException {
+            if (option.type() == Boolean.class) {
+                socket.setOption((SocketOption<Boolean>) option, value != 0);
+            } else {
+                socket.setOption((SocketOption<Integer>) option, value);
+            }
+        }
+    }
+
+    // getsockopt(level, option[, buflen])
+    @Builtin(name = "getsockopt", minNumOfPositionalArgs = 3, maxNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class GetSockOptNode extends PythonBuiltinNode {
+        @Specialization
+        int getSockOpt(VirtualFrame frame, PSocket socket, Object levelObj, Object optionObj, Object buflen,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            checkOpen(this, frame, socket);
+            int level = castToIndexNode.execute(levelObj);
+            int opt = castToIndexNode.execute(optionObj);
+            if (level == PSocket.SOL_SOCKET && opt == PSocket.SO_TYPE) {
+                return socket.getType();
+            } else if (level == PSocket.SOL_SOCKET && opt == PSocket.SO_ERROR) {
+                return 0;
+            }
+            SocketOption<?> option = getOption(level, opt);
+            if (option == null) {
+                throw raiseOSError(frame, OSErrorEnum.ENOPROTOOPT);
+            }
+            try {
+                return getOptionValue(socket, option);
+            } catch (IOException | UnsupportedOperationException | IllegalArgumentException e) {
+                throw raiseOSError(frame, OSErrorEnum.ENOPROTOOPT);
+            }
+        }
+
+        @TruffleBoundary
+        private static int getOptionValue(PSocket socket, SocketOption<?> option) throws IOException {
+            Object value = socket.getOption(option);
+            if (value instanceof Boolean) {
+                return (Boolean) value ? 1 : 0;
+            } else if (value instanceof Integer) {
+                return (Integer) value;
+            }
+            return 0;
+        }
     }
 
     // shutdown(how)
     @Builtin(name = "shutdown", minNumOfPositionalArgs = 2)
     @GenerateNodeFactory
-    abstract static class shutdownNode extends PythonBinaryBuiltinNode {
+    abstract static class ShutdownNode extends PythonBinaryBuiltinNode {
         @Specialization
-        Object family(PSocket socket, Object how) {
-            return PNotImplemented.NOT_IMPLEMENTED;
+        Object shutdown(VirtualFrame frame, PSocket socket, Object howObj,
+                        @Cached("create()") CastToIndexNode castToIndexNode) {
+            checkOpen(this, frame, socket);
+            int how = castToIndexNode.execute(howObj);
+            if (how < PSocket.SHUT_RD || how > PSocket.SHUT_RDWR) {
+                throw raiseOSError(frame, OSErrorEnum.EINVAL);
+            }
+            if (!(socket.getChannel() instanceof SocketChannel)) {
+                throw raiseOSError(frame, OSErrorEnum.ENOTCONN);
+            }
+            try {
+                doShutdown((SocketChannel) socket.getChannel(), how);
+            } catch (IOException | IllegalStateException e) {
+                throw raiseSocketError(this, frame, e);
+            }
+            return PNone.NONE;
+        }
+
+        @TruffleBoundary
+        private static void doShutdown(SocketChannel channel, int how) throws IOException {
+            if (how != PSocket.SHUT_WR) {
+                channel.shutdownInput();
+            }
+            if (how != PSocket.SHUT_RD) {
+                channel.shutdownOutput();
+            }
         }
     }
 
@@ -276,4 +719,283 @@ public class SocketBuiltins extends PythonBuiltins {
             return socket.getProto();
         }
     }
+
+    // timeout
+    @Builtin(name = "timeout", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class SockTimeoutNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object timeout(PSocket socket) {
+            double timeout = socket.getTimeout();
+            return timeout < 0 ? PNone.NONE : timeout;
+        }
+    }
+
+    static final int DEFAULT_BACKLOG = 128;
+
+    /**
+     * Converts an address tuple {@code (host, port)} to an {@link InetSocketAddress}. The flow
+     * info and scope id of {@code AF_INET6} addresses are ignored.
+     */
+    static final class AddressNode extends Node {
+        @Child private CastToStringNode castToStringNode = CastToStringNode.create();
+        @Child private CastToIndexNode castToIndexNode = CastToIndexNode.create();
+        @Child private PRaiseNode raiseNode = PRaiseNode.create();
+
+        InetSocketAddress execute(VirtualFrame frame, String caller, Object address) {
+            if (!(address instanceof PTuple)) {
+                throw raiseNode.raise(PythonBuiltinClassType.TypeError, "%s(): AF_INET address must be tuple, not %p", caller, address);
+            }
+            int len = ((PTuple) address).getSequenceStorage().length();
+            if (len != 2 && len != 4) {
+                throw raiseNode.raise(PythonBuiltinClassType.TypeError, "%s(): address tuple must have 2 or 4 items", caller);
+            }
+            SequenceStorage storage = ((PTuple) address).getSequenceStorage();
+            String host = castToStringNode.execute(frame, storage.getItemNormalized(0));
+            int port = castToIndexNode.execute(storage.getItemNormalized(1));
+            if (port < 0 || port > 0xFFFF) {
+                throw raiseNode.raise(PythonBuiltinClassType.OverflowError, "%s(): port must be 0-65535.", caller);
+            }
+            return createAddress(host, port);
+        }
+
+        @TruffleBoundary
+        private static InetSocketAddress createAddress(String host, int port) {
+            if (host.isEmpty()) {
+                return new InetSocketAddress(port);
+            } else if (host.equals("<broadcast>")) {
+                return new InetSocketAddress("255.255.255.255", port);
+            }
+            return new InetSocketAddress(host, port);
+        }
+
+        static AddressNode create() {
+            return new AddressNode();
+        }
+    }
+
+    static PTuple createAddressTuple(PythonObjectFactory factory, InetSocketAddress address) {
+        return factory.createTuple(new Object[]{getHostString(address), getPort(address)});
+    }
+
+    @TruffleBoundary
+    private static String getHostString(InetSocketAddress address) {
+        if (address.getAddress() != null) {
+            return address.getAddress().getHostAddress();
+        }
+        return address.getHostString();
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static int getPort(InetSocketAddress address) {
+        return address.getPort();
+    }
+
+    @TruffleBoundary
+    private static SocketOption<?> getOption(int level, int option) {
+        if (level == PSocket.SOL_SOCKET) {
+            switch (option) {
+                case PSocket.SO_REUSEADDR:
+                    return StandardSocketOptions.SO_REUSEADDR;
+                case PSocket.SO_KEEPALIVE:
+                    return StandardSocketOptions.SO_KEEPALIVE;
+                case PSocket.SO_BROADCAST:
+                    return StandardSocketOptions.SO_BROADCAST;
+                case PSocket.SO_SNDBUF:
+                    return StandardSocketOptions.SO_SNDBUF;
+                case PSocket.SO_RCVBUF:
+                    return StandardSocketOptions.SO_RCVBUF;
+            }
+        } else if (level == PSocket.IPPROTO_TCP && option == PSocket.TCP_NODELAY) {
+            return StandardSocketOptions.TCP_NODELAY;
+        }
+        return null;
+    }
+
+    /**
+     * Connects the socket and returns {@code null} on success, {@link OSErrorEnum#EINPROGRESS} if
+     * a non-blocking connect is pending, or {@link OSErrorEnum#ETIMEDOUT} if the timeout expired.
+     */
+    @TruffleBoundary
+    private static OSErrorEnum doConnect(PythonContext context, PSocket socket, InetSocketAddress address) throws IOException {
+        if (address.isUnresolved()) {
+            throw new UnresolvedAddressException();
+        }
+        if (socket.getChannel() instanceof DatagramChannel) {
+            ((DatagramChannel) socket.getChannel()).connect(address);
+            return null;
+        }
+        SocketChannel channel = socket.openClientChannel();
+        context.getResources().fdopen(socket.getFileno(), channel);
+        if (channel.isConnectionPending()) {
+            throw new ConnectionPendingException();
+        } else if (channel.connect(address)) {
+            return null;
+        } else if (socket.getTimeout() == 0.0) {
+            return OSErrorEnum.EINPROGRESS;
+        }
+        long deadline = socket.getDeadline();
+        while (!channel.finishConnect()) {
+            if (!socket.waitFor(context.getGil(), SelectionKey.OP_CONNECT, deadline)) {
+                return OSErrorEnum.ETIMEDOUT;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads into the buffer, waiting for data unless the socket is non-blocking. Returns the
+     * number of bytes read, which is 0 at the end of the stream.
+     */
+    private static int doRecv(PythonBuiltinBaseNode node, VirtualFrame frame, PSocket socket, ByteBuffer buffer) {
+        checkOpen(node, frame, socket);
+        SelectableChannel channel = socket.getChannel();
+        if (!(channel instanceof ReadableByteChannel)) {
+            throw node.raiseOSError(frame, OSErrorEnum.ENOTCONN);
+        }
+        try {
+            int n;
+            long deadline = socket.getDeadline();
+            while ((n = doRead(channel, buffer)) == 0 && hasRemaining(buffer)) {
+                waitFor(node, frame, socket, SelectionKey.OP_READ, deadline);
+            }
+            return Math.max(n, 0);
+        } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+            throw raiseSocketError(node, frame, e);
+        }
+    }
+
+    @TruffleBoundary
+    private static int doRead(SelectableChannel channel, ByteBuffer buffer) throws IOException {
+        if (channel instanceof DatagramChannel && !((DatagramChannel) channel).isConnected()) {
+            int start = buffer.position();
+            ((DatagramChannel) channel).receive(buffer);
+            return buffer.position() - start;
+        } else if (channel instanceof SocketChannel && ((SocketChannel) channel).isConnectionPending()) {
+            if (!((SocketChannel) channel).finishConnect()) {
+                return 0;
+            }
+        }
+        return ((ReadableByteChannel) channel).read(buffer);
+    }
+
+    /**
+     * Writes the buffer, waiting until the channel is writable unless the socket is non-blocking.
+     * Returns the number of bytes written; if {@code all} is set, writes until the buffer is
+     * drained.
+     */
+    private static int doSend(PythonBuiltinBaseNode node, VirtualFrame frame, PSocket socket, ByteBuffer buffer, boolean all) {
+        checkOpen(node, frame, socket);
+        SelectableChannel channel = socket.getChannel();
+        if (!(channel instanceof WritableByteChannel)) {
+            throw node.raiseOSError(frame, OSErrorEnum.ENOTCONN);
+        }
+        int total = 0;
+        try {
+            // like CPython, the timeout applies to the whole call and not to each write
+            long deadline = socket.getDeadline();
+            while (hasRemaining(buffer)) {
+                int n = doWrite(channel, buffer);
+                total += n;
+                if (n == 0) {
+                    waitFor(node, frame, socket, SelectionKey.OP_WRITE, deadline);
+                } else if (!all) {
+                    break;
+                }
+            }
+        } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+            throw raiseSocketError(node, frame, e);
+        }
+        return total;
+    }
+
+    @TruffleBoundary
+    private static int doWrite(SelectableChannel channel, ByteBuffer buffer) throws IOException {
+        if (channel instanceof SocketChannel && ((SocketChannel) channel).isConnectionPending()) {
+            if (!((SocketChannel) channel).finishConnect()) {
+                return 0;
+            }
+        }
+        return ((WritableByteChannel) channel).write(buffer);
+    }
+
+    /**
+     * Wraps the contents of a bytes-like object without copying if possible.
+     */
+    private static ByteBuffer getBuffer(VirtualFrame frame, Object data, BytesNodes.ToBytesNode toBytesNode) {
+        if (data instanceof PIBytesLike) {
+            SequenceStorage storage = ((PIBytesLike) data).getSequenceStorage();
+            if (storage instanceof ByteSequenceStorage) {
+                return wrap(((ByteSequenceStorage) storage).getInternalByteArray(), 0, storage.length());
+            }
+        }
+        byte[] bytes = toBytesNode.execute(frame, data);
+        return wrap(bytes, 0, bytes.length);
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static ByteBuffer wrap(byte[] bytes, int offset, int length) {
+        return ByteBuffer.wrap(bytes, offset, length);
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static boolean hasRemaining(ByteBuffer buffer) {
+        return buffer.hasRemaining();
+    }
+
+    /**
+     * Waits for the operation to become possible, or raises {@code BlockingIOError} for
+     * non-blocking sockets and {@code socket.timeout} if the deadline of the call passes.
+     */
+    private static void waitFor(PythonBuiltinBaseNode node, VirtualFrame frame, PSocket socket, int op, long deadline) throws IOException {
+        if (socket.getTimeout() == 0.0) {
+            throw node.raiseOSError(frame, OSErrorEnum.EWOULDBLOCK);
+        } else if (!socket.waitFor(node.getContext().getGil(), op, deadline)) {
+            throw raiseTimeout(node);
+        }
+    }
+
+    private static void checkOpen(PythonBuiltinBaseNode node, VirtualFrame frame, PSocket socket) {
+        if (socket.isClosed()) {
+            throw node.raiseOSError(frame, OSErrorEnum.EBADF);
+        }
+    }
+
+    private static PException raiseTimeout(PythonBuiltinBaseNode node) {
+        return node.raise(PythonBuiltinClassType.TimeoutError, "timed out");
+    }
+
+    private static PException raiseSocketError(PythonBuiltinBaseNode node, VirtualFrame frame, Exception e) {
+        return node.raiseOSError(frame, getErrorFor(e));
+    }
+
+    @TruffleBoundary
+    private static OSErrorEnum getErrorFor(Exception e) {
+        if (e instanceof ConnectException) {
+            return OSErrorEnum.ECONNREFUSED;
+        } else if (e instanceof BindException) {
+            return OSErrorEnum.EADDRINUSE;
+        } else if (e instanceof ClosedChannelException) {
+            return OSErrorEnum.EBADF;
+        } else if (e instanceof NotYetConnectedException) {
+            return OSErrorEnum.ENOTCONN;
+        } else if (e instanceof AlreadyConnectedException) {
+            return OSErrorEnum.EISCONN;
+        } else if (e instanceof AlreadyBoundException) {
+            return OSErrorEnum.EINVAL;
+        } else if (e instanceof ConnectionPendingException) {
+            return OSErrorEnum.EALREADY;
+        } else if (e instanceof IllegalArgumentException) {
+            return OSErrorEnum.EINVAL;
+        }
+        String message = e.getMessage();
+        if (message != null) {
+            if (message.contains("reset")) {
+                return OSErrorEnum.ECONNRESET;
+            } else if (message.contains("Broken pipe")) {
+                return OSErrorEnum.EPIPE;
+            }
+        }
+        return OSErrorEnum.EIO;
+    }
 }
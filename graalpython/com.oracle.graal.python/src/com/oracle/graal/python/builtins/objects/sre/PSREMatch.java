@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.sre;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+
+/**
+ * A match object of a TRegex backed pattern. It keeps the TRegex result and the original input
+ * and creates the group strings only when they are requested; created groups are cached.
+ */
+public final class PSREMatch extends PythonBuiltinObject {
+    private final Object pattern;
+    private final Object regex;
+    private final Object result;
+    private final Object input;
+    private final int pos;
+    private final int endpos;
+    private final int groupCount;
+    private Object[] groups;
+
+    public PSREMatch(LazyPythonClass cls, Object pattern, Object regex, Object result, Object input, int pos, int endpos, int groupCount) {
+        super(cls);
+        this.pattern = pattern;
+        this.regex = regex;
+        this.result = result;
+        this.input = input;
+        this.pos = pos;
+        this.endpos = endpos;
+        this.groupCount = groupCount;
+    }
+
+    /**
+     * @return the Python pattern object this match was created by
+     */
+    public Object getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @return the compiled TRegex regex
+     */
+    public Object getRegex() {
+        return regex;
+    }
+
+    /**
+     * @return the TRegex result
+     */
+    public Object getResult() {
+        return result;
+    }
+
+    public Object getInput() {
+        return input;
+    }
+
+    public int getPos() {
+        return pos;
+    }
+
+    public int getEndpos() {
+        return endpos;
+    }
+
+    /**
+     * @return the number of groups including group {@code 0}
+     */
+    public int getGroupCount() {
+        return groupCount;
+    }
+
+    /**
+     * @return the cached value of the group or {@code null} if it was not created yet
+     */
+    public Object getCachedGroup(int group) {
+        return groups == null ? null : groups[group];
+    }
+
+    public void setCachedGroup(int group, Object value) {
+        if (groups == null) {
+            groups = new Object[groupCount];
+        }
+        groups[group] = value;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.sre;
+
+import com.oracle.graal.python.runtime.interop.InteropArray;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.InvalidArrayIndexException;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.interop.UnknownIdentifierException;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.library.ExportLibrary;
+import com.oracle.truffle.api.library.ExportMessage;
+
+/**
+ * The prefix {@code [0, end)} of a regex input, passed to TRegex instead of a copied substring
+ * when a search is bounded by {@code endpos}. Strings are read as UTF-16 code units, any other
+ * input is expected to be an interop array of byte values, like {@code bytes}.
+ *
+ * The members {@code input} and {@code end} allow the fallback compiler to pass the bound on to
+ * {@code _sre}.
+ */
+@ExportLibrary(InteropLibrary.class)
+public final class RegexInputRegion implements TruffleObject {
+    private static final String INPUT = "input";
+    private static final String END = "end";
+
+    private final Object input;
+    private final int end;
+
+    public RegexInputRegion(Object input, int end) {
+        this.input = input;
+        this.end = end;
+    }
+
+    public Object getInput() {
+        return input;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    @SuppressWarnings("static-method")
+    @ExportMessage
+    boolean hasArrayElements() {
+        return true;
+    }
+
+    @ExportMessage
+    long getArraySize() {
+        return end;
+    }
+
+    @ExportMessage
+    boolean isArrayElementReadable(long idx) {
+        return idx >= 0 && idx < end;
+    }
+
+    @ExportMessage
+    Object readArrayElement(long idx,
+                    @CachedLibrary(limit = "2") InteropLibrary lib) throws UnsupportedMessageException, InvalidArrayIndexException {
+        if (idx < 0 || idx >= end) {
+            throw InvalidArrayIndexException.create(idx);
+        }
+        if (input instanceof String) {
+            return (int) ((String) input).charAt((int) idx);
+        }
+        return lib.readArrayElement(input, idx);
+    }
+
+    @SuppressWarnings("static-method")
+    @ExportMessage
+    boolean hasMembers() {
+        return true;
+    }
+
+    @SuppressWarnings({"static-method", "unused"})
+    @ExportMessage
+    Object getMembers(boolean includeInternal) {
+        return new InteropArray(new Object[]{INPUT, END});
+    }
+
+    @SuppressWarnings("static-method")
+    @ExportMessage
+    boolean isMemberReadable(String member) {
+        return INPUT.equals(member) || END.equals(member);
+    }
+
+    @ExportMessage
+    Object readMember(String member) throws UnknownIdentifierException {
+        if (INPUT.equals(member)) {
+            return input;
+        } else if (END.equals(member)) {
+            return end;
+        }
+        throw UnknownIdentifierException.create(member);
+    }
+}
@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.sre;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.nodes.util.CastToStringNode;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.InteropException;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.library.CachedLibrary;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PSREMatch)
+public class SREMatchBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return SREMatchBuiltinsFactory.getFactories();
+    }
+
+    private static final String NO_SUCH_GROUP = "no such group";
+
+    /**
+     * Base class of the match builtins that access the TRegex result. Group strings are created
+     * from the original input on first access.
+     */
+    abstract static class SREMatchNode extends PythonBuiltinNode {
+        @Child private CastToIndexNode castToIndexNode;
+        @Child private LookupAndCallBinaryNode getItemNode;
+
+        protected final int getStart(InteropLibrary interop, PSREMatch self, int group) {
+            try {
+                return interop.asInt(interop.invokeMember(self.getResult(), "getStart", group));
+            } catch (InteropException e) {
+                throw raise(TypeError, "%s", e);
+            }
+        }
+
+        protected final int getEnd(InteropLibrary interop, PSREMatch self, int group) {
+            try {
+                return interop.asInt(interop.invokeMember(self.getResult(), "getEnd", group));
+            } catch (InteropException e) {
+                throw raise(TypeError, "%s", e);
+            }
+        }
+
+        /**
+         * Resolves a group number or name to the group index.
+         */
+        protected final int getGroupIndex(InteropLibrary interop, PSREMatch self, Object group) {
+            int index;
+            if (PGuards.isString(group)) {
+                index = -1;
+                try {
+                    Object groups = interop.readMember(self.getRegex(), "groups");
+                    String name = group instanceof PString ? ((PString) group).getValue() : (String) group;
+                    if (!interop.isNull(groups) && interop.isMemberReadable(groups, name)) {
+                        index = interop.asInt(interop.readMember(groups, name));
+                    }
+                } catch (InteropException e) {
+                    throw raise(TypeError, "%s", e);
+                }
+            } else if (PGuards.isInteger(group) || group instanceof PInt || group instanceof Boolean) {
+                if (castToIndexNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    castToIndexNode = insert(CastToIndexNode.create());
+                }
+                index = castToIndexNode.execute(group);
+            } else {
+                throw raise(IndexError, NO_SUCH_GROUP);
+            }
+            if (index < 0 || index >= self.getGroupCount()) {
+                throw raise(IndexError, NO_SUCH_GROUP);
+            }
+            return index;
+        }
+
+        /**
+         * Returns the text of a group or the default value if the group did not participate in
+         * the match.
+         */
+        protected final Object getGroup(VirtualFrame frame, InteropLibrary interop, PSREMatch self, int group, Object defaultValue) {
+            Object cached = self.getCachedGroup(group);
+            if (cached != null) {
+                return cached;
+            }
+            int start = getStart(interop, self, group);
+            if (start < 0) {
+                return defaultValue;
+            }
+            int end = getEnd(interop, self, group);
+            Object input = self.getInput();
+            Object value;
+            if (input instanceof String) {
+                value = substring((String) input, start, end);
+            } else if (input instanceof PString) {
+                value = substring(((PString) input).getValue(), start, end);
+            } else {
+                if (getItemNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    getItemNode = insert(LookupAndCallBinaryNode.create(__GETITEM__));
+                }
+                value = getItemNode.executeObject(frame, input, factory().createSlice(start, end, 1));
+            }
+            self.setCachedGroup(group, value);
+            return value;
+        }
+
+        /**
+         * Returns the names of the named groups, indexed by group number.
+         */
+        protected final String[] getGroupNames(InteropLibrary interop, PSREMatch self) {
+            String[] names = new String[self.getGroupCount()];
+            try {
+                Object groups = interop.readMember(self.getRegex(), "groups");
+                if (!interop.isNull(groups)) {
+                    Object members = interop.getMembers(groups);
+                    long size = interop.getArraySize(members);
+                    for (long i = 0; i < size; i++) {
+                        String name = interop.asString(interop.readArrayElement(members, i));
+                        int index = interop.asInt(interop.readMember(groups, name));
+                        if (index >= 0 && index < names.length) {
+                            names[index] = name;
+                        }
+                    }
+                }
+            } catch (InteropException e) {
+                throw raise(TypeError, "%s", e);
+            }
+            return names;
+        }
+
+        /**
+         * Approximates the group that was closed last: the participating group with the greatest
+         * end; of two groups ending at the same position, a later group wins only if it starts
+         * after the earlier one ended, otherwise it is nested in it.
+         */
+        protected final int getLastIndex(InteropLibrary interop, PSREMatch self) {
+            int last = -1;
+            int lastStart = -1;
+            int lastEnd = -1;
+            for (int i = 1; i < self.getGroupCount(); i++) {
+                int start = getStart(interop, self, i);
+                if (start < 0) {
+                    continue;
+                }
+                int end = getEnd(interop, self, i);
+                if (end > lastEnd || (end == lastEnd && start >= lastEnd && lastStart < start)) {
+                    last = i;
+                    lastStart = start;
+                    lastEnd = end;
+                }
+            }
+            return last;
+        }
+
+        @TruffleBoundary
+        private static String substring(String text, int start, int end) {
+            return text.substring(start, end);
+        }
+    }
+
+    @Builtin(name = "group", minNumOfPositionalArgs = 1, takesVarArgs = true)
+    @GenerateNodeFactory
+    abstract static class GroupNode extends SREMatchNode {
+        @Specialization
+        Object group(VirtualFrame frame, PSREMatch self, Object[] args,
+                        @CachedLibrary(limit = "3") InteropLibrary interop) {
+            if (args.length == 0) {
+                return getGroup(frame, interop, self, 0, PNone.NONE);
+            } else if (args.length == 1) {
+                return getGroup(frame, interop, self, getGroupIndex(interop, self, args[0]), PNone.NONE);
+            }
+            Object[] groups = new Object[args.length];
+            for (int i = 0; i < args.length; i++) {
+                groups[i] = getGroup(frame, interop, self, getGroupIndex(interop, self, args[i]), PNone.NONE);
+            }
+            return factory().createTuple(groups);
+        }
+    }
+
+    @Builtin(name = __GETITEM__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GetItemNode extends SREMatchNode {
+        @Specialization
+        Object getItem(VirtualFrame frame, PSREMatch self, Object group,
+                        @CachedLibrary(limit = "3") InteropLibrary interop) {
+            return getGroup(frame, interop, self, getGroupIndex(interop, self, group), PNone.NONE);
+        }
+    }
+
+    @Builtin(name = "groups", minNumOfPositionalArgs = 1, parameterNames = {"self", "default"})
+    @GenerateNodeFactory
+    abstract static class GroupsNode extends SREMatchNode {
+        @Specialization
+        Object groups(VirtualFrame frame, PSREMatch self, Object defaultValue,
+                        @CachedLibrary(limit = "3") InteropLibrary interop) {
+            Object dflt = defaultValue == PNone.NO_VALUE ? PNone.NONE : defaultValue;
+            Object[] groups = new Object[self.getGroupCount() - 1];
+            for (int i = 0; i < groups.length; i++) {
+                groups[i] = getGroup(frame, interop, self, i + 1, dflt);
+            }
+            return factory().createTuple(groups);
+        }
+    }
+
+    @Builtin(name = "groupdict", minNumOfPositionalArgs = 1, parameterNames = {"self", "default"})
+    @GenerateNodeFactory
+    abstract static class GroupDictNode extends SREMatchNode {
+        @Specialization
+        Object groupdict(VirtualFrame frame, PSREMatch self, Object defaultValue,
+                        @CachedLibrary(limit = "3") InteropLibrary interop) {
+            Object dflt = defaultValue == PNone.NO_VALUE ? PNone.NONE : defaultValue;
+            String[] names = getGroupNames(interop, self);
+            int count = 0;
+            for (int i = 0; i < names.length; i++) {
+                if (names[i] != null) {
+                    count++;
+                }
+            }
+            PKeyword[] entries = new PKeyword[count];
+            int j = 0;
+            for (int i = 0; i < names.length; i++) {
+                if (names[i] != null) {
+                    entries[j++] = new PKeyword(names[i], getGroup(frame, interop, self, i, dflt));
+                }
+            }
+            return factory().createDict(entries);
+        }
+    }
+
+    @Builtin(name = "start", minNumOfPositionalArgs = 1, parameterNames = {"self", "group"})
+    @GenerateNodeFactory
+    abstract static class StartNode extends SREMatchNode {
+        @Specialization
+        int start(PSREMatch self, Object group,
+                        @CachedLibrary(limit = "3") InteropLibrary interop) {
+            return getStart(interop, self, group == PNone.NO_VALUE ? 0 : getGroupIndex(interop, self, group));
+        }
+    }
+
+    @Builtin(name = "end", minNumOfPositionalArgs = 1, parameterNames = {"self", "group"})
+    @GenerateNodeFactory
+    abstract static class EndNode extends SREMatchNode {
+        @Specialization
+        int end(PSREMatch self, Object group,
+                        @CachedLibrary(limit = "3") InteropLibrary interop) {
+            return getEnd(interop, self, group == PNone.NO_VALUE ? 0 : getGroupIndex(interop, self, group));
+        }
+    }
+
+    @Builtin(name = "span", minNumOfPositionalArgs = 1, parameterNames = {"self", "group"})
+    @GenerateNodeFactory
+    abstract static class SpanNode extends SREMatchNode {
+        @Specialization
+        Object span(PSREMatch self, Object group,
+                        @CachedLibrary(limit = "3") InteropLibrary interop) {
+            int index = group == PNone.NO_VALUE ? 0 : getGroupIndex(interop, self, group);
+            return factory().createTuple(new Object[]{getStart(interop, self, index), getEnd(interop, self, index)});
+        }
+    }
+
+    @Builtin(name = "regs", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class RegsNode extends SREMatchNode {
+        @Specialization
+        Object regs(PSREMatch self,
+                        @CachedLibrary(limit = "3") InteropLibrary interop) {
+            Object[] regs = new Object[self.getGroupCount()];
+            for (int i = 0; i < regs.length; i++) {
+                regs[i] = factory().createTuple(new Object[]{getStart(interop, self, i), getEnd(interop, self, i)});
+            }
+            return factory().createTuple(regs);
+        }
+    }
+
+    @Builtin(name = "lastindex", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class LastIndexNode extends SREMatchNode {
+        @Specialization
+        Object lastindex(PSREMatch self,
+                        @CachedLibrary(limit = "3") InteropLibrary interop) {
+            int last = getLastIndex(interop, self);
+            return last < 0 ? PNone.NONE : last;
+        }
+    }
+
+    @Builtin(name = "lastgroup", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class LastGroupNode extends SREMatchNode {
+        @Specialization
+        Object lastgroup(PSREMatch self,
+                        @CachedLibrary(limit = "3") InteropLibrary interop) {
+            int last = getLastIndex(interop, self);
+            if (last < 0) {
+                return PNone.NONE;
+            }
+            String name = getGroupNames(interop, self)[last];
+            return name == null ? PNone.NONE : name;
+        }
+    }
+
+    @Builtin(name = "string", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class StringNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object string(PSREMatch self) {
+            return self.getInput();
+        }
+    }
+
+    @Builtin(name = "re", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ReNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object re(PSREMatch self) {
+            return self.getPattern();
+        }
+    }
+
+    @Builtin(name = "pos", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class PosNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int pos(PSREMatch self) {
+            return self.getPos();
+        }
+    }
+
+    @Builtin(name = "endpos", minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class EndposNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int endpos(PSREMatch self) {
+            return self.getEndpos();
+        }
+    }
+
+    @Builtin(name = __REPR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends SREMatchNode {
+        @Specialization
+        Object repr(VirtualFrame frame, PSREMatch self,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode reprNode,
+                        @Cached CastToStringNode castToStringNode,
+                        @CachedLibrary(limit = "3") InteropLibrary interop) {
+            String match = castToStringNode.execute(frame, reprNode.executeObject(frame, getGroup(frame, interop, self, 0, PNone.NONE)));
+            return format(getStart(interop, self, 0), getEnd(interop, self, 0), match);
+        }
+
+        @TruffleBoundary
+        private static String format(int start, int end, String match) {
+            return String.format("<re.Match object; span=(%d, %d), match=%s>", start, end, match);
+        }
+    }
+}
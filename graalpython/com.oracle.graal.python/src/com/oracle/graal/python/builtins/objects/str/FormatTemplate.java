@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.str;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.ArrayList;
+
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A parsed {@code str.format} template: literal text alternating with replacement fields. Parsing
+ * follows CPython's {@code MarkupIterator}, including automatic field numbering across nested
+ * format specs, so a template only needs to be parsed once and can be cached by the caller.
+ */
+public final class FormatTemplate {
+    public static final char NO_CONVERSION = '\0';
+
+    /** A replacement field {@code {name.attr[key]!conversion:spec}}. */
+    public static final class Field {
+        /** The index of a positional argument or {@code -1} for a keyword argument. */
+        final int argIndex;
+        final String keyword;
+        /** Attribute names as {@link String} and item keys as {@link Integer} or {@link String}. */
+        @CompilationFinal(dimensions = 1) final Object[] lookupKeys;
+        @CompilationFinal(dimensions = 1) final boolean[] isAttributeLookup;
+        /**
+         * A malformed lookup is only reported after the argument and the lookups before it were
+         * resolved, like in CPython, so the error message is kept until then.
+         */
+        final String lookupError;
+        final char conversion;
+        /** The format spec, unless it contains replacement fields itself. */
+        final String spec;
+        final FormatTemplate nestedSpec;
+
+        Field(int argIndex, String keyword, Object[] lookupKeys, boolean[] isAttributeLookup, String lookupError, char conversion, String spec, FormatTemplate nestedSpec) {
+            this.argIndex = argIndex;
+            this.keyword = keyword;
+            this.lookupKeys = lookupKeys;
+            this.isAttributeLookup = isAttributeLookup;
+            this.lookupError = lookupError;
+            this.conversion = conversion;
+            this.spec = spec;
+            this.nestedSpec = nestedSpec;
+        }
+    }
+
+    /** {@code literals[i]} precedes {@code fields[i]}, the last literal follows the last field. */
+    @CompilationFinal(dimensions = 1) final String[] literals;
+    @CompilationFinal(dimensions = 1) final Field[] fields;
+
+    private FormatTemplate(String[] literals, Field[] fields) {
+        this.literals = literals;
+        this.fields = fields;
+    }
+
+    @TruffleBoundary
+    public static FormatTemplate parse(PythonCore core, String template) {
+        return new Parser(core, template).parseTemplate(0, template.length(), 2);
+    }
+
+    private static final class Parser {
+        private static final int AUTO_NUMBERING_INIT = 0;
+        private static final int AUTO_NUMBERING_AUTO = 1;
+        private static final int AUTO_NUMBERING_MANUAL = 2;
+
+        private final PythonCore core;
+        private final String s;
+        private int autoNumberingState = AUTO_NUMBERING_INIT;
+        private int autoNumber = 0;
+
+        Parser(PythonCore core, String s) {
+            this.core = core;
+            this.s = s;
+        }
+
+        FormatTemplate parseTemplate(int start, int end, int level) {
+            if (level == 0) {
+                throw core.raise(ValueError, "Max string recursion exceeded");
+            }
+            ArrayList<String> literals = new ArrayList<>();
+            ArrayList<Field> fields = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            int lastLiteral = start;
+            int i = start;
+            while (i < end) {
+                char c = s.charAt(i++);
+                if (c != '{' && c != '}') {
+                    continue;
+                }
+                boolean atEnd = i == end;
+                boolean markupFollows = true;
+                if (c == '}') {
+                    if (atEnd || s.charAt(i) != '}') {
+                        throw core.raise(ValueError, "Single '}' encountered in format string");
+                    }
+                    i++;
+                    markupFollows = false;
+                } else {
+                    if (atEnd) {
+                        throw core.raise(ValueError, "Single '{' encountered in format string");
+                    }
+                    if (s.charAt(i) == '{') {
+                        i++;
+                        markupFollows = false;
+                    }
+                }
+                // the literal text ends with the first of the doubled braces
+                literal.append(s, lastLiteral, i - 1);
+                lastLiteral = i;
+                if (!markupFollows) {
+                    continue;
+                }
+                int nested = 1;
+                int fieldStart = i;
+                boolean recursive = false;
+                while (i < end) {
+                    c = s.charAt(i);
+                    if (c == '{') {
+                        recursive = true;
+                        nested++;
+                    } else if (c == '}') {
+                        nested--;
+                        if (nested == 0) {
+                            break;
+                        }
+                    } else if (c == '[') {
+                        i++;
+                        while (i < end && s.charAt(i) != ']') {
+                            i++;
+                        }
+                        continue;
+                    }
+                    i++;
+                }
+                if (nested > 0) {
+                    throw core.raise(ValueError, "expected '}' before end of string");
+                }
+                literals.add(literal.toString());
+                literal.setLength(0);
+                fields.add(parseField(fieldStart, i, recursive, level - 1));
+                i++;
+                lastLiteral = i;
+            }
+            literal.append(s, lastLiteral, end);
+            literals.add(literal.toString());
+            return new FormatTemplate(literals.toArray(new String[literals.size()]), fields.toArray(new Field[fields.size()]));
+        }
+
+        private Field parseField(int start, int end, boolean recursive, int level) {
+            int nameEnd = end;
+            int specStart = end;
+            char conversion = NO_CONVERSION;
+            for (int i = start; i < end; i++) {
+                char c = s.charAt(i);
+                if (c == ':' || c == '!') {
+                    nameEnd = i;
+                    if (c == '!') {
+                        i++;
+                        if (i == end) {
+                            throw core.raise(ValueError, "end of string while looking for conversion specifier");
+                        }
+                        conversion = s.charAt(i);
+                        if (conversion != 'r' && conversion != 's' && conversion != 'a') {
+                            throw core.raise(ValueError, "Unknown conversion specifier %s", String.valueOf(conversion));
+                        }
+                        i++;
+                        if (i < end) {
+                            if (s.charAt(i) != ':') {
+                                throw core.raise(ValueError, "expected ':' after conversion specifier");
+                            }
+                            i++;
+                        }
+                    } else {
+                        i++;
+                    }
+                    specStart = i;
+                    break;
+                } else if (c == '[') {
+                    while (i + 1 < end && s.charAt(i + 1) != ']') {
+                        i++;
+                    }
+                } else if (c == '{') {
+                    throw core.raise(ValueError, "unexpected '{' in field name");
+                }
+            }
+
+            // the argument comes first, then the lookups on it
+            int argEnd = start;
+            while (argEnd < nameEnd && s.charAt(argEnd) != '.' && s.charAt(argEnd) != '[') {
+                argEnd++;
+            }
+            boolean empty = argEnd == start;
+            int index = empty ? -1 : parseIndex(start, argEnd);
+            boolean useNumeric = empty || index != -1;
+            if (useNumeric) {
+                if (autoNumberingState == AUTO_NUMBERING_INIT) {
+                    autoNumberingState = empty ? AUTO_NUMBERING_AUTO : AUTO_NUMBERING_MANUAL;
+                } else if (autoNumberingState == AUTO_NUMBERING_MANUAL && empty) {
+                    throw core.raise(ValueError, "cannot switch from manual field specification to automatic field numbering");
+                } else if (autoNumberingState == AUTO_NUMBERING_AUTO && !empty) {
+                    throw core.raise(ValueError, "cannot switch from automatic field numbering to manual field specification");
+                }
+            }
+            if (empty) {
+                index = autoNumber++;
+            }
+            String keyword = index == -1 ? s.substring(start, argEnd) : null;
+
+            ArrayList<Object> lookupKeys = new ArrayList<>();
+            ArrayList<Boolean> isAttributeLookup = new ArrayList<>();
+            String lookupError = null;
+            int i = argEnd;
+            while (i < nameEnd && lookupError == null) {
+                char c = s.charAt(i++);
+                int keyStart = i;
+                if (c == '.') {
+                    while (i < nameEnd && s.charAt(i) != '.' && s.charAt(i) != '[') {
+                        i++;
+                    }
+                    if (keyStart == i) {
+                        lookupError = "Empty attribute in format string";
+                    } else {
+                        lookupKeys.add(s.substring(keyStart, i));
+                        isAttributeLookup.add(true);
+                    }
+                } else if (c == '[') {
+                    while (i < nameEnd && s.charAt(i) != ']') {
+                        i++;
+                    }
+                    if (i == nameEnd) {
+                        lookupError = "Missing ']' in format string";
+                    } else if (keyStart == i) {
+                        lookupError = "Empty attribute in format string";
+                    } else {
+                        int itemIndex = parseIndex(keyStart, i);
+                        lookupKeys.add(itemIndex == -1 ? s.substring(keyStart, i) : (Object) itemIndex);
+                        isAttributeLookup.add(false);
+                        i++;
+                    }
+                } else {
+                    lookupError = "Only '.' or '[' may follow ']' in format field specifier";
+                }
+            }
+            boolean[] isAttribute = new boolean[isAttributeLookup.size()];
+            for (int j = 0; j < isAttribute.length; j++) {
+                isAttribute[j] = isAttributeLookup.get(j);
+            }
+
+            if (recursive) {
+                FormatTemplate nestedSpec = parseTemplate(specStart, end, level);
+                return new Field(index, keyword, lookupKeys.toArray(), isAttribute, lookupError, conversion, null, nestedSpec);
+            }
+            return new Field(index, keyword, lookupKeys.toArray(), isAttribute, lookupError, conversion, s.substring(specStart, end), null);
+        }
+
+        /** Returns the value if the range is a non-negative decimal number, otherwise -1. */
+        private int parseIndex(int start, int end) {
+            int value = 0;
+            for (int i = start; i < end; i++) {
+                int digit = Character.digit(s.charAt(i), 10);
+                if (digit < 0) {
+                    return -1;
+                }
+                if (value > (Integer.MAX_VALUE - digit) / 10) {
+                    throw core.raise(ValueError, "Too many decimal digits in format string");
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.str;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__FORMAT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__STR__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.KeyError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.str.FormatTemplate.Field;
+import com.oracle.graal.python.builtins.objects.str.FormatTemplateNodesFactory.FormatValueNodeGen;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode.GetFixedAttributeNode;
+import com.oracle.graal.python.nodes.builtins.JoinInternalNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.subscript.GetItemNode;
+import com.oracle.graal.python.nodes.util.CastToStringNode;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.profiles.BranchProfile;
+
+public abstract class FormatTemplateNodes {
+
+    /**
+     * Formats one parsed template. There is a child node for every replacement field, so lookups
+     * and {@code __format__} calls of each field are cached separately.
+     */
+    public static final class ExecuteFormatTemplateNode extends PythonBuiltinBaseNode {
+        private final FormatTemplate template;
+        @Children private final FormatFieldNode[] fieldNodes;
+
+        private ExecuteFormatTemplateNode(FormatTemplate template) {
+            this.template = template;
+            this.fieldNodes = new FormatFieldNode[template.fields.length];
+            for (int i = 0; i < fieldNodes.length; i++) {
+                fieldNodes[i] = new FormatFieldNode(template.fields[i]);
+            }
+        }
+
+        public static ExecuteFormatTemplateNode create(FormatTemplate template) {
+            return new ExecuteFormatTemplateNode(template);
+        }
+
+        /**
+         * Parses and formats a template that is not cached by the calling node.
+         */
+        @TruffleBoundary
+        public static String executeUncached(PythonCore core, String template, Object[] args, PKeyword[] keywords, Object mapping) {
+            return create(FormatTemplate.parse(core, template)).execute(null, args, keywords, mapping);
+        }
+
+        /**
+         * @param args the positional arguments of {@code str.format}
+         * @param keywords the keyword arguments of {@code str.format}
+         * @param mapping the argument of {@code str.format_map} or {@code null}
+         */
+        @ExplodeLoop
+        public String execute(VirtualFrame frame, Object[] args, PKeyword[] keywords, Object mapping) {
+            String[] literals = template.literals;
+            if (fieldNodes.length == 0) {
+                return literals[0];
+            }
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < fieldNodes.length; i++) {
+                JoinInternalNode.append(sb, literals[i]);
+                JoinInternalNode.append(sb, fieldNodes[i].execute(frame, args, keywords, mapping));
+            }
+            JoinInternalNode.append(sb, literals[fieldNodes.length]);
+            return JoinInternalNode.toString(sb);
+        }
+    }
+
+    static final class FormatFieldNode extends PythonBuiltinBaseNode {
+        private final Field field;
+        @Children private final Node[] lookupNodes;
+        @Child private GetItemNode getMappingItemNode;
+        @Child private LookupAndCallUnaryNode conversionNode;
+        @Child private CastToStringNode castToStringNode;
+        @Child private ExecuteFormatTemplateNode nestedSpecNode;
+        @Child private FormatValueNode formatValueNode = FormatValueNodeGen.create();
+        private final BranchProfile errorProfile = BranchProfile.create();
+
+        FormatFieldNode(Field field) {
+            this.field = field;
+            this.lookupNodes = new Node[field.lookupKeys.length];
+            for (int i = 0; i < lookupNodes.length; i++) {
+                if (field.isAttributeLookup[i]) {
+                    lookupNodes[i] = GetFixedAttributeNode.create((String) field.lookupKeys[i]);
+                } else {
+                    lookupNodes[i] = GetItemNode.create();
+                }
+            }
+            if (field.conversion == 'r' || field.conversion == 'a') {
+                conversionNode = LookupAndCallUnaryNode.create(__REPR__);
+                castToStringNode = CastToStringNode.create();
+            } else if (field.conversion == 's') {
+                conversionNode = LookupAndCallUnaryNode.create(__STR__);
+            }
+            if (field.nestedSpec != null) {
+                nestedSpecNode = ExecuteFormatTemplateNode.create(field.nestedSpec);
+            }
+        }
+
+        @ExplodeLoop
+        String execute(VirtualFrame frame, Object[] args, PKeyword[] keywords, Object mapping) {
+            Object value = getArgument(frame, args, keywords, mapping);
+            for (int i = 0; i < lookupNodes.length; i++) {
+                Node lookupNode = lookupNodes[i];
+                if (lookupNode instanceof GetFixedAttributeNode) {
+                    value = ((GetFixedAttributeNode) lookupNode).executeObject(frame, value);
+                } else {
+                    value = ((GetItemNode) lookupNode).execute(frame, value, field.lookupKeys[i]);
+                }
+            }
+            if (field.lookupError != null) {
+                errorProfile.enter();
+                throw raise(ValueError, "%s", field.lookupError);
+            }
+            if (conversionNode != null) {
+                value = conversionNode.executeObject(frame, value);
+                if (field.conversion == 'a') {
+                    value = StringUtils.toAscii(castToStringNode.execute(frame, value));
+                }
+            }
+            String spec = nestedSpecNode != null ? nestedSpecNode.execute(frame, args, keywords, mapping) : field.spec;
+            return formatValueNode.execute(frame, value, spec);
+        }
+
+        private Object getArgument(VirtualFrame frame, Object[] args, PKeyword[] keywords, Object mapping) {
+            if (field.argIndex >= 0) {
+                if (mapping != null) {
+                    errorProfile.enter();
+                    throw raise(ValueError, "Format string contains positional fields");
+                }
+                if (field.argIndex >= args.length) {
+                    errorProfile.enter();
+                    throw raise(IndexError, "Replacement index %d out of range for positional args tuple", field.argIndex);
+                }
+                return args[field.argIndex];
+            }
+            if (mapping != null) {
+                if (getMappingItemNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    getMappingItemNode = insert(GetItemNode.create());
+                }
+                return getMappingItemNode.execute(frame, mapping, field.keyword);
+            }
+            for (int i = 0; i < keywords.length; i++) {
+                if (field.keyword.equals(keywords[i].getName())) {
+                    return keywords[i].getValue();
+                }
+            }
+            errorProfile.enter();
+            throw raise(KeyError, "%s", field.keyword);
+        }
+    }
+
+    /** {@code format(value, spec)}, with shortcuts for strings and ints without a spec. */
+    abstract static class FormatValueNode extends PythonBuiltinBaseNode {
+        abstract String execute(VirtualFrame frame, Object value, String spec);
+
+        @Specialization(guards = "spec.isEmpty()")
+        String doString(String value, @SuppressWarnings("unused") String spec) {
+            return value;
+        }
+
+        @Specialization(guards = "spec.isEmpty()")
+        String doInt(int value, @SuppressWarnings("unused") String spec) {
+            return intToString(value);
+        }
+
+        @Specialization(guards = "spec.isEmpty()")
+        String doLong(long value, @SuppressWarnings("unused") String spec) {
+            return longToString(value);
+        }
+
+        @Specialization
+        String doGeneric(VirtualFrame frame, Object value, String spec,
+                        @Cached("create(__FORMAT__)") LookupAndCallBinaryNode callFormatNode) {
+            Object result = callFormatNode.executeObject(frame, value, spec);
+            if (result instanceof String) {
+                return (String) result;
+            } else if (result instanceof PString) {
+                return ((PString) result).getValue();
+            }
+            throw raise(TypeError, "__format__ must return a str, not %p", result);
+        }
+
+        @TruffleBoundary
+        private static String intToString(int value) {
+            return Integer.toString(value);
+        }
+
+        @TruffleBoundary
+        private static String longToString(long value) {
+            return Long.toString(value);
+        }
+    }
+}
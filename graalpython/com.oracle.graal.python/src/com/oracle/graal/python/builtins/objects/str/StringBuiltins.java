@@ -28,6 +28,7 @@ package com.oracle.graal.python.builtins.objects.str;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__ADD__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__CONTAINS__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__FORMAT__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETITEM__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__GE__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__GT__;
@@ -71,6 +72,8 @@ import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
 import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.SetItemNode;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.iterator.PStringIterator;
 import com.oracle.graal.python.builtins.objects.list.ListBuiltins.ListReverseNode;
@@ -78,6 +81,7 @@ import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
 import com.oracle.graal.python.builtins.objects.slice.PSlice;
 import com.oracle.graal.python.builtins.objects.slice.PSlice.SliceInfo;
+import com.oracle.graal.python.builtins.objects.str.FormatTemplateNodes.ExecuteFormatTemplateNode;
 import com.oracle.graal.python.builtins.objects.str.StringUtils.StripKind;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.PNodeWithContext;
@@ -88,6 +92,7 @@ import com.oracle.graal.python.nodes.builtins.JoinInternalNode;
 import com.oracle.graal.python.nodes.builtins.ListNodes.AppendNode;
 import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
@@ -103,7 +108,10 @@ import com.oracle.graal.python.nodes.util.CastToIntegerFromIndexNode;
 import com.oracle.graal.python.nodes.util.ExceptionStateNodes.PassCaughtExceptionNode;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.formatting.InternalFormat;
+import com.oracle.graal.python.runtime.formatting.InternalFormat.Formatter;
 import com.oracle.graal.python.runtime.formatting.StringFormatter;
+import com.oracle.graal.python.runtime.formatting.TextFormatter;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleLanguage.ContextReference;
@@ -1606,6 +1614,84 @@ public final class StringBuiltins extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = "format", minNumOfPositionalArgs = 1, takesVarArgs = true, takesVarKeywordArgs = true)
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    abstract static class FormatMethodNode extends PythonBuiltinNode {
+
+        @Specialization(guards = "self == cachedSelf", limit = "3")
+        String doCached(VirtualFrame frame, @SuppressWarnings("unused") String self, Object[] args, PKeyword[] keywords,
+                        @SuppressWarnings("unused") @Cached("self") String cachedSelf,
+                        @Cached("createTemplateNode(self)") ExecuteFormatTemplateNode templateNode) {
+            return templateNode.execute(frame, args, keywords, null);
+        }
+
+        @Specialization(replaces = "doCached")
+        String doGeneric(String self, Object[] args, PKeyword[] keywords) {
+            return ExecuteFormatTemplateNode.executeUncached(getCore(), self, args, keywords, null);
+        }
+
+        protected ExecuteFormatTemplateNode createTemplateNode(String template) {
+            return ExecuteFormatTemplateNode.create(FormatTemplate.parse(getCore(), template));
+        }
+    }
+
+    @Builtin(name = "format_map", minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    abstract static class FormatMapNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(guards = "self == cachedSelf", limit = "3")
+        String doCached(VirtualFrame frame, @SuppressWarnings("unused") String self, Object mapping,
+                        @SuppressWarnings("unused") @Cached("self") String cachedSelf,
+                        @Cached("createTemplateNode(self)") ExecuteFormatTemplateNode templateNode) {
+            return templateNode.execute(frame, PArguments.EMPTY_VARARGS, PKeyword.EMPTY_KEYWORDS, mapping);
+        }
+
+        @Specialization(replaces = "doCached")
+        String doGeneric(String self, Object mapping) {
+            return ExecuteFormatTemplateNode.executeUncached(getCore(), self, PArguments.EMPTY_VARARGS, PKeyword.EMPTY_KEYWORDS, mapping);
+        }
+
+        protected ExecuteFormatTemplateNode createTemplateNode(String template) {
+            return ExecuteFormatTemplateNode.create(FormatTemplate.parse(getCore(), template));
+        }
+    }
+
+    @Builtin(name = __FORMAT__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    abstract static class FormatNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(guards = "formatString.isEmpty()")
+        Object formatEmpty(VirtualFrame frame, Object self, @SuppressWarnings("unused") String formatString,
+                        @Cached("create(__STR__)") LookupAndCallUnaryNode strNode) {
+            return strNode.executeObject(frame, self);
+        }
+
+        @Specialization(guards = "!formatString.isEmpty()")
+        @TruffleBoundary
+        String format(String self, String formatString) {
+            InternalFormat.Spec spec = InternalFormat.fromText(getCore(), formatString, __FORMAT__);
+            // Check for disallowed parts of the specification
+            if (spec.type != InternalFormat.Spec.NONE && spec.type != 's') {
+                throw Formatter.unknownFormat(getCore(), spec.type, "str");
+            } else if (InternalFormat.Spec.specified(spec.sign)) {
+                throw Formatter.signNotAllowed(getCore(), "string", '\0');
+            } else if (spec.alternate) {
+                throw Formatter.alternateFormNotAllowed(getCore(), "string");
+            } else if (spec.align == '=') {
+                throw Formatter.notAllowed(getCore(), "'=' alignment", "string");
+            } else if (spec.grouping) {
+                throw Formatter.notAllowed(getCore(), "Grouping", "string");
+            }
+            // spec may be incomplete. The defaults are those commonly used for string formats.
+            TextFormatter formatter = new TextFormatter(getCore(), spec.withDefaults(InternalFormat.Spec.STRING));
+            formatter.format(self);
+            return formatter.pad().getResult();
+        }
+    }
+
     @Builtin(name = "isalnum", minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     @TypeSystemReference(PythonArithmeticTypes.class)
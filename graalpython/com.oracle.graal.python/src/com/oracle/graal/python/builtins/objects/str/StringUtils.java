@@ -40,6 +40,8 @@
  */
 package com.oracle.graal.python.builtins.objects.str;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
 public final class StringUtils {
     public enum StripKind {
         LEFT,
@@ -199,4 +201,26 @@ public final class StringUtils {
 
         return str.substring(i, j);
     }
+
+    /**
+     * Escapes all non-ASCII characters like {@code ascii()} does for the result of {@code repr()}.
+     */
+    @TruffleBoundary
+    public static String toAscii(String str) {
+        StringBuilder sb = new StringBuilder(str.length());
+        for (int i = 0; i < str.length();) {
+            int codePoint = str.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (codePoint < 0x80) {
+                sb.appendCodePoint(codePoint);
+            } else if (codePoint < 0x100) {
+                sb.append(String.format("\\x%02x", codePoint));
+            } else if (codePoint < 0x10000) {
+                sb.append(String.format("\\u%04x", codePoint));
+            } else {
+                sb.append(String.format("\\U%08x", codePoint));
+            }
+        }
+        return sb.toString();
+    }
 }
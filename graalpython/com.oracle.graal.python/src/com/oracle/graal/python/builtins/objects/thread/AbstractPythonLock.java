@@ -45,7 +45,8 @@ import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 
 public abstract class AbstractPythonLock extends PythonBuiltinObject {
 
-    public static final double TIMEOUT_MAX = 2 ^ 31;
+    // the largest timeout in seconds whose nanoseconds fit into a long, as in CPython
+    public static final double TIMEOUT_MAX = Long.MAX_VALUE / 1e9;
     public static final boolean DEFAULT_BLOCKING = true;
     public static final double DEFAULT_TIMEOUT = -1.0;
 
@@ -62,6 +63,15 @@ public abstract class AbstractPythonLock extends PythonBuiltinObject {
         return seconds * 1000 + milli;
     }
 
+    /**
+     * Converts a timeout in seconds for waiting on a condition or an event, where {@code None}
+     * is passed as a negative value meaning to wait forever and non-positive values mean not to
+     * wait at all.
+     */
+    public static long getTimeoutInNanos(double timeout) {
+        return timeout < 0 ? -1 : (long) (timeout * 1e9);
+    }
+
     protected abstract boolean acquireNonBlocking();
 
     protected abstract boolean acquireBlocking();
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.thread;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ENTER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EXIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.RuntimeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.thread.LockBuiltins.AcquireLockNode;
+import com.oracle.graal.python.builtins.objects.thread.LockBuiltins.ReleaseLockNode;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToDoubleNode;
+import com.oracle.graal.python.nodes.util.CastToIndexNode;
+import com.oracle.graal.python.runtime.GlobalInterpreterLock;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PCondition)
+public class ConditionBuiltins extends PythonBuiltins {
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return ConditionBuiltinsFactory.getFactories();
+    }
+
+    abstract static class ConditionWaitBaseNode extends PythonBuiltinNode {
+        protected void checkOwned(PCondition self, String action) {
+            if (!self.isOwned()) {
+                throw raise(RuntimeError, "cannot %s on un-acquired lock", action);
+            }
+        }
+
+        /**
+         * Waits for a notification without holding the global interpreter lock.
+         */
+        protected boolean await(PCondition self, long timeoutNanos) {
+            GlobalInterpreterLock gil = getContext().getGil();
+            int held = gil.releaseForBlocking();
+            try {
+                return self.await(timeoutNanos);
+            } finally {
+                gil.reacquire(held);
+            }
+        }
+
+        protected static long getTimeoutNanos(VirtualFrame frame, Object timeout, CastToDoubleNode castToDoubleNode) {
+            if (PGuards.isPNone(timeout)) {
+                return -1;
+            }
+            // a non-positive timeout only checks for a pending notification
+            return AbstractPythonLock.getTimeoutInNanos(Math.max(castToDoubleNode.execute(frame, timeout), 0));
+        }
+    }
+
+    @Builtin(name = "acquire", minNumOfPositionalArgs = 1, parameterNames = {"self", "blocking", "timeout"})
+    @GenerateNodeFactory
+    abstract static class AcquireNode extends PythonTernaryBuiltinNode {
+        @Specialization
+        Object acquire(VirtualFrame frame, PCondition self, Object blocking, Object timeout,
+                        @Cached AcquireLockNode acquireLockNode) {
+            return acquireLockNode.execute(frame, self.getLock(), blocking, timeout);
+        }
+    }
+
+    @Builtin(name = __ENTER__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class EnterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object enter(VirtualFrame frame, PCondition self,
+                        @Cached AcquireLockNode acquireLockNode) {
+            return acquireLockNode.execute(frame, self.getLock(), PNone.NO_VALUE, PNone.NO_VALUE);
+        }
+    }
+
+    @Builtin(name = "release", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReleaseNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object release(VirtualFrame frame, PCondition self,
+                        @Cached ReleaseLockNode releaseLockNode) {
+            return releaseLockNode.execute(frame, self.getLock());
+        }
+    }
+
+    @Builtin(name = __EXIT__, minNumOfPositionalArgs = 4)
+    @GenerateNodeFactory
+    abstract static class ExitNode extends PythonBuiltinNode {
+        @Specialization
+        Object exit(VirtualFrame frame, PCondition self, @SuppressWarnings("unused") Object type, @SuppressWarnings("unused") Object value, @SuppressWarnings("unused") Object traceback,
+                        @Cached ReleaseLockNode releaseLockNode) {
+            return releaseLockNode.execute(frame, self.getLock());
+        }
+    }
+
+    @Builtin(name = "_is_owned", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IsOwnedNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean isOwned(PCondition self) {
+            return self.isOwned();
+        }
+    }
+
+    @Builtin(name = "wait", minNumOfPositionalArgs = 1, parameterNames = {"self", "timeout"})
+    @GenerateNodeFactory
+    abstract static class WaitNode extends ConditionWaitBaseNode {
+        @Specialization
+        boolean doWait(VirtualFrame frame, PCondition self, Object timeout,
+                        @Cached CastToDoubleNode castToDoubleNode) {
+            checkOwned(self, "wait");
+            return await(self, getTimeoutNanos(frame, timeout, castToDoubleNode));
+        }
+    }
+
+    @Builtin(name = "wait_for", minNumOfPositionalArgs = 2, parameterNames = {"self", "predicate", "timeout"})
+    @GenerateNodeFactory
+    abstract static class WaitForNode extends ConditionWaitBaseNode {
+        @Specialization
+        Object waitFor(VirtualFrame frame, PCondition self, Object predicate, Object timeout,
+                        @Cached CastToDoubleNode castToDoubleNode,
+                        @Cached CallNode callNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castToBooleanNode) {
+            long timeoutNanos = getTimeoutNanos(frame, timeout, castToDoubleNode);
+            long deadline = timeoutNanos < 0 ? 0 : nanoTime() + timeoutNanos;
+            Object result = callNode.execute(frame, predicate);
+            while (!castToBooleanNode.executeBoolean(frame, result)) {
+                long waitNanos = -1;
+                if (timeoutNanos >= 0) {
+                    waitNanos = deadline - nanoTime();
+                    if (waitNanos <= 0) {
+                        break;
+                    }
+                }
+                checkOwned(self, "wait");
+                await(self, waitNanos);
+                result = callNode.execute(frame, predicate);
+            }
+            return result;
+        }
+
+        @TruffleBoundary
+        private static long nanoTime() {
+            return System.nanoTime();
+        }
+    }
+
+    @Builtin(name = "notify", minNumOfPositionalArgs = 1, parameterNames = {"self", "n"})
+    @GenerateNodeFactory
+    abstract static class NotifyNode extends ConditionWaitBaseNode {
+        @Specialization
+        Object doNotify(PCondition self, Object n,
+                        @Cached CastToIndexNode castToIndexNode) {
+            checkOwned(self, "notify");
+            self.signal(PGuards.isPNone(n) ? 1 : castToIndexNode.execute(n));
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "notify_all", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class NotifyAllNode extends ConditionWaitBaseNode {
+        @Specialization
+        Object doNotifyAll(PCondition self) {
+            checkOwned(self, "notify");
+            self.signalAll();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "notifyAll", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class NotifyAllCamelCaseNode extends NotifyAllNode {
+    }
+
+    @Builtin(name = __REPR__, minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object repr(VirtualFrame frame, PCondition self,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode reprNode) {
+            return format(reprNode.executeObject(frame, self.getLock()), self.getWaiterCount());
+        }
+
+        @TruffleBoundary
+        private static String format(Object lockRepr, int waiterCount) {
+            return String.format("<Condition(%s, %d)>", lockRepr, waiterCount);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.thread;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToDoubleNode;
+import com.oracle.graal.python.runtime.GlobalInterpreterLock;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PEvent)
+public class EventBuiltins extends PythonBuiltins {
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return EventBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = "is_set", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IsSetNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean isSet(PEvent self) {
+            return self.isSet();
+        }
+    }
+
+    @Builtin(name = "isSet", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class IsSetCamelCaseNode extends IsSetNode {
+    }
+
+    @Builtin(name = "set", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class SetNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object set(PEvent self) {
+            self.set();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "clear", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ClearNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object clear(PEvent self) {
+            self.clear();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "wait", minNumOfPositionalArgs = 1, parameterNames = {"self", "timeout"})
+    @GenerateNodeFactory
+    abstract static class WaitNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        boolean doWait(VirtualFrame frame, PEvent self, Object timeout,
+                        @Cached CastToDoubleNode castToDoubleNode) {
+            long timeoutNanos = -1;
+            if (!PGuards.isPNone(timeout)) {
+                timeoutNanos = AbstractPythonLock.getTimeoutInNanos(Math.max(castToDoubleNode.execute(frame, timeout), 0));
+            }
+            GlobalInterpreterLock gil = getContext().getGil();
+            int held = gil.releaseForBlocking();
+            try {
+                return self.await(timeoutNanos);
+            } finally {
+                gil.reacquire(held);
+            }
+        }
+    }
+
+    // called by 'threading' after a fork, there is nothing to reset since the internal lock is
+    // never held across calls
+    @Builtin(name = "_reset_internal_locks", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    abstract static class ResetInternalLocksNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object reset(@SuppressWarnings("unused") PEvent self) {
+            return PNone.NONE;
+        }
+    }
+}
@@ -47,6 +47,7 @@ import static com.oracle.graal.python.nodes.SpecialMethodNames.__ENTER__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__EXIT__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.RuntimeError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
 import java.util.List;
@@ -57,6 +58,7 @@ import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.thread.LockBuiltinsFactory.AcquireLockNodeFactory;
+import com.oracle.graal.python.builtins.objects.thread.LockBuiltinsFactory.ReleaseLockNodeFactory;
 import com.oracle.graal.python.builtins.objects.type.TypeNodes.GetNameNode;
 import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
@@ -64,6 +66,7 @@ import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.nodes.util.CastToDoubleNode;
+import com.oracle.graal.python.runtime.GlobalInterpreterLock;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -89,6 +92,8 @@ public class LockBuiltins extends PythonBuiltins {
         private @CompilationFinal ConditionProfile isBlockingProfile = ConditionProfile.createBinaryProfile();
         private @CompilationFinal ConditionProfile defaultTimeoutProfile = ConditionProfile.createBinaryProfile();
 
+        private static final double NON_BLOCKING = -2.0;
+
         private CastToDoubleNode getCastToDoubleNode() {
             if (castToDoubleNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -106,34 +111,66 @@ public class LockBuiltins extends PythonBuiltins {
         }
 
         @Specialization
-        boolean doAcquire(VirtualFrame frame, AbstractPythonLock self, Object blocking, Object timeout) {
-            // args setup
-            boolean isBlocking = (blocking instanceof PNone) ? DEFAULT_BLOCKING : getCastToBooleanNode().executeBoolean(frame, blocking);
-            double timeoutSeconds = DEFAULT_TIMEOUT;
-            if (!(timeout instanceof PNone)) {
-                if (!isBlocking) {
-                    throw raise(ValueError, "can't specify a timeout for a non-blocking call");
-                }
-
-                timeoutSeconds = getCastToDoubleNode().execute(frame, timeout);
-
-                if (timeoutSeconds < 0) {
-                    throw raise(ValueError, "timeout value must be positive");
-                } else if (timeoutSeconds > TIMEOUT_MAX) {
-                    throw raise(OverflowError, "timeout value is too large");
-                }
+        boolean doAcquire(VirtualFrame frame, PLock self, Object blocking, Object timeout) {
+            double timeoutSeconds = getTimeout(frame, blocking, timeout);
+            if (isBlockingProfile.profile(timeoutSeconds == NON_BLOCKING)) {
+                return self.acquireNonBlocking();
+            } else {
+                return acquireWithoutGil(self, timeoutSeconds);
             }
+        }
 
-            // acquire lock
-            if (isBlockingProfile.profile(!isBlocking)) {
+        @Specialization
+        boolean doAcquire(VirtualFrame frame, PRLock self, Object blocking, Object timeout) {
+            double timeoutSeconds = getTimeout(frame, blocking, timeout);
+            if (isBlockingProfile.profile(timeoutSeconds == NON_BLOCKING)) {
                 return self.acquireNonBlocking();
             } else {
+                return acquireWithoutGil(self, timeoutSeconds);
+            }
+        }
+
+        /**
+         * Waits for the lock without holding the global interpreter lock, so that the owner can
+         * run and release it. A free lock is taken without giving up the global interpreter lock.
+         */
+        private boolean acquireWithoutGil(AbstractPythonLock self, double timeoutSeconds) {
+            GlobalInterpreterLock gil = getContext().getGil();
+            if (gil.isEnabled() && self.acquireNonBlocking()) {
+                return true;
+            }
+            int held = gil.releaseForBlocking();
+            try {
                 if (defaultTimeoutProfile.profile(timeoutSeconds == DEFAULT_TIMEOUT)) {
                     return self.acquireBlocking();
                 } else {
                     return self.acquireTimeout(timeoutSeconds);
                 }
+            } finally {
+                gil.reacquire(held);
+            }
+        }
+
+        /**
+         * Checks the arguments and returns the timeout in seconds, {@link #NON_BLOCKING} for a
+         * non-blocking call or {@code DEFAULT_TIMEOUT} to wait forever.
+         */
+        private double getTimeout(VirtualFrame frame, Object blocking, Object timeout) {
+            boolean isBlocking = (blocking instanceof PNone) ? DEFAULT_BLOCKING : getCastToBooleanNode().executeBoolean(frame, blocking);
+            double timeoutSeconds = DEFAULT_TIMEOUT;
+            if (!(timeout instanceof PNone)) {
+                timeoutSeconds = getCastToDoubleNode().execute(frame, timeout);
+
+                if (!isBlocking && timeoutSeconds != DEFAULT_TIMEOUT) {
+                    throw raise(ValueError, "can't specify a timeout for a non-blocking call");
+                }
+                if (timeoutSeconds < 0 && timeoutSeconds != DEFAULT_TIMEOUT) {
+                    throw raise(ValueError, "timeout value must be positive");
+                } else if (timeoutSeconds > TIMEOUT_MAX) {
+                    throw raise(OverflowError, "timeout value is too large");
+                }
             }
+            return isBlocking ? timeoutSeconds : NON_BLOCKING;
         }
 
         public static AcquireLockNode create() {
@@ -165,21 +202,35 @@ public class LockBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class ReleaseLockNode extends PythonUnaryBuiltinNode {
         @Specialization
-        @TruffleBoundary
-        Object doRelease(AbstractPythonLock self) {
+        Object doRelease(PLock self) {
+            if (!self.locked()) {
+                throw raise(RuntimeError, "release unlocked lock");
+            }
+            self.release();
+            return PNone.NONE;
+        }
+
+        @Specialization
+        Object doRelease(PRLock self) {
+            if (!self.isOwned()) {
+                throw raise(RuntimeError, "cannot release un-acquired lock");
+            }
             self.release();
             return PNone.NONE;
         }
+
+        public static ReleaseLockNode create() {
+            return ReleaseLockNodeFactory.create();
+        }
     }
 
     @Builtin(name = __EXIT__, minNumOfPositionalArgs = 4)
     @GenerateNodeFactory
     abstract static class ExitLockNode extends PythonBuiltinNode {
         @Specialization
-        @TruffleBoundary
-        Object exit(AbstractPythonLock self, @SuppressWarnings("unused") Object type, @SuppressWarnings("unused") Object value, @SuppressWarnings("unused") Object traceback) {
-            self.release();
-            return PNone.NONE;
+        Object exit(VirtualFrame frame, AbstractPythonLock self, @SuppressWarnings("unused") Object type, @SuppressWarnings("unused") Object value, @SuppressWarnings("unused") Object traceback,
+                        @Cached ReleaseLockNode releaseLockNode) {
+            return releaseLockNode.execute(frame, self);
         }
     }
 
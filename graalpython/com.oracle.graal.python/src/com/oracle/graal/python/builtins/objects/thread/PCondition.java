@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.thread;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A {@code threading.Condition} over a builtin lock. Every waiter parks on its own
+ * {@link Condition} of an internal monitor, so {@code notify(n)} wakes exactly {@code n} threads
+ * and waiters are notified in FIFO order, like in CPython.
+ */
+public final class PCondition extends PythonBuiltinObject {
+    private static final class Waiter {
+        private final Condition condition;
+        private boolean notified;
+
+        Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+
+    private final AbstractPythonLock lock;
+    private final ReentrantLock monitor = new ReentrantLock();
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+    // the size of 'waiters', readable without the monitor
+    private volatile int waiterCount;
+
+    @TruffleBoundary
+    public PCondition(LazyPythonClass cls, AbstractPythonLock lock) {
+        super(cls);
+        this.lock = lock;
+    }
+
+    public AbstractPythonLock getLock() {
+        return lock;
+    }
+
+    /**
+     * For an {@link PRLock} this is whether the current thread owns it. A {@link PLock} has no
+     * owner, so it is enough that it is locked.
+     */
+    public boolean isOwned() {
+        if (lock instanceof PRLock) {
+            return ((PRLock) lock).isOwned();
+        }
+        return lock.locked();
+    }
+
+    /**
+     * Releases the lock, waits until notified or until the timeout elapsed and re-acquires the lock
+     * in the state it had before. The caller must own the lock.
+     *
+     * @param timeoutNanos the timeout or a negative value to wait forever
+     * @return whether this thread was notified
+     */
+    @TruffleBoundary
+    public boolean await(long timeoutNanos) {
+        Waiter waiter = new Waiter(monitor.newCondition());
+        monitor.lock();
+        try {
+            // enqueue before releasing the lock, notifying requires the lock
+            waiters.addLast(waiter);
+            waiterCount = waiters.size();
+        } finally {
+            monitor.unlock();
+        }
+        int savedCount = releaseSave();
+        try {
+            monitor.lock();
+            try {
+                long nanos = timeoutNanos;
+                while (!waiter.notified) {
+                    if (timeoutNanos < 0) {
+                        waiter.condition.await();
+                    } else if (nanos > 0) {
+                        nanos = waiter.condition.awaitNanos(nanos);
+                    } else {
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (!waiter.notified) {
+                    waiters.remove(waiter);
+                    waiterCount = waiters.size();
+                }
+                monitor.unlock();
+            }
+            return waiter.notified;
+        } finally {
+            acquireRestore(savedCount);
+        }
+    }
+
+    /**
+     * Wakes up to {@code n} waiters. The caller owns the lock and threads only start waiting while
+     * they own it, so a notification without waiters, e.g. the {@code not_full} notification of an
+     * unbounded {@code queue.Queue}, does not need to take the monitor.
+     */
+    public void signal(int n) {
+        if (waiterCount > 0) {
+            signalWaiters(n);
+        }
+    }
+
+    @TruffleBoundary
+    private void signalWaiters(int n) {
+        monitor.lock();
+        try {
+            for (int i = 0; i < n && !waiters.isEmpty(); i++) {
+                Waiter waiter = waiters.pollFirst();
+                waiter.notified = true;
+                waiter.condition.signal();
+            }
+            waiterCount = waiters.size();
+        } finally {
+            monitor.unlock();
+        }
+    }
+
+    public void signalAll() {
+        signal(Integer.MAX_VALUE);
+    }
+
+    public int getWaiterCount() {
+        return waiterCount;
+    }
+
+    private int releaseSave() {
+        if (lock instanceof PRLock) {
+            PRLock rlock = (PRLock) lock;
+            int count = rlock.getCount();
+            rlock.releaseAll();
+            return count;
+        }
+        lock.release();
+        return 1;
+    }
+
+    private void acquireRestore(int count) {
+        for (int i = 0; i < count; i++) {
+            lock.acquireBlocking();
+        }
+    }
+}
@@ -40,32 +40,92 @@
  */
 package com.oracle.graal.python.builtins.objects.thread;
 
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+import java.util.concurrent.locks.LockSupport;
 
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
+/**
+ * A non-reentrant lock that any thread may release. Uncontended acquires and releases are a single
+ * CAS or volatile write that compiles inline. A contended acquire spins for a while before it
+ * parks, where the spin budget adapts to whether spinning succeeded for this lock recently.
+ */
 public final class PLock extends AbstractPythonLock {
-    private final Semaphore semaphore;
+    private static final boolean CAN_SPIN = Runtime.getRuntime().availableProcessors() > 1;
+    private static final int MIN_SPINS = 16;
+    private static final int MAX_SPINS = 1024;
+
+    @SuppressWarnings("serial")
+    private static final class Sync extends AbstractQueuedSynchronizer {
+        boolean tryLock() {
+            return compareAndSetState(0, 1);
+        }
+
+        void unlock() {
+            setState(0);
+        }
+
+        boolean isLocked() {
+            return getState() != 0;
+        }
+
+        @Override
+        protected boolean tryAcquire(int arg) {
+            return compareAndSetState(0, 1);
+        }
+    }
+
+    private final Sync sync = new Sync();
+
+    /** Racy on purpose: this is only a hint for how long contended acquires should spin. */
+    private int spins = MIN_SPINS;
 
-    @TruffleBoundary
     public PLock(LazyPythonClass cls) {
         super(cls);
-        semaphore = new Semaphore(1);
     }
 
     @Override
-    @TruffleBoundary
     protected boolean acquireNonBlocking() {
-        return semaphore.tryAcquire();
+        return sync.tryLock();
     }
 
     @Override
-    @TruffleBoundary
     protected boolean acquireBlocking() {
+        return sync.tryLock() || acquireBlockingSlowPath();
+    }
+
+    @Override
+    protected boolean acquireTimeout(long timeout) {
+        return sync.tryLock() || acquireTimeoutSlowPath(timeout);
+    }
+
+    /**
+     * Frees the lock with a single volatile write. Waiters are only unparked afterwards and never
+     * touch the state again, since another thread may have taken the lock in the meantime.
+     */
+    @Override
+    public void release() {
+        sync.unlock();
+        if (sync.hasQueuedThreads()) {
+            // the waiter either sees the lock free when it retries, or is unparked here
+            wakeUpWaiter();
+        }
+    }
+
+    @Override
+    public boolean locked() {
+        return sync.isLocked();
+    }
+
+    @TruffleBoundary
+    private boolean acquireBlockingSlowPath() {
+        if (spin()) {
+            return true;
+        }
         try {
-            semaphore.acquire();
+            sync.acquireInterruptibly(1);
             return true;
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
@@ -73,26 +133,45 @@ public final class PLock extends AbstractPythonLock {
         }
     }
 
-    @Override
     @TruffleBoundary
-    protected boolean acquireTimeout(long timeout) {
+    private boolean acquireTimeoutSlowPath(long timeout) {
+        if (timeout > 0 && spin()) {
+            return true;
+        }
         try {
-            return semaphore.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+            return sync.tryAcquireNanos(1, TimeUnit.MILLISECONDS.toNanos(timeout));
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             return false;
         }
     }
 
-    @Override
+    /**
+     * Unparks the first queued thread, which retries to acquire the lock and parks again if another
+     * thread was faster. A spurious unpark is harmless, and a thread that was not parked yet just
+     * does not park.
+     */
     @TruffleBoundary
-    public void release() {
-        semaphore.release();
+    private void wakeUpWaiter() {
+        LockSupport.unpark(sync.getFirstQueuedThread());
     }
 
-    @Override
-    @TruffleBoundary
-    public boolean locked() {
-        return semaphore.availablePermits() == 0;
+    /**
+     * Spins until the lock is free and acquired or the spin budget is used up. Lock hand-offs that
+     * succeed while spinning double the budget, failures halve it.
+     */
+    private boolean spin() {
+        if (!CAN_SPIN) {
+            return false;
+        }
+        int limit = spins;
+        for (int i = 0; i < limit; i++) {
+            if (!sync.isLocked() && !sync.hasQueuedThreads() && sync.tryLock()) {
+                spins = Math.min(limit << 1, MAX_SPINS);
+                return true;
+            }
+        }
+        spins = Math.max(limit >> 1, MIN_SPINS);
+        return false;
     }
 }
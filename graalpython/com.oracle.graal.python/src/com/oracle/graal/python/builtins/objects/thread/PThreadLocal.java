@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.thread;
+
+import java.util.WeakHashMap;
+
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.object.PythonObject;
+import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A {@code _thread._local}. The attributes of each thread live in a separate plain object, so
+ * reading and writing them uses the same shape-based inline caches as for any other object.
+ *
+ * The attributes are kept in this object rather than in a {@link ThreadLocal}: the values of a
+ * {@link ThreadLocal} are strongly reachable from their thread, so attributes that refer back to
+ * this object would keep it and the attributes alive for as long as the thread runs. Like in
+ * CPython, the attributes of a thread are dropped when the thread ends, and all of them are dropped
+ * with this object.
+ */
+public final class PThreadLocal extends PythonBuiltinObject {
+    private final WeakHashMap<Thread, PythonObject> threadStorage = new WeakHashMap<>();
+    private final Object[] args;
+    private final PKeyword[] keywords;
+
+    @TruffleBoundary
+    public PThreadLocal(LazyPythonClass cls, Object[] args, PKeyword[] keywords) {
+        super(cls);
+        this.args = args;
+        this.keywords = keywords;
+    }
+
+    /** The arguments of the constructor, they are passed to {@code __init__} in other threads. */
+    public Object[] getArgs() {
+        return args;
+    }
+
+    public PKeyword[] getKeywords() {
+        return keywords;
+    }
+
+    /**
+     * @return the attributes of the current thread or {@code null} if the current thread did not
+     *         access this object yet
+     */
+    @TruffleBoundary
+    public PythonObject getThreadStorage() {
+        synchronized (threadStorage) {
+            return threadStorage.get(Thread.currentThread());
+        }
+    }
+
+    @TruffleBoundary
+    public void setThreadStorage(PythonObject storage) {
+        synchronized (threadStorage) {
+            threadStorage.put(Thread.currentThread(), storage);
+        }
+    }
+}
@@ -50,6 +50,7 @@ import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.runtime.GlobalInterpreterLock;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
@@ -79,7 +80,13 @@ public class RLockBuiltins extends PythonBuiltins {
         @Specialization
         Object acquireRestore(PRLock self) {
             if (!self.acquireNonBlocking()) {
-                self.acquireBlocking();
+                GlobalInterpreterLock gil = getContext().getGil();
+                int held = gil.releaseForBlocking();
+                try {
+                    self.acquireBlocking();
+                } finally {
+                    gil.reacquire(held);
+                }
             }
             return PNone.NONE;
         }
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.thread;
+
+import static com.oracle.graal.python.nodes.SpecialAttributeNames.__DICT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__DELATTR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETATTRIBUTE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETATTR__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.AttributeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
+import com.oracle.graal.python.builtins.objects.object.PythonObject;
+import com.oracle.graal.python.builtins.objects.type.PythonAbstractClass;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.attributes.LookupAttributeInMRONode;
+import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
+import com.oracle.graal.python.nodes.attributes.WriteAttributeToObjectNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.CallBinaryMethodNode;
+import com.oracle.graal.python.nodes.call.special.CallTernaryMethodNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PThreadLocal)
+public class ThreadLocalBuiltins extends PythonBuiltins {
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return ThreadLocalBuiltinsFactory.getFactories();
+    }
+
+    /** Creates the plain object that holds the attributes of a thread-local in one thread. */
+    public static PythonObject createThreadStorage(PythonObjectFactory factory) {
+        return factory.createPythonObject(PythonBuiltinClassType.PythonObject, PythonBuiltinClassType.PythonObject.getInstanceShape());
+    }
+
+    abstract static class ThreadLocalNode extends PythonBuiltinNode {
+        private final ConditionProfile hasStorageProfile = ConditionProfile.createBinaryProfile();
+        @Child private GetClassNode getClassNode;
+        @Child private LookupAttributeInMRONode.Dynamic lookupInitNode;
+        @Child private CallNode callInitNode;
+
+        /**
+         * Returns the attributes of the current thread. When a thread other than the creating one
+         * accesses the object for the first time, {@code __init__} is called again with the
+         * constructor arguments, like in CPython.
+         */
+        protected PythonObject getThreadStorage(VirtualFrame frame, PThreadLocal self) {
+            PythonObject storage = self.getThreadStorage();
+            if (hasStorageProfile.profile(storage != null)) {
+                return storage;
+            }
+            storage = createThreadStorage(factory());
+            self.setThreadStorage(storage);
+            if (lookupInitNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getClassNode = insert(GetClassNode.create());
+                lookupInitNode = insert(LookupAttributeInMRONode.Dynamic.create());
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                callInitNode = insert(CallNode.create());
+            }
+            Object init = lookupInitNode.execute(getClassNode.execute(self), __INIT__);
+            if (init != lookupInitNode.execute(PythonBuiltinClassType.PythonObject, __INIT__)) {
+                Object[] args = self.getArgs();
+                Object[] arguments = new Object[args.length + 1];
+                arguments[0] = self;
+                System.arraycopy(args, 0, arguments, 1, args.length);
+                callInitNode.execute(frame, init, arguments, self.getKeywords());
+            }
+            return storage;
+        }
+    }
+
+    @Builtin(name = __GETATTRIBUTE__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class GetAttributeNode extends ThreadLocalNode {
+        @Specialization
+        Object doIt(VirtualFrame frame, PThreadLocal self, Object key,
+                        @Cached GetClassNode getObjectClassNode,
+                        @Cached LookupAttributeInMRONode.Dynamic lookup,
+                        @Cached GetClassNode getDataClassNode,
+                        @Cached("create(__GET__)") LookupAttributeInMRONode lookupGetNode,
+                        @Cached("create(__SET__)") LookupAttributeInMRONode lookupSetNode,
+                        @Cached("create(__DELETE__)") LookupAttributeInMRONode lookupDeleteNode,
+                        @Cached CallTernaryMethodNode dispatchGet,
+                        @Cached ReadAttributeFromObjectNode attrRead) {
+            PythonObject storage = getThreadStorage(frame, self);
+            PythonAbstractClass type = getObjectClassNode.execute(self);
+            Object descr = lookup.execute(type, key);
+            Object get = PNone.NO_VALUE;
+            if (descr != PNone.NO_VALUE) {
+                PythonAbstractClass dataDescClass = getDataClassNode.execute(descr);
+                get = lookupGetNode.execute(dataDescClass);
+                boolean isDataDescriptor = lookupSetNode.execute(dataDescClass) != PNone.NO_VALUE || lookupDeleteNode.execute(dataDescClass) != PNone.NO_VALUE;
+                if (isDataDescriptor && PGuards.isCallable(get)) {
+                    return dispatchGet.execute(frame, get, descr, self, type);
+                }
+            }
+            Object value = attrRead.execute(storage, key);
+            if (value != PNone.NO_VALUE) {
+                return value;
+            }
+            if (descr != PNone.NO_VALUE) {
+                if (get == PNone.NO_VALUE) {
+                    return descr;
+                } else if (PGuards.isCallable(get)) {
+                    return dispatchGet.execute(frame, get, descr, self, type);
+                }
+            }
+            throw raise(AttributeError, "'%p' object has no attribute '%s'", self, key);
+        }
+    }
+
+    @Builtin(name = __SETATTR__, minNumOfPositionalArgs = 3)
+    @GenerateNodeFactory
+    abstract static class SetattrNode extends ThreadLocalNode {
+        @Specialization
+        Object doIt(VirtualFrame frame, PThreadLocal self, Object key, Object value,
+                        @Cached GetClassNode getObjectClassNode,
+                        @Cached LookupAttributeInMRONode.Dynamic getExisting,
+                        @Cached GetClassNode getDataClassNode,
+                        @Cached("create(__SET__)") LookupAttributeInMRONode lookupSetNode,
+                        @Cached CallTernaryMethodNode callSetNode,
+                        @Cached WriteAttributeToObjectNode writeNode) {
+            PythonObject storage = getThreadStorage(frame, self);
+            Object descr = getExisting.execute(getObjectClassNode.execute(self), key);
+            if (descr != PNone.NO_VALUE) {
+                Object set = lookupSetNode.execute(getDataClassNode.execute(descr));
+                if (PGuards.isCallable(set)) {
+                    callSetNode.execute(frame, set, descr, self, value);
+                    return PNone.NONE;
+                }
+            }
+            if (writeNode.execute(storage, key, value)) {
+                return PNone.NONE;
+            }
+            throw raise(AttributeError, "attribute %s is read-only", key);
+        }
+    }
+
+    @Builtin(name = __DELATTR__, minNumOfPositionalArgs = 2)
+    @GenerateNodeFactory
+    abstract static class DelattrNode extends ThreadLocalNode {
+        @Specialization
+        Object doIt(VirtualFrame frame, PThreadLocal self, Object key,
+                        @Cached GetClassNode getObjectClassNode,
+                        @Cached LookupAttributeInMRONode.Dynamic getExisting,
+                        @Cached GetClassNode getDataClassNode,
+                        @Cached("create(__DELETE__)") LookupAttributeInMRONode lookupDeleteNode,
+                        @Cached CallBinaryMethodNode callDeleteNode,
+                        @Cached ReadAttributeFromObjectNode attrRead,
+                        @Cached WriteAttributeToObjectNode writeNode) {
+            PythonObject storage = getThreadStorage(frame, self);
+            Object descr = getExisting.execute(getObjectClassNode.execute(self), key);
+            if (descr != PNone.NO_VALUE) {
+                Object delete = lookupDeleteNode.execute(getDataClassNode.execute(descr));
+                if (PGuards.isCallable(delete)) {
+                    callDeleteNode.executeObject(frame, delete, descr, self);
+                    return PNone.NONE;
+                }
+            }
+            if (attrRead.execute(storage, key) != PNone.NO_VALUE && writeNode.execute(storage, key, PNone.NO_VALUE)) {
+                return PNone.NONE;
+            }
+            throw raise(AttributeError, "'%p' object has no attribute '%s'", self, key);
+        }
+    }
+
+    @Builtin(name = __DICT__, minNumOfPositionalArgs = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class DictNode extends ThreadLocalNode {
+        @Specialization
+        Object dict(VirtualFrame frame, PThreadLocal self) {
+            PythonObject storage = getThreadStorage(frame, self);
+            PHashingCollection dict = storage.getDict();
+            if (dict == null) {
+                dict = factory().createDictFixedStorage(storage);
+                storage.setDict(dict);
+            }
+            return dict;
+        }
+    }
+}
@@ -51,6 +51,7 @@ import com.oracle.graal.python.builtins.modules.MathGuards;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.ListGeneralizationNode;
+import com.oracle.graal.python.builtins.objects.common.WriteLockNode;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.slice.PSlice;
@@ -738,11 +739,17 @@ public abstract class ListNodes {
         @Specialization
         public void appendObjectGeneric(PList list, Object value,
                         @Cached SequenceStorageNodes.AppendNode appendNode,
-                        @Cached BranchProfile updateStoreProfile) {
-            SequenceStorage newStore = appendNode.execute(list.getSequenceStorage(), value, ListGeneralizationNode.SUPPLIER);
-            if (list.getSequenceStorage() != newStore) {
-                updateStoreProfile.enter();
-                list.setSequenceStorage(newStore);
+                        @Cached BranchProfile updateStoreProfile,
+                        @Cached WriteLockNode writeLockNode) {
+            boolean locked = writeLockNode.lock(list);
+            try {
+                SequenceStorage newStore = appendNode.execute(list.getSequenceStorage(), value, ListGeneralizationNode.SUPPLIER);
+                if (list.getSequenceStorage() != newStore) {
+                    updateStoreProfile.enter();
+                    list.setSequenceStorage(newStore);
+                }
+            } finally {
+                writeLockNode.unlock(list, locked);
             }
         }
 
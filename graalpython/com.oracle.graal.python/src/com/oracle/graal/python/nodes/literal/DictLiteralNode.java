@@ -28,6 +28,7 @@ package com.oracle.graal.python.nodes.literal;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.SetItemNode;
+import com.oracle.graal.python.builtins.objects.common.LongKeyStorage;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.nodes.expression.ExpressionNode;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
@@ -54,24 +55,30 @@ public final class DictLiteralNode extends LiteralNode {
     static final class Keys {
         public final Object[] keys;
         public final boolean allStrings;
+        public final boolean allLongs;
 
-        Keys(Object[] keys, boolean allStrings) {
+        Keys(Object[] keys, boolean allStrings, boolean allLongs) {
             this.keys = keys;
             this.allStrings = allStrings;
+            this.allLongs = allLongs;
         }
     }
 
     @ExplodeLoop
     private Keys evalKeys(VirtualFrame frame) {
         boolean allStrings = true;
+        boolean allLongs = values.length > 0;
         Object[] evalKeys = new Object[this.keys.length];
         for (int i = 0; i < values.length; i++) {
             evalKeys[i] = keys[i].execute(frame);
             if (!(evalKeys[i] instanceof String)) {
                 allStrings = false;
             }
+            if (!(evalKeys[i] instanceof Integer || evalKeys[i] instanceof Long)) {
+                allLongs = false;
+            }
         }
-        return new Keys(evalKeys, allStrings);
+        return new Keys(evalKeys, allStrings, allLongs);
     }
 
     @ExplodeLoop
@@ -93,7 +100,12 @@ public final class DictLiteralNode extends LiteralNode {
     @Override
     public PDict execute(VirtualFrame frame) {
         Keys evalKeys = evalKeys(frame);
-        HashingStorage dictStorage = PDict.createNewStorage(evalKeys.allStrings, evalKeys.keys.length);
+        HashingStorage dictStorage;
+        if (evalKeys.allLongs) {
+            dictStorage = new LongKeyStorage(evalKeys.keys.length);
+        } else {
+            dictStorage = PDict.createNewStorage(evalKeys.allStrings, evalKeys.keys.length);
+        }
         dictStorage = evalAndSetValues(frame, dictStorage, evalKeys);
         return factory.createDict(dictStorage);
     }
@@ -73,7 +73,7 @@ public abstract class SliceLiteralNode extends ExpressionNode {
     private int castStart(Object o) {
         if (castStartNode == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
-            castStartNode = insert(CastToSliceComponentNode.create(MISSING_INDEX, MISSING_INDEX));
+            castStartNode = insert(CastToSliceComponentNode.create(MISSING_INDEX));
         }
         return castStartNode.execute(o);
     }
@@ -81,7 +81,7 @@ public abstract class SliceLiteralNode extends ExpressionNode {
     private int castStop(Object o) {
         if (castStopNode == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
-            castStopNode = insert(CastToSliceComponentNode.create(MISSING_INDEX, MISSING_INDEX));
+            castStopNode = insert(CastToSliceComponentNode.create(MISSING_INDEX));
         }
         return castStopNode.execute(o);
     }
@@ -89,7 +89,7 @@ public abstract class SliceLiteralNode extends ExpressionNode {
     private int castStep(Object o) {
         if (castStepNode == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
-            castStepNode = insert(CastToSliceComponentNode.create(1, Integer.MAX_VALUE));
+            castStepNode = insert(CastToSliceComponentNode.create(1));
         }
         return castStepNode.execute(o);
     }
@@ -108,15 +108,18 @@ public abstract class SliceLiteralNode extends ExpressionNode {
         return SliceLiteralNodeGen.create(null, null, null);
     }
 
+    /**
+     * Converts a slice component to an {@code int}. Values that do not fit are saturated, which
+     * keeps the result of clamping the index to the length of any sequence that can be indexed with
+     * an {@code int}. {@link PSlice#MISSING_INDEX} is never the result of a saturation.
+     */
     abstract static class CastToSliceComponentNode extends PNodeWithContext {
 
         private final int defaultValue;
-        private final int overflowValue;
         private final BranchProfile indexErrorProfile = BranchProfile.create();
 
-        public CastToSliceComponentNode(int defaultValue, int overflowValue) {
+        public CastToSliceComponentNode(int defaultValue) {
             this.defaultValue = defaultValue;
-            this.overflowValue = overflowValue;
         }
 
         public abstract int execute(int i);
@@ -146,7 +149,7 @@ public abstract class SliceLiteralNode extends ExpressionNode {
                 return PInt.intValueExact(i);
             } catch (ArithmeticException e) {
                 indexErrorProfile.enter();
-                return overflowValue;
+                return saturate(i > 0);
             }
         }
 
@@ -156,12 +159,16 @@ public abstract class SliceLiteralNode extends ExpressionNode {
                 return i.intValueExact();
             } catch (ArithmeticException e) {
                 indexErrorProfile.enter();
-                return overflowValue;
+                return saturate(i.getValue().signum() > 0);
             }
         }
 
-        public static CastToSliceComponentNode create(int defaultValue, int overflowValue) {
-            return CastToSliceComponentNodeGen.create(defaultValue, overflowValue);
+        private static int saturate(boolean positive) {
+            return positive ? Integer.MAX_VALUE : MISSING_INDEX + 1;
+        }
+
+        public static CastToSliceComponentNode create(int defaultValue) {
+            return CastToSliceComponentNodeGen.create(defaultValue);
         }
     }
 }
@@ -0,0 +1,440 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Pair;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.antlr.v4.runtime.tree.TerminalNodeImpl;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.parser.antlr.Python3Parser;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.PythonOptions;
+import com.oracle.graal.python.runtime.PythonParser.ParserErrorCallback;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.source.Source;
+
+/**
+ * A persistent on-disk cache of ANTLR parse trees, used to skip the (expensive) ANTLR parsing step
+ * for files that have been parsed before. The cache stores the parse tree in a compact pre-order
+ * encoding together with the tokens it references. Scope and tree translation still run on the
+ * restored tree, so everything after parsing behaves exactly as for a freshly parsed file.
+ *
+ * Entries are keyed by a SHA-256 hash of the source text, the interpreter version and a fingerprint
+ * of the grammar, and each entry carries a CRC32 checksum of its payload. Any entry that cannot be
+ * read or validated is ignored and the source is simply parsed again.
+ */
+public final class ParseTreeCache {
+    private static final int MAGIC = 0x47505443; // 'GPTC'
+    private static final int FORMAT_VERSION = 1;
+    private static final String FILE_SUFFIX = ".gptc";
+
+    private static final byte TAG_RULE = 0;
+    private static final byte TAG_TERMINAL = 1;
+
+    private static final String CACHE_KEY_PREFIX = PythonLanguage.VERSION + ":" + FORMAT_VERSION + ":" + grammarFingerprint() + ":";
+
+    @SuppressWarnings("unchecked") private static final Constructor<? extends ParserRuleContext>[] CONTEXT_CONSTRUCTORS = new Constructor[Python3Parser.ruleNames.length];
+
+    private final TruffleFile directory;
+
+    private ParseTreeCache(TruffleFile directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the cache configured for the context of the given callback, or {@code null} if
+     * caching is disabled.
+     */
+    @TruffleBoundary
+    public static ParseTreeCache get(ParserErrorCallback errors) {
+        if (!(errors instanceof PythonCore)) {
+            return null;
+        }
+        PythonContext context = ((PythonCore) errors).getContext();
+        if (context == null) {
+            return null;
+        }
+        String dir = PythonOptions.getOption(context, PythonOptions.ParseTreeCacheDirectory);
+        if (dir.isEmpty()) {
+            return null;
+        }
+        return new ParseTreeCache(context.getEnv().getTruffleFile(dir));
+    }
+
+    /**
+     * Restores the parse tree for the given source, or returns {@code null} if there is no valid
+     * cache entry.
+     */
+    @TruffleBoundary
+    public ParserRuleContext load(Source source) {
+        String text = source.getCharacters().toString();
+        byte[] sourceHash = sha256(text);
+        TruffleFile entry = directory.resolve(entryName(sourceHash));
+        try {
+            if (!entry.isRegularFile()) {
+                return null;
+            }
+            DataInputStream in = new DataInputStream(entry.newInputStream());
+            try {
+                if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !CACHE_KEY_PREFIX.equals(in.readUTF())) {
+                    return null;
+                }
+                byte[] storedHash = new byte[sourceHash.length];
+                in.readFully(storedHash);
+                if (!Arrays.equals(storedHash, sourceHash)) {
+                    return null;
+                }
+                long checksum = in.readLong();
+                byte[] payload = new byte[in.readInt()];
+                in.readFully(payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if (crc.getValue() != checksum) {
+                    return null;
+                }
+                return new TreeReader(CharStreams.fromString(text, source.getName()), payload).read();
+            } finally {
+                in.close();
+            }
+        } catch (IOException | RuntimeException | ReflectiveOperationException e) {
+            PythonLanguage.getLogger().log(Level.FINE, "could not read parse tree cache entry " + entry, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the parse tree of the given source. Failures are logged and otherwise ignored.
+     */
+    @TruffleBoundary
+    public void store(Source source, ParserRuleContext tree) {
+        byte[] sourceHash = sha256(source.getCharacters().toString());
+        String name = entryName(sourceHash);
+        TruffleFile entry = directory.resolve(name);
+        try {
+            byte[] payload = new TreeWriter().write(tree);
+            if (payload == null) {
+                // the tree contains error nodes
+                return;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+
+            directory.createDirectories();
+            // write to a private file first and move it in place, so that concurrent readers
+            // never observe a partially written entry
+            TruffleFile tmp = directory.resolve(name + "." + Long.toHexString(System.nanoTime()) + ".tmp");
+            DataOutputStream out = new DataOutputStream(tmp.newOutputStream());
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(CACHE_KEY_PREFIX);
+                out.write(sourceHash);
+                out.writeLong(crc.getValue());
+                out.writeInt(payload.length);
+                out.write(payload);
+            } finally {
+                out.close();
+            }
+            tmp.move(entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | SecurityException | UnsupportedOperationException e) {
+            PythonLanguage.getLogger().log(Level.FINE, "could not write parse tree cache entry " + entry, e);
+        }
+    }
+
+    /**
+     * Serializes a parse tree, e.g. to embed it in marshalled code objects.
+     *
+     * @return the serialized tree or {@code null} if the tree contains errors
+     */
+    @TruffleBoundary
+    public static byte[] serialize(ParserRuleContext tree) {
+        try {
+            byte[] payload = new TreeWriter().write(tree);
+            if (payload == null) {
+                return null;
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length + 64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeUTF(CACHE_KEY_PREFIX);
+            out.write(payload);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Restores a parse tree serialized with {@link #serialize(ParserRuleContext)} for the given
+     * source.
+     *
+     * @return the tree or {@code null} if it was serialized by a different version
+     */
+    @TruffleBoundary
+    public static ParserRuleContext deserialize(Source source, byte[] serialized) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(serialized));
+            if (in.readInt() != MAGIC || !CACHE_KEY_PREFIX.equals(in.readUTF())) {
+                return null;
+            }
+            int offset = serialized.length - in.available();
+            byte[] payload = Arrays.copyOfRange(serialized, offset, serialized.length);
+            return new TreeReader(CharStreams.fromString(source.getCharacters().toString(), source.getName()), payload).read();
+        } catch (IOException | RuntimeException | ReflectiveOperationException e) {
+            PythonLanguage.getLogger().log(Level.FINE, "could not restore serialized parse tree of " + source.getName(), e);
+            return null;
+        }
+    }
+
+    private static String entryName(byte[] sourceHash) {
+        byte[] key = sha256(CACHE_KEY_PREFIX + toHex(sourceHash));
+        return toHex(key) + FILE_SUFFIX;
+    }
+
+    private static int grammarFingerprint() {
+        return Arrays.hashCode(Python3Parser.ruleNames) * 31 + Python3Parser.VOCABULARY.getMaxTokenType();
+    }
+
+    private static byte[] sha256(String text) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static Constructor<? extends ParserRuleContext> getContextConstructor(int ruleIndex) throws ReflectiveOperationException {
+        Constructor<? extends ParserRuleContext> constructor = CONTEXT_CONSTRUCTORS[ruleIndex];
+        if (constructor == null) {
+            // ANTLR names the context class of rule 'foo_bar' 'Foo_barContext'
+            String ruleName = Python3Parser.ruleNames[ruleIndex];
+            String className = Python3Parser.class.getName() + "$" + Character.toUpperCase(ruleName.charAt(0)) + ruleName.substring(1) + "Context";
+            constructor = Class.forName(className).asSubclass(ParserRuleContext.class).getConstructor(ParserRuleContext.class, int.class);
+            CONTEXT_CONSTRUCTORS[ruleIndex] = constructor;
+        }
+        return constructor;
+    }
+
+    private static final class TreeWriter {
+        private final IdentityHashMap<Token, Integer> tokenIndices = new IdentityHashMap<>();
+        private final List<Token> tokens = new ArrayList<>();
+        private final ByteArrayOutputStream treeBytes = new ByteArrayOutputStream();
+        private final DataOutputStream tree = new DataOutputStream(treeBytes);
+
+        byte[] write(ParserRuleContext root) throws IOException {
+            if (!writeNode(root)) {
+                return null;
+            }
+            tree.flush();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(treeBytes.size() + tokens.size() * 24);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(tokens.size());
+            for (Token token : tokens) {
+                out.writeInt(token.getType());
+                out.writeInt(token.getChannel());
+                out.writeInt(token.getLine());
+                out.writeInt(token.getCharPositionInLine());
+                out.writeInt(token.getStartIndex());
+                out.writeInt(token.getStopIndex());
+                out.writeInt(token.getTokenIndex());
+                writeString(out, token.getText());
+            }
+            treeBytes.writeTo(out);
+            out.flush();
+            return bytes.toByteArray();
+        }
+
+        private boolean writeNode(ParseTree node) throws IOException {
+            if (node instanceof ErrorNode) {
+                return false;
+            } else if (node instanceof TerminalNode) {
+                tree.writeByte(TAG_TERMINAL);
+                tree.writeInt(tokenIndex(((TerminalNode) node).getSymbol()));
+                return true;
+            }
+            ParserRuleContext ctx = (ParserRuleContext) node;
+            if (ctx.exception != null) {
+                return false;
+            }
+            tree.writeByte(TAG_RULE);
+            tree.writeShort(ctx.getRuleIndex());
+            tree.writeInt(ctx.invokingState);
+            tree.writeInt(tokenIndex(ctx.start));
+            tree.writeInt(tokenIndex(ctx.stop));
+            int childCount = ctx.getChildCount();
+            tree.writeInt(childCount);
+            for (int i = 0; i < childCount; i++) {
+                if (!writeNode(ctx.getChild(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int tokenIndex(Token token) {
+            if (token == null) {
+                return -1;
+            }
+            Integer idx = tokenIndices.get(token);
+            if (idx == null) {
+                idx = tokens.size();
+                tokens.add(token);
+                tokenIndices.put(token, idx);
+            }
+            return idx;
+        }
+
+        private static void writeString(DataOutputStream out, String s) throws IOException {
+            if (s == null) {
+                out.writeInt(-1);
+            } else {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static final class TreeReader {
+        private final Pair<TokenSource, CharStream> tokenSource;
+        private final DataInputStream in;
+        private Token[] tokens;
+
+        TreeReader(CharStream input, byte[] payload) {
+            this.tokenSource = new Pair<>(null, input);
+            this.in = new DataInputStream(new ByteArrayInputStream(payload));
+        }
+
+        ParserRuleContext read() throws IOException, ReflectiveOperationException {
+            tokens = new Token[in.readInt()];
+            for (int i = 0; i < tokens.length; i++) {
+                int type = in.readInt();
+                int channel = in.readInt();
+                int line = in.readInt();
+                int column = in.readInt();
+                int start = in.readInt();
+                int stop = in.readInt();
+                int tokenIndex = in.readInt();
+                CommonToken token = new CommonToken(tokenSource, type, channel, start, stop);
+                token.setLine(line);
+                token.setCharPositionInLine(column);
+                token.setTokenIndex(tokenIndex);
+                token.setText(readString());
+                tokens[i] = token;
+            }
+            if (in.readByte() != TAG_RULE) {
+                throw new IOException("corrupt parse tree cache entry");
+            }
+            return readRule(null);
+        }
+
+        private ParserRuleContext readRule(ParserRuleContext parent) throws IOException, ReflectiveOperationException {
+            int ruleIndex = in.readShort();
+            int invokingState = in.readInt();
+            ParserRuleContext ctx = getContextConstructor(ruleIndex).newInstance(parent, invokingState);
+            ctx.start = token(in.readInt());
+            ctx.stop = token(in.readInt());
+            int childCount = in.readInt();
+            for (int i = 0; i < childCount; i++) {
+                byte tag = in.readByte();
+                if (tag == TAG_RULE) {
+                    ctx.addChild(readRule(ctx));
+                } else if (tag == TAG_TERMINAL) {
+                    ctx.addChild(new TerminalNodeImpl(token(in.readInt())));
+                } else {
+                    throw new IOException("corrupt parse tree cache entry");
+                }
+            }
+            return ctx;
+        }
+
+        private Token token(int idx) {
+            return idx < 0 ? null : tokens[idx];
+        }
+
+        private String readString() throws IOException {
+            int len = in.readInt();
+            if (len < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[len];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -51,6 +51,48 @@ public final class PythonParserImpl implements PythonParser {
     @Override
     @TruffleBoundary
     public Node parse(ParserMode mode, ParserErrorCallback errors, Source source, Frame currentFrame) {
+        return parse(mode, errors, source, currentFrame, null);
+    }
+
+    @Override
+    @TruffleBoundary
+    public Node parse(ParserMode mode, ParserErrorCallback errors, Source source, Frame currentFrame, byte[] serializedParseTree) {
+        ParserRuleContext input = null;
+        if (serializedParseTree != null && mode == ParserMode.File) {
+            input = ParseTreeCache.deserialize(source, serializedParseTree);
+        }
+        ParseTreeCache cache = input == null && mode == ParserMode.File ? ParseTreeCache.get(errors) : null;
+        if (cache != null) {
+            input = cache.load(source);
+        }
+        if (input == null) {
+            input = parseWithANTLR(mode, errors, source);
+            if (cache != null) {
+                cache.store(source, input);
+            }
+        }
+
+        // prepare scope translator
+        TranslationEnvironment environment = new TranslationEnvironment(errors.getLanguage());
+        FrameDescriptor inlineLocals = mode == ParserMode.InlineEvaluation ? currentFrame.getFrameDescriptor() : null;
+        ScopeTranslator<Object> defineScopes = new ScopeTranslator<>(errors, environment, source.isInteractive(), inlineLocals);
+        // first pass of the scope translator -> define the scopes
+        input.accept(defineScopes);
+        // create frame slots for cell and free vars
+        defineScopes.setFreeVarsInRootScope(currentFrame);
+        defineScopes.createFrameSlotsForCellAndFreeVars();
+
+        // create Truffle ASTs
+        return PythonTreeTranslator.translate(errors, source.getName(), input, environment, source, mode);
+    }
+
+    @Override
+    @TruffleBoundary
+    public byte[] serializeParseTree(ParserErrorCallback errors, Source source) {
+        return ParseTreeCache.serialize(parseWithANTLR(ParserMode.File, errors, source));
+    }
+
+    private static ParserRuleContext parseWithANTLR(ParserMode mode, ParserErrorCallback errors, Source source) {
         // ANTLR parsing
         Python3Parser parser = getPython3Parser(source.getCharacters().toString());
         ParserRuleContext input;
@@ -85,19 +127,7 @@ public final class PythonParserImpl implements PythonParser {
                 throw handleParserError(errors, source, e);
             }
         }
-
-        // prepare scope translator
-        TranslationEnvironment environment = new TranslationEnvironment(errors.getLanguage());
-        FrameDescriptor inlineLocals = mode == ParserMode.InlineEvaluation ? currentFrame.getFrameDescriptor() : null;
-        ScopeTranslator<Object> defineScopes = new ScopeTranslator<>(errors, environment, source.isInteractive(), inlineLocals);
-        // first pass of the scope translator -> define the scopes
-        input.accept(defineScopes);
-        // create frame slots for cell and free vars
-        defineScopes.setFreeVarsInRootScope(currentFrame);
-        defineScopes.createFrameSlotsForCellAndFreeVars();
-
-        // create Truffle ASTs
-        return PythonTreeTranslator.translate(errors, source.getName(), input, environment, source, mode);
+        return input;
     }
 
     @Override
@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * The optional global interpreter lock, enabled with the {@link PythonOptions#GIL} option. Threads
+ * hold it while they run Python code and release it around blocking operations, like in CPython. A
+ * thread that waits longer than the switch interval sets a drop request, which the holder honors at
+ * the next loop back-edge by handing the lock over. The lock is fair, so the longest waiting thread
+ * gets it next.
+ *
+ * <pre>
+ * int held = gil.releaseForBlocking();
+ * try {
+ *     // block
+ * } finally {
+ *     gil.reacquire(held);
+ * }
+ * </pre>
+ *
+ * When the option is disabled, all methods return immediately without a boundary call.
+ */
+public final class GlobalInterpreterLock {
+    static final GlobalInterpreterLock DISABLED = new GlobalInterpreterLock(false, 0);
+
+    private final boolean enabled;
+    private final long switchIntervalNanos;
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final ThreadLocal<Integer> savedHoldCount = new ThreadLocal<>();
+    private volatile boolean dropRequested;
+
+    // the statistics are only written by the holder of the lock
+    private long acquiredAt;
+    private long acquisitions;
+    private long switches;
+    private long totalHoldNanos;
+    private long maxHoldNanos;
+    private long totalWaitNanos;
+
+    private GlobalInterpreterLock(boolean enabled, long switchIntervalNanos) {
+        this.enabled = enabled;
+        this.switchIntervalNanos = switchIntervalNanos;
+    }
+
+    static GlobalInterpreterLock create(boolean enabled, int switchIntervalMillis) {
+        if (!enabled) {
+            return DISABLED;
+        }
+        return new GlobalInterpreterLock(true, TimeUnit.MILLISECONDS.toNanos(Math.max(switchIntervalMillis, 1)));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Acquires the lock for the current thread, which may already hold it.
+     */
+    public void acquire() {
+        if (enabled) {
+            acquireLock();
+        }
+    }
+
+    /**
+     * Undoes one {@link #acquire()}.
+     */
+    public void release() {
+        if (enabled) {
+            releaseLock();
+        }
+    }
+
+    /**
+     * Releases the lock completely before a blocking operation, if the current thread holds it.
+     *
+     * @return the hold count to pass to {@link #reacquire(int)}
+     */
+    public int releaseForBlocking() {
+        if (enabled) {
+            return releaseAll();
+        }
+        return 0;
+    }
+
+    /**
+     * Acquires the lock again after a blocking operation.
+     */
+    public void reacquire(int holdCount) {
+        if (holdCount > 0) {
+            reacquireLock(holdCount);
+        }
+    }
+
+    /**
+     * Hands the lock over if another thread waited for longer than the switch interval. Called at
+     * loop back-edges.
+     */
+    public void yieldIfRequested() {
+        if (enabled && dropRequested) {
+            yieldLock();
+        }
+    }
+
+    /**
+     * Implements {@code PyEval_SaveThread}, which releases the lock until the matching
+     * {@link #restoreThread()}.
+     */
+    public void saveThread() {
+        if (enabled) {
+            setSavedHoldCount(releaseAll());
+        }
+    }
+
+    /**
+     * Implements {@code PyEval_RestoreThread}.
+     */
+    public void restoreThread() {
+        if (enabled) {
+            reacquire(takeSavedHoldCount());
+        }
+    }
+
+    @TruffleBoundary
+    public boolean isHeldByCurrentThread() {
+        return lock.isHeldByCurrentThread();
+    }
+
+    @TruffleBoundary
+    private void acquireLock() {
+        if (lock.isHeldByCurrentThread()) {
+            lock.lock();
+            return;
+        }
+        long start = System.nanoTime();
+        boolean interrupted = false;
+        try {
+            while (!lock.tryLock(switchIntervalNanos, TimeUnit.NANOSECONDS)) {
+                dropRequested = true;
+            }
+        } catch (InterruptedException e) {
+            interrupted = true;
+            lock.lock();
+        }
+        dropRequested = false;
+        long now = System.nanoTime();
+        acquiredAt = now;
+        acquisitions++;
+        totalWaitNanos += now - start;
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @TruffleBoundary
+    private void releaseLock() {
+        if (lock.getHoldCount() == 1) {
+            recordHoldTime();
+        }
+        lock.unlock();
+    }
+
+    @TruffleBoundary
+    private int releaseAll() {
+        int holdCount = lock.getHoldCount();
+        if (holdCount > 0) {
+            recordHoldTime();
+            for (int i = 0; i < holdCount; i++) {
+                lock.unlock();
+            }
+        }
+        return holdCount;
+    }
+
+    @TruffleBoundary
+    private void reacquireLock(int holdCount) {
+        acquireLock();
+        for (int i = 1; i < holdCount; i++) {
+            lock.lock();
+        }
+    }
+
+    @TruffleBoundary
+    private void yieldLock() {
+        if (lock.isHeldByCurrentThread()) {
+            dropRequested = false;
+            switches++;
+            reacquireLock(releaseAll());
+        }
+    }
+
+    private void recordHoldTime() {
+        long held = System.nanoTime() - acquiredAt;
+        totalHoldNanos += held;
+        if (held > maxHoldNanos) {
+            maxHoldNanos = held;
+        }
+    }
+
+    @TruffleBoundary
+    private void setSavedHoldCount(int holdCount) {
+        savedHoldCount.set(holdCount);
+    }
+
+    @TruffleBoundary
+    private int takeSavedHoldCount() {
+        Integer holdCount = savedHoldCount.get();
+        savedHoldCount.remove();
+        return holdCount == null ? 0 : holdCount;
+    }
+
+    /**
+     * How often a thread acquired the lock without already holding it.
+     */
+    public long getAcquisitions() {
+        return acquisitions;
+    }
+
+    /**
+     * How often the holder handed the lock over because of a drop request.
+     */
+    public long getSwitches() {
+        return switches;
+    }
+
+    public long getTotalHoldNanos() {
+        return totalHoldNanos;
+    }
+
+    public long getMaxHoldNanos() {
+        return maxHoldNanos;
+    }
+
+    public long getTotalWaitNanos() {
+        return totalWaitNanos;
+    }
+}
@@ -64,6 +64,8 @@ import java.util.Locale;
  * It also manages the list of virtual child PIDs.
  */
 public class PosixResources {
+    private static final String SOCKET_PATH = "socket";
+
     /** Context-local file-descriptor mappings and PID mappings */
     private final List<Channel> files;
     private final List<String> filePaths;
@@ -136,6 +138,20 @@ public class PosixResources {
         return fd;
     }
 
+    /**
+     * Reserves a file descriptor for a socket. The channel may be {@code null} if the kind of
+     * channel is not known yet, and can be set later using {@link #fdopen(int, Channel)}.
+     */
+    @TruffleBoundary(allowInlining = true)
+    public int openSocket(Channel channel) {
+        synchronized (filePaths) {
+            int fd = nextFreeFd();
+            files.set(fd, channel);
+            filePaths.set(fd, SOCKET_PATH);
+            return fd;
+        }
+    }
+
     @TruffleBoundary(allowInlining = true)
     public int dup(int fd) {
         int dupFd = nextFreeFd();
@@ -32,7 +32,10 @@ import static com.oracle.graal.python.nodes.SpecialAttributeNames.__FILE__;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
@@ -67,7 +70,7 @@ public final class PythonContext {
     private final PythonLanguage language;
     private PythonModule mainModule;
     private final PythonCore core;
-    private final HashMap<Object, CallTarget> atExitHooks = new HashMap<>();
+    private final LinkedHashMap<Object, CallTarget> atExitHooks = new LinkedHashMap<>();
     private final HashMap<PythonNativeClass, CyclicAssumption> nativeClassStableAssumptions = new HashMap<>();
     private final AtomicLong globalId = new AtomicLong(Integer.MAX_VALUE * 2L + 4L);
     private final ThreadGroup threadGroup = new ThreadGroup(GRAALPYTHON_THREADS);
@@ -98,6 +101,8 @@ public final class PythonContext {
     private static final Assumption singleThreaded = Truffle.getRuntime().createAssumption("single Threaded");
 
     @CompilationFinal private HashingStorage.Equivalence slowPathEquivalence;
+    @CompilationFinal private boolean threadSafeCollections;
+    @CompilationFinal private GlobalInterpreterLock gil = GlobalInterpreterLock.DISABLED;
 
     /** The thread-local state object. */
     private ThreadLocal<PThreadState> customThreadState;
@@ -124,6 +129,8 @@ public final class PythonContext {
             this.in = env.in();
             this.out = env.out();
             this.err = env.err();
+            this.threadSafeCollections = env.getOptions().get(PythonOptions.ThreadSafeCollections);
+            this.gil = GlobalInterpreterLock.create(env.getOptions().get(PythonOptions.GIL), env.getOptions().get(PythonOptions.GILSwitchInterval));
         }
     }
 
@@ -180,6 +187,20 @@ public final class PythonContext {
         out = env.out();
         err = env.err();
         resources.setEnv(env);
+        threadSafeCollections = env.getOptions().get(PythonOptions.ThreadSafeCollections);
+        gil = GlobalInterpreterLock.create(env.getOptions().get(PythonOptions.GIL), env.getOptions().get(PythonOptions.GILSwitchInterval));
+    }
+
+    /**
+     * Whether writes to lists, dicts and sets and reads of their storage take a lock once more than
+     * one thread runs Python code.
+     */
+    public boolean isThreadSafeCollections() {
+        return threadSafeCollections;
+    }
+
+    public GlobalInterpreterLock getGil() {
+        return gil;
     }
 
     /**
@@ -342,8 +363,11 @@ public final class PythonContext {
     @TruffleBoundary
     public void runShutdownHooks() {
         handler.shutdown();
-        for (CallTarget f : atExitHooks.values()) {
-            f.call();
+        // like CPython, run the hooks in reverse order of registration, so that the hooks
+        // registered during startup (e.g. flushing the standard streams) run last
+        List<CallTarget> hooks = new ArrayList<>(atExitHooks.values());
+        for (int i = hooks.size() - 1; i >= 0; i--) {
+            hooks.get(i).call();
         }
     }
 
@@ -384,10 +408,12 @@ public final class PythonContext {
     }
 
     /**
-     * Trigger any pending asynchronous actions
+     * Trigger any pending asynchronous actions and hand the global interpreter lock over if another
+     * thread asked for it
      */
     public void triggerAsyncActions() {
         handler.triggerAsyncActions();
+        gil.yieldIfRequested();
     }
 
     public void registerAsyncAction(Supplier<AsyncAction> actionSupplier) {
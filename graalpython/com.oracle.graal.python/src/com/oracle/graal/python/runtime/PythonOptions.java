@@ -123,15 +123,30 @@ public final class PythonOptions {
     @Option(category = OptionCategory.EXPERT, help = "This option control builtin _thread module support") //
     public static final OptionKey<Boolean> WithThread = new OptionKey<>(false);
 
+    @Option(category = OptionCategory.EXPERT, help = "Serialize accesses to lists, dicts and sets once more than one thread runs Python code. Default false.") //
+    public static final OptionKey<Boolean> ThreadSafeCollections = new OptionKey<>(false);
+
+    @Option(category = OptionCategory.EXPERT, help = "Run Python threads under a global interpreter lock that is released around blocking operations. Default false.") //
+    public static final OptionKey<Boolean> GIL = new OptionKey<>(false);
+
+    @Option(category = OptionCategory.EXPERT, help = "The time in milliseconds a thread waits for the global interpreter lock before it asks the holder to hand it over. Default 5.") //
+    public static final OptionKey<Integer> GILSwitchInterval = new OptionKey<>(5);
+
     @Option(category = OptionCategory.EXPERT, help = "Use the optimized TRegex engine and call the CPython sre engine only as a fallback. Default true") //
     public static final OptionKey<Boolean> WithTRegex = new OptionKey<>(true);
 
+    @Option(category = OptionCategory.EXPERT, help = "Maximum number of compiled regexes cached by all contexts of an engine. Default 256, 0 disables the cache.") //
+    public static final OptionKey<Integer> RegexCacheSize = new OptionKey<>(256);
+
     @Option(category = OptionCategory.EXPERT, help = "Switch on/off using lazy strings for performance reasons. Default true.") //
     public static final OptionKey<Boolean> LazyStrings = new OptionKey<>(true);
 
     @Option(category = OptionCategory.EXPERT, help = "Enable forced splitting (of builtins). Default false.") //
     public static final OptionKey<Boolean> EnableForcedSplits = new OptionKey<>(false);
 
+    @Option(category = OptionCategory.EXPERT, help = "Directory for the persistent cache of parse trees of Python files. Speeds up startup by skipping parsing of unchanged files. Disabled if empty (the default).") //
+    public static final OptionKey<String> ParseTreeCacheDirectory = new OptionKey<>("");
+
     @Option(category = OptionCategory.EXPERT, help = "Set by the launcher if an interactive console is used to run Python.") //
     public static final OptionKey<Boolean> TerminalIsInteractive = new OptionKey<>(false);
 
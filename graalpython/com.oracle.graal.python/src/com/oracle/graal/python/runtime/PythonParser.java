@@ -88,6 +88,20 @@ public interface PythonParser {
      */
     Node parse(ParserMode mode, ParserErrorCallback errors, Source source, Frame currentFrame);
 
+    /**
+     * Like {@link #parse(ParserMode, ParserErrorCallback, Source, Frame)}, but uses the parse tree
+     * serialized by {@link #serializeParseTree(ParserErrorCallback, Source)} instead of parsing the
+     * source again, if it is still valid for this version of the parser.
+     */
+    Node parse(ParserMode mode, ParserErrorCallback errors, Source source, Frame currentFrame, byte[] serializedParseTree);
+
+    /**
+     * Parses the given {@link Source} in file mode and serializes its parse tree.
+     *
+     * @return the serialized tree or {@code null} if it cannot be serialized
+     */
+    byte[] serializeParseTree(ParserErrorCallback errors, Source source);
+
     /**
      * Check if an expression can be parsed as an identifier
      */
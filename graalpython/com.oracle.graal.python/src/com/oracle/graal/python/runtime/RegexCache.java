@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A bounded cache of compiled TRegex regexes, shared by all contexts of a language instance. The
+ * least recently used entry is evicted when the cache is full.
+ *
+ * Each context builds its own TRegex engines. An engine is {@link #registerEngine registered} with
+ * the options it was built with, and these options are part of the {@link Key}, so regexes are only
+ * shared between engines with the same configuration. Regexes compiled by engines that were not
+ * registered are not cached.
+ *
+ * Regexes that TRegex delegated to the fallback compiler wrap objects of the context that compiled
+ * them, so they must not be cached. The fallback compiler reports every compilation with
+ * {@link #fallbackCompilation()}; a compilation during which this counter changed is not cached.
+ */
+public final class RegexCache {
+
+    public static final class Key {
+        private final String engineOptions;
+        private final String pattern;
+        private final String flags;
+        private final boolean binary;
+
+        public Key(String engineOptions, String pattern, String flags, boolean binary) {
+            this.engineOptions = engineOptions;
+            this.pattern = pattern;
+            this.flags = flags;
+            this.binary = binary;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return binary == other.binary && pattern.equals(other.pattern) && flags.equals(other.flags) && engineOptions.equals(other.engineOptions);
+        }
+
+        @Override
+        public int hashCode() {
+            return ((engineOptions.hashCode() * 31 + pattern.hashCode()) * 31 + flags.hashCode()) * 2 + (binary ? 1 : 0);
+        }
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<Key, Object> entries;
+    private final AtomicLong fallbackCompilations = new AtomicLong();
+    /** The options of the TRegex engines of all contexts; engines die with their context. */
+    private final WeakHashMap<Object, String> engineOptions = new WeakHashMap<>();
+
+    @SuppressWarnings("serial")
+    public RegexCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Key, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                return size() > RegexCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * @return the cached regex or {@code null}
+     */
+    @TruffleBoundary
+    public synchronized Object get(Key key) {
+        return entries.get(key);
+    }
+
+    @TruffleBoundary
+    public synchronized void put(Key key, Object regex) {
+        if (capacity > 0) {
+            entries.put(key, regex);
+        }
+    }
+
+    @TruffleBoundary
+    public synchronized void registerEngine(Object engine, String options) {
+        engineOptions.put(engine, options);
+    }
+
+    /**
+     * @return the options the engine was built with or {@code null} if it was not registered
+     */
+    @TruffleBoundary
+    public synchronized String getEngineOptions(Object engine) {
+        return engineOptions.get(engine);
+    }
+
+    public long getFallbackCompilations() {
+        return fallbackCompilations.get();
+    }
+
+    public void fallbackCompilation() {
+        fallbackCompilations.incrementAndGet();
+    }
+}
@@ -27,8 +27,10 @@ package com.oracle.graal.python.runtime.object;
 
 import java.lang.ref.ReferenceQueue;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.DirectoryStream;
+import java.security.MessageDigest;
 import java.util.Map;
 
 import com.oracle.graal.python.PythonLanguage;
@@ -49,6 +51,8 @@ import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.LocalsStorage;
 import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
 import com.oracle.graal.python.builtins.objects.complex.PComplex;
+import com.oracle.graal.python.builtins.objects.deque.PDeque;
+import com.oracle.graal.python.builtins.objects.deque.PDequeIterator;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.dict.PDictView;
 import com.oracle.graal.python.builtins.objects.dict.PDictView.PDictItemsView;
@@ -63,23 +67,47 @@ import com.oracle.graal.python.builtins.objects.function.PFunction;
 import com.oracle.graal.python.builtins.objects.function.PGeneratorFunction;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.function.Signature;
+import com.oracle.graal.python.builtins.objects.functools.PLruCacheWrapper;
+import com.oracle.graal.python.builtins.objects.functools.PPartial;
 import com.oracle.graal.python.builtins.objects.generator.PGenerator;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.GetSetDescriptor;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.HiddenKeyDescriptor;
+import com.oracle.graal.python.builtins.objects.hashlib.HashAlgorithm;
+import com.oracle.graal.python.builtins.objects.hashlib.PHash;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.io.PBuffered;
+import com.oracle.graal.python.builtins.objects.io.PTextIO;
 import com.oracle.graal.python.builtins.objects.iterator.PArrayIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PBaseSetIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PDoubleSequenceIterator;
+import com.oracle.graal.python.builtins.objects.iterator.PFilter;
 import com.oracle.graal.python.builtins.objects.iterator.PForeignArrayIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PIntegerIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PIntegerSequenceIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PLongSequenceIterator;
+import com.oracle.graal.python.builtins.objects.iterator.PMap;
 import com.oracle.graal.python.builtins.objects.iterator.PRangeIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PRangeIterator.PRangeReverseIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PSentinelIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PSequenceIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PStringIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PZip;
+import com.oracle.graal.python.builtins.objects.itertools.PAccumulate;
+import com.oracle.graal.python.builtins.objects.itertools.PChain;
+import com.oracle.graal.python.builtins.objects.itertools.PCombinations;
+import com.oracle.graal.python.builtins.objects.itertools.PCount;
+import com.oracle.graal.python.builtins.objects.itertools.PCycle;
+import com.oracle.graal.python.builtins.objects.itertools.PDropwhile;
+import com.oracle.graal.python.builtins.objects.itertools.PFilterfalse;
+import com.oracle.graal.python.builtins.objects.itertools.PGroupBy;
+import com.oracle.graal.python.builtins.objects.itertools.PGrouper;
+import com.oracle.graal.python.builtins.objects.itertools.PIslice;
+import com.oracle.graal.python.builtins.objects.itertools.PPermutations;
+import com.oracle.graal.python.builtins.objects.itertools.PProduct;
+import com.oracle.graal.python.builtins.objects.itertools.PRepeat;
+import com.oracle.graal.python.builtins.objects.itertools.PStarmap;
+import com.oracle.graal.python.builtins.objects.itertools.PTakewhile;
+import com.oracle.graal.python.builtins.objects.itertools.PZipLongest;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.mappingproxy.PMappingproxy;
 import com.oracle.graal.python.builtins.objects.memoryview.PBuffer;
@@ -92,21 +120,29 @@ import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.posix.PDirEntry;
 import com.oracle.graal.python.builtins.objects.posix.PScandirIterator;
+import com.oracle.graal.python.builtins.objects.property.PProperty;
+import com.oracle.graal.python.builtins.objects.queue.PSimpleQueue;
 import com.oracle.graal.python.builtins.objects.random.PRandom;
 import com.oracle.graal.python.builtins.objects.range.PRange;
 import com.oracle.graal.python.builtins.objects.referencetype.PReferenceType;
 import com.oracle.graal.python.builtins.objects.reversed.PSequenceReverseIterator;
 import com.oracle.graal.python.builtins.objects.reversed.PStringReverseIterator;
+import com.oracle.graal.python.builtins.objects.select.PPoll;
 import com.oracle.graal.python.builtins.objects.set.PBaseSet;
 import com.oracle.graal.python.builtins.objects.set.PFrozenSet;
 import com.oracle.graal.python.builtins.objects.set.PSet;
 import com.oracle.graal.python.builtins.objects.slice.PSlice;
 import com.oracle.graal.python.builtins.objects.socket.PSocket;
+import com.oracle.graal.python.builtins.objects.sre.PSREMatch;
 import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.superobject.SuperObject;
+import com.oracle.graal.python.builtins.objects.thread.AbstractPythonLock;
+import com.oracle.graal.python.builtins.objects.thread.PCondition;
+import com.oracle.graal.python.builtins.objects.thread.PEvent;
 import com.oracle.graal.python.builtins.objects.thread.PLock;
 import com.oracle.graal.python.builtins.objects.thread.PRLock;
 import com.oracle.graal.python.builtins.objects.thread.PThread;
+import com.oracle.graal.python.builtins.objects.thread.PThreadLocal;
 import com.oracle.graal.python.builtins.objects.traceback.PTraceback;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.builtins.objects.type.LazyPythonClass;
@@ -391,6 +427,10 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PDecoratedMethod(PythonBuiltinClassType.PClassmethod, callable));
     }
 
+    public PProperty createProperty(LazyPythonClass cls) {
+        return trace(new PProperty(cls));
+    }
+
     public PDecoratedMethod createStaticmethod(LazyPythonClass cls) {
         return trace(new PDecoratedMethod(cls));
     }
@@ -717,6 +757,18 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PSentinelIterator(PythonBuiltinClassType.PSentinelIterator, callable, sentinel));
     }
 
+    public PDeque createDeque(LazyPythonClass cls) {
+        return trace(new PDeque(cls));
+    }
+
+    public PDequeIterator createDequeIterator(PDeque deque) {
+        return trace(new PDequeIterator(PythonBuiltinClassType.PDequeIterator, deque, false));
+    }
+
+    public PDequeIterator createDequeReverseIterator(PDeque deque) {
+        return trace(new PDequeIterator(PythonBuiltinClassType.PDequeReverseIterator, deque, true));
+    }
+
     public PEnumerate createEnumerate(LazyPythonClass cls, Object iterator, long start) {
         return trace(new PEnumerate(cls, iterator, start));
     }
@@ -725,6 +777,114 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PZip(cls, iterables));
     }
 
+    public PMap createMap(LazyPythonClass cls, Object function, Object[] iterators) {
+        return trace(new PMap(cls, function, iterators));
+    }
+
+    public PFilter createFilter(LazyPythonClass cls, Object function, Object iterator) {
+        return trace(new PFilter(cls, function, iterator));
+    }
+
+    public PRepeat createRepeat(LazyPythonClass cls, Object element, int times) {
+        return trace(new PRepeat(cls, element, times));
+    }
+
+    public PCount createCount(LazyPythonClass cls, Object start, Object step) {
+        return trace(new PCount(cls, start, step));
+    }
+
+    public PChain createChain(LazyPythonClass cls, Object source) {
+        return trace(new PChain(cls, source));
+    }
+
+    public PStarmap createStarmap(LazyPythonClass cls, Object function, Object iterator) {
+        return trace(new PStarmap(cls, function, iterator));
+    }
+
+    public PIslice createIslice(LazyPythonClass cls, Object iterator, long start, long stop, long step) {
+        return trace(new PIslice(cls, iterator, start, stop, step));
+    }
+
+    public PAccumulate createAccumulate(LazyPythonClass cls, Object iterator, Object function) {
+        return trace(new PAccumulate(cls, iterator, function));
+    }
+
+    public PDropwhile createDropwhile(LazyPythonClass cls, Object predicate, Object iterator) {
+        return trace(new PDropwhile(cls, predicate, iterator));
+    }
+
+    public PTakewhile createTakewhile(LazyPythonClass cls, Object predicate, Object iterator) {
+        return trace(new PTakewhile(cls, predicate, iterator));
+    }
+
+    public PFilterfalse createFilterfalse(LazyPythonClass cls, Object function, Object iterator) {
+        return trace(new PFilterfalse(cls, function, iterator));
+    }
+
+    public PCycle createCycle(LazyPythonClass cls, Object iterator) {
+        return trace(new PCycle(cls, iterator));
+    }
+
+    public PZipLongest createZipLongest(LazyPythonClass cls, Object[] iterators, Object fillValue) {
+        return trace(new PZipLongest(cls, iterators, fillValue));
+    }
+
+    public PGroupBy createGroupBy(LazyPythonClass cls, Object iterator, Object keyFunction) {
+        return trace(new PGroupBy(cls, iterator, keyFunction));
+    }
+
+    public PGrouper createGrouper(PGroupBy parent, Object targetKey) {
+        return trace(new PGrouper(PythonBuiltinClassType.PGrouper, parent, targetKey));
+    }
+
+    public PProduct createProduct(LazyPythonClass cls, Object[][] pools) {
+        return trace(new PProduct(cls, pools));
+    }
+
+    public PPermutations createPermutations(LazyPythonClass cls, Object[] pool, int r) {
+        return trace(new PPermutations(cls, pool, r));
+    }
+
+    public PCombinations createCombinations(LazyPythonClass cls, Object[] pool, int r, boolean withReplacement) {
+        return trace(new PCombinations(cls, pool, r, withReplacement));
+    }
+
+    public PBuffered createBufferedReader(LazyPythonClass cls) {
+        return trace(new PBuffered(cls, true, false));
+    }
+
+    public PBuffered createBufferedWriter(LazyPythonClass cls) {
+        return trace(new PBuffered(cls, false, true));
+    }
+
+    public PBuffered createBufferedRandom(LazyPythonClass cls) {
+        return trace(new PBuffered(cls, true, true));
+    }
+
+    public PTextIO createTextIO(LazyPythonClass cls) {
+        return trace(new PTextIO(cls));
+    }
+
+    public PHash createHash(HashAlgorithm algorithm, MessageDigest digest) {
+        return trace(new PHash(PythonBuiltinClassType.PHash, algorithm, digest));
+    }
+
+    public PSimpleQueue createSimpleQueue(LazyPythonClass cls) {
+        return trace(new PSimpleQueue(cls));
+    }
+
+    public PPartial createPartial(LazyPythonClass cls, Object function, Object[] args, PDict keywords) {
+        return trace(new PPartial(cls, function, args, keywords));
+    }
+
+    public PLruCacheWrapper createLruCacheWrapper(LazyPythonClass cls, Object function, int maxSize, boolean typed, Object cacheInfoType, Object keywordMark, PDict cache) {
+        return trace(new PLruCacheWrapper(cls, function, maxSize, typed, cacheInfoType, keywordMark, cache));
+    }
+
+    public PSREMatch createSREMatch(Object pattern, Object regex, Object result, Object input, int pos, int endpos, int groupCount) {
+        return trace(new PSREMatch(PythonBuiltinClassType.PSREMatch, pattern, regex, result, input, pos, endpos, groupCount));
+    }
+
     public PForeignArrayIterator createForeignArrayIterator(Object iterable, int size) {
         return trace(new PForeignArrayIterator(PythonBuiltinClassType.PForeignArrayIterator, iterable, size));
     }
@@ -770,6 +930,10 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PSocket(cls, family, type, proto));
     }
 
+    public PPoll createPoll() {
+        return trace(new PPoll(PythonBuiltinClassType.PPoll));
+    }
+
     /*
      * Threading
      */
@@ -790,6 +954,18 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PRLock(cls));
     }
 
+    public PCondition createCondition(LazyPythonClass cls, AbstractPythonLock lock) {
+        return trace(new PCondition(cls, lock));
+    }
+
+    public PEvent createEvent(LazyPythonClass cls) {
+        return trace(new PEvent(cls));
+    }
+
+    public PThreadLocal createThreadLocal(LazyPythonClass cls, Object[] args, PKeyword[] keywords) {
+        return trace(new PThreadLocal(cls, args, keywords));
+    }
+
     public PThread createPythonThread(Thread thread) {
         return trace(new PThread(PythonBuiltinClassType.PThread, thread));
     }
@@ -810,11 +986,11 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PDirEntry(cls, name, file));
     }
 
-    public PMMap createMMap(SeekableByteChannel channel, long length, long offset) {
-        return trace(new PMMap(PythonBuiltinClassType.PMMap, channel, length, offset));
+    public PMMap createMMap(SeekableByteChannel channel, ByteBuffer[] buffers, long length, long offset, boolean readonly, boolean writeBack) {
+        return trace(new PMMap(PythonBuiltinClassType.PMMap, channel, buffers, length, offset, readonly, writeBack));
     }
 
-    public PMMap createMMap(LazyPythonClass clazz, SeekableByteChannel channel, long length, long offset) {
-        return trace(new PMMap(clazz, channel, length, offset));
+    public PMMap createMMap(LazyPythonClass clazz, SeekableByteChannel channel, ByteBuffer[] buffers, long length, long offset, boolean readonly, boolean writeBack) {
+        return trace(new PMMap(clazz, channel, buffers, length, offset, readonly, writeBack));
     }
 }
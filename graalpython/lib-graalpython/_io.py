@@ -566,28 +566,99 @@ class StringIO(_TextIOBase):
     pass
 
 
-class BufferedReader(_BufferedIOBase):
+class BufferedRWPair(_BufferedIOBase):
     pass
 
 
-class BufferedWriter(_BufferedIOBase):
+class IncrementalNewlineDecoder(object):
     pass
 
 
-class BufferedRWPair(_BufferedIOBase):
-    pass
+# ----------------------------------------------------------------------------------------------------------------------
+#
+# BufferedReader, BufferedWriter, BufferedRandom and TextIOWrapper are builtin types, the remaining
+# convenience methods are defined here
+#
+# ----------------------------------------------------------------------------------------------------------------------
+def _io_enter(self):
+    if self.closed:
+        raise ValueError("I/O operation on closed file.")
+    return self
 
 
-class BufferedRandom(_BufferedIOBase):
-    pass
+def _io_exit(self, *args):
+    self.close()
 
 
-class IncrementalNewlineDecoder(object):
-    pass
+def _io_readlines(self, hint=-1):
+    if hint is None or hint <= 0:
+        return list(self)
+    lines = []
+    n = 0
+    for line in self:
+        lines.append(line)
+        n += len(line)
+        if n >= hint:
+            break
+    return lines
 
 
-class TextIOWrapper(_TextIOBase):
-    pass
+def _io_writelines(self, lines):
+    for line in lines:
+        self.write(line)
+
+
+def _io_getstate(self):
+    raise TypeError("cannot serialize '%s' object" % type(self).__name__)
+
+
+def _io_repr(self):
+    try:
+        name = self.name
+    except Exception:
+        return "<%s.%s>" % (type(self).__module__, type(self).__name__)
+    return "<%s.%s name=%r>" % (type(self).__module__, type(self).__name__, name)
+
+
+def _buffered_readinto(self, b):
+    data = self.read(len(b))
+    n = len(data)
+    b[:n] = data
+    return n
+
+
+def _buffered_readinto1(self, b):
+    data = self.read1(len(b))
+    n = len(data)
+    b[:n] = data
+    return n
+
+
+def _textio_repr(self):
+    result = "<%s.%s" % (type(self).__module__, type(self).__name__)
+    try:
+        result += " name=%r" % self.name
+    except Exception:
+        pass
+    try:
+        result += " mode=%r" % self.mode
+    except Exception:
+        pass
+    return result + " encoding=%r>" % self.encoding
+
+
+for _cls in (BufferedReader, BufferedWriter, BufferedRandom, TextIOWrapper):
+    _cls.__enter__ = _io_enter
+    _cls.__exit__ = _io_exit
+    _cls.readlines = _io_readlines
+    _cls.writelines = _io_writelines
+    _cls.__getstate__ = _io_getstate
+for _cls in (BufferedReader, BufferedWriter, BufferedRandom):
+    _cls.__repr__ = _io_repr
+    _cls.readinto = _buffered_readinto
+    _cls.readinto1 = _buffered_readinto1
+TextIOWrapper.__repr__ = _textio_repr
+del _cls
 
 
 def open(*args, **kwargs):
@@ -47,15 +47,44 @@ SOCK_RAW = 3
 SOCK_RDM = 4
 SOCK_SEQPACKET = 5
 
-IPPROTO_TCP = 6
-TCP_NODELAY = 1
-
 has_ipv6 = False  #: TODO implement me
 error = OSError
+timeout = TimeoutError
+
 
-class timeout(OSError):
+class gaierror(OSError):
     pass
 
+
+class herror(OSError):
+    pass
+
+
+old_getaddrinfo = getaddrinfo
+
+
+@__builtin__
+def getaddrinfo(host, port, family=0, type=0, proto=0, flags=0):
+    try:
+        return old_getaddrinfo(host, port, family, type, proto, flags)
+    except gaierror:
+        raise
+    except OSError as e:
+        raise gaierror(*e.args) from None
+
+
+old_gethostbyname = gethostbyname
+
+
+@__builtin__
+def gethostbyname(hostname):
+    try:
+        return old_gethostbyname(hostname)
+    except gaierror:
+        raise
+    except OSError as e:
+        raise gaierror(*e.args) from None
+
 __default_timeout = None
 
 
@@ -68,10 +97,5 @@ def setdefaulttimeout(timeout):
     __default_timeout = timeout
 
 
-try:
-    _sock = socket()
-    SocketType = type(_sock)
-    del _sock
-except:
-    pass
+SocketType = socket
 
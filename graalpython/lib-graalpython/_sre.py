@@ -99,10 +99,16 @@ def setup(sre_compiler, error_class, flags_table):
                     _, pattern_input, from_index = args
                 else:
                     raise TypeError("invalid arguments: " + repr(args))
+                if isinstance(pattern_input, str) or _is_bytes_like(pattern_input):
+                    endpos = len(pattern_input)
+                else:
+                    # a region of the input created by 'tregex_call_exec' or 'tregex_search'
+                    endpos = pattern_input.end
+                    pattern_input = pattern_input.input
                 if self.__sticky__:
-                    result = self.__compiled_pattern__.match(pattern_input, from_index)
+                    result = self.__compiled_pattern__.match(pattern_input, from_index, endpos)
                 else:
-                    result = self.__compiled_pattern__.search(pattern_input, from_index)
+                    result = self.__compiled_pattern__.search(pattern_input, from_index, endpos)
                 is_match = result is not None
                 group_count = 1 + self.__compiled_pattern__.groups
                 return _RegexResult(
@@ -114,6 +120,8 @@ def setup(sre_compiler, error_class, flags_table):
                 )
 
         def fallback_compiler(pattern, flags):
+            # regexes compiled here reference this context and must not be shared
+            tregex_fallback_compilation()
             sticky = False
             bit_flags = 0
             for flag in flags:
@@ -134,8 +142,8 @@ def setup(sre_compiler, error_class, flags_table):
     if engine_builder:
         global TREGEX_ENGINE_STR
         global TREGEX_ENGINE_BYTES
-        TREGEX_ENGINE_STR = engine_builder("Flavor=PythonStr", configure_fallback_compiler("str"))
-        TREGEX_ENGINE_BYTES = engine_builder("Flavor=PythonBytes", configure_fallback_compiler("bytes"))
+        TREGEX_ENGINE_STR = tregex_init_engine(engine_builder, "Flavor=PythonStr", configure_fallback_compiler("str"))
+        TREGEX_ENGINE_BYTES = tregex_init_engine(engine_builder, "Flavor=PythonBytes", configure_fallback_compiler("bytes"))
 
         def new_compile(p, flags=0):
             if isinstance(p, (str, bytes)):
@@ -159,81 +167,6 @@ FLAG_NAMES = ["re.TEMPLATE", "re.IGNORECASE", "re.LOCALE", "re.MULTILINE",
               "re.ASCII"]
 
 
-class SRE_Match():
-    def __init__(self, pattern, pos, endpos, result, input_str, compiled_regex):
-        self.result = result
-        self.compiled_regex = compiled_regex
-        self.re = pattern
-        self.pos = pos
-        self.endpos = endpos
-        self.input_str = input_str
-
-    def end(self, groupnum=0):
-        return self.result.getEnd(groupnum)
-
-    def group(self, *args):
-        if not args:
-            return self.__group__(0)
-        elif len(args) == 1:
-            return self.__group__(args[0])
-        else:
-            lst = []
-            for arg in args:
-                lst.append(self.__group__(arg))
-            return tuple(lst)
-
-    def groups(self, default=None):
-        lst = []
-        for arg in range(1, self.compiled_regex.groupCount):
-            lst.append(self.__group__(arg))
-        return tuple(lst)
-
-    def __groupidx__(self, idx):
-        if isinstance(idx, str):
-            return self.compiled_regex.groups[idx]
-        else:
-            return idx
-
-    def __group__(self, idx):
-        idxarg = self.__groupidx__(idx)
-        start = self.result.getStart(idxarg)
-        if start < 0:
-            return None
-        else:
-            return self.input_str[start:self.result.getEnd(idxarg)]
-
-    def groupdict(self, default=None):
-        d = {}
-        if self.compiled_regex.groups:
-            assert dir(self.compiled_regex.groups)
-            for k in dir(self.compiled_regex.groups):
-                idx = self.compiled_regex.groups[k]
-                d[k] = self.__group__(idx)
-        return d
-
-    def span(self, groupnum=0):
-        idxarg = self.__groupidx__(groupnum)
-        return (self.result.getStart(idxarg), self.result.getEnd(idxarg))
-
-    def start(self, groupnum=0):
-        idxarg = self.__groupidx__(groupnum)
-        return self.result.getStart(idxarg)
-
-    @property
-    def string(self):
-        return self.input_str
-
-    @property
-    def lastgroup(self):
-        return self.compiled_regex.groupCount
-
-    @property
-    def lastindex(self):
-        return self.result.getEnd(0)
-
-    def __repr__(self):
-        return "<re.Match object; span=%r, match=%r>" % (self.span(), self.group())
-
 def _append_end_assert(pattern):
     if isinstance(pattern, str):
         return pattern if pattern.endswith(r"\Z") else pattern + r"\Z"
@@ -255,11 +188,12 @@ class SRE_Pattern():
                 flags_str.append(char)
         self.flags_str = "".join(flags_str)
         self.__compiled_regexes = dict()
+        compiled_regex = self.__tregex_compile(self.pattern)
+        self.groups = compiled_regex.groupCount - 1
         groupindex = dict()
-        if self.__tregex_compile(self.pattern).groups is not None:
-            for group_name in dir(self.__tregex_compile(self.pattern).groups):
-                groups = self.__tregex_compile(self.pattern).groups
-                self.groups = len(dir(groups))
+        groups = compiled_regex.groups
+        if groups is not None:
+            for group_name in dir(groups):
                 groupindex[group_name] = groups[group_name]
         self.groupindex = _mappingpoxy(groupindex)
 
@@ -310,53 +244,39 @@ class SRE_Pattern():
 
     def _search(self, pattern, string, pos, endpos, sticky=False):
         pattern = self.__tregex_compile(pattern, self.flags_str + ("y" if sticky else ""))
-        input_str = string
-        if endpos == -1 or endpos >= len(string):
-            endpos = len(string)
-            result = tregex_call_exec(pattern.exec, input_str, min(pos, len(string) + 1))
-        else:
-            input_str = string[:endpos]
-            result = tregex_call_exec(pattern.exec, input_str, min(pos, endpos % len(string) + 1))
-        if result.isMatch:
-            return SRE_Match(self, pos, endpos, result, input_str, pattern)
-        else:
-            return None
+        return tregex_search(self, pattern, string, pos, endpos)
 
     def search(self, string, pos=0, endpos=None):
         self.__check_input_type(string)
-        return self._search(self.pattern, string, pos, default(endpos, -1))
+        return self._search(self.pattern, string, pos, endpos)
 
     def match(self, string, pos=0, endpos=None):
         self.__check_input_type(string)
-        return self._search(self.pattern, string, pos, default(endpos, -1), sticky=True)
+        return self._search(self.pattern, string, pos, endpos, sticky=True)
 
     def fullmatch(self, string, pos=0, endpos=None):
         self.__check_input_type(string)
-        return self._search(_append_end_assert(self.pattern), string, pos, default(endpos, -1), sticky=True)
+        return self._search(_append_end_assert(self.pattern), string, pos, endpos, sticky=True)
 
-    def __sanitize_out_type(self, elem):
-        """Helper function for findall and split. Ensures that the type of the elements of the
-           returned list if always either 'str' or 'bytes'."""
-        if self.__binary:
-            return bytes(elem)
-        else:
-            return str(elem)
+    def __as_input(self, string):
+        """Helper function for the loops implemented in Java. Returns the string or bytes-like
+           object to match on."""
+        if isinstance(string, mmap):
+            return string[:]
+        return string
 
-    def finditer(self, string, pos=0, endpos=-1):
+    def finditer(self, string, pos=0, endpos=None):
         self.__check_input_type(string)
-        if endpos > len(string):
-            endpos = len(string)
-        elif endpos < 0:
-            endpos = endpos % len(string) + 1
-        while pos < endpos:
-            compiled_regex = self.__tregex_compile(self.pattern)
-            result = tregex_call_exec(compiled_regex.exec, string, pos)
-            if not result.isMatch:
+        compiled_regex = self.__tregex_compile(self.pattern)
+        while True:
+            match = tregex_search(self, compiled_regex, string, pos, endpos)
+            if match is None:
+                break
+            yield match
+            start, end = match.span()
+            pos = end + (start == end)
+            if pos > match.endpos:
                 break
-            else:
-                yield SRE_Match(self, pos, endpos, result, string, compiled_regex)
-            no_progress = (result.getStart(0) == result.getEnd(0))
-            pos = result.getEnd(0) + no_progress
         return
 
     def findall(self, string, pos=0, endpos=-1):
@@ -365,147 +285,27 @@ class SRE_Pattern():
             endpos = len(string)
         elif endpos < 0 and len(string) > 0:
             endpos = endpos % len(string) + 1
-        matchlist = []
-        while pos < endpos:
-            compiled_regex = self.__tregex_compile(self.pattern)
-            result = tregex_call_exec(compiled_regex.exec, string, pos)
-            if not result.isMatch:
-                break
-            elif compiled_regex.groupCount == 1:
-                matchlist.append(self.__sanitize_out_type(string[result.getStart(0):result.getEnd(0)]))
-            elif compiled_regex.groupCount == 2:
-                matchlist.append(self.__sanitize_out_type(string[result.getStart(1):result.getEnd(1)]))
-            else:
-                matchlist.append(tuple(map(self.__sanitize_out_type, SRE_Match(self, pos, endpos, result, string, compiled_regex).groups())))
-            no_progress = (result.getStart(0) == result.getEnd(0))
-            pos = result.getEnd(0) + no_progress
-        return matchlist
-
-    def __replace_groups(self, repl, string, match_result, pattern):
-        def group(pattern, match_result, group_nr, string):
-            if group_nr >= pattern.groupCount:
-                return None
-            group_start = match_result.getStart(group_nr)
-            group_end = match_result.getEnd(group_nr)
-            return string[group_start:group_end]
-
-        n = len(repl)
-        result = b"" if self.__binary else ""
-        start = 0
-        backslash = b'\\' if self.__binary else '\\'
-        pos = repl.find(backslash, start)
-        while pos != -1 and start < n:
-            if pos+1 < n:
-                if repl[pos + 1].isdigit() and pattern.groupCount > 0:
-                    # TODO: Should handle backreferences longer than 1 digit and fall back to octal escapes.
-                    group_nr = int(repl[pos+1].decode('ascii')) if self.__binary else int(repl[pos+1])
-                    group_str = group(pattern, match_result, group_nr, string)
-                    if group_str is None:
-                        raise error("invalid group reference %s at position %s" % (group_nr, pos))
-                    result += repl[start:pos] + group_str
-                    start = pos + 2
-                elif repl[pos + 1] == (b'g' if self.__binary else 'g'):
-                    group_ref, group_ref_end, digits_only = self.__extract_groupname(repl, pos + 2)
-                    if group_ref:
-                        group_str = group(pattern, match_result, int(group_ref) if digits_only else pattern.groups[group_ref], string)
-                        if group_str is None:
-                            raise error("invalid group reference %s at position %s" % (group_ref, pos))
-                        result += repl[start:pos] + group_str
-                    start = group_ref_end + 1
-                elif repl[pos + 1] == backslash:
-                    result += repl[start:pos] + backslash
-                    start = pos + 2
-                else:
-                    assert False, "unexpected escape in re.sub"
-            pos = repl.find(backslash, start)
-        result += repl[start:]
-        return result
-
-
-    def __extract_groupname(self, repl, pos):
-        if repl[pos] == (b'<' if self.__binary else '<'):
-            digits_only = True
-            n = len(repl)
-            i = pos + 1
-            while i < n and repl[i] != (b'>' if self.__binary else '>'):
-                digits_only = digits_only and repl[i].isdigit()
-                i += 1
-            if i < n:
-                # found '>'
-                group_ref = repl[pos + 1 : i]
-                group_ref_str = group_ref.decode('ascii') if self.__binary else group_ref
-                return group_ref_str, i, digits_only
-        return None, pos, False
-
+        compiled_regex = self.__tregex_compile(self.pattern)
+        return tregex_findall(compiled_regex, self.__as_input(string), pos, endpos)
 
     def sub(self, repl, string, count=0):
         return self.subn(repl, string, count)[0]
 
     def subn(self, repl, string, count=0):
         self.__check_input_type(string)
-        n = 0
         pattern = self.__tregex_compile(self.pattern)
-        result = []
-        pos = 0
-        is_string_rep = isinstance(repl, str) or _is_bytes_like(repl)
-        if is_string_rep:
+        if isinstance(repl, str) or _is_bytes_like(repl):
             self.__check_input_type(repl)
             try:
-                repl = _process_escape_sequences(repl)
+                return tregex_subn(pattern, self.__as_input(string), self.__as_input(repl), count, None)
             except ValueError as e:
                 raise error(str(e))
-        while (count == 0 or n < count) and pos <= len(string):
-            match_result = tregex_call_exec(pattern.exec, string, pos)
-            if not match_result.isMatch:
-                break
-            n += 1
-            start = match_result.getStart(0)
-            end = match_result.getEnd(0)
-            result.append(string[pos:start])
-            if is_string_rep:
-                result.append(self.__replace_groups(repl, string, match_result, pattern))
-            else:
-                _srematch = SRE_Match(self, pos, -1, match_result, string, pattern)
-                _repl = repl(_srematch)
-                result.append(_repl)
-            pos = end
-            if start == end:
-                if pos < len(string):
-                    result.append(string[pos])
-                pos = pos + 1
-        result.append(string[pos:])
-        if self.__binary:
-            return (b"".join(result), n)
-        else:
-            return ("".join(result), n)
+        return tregex_subn(pattern, self.__as_input(string), repl, count, self)
 
     def split(self, string, maxsplit=0):
-        n = 0
+        self.__check_input_type(string)
         pattern = self.__tregex_compile(self.pattern)
-        result = []
-        collect_pos = 0
-        search_pos = 0
-        while (maxsplit == 0 or n < maxsplit) and search_pos <= len(string):
-            match_result = tregex_call_exec(pattern.exec, string, search_pos)
-            if not match_result.isMatch:
-                break
-            n += 1
-            start = match_result.getStart(0)
-            end = match_result.getEnd(0)
-            result.append(self.__sanitize_out_type(string[collect_pos:start]))
-            # add all group strings
-            for i in range(1, pattern.groupCount):
-                groupStart = match_result.getStart(i)
-                if groupStart >= 0:
-                    result.append(self.__sanitize_out_type(string[groupStart:match_result.getEnd(i)]))
-                else:
-                    result.append(None)
-            collect_pos = end
-            search_pos = end
-            if start == end:
-                search_pos = search_pos + 1
-        result.append(self.__sanitize_out_type(string[collect_pos:]))
-        return result
+        return tregex_split(pattern, self.__as_input(string), maxsplit)
 
 
 _tcompile = SRE_Pattern
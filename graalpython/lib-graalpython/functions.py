@@ -37,37 +37,6 @@
 # OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
 # SOFTWARE.
 
-@__builtin__
-def hasattr(obj, key):
-    default = object()
-    return getattr(obj, key, default) is not default
-
-
-@__builtin__
-def any(iterable):
-    for i in iterable:
-        if i:
-            return True
-    return False
-
-
-@__builtin__
-def all(iterable):
-    for i in iterable:
-        if not i:
-            return False
-    return True
-
-
-@__builtin__
-def filter(func, iterable):
-    result = []
-    predicate = func if func is not None else lambda a: a
-    for i in iterable:
-        if predicate(i):
-            result.append(i)
-    return tuple(result)
-
 
 # This is re-defined later during bootstrap in classes.py
 def __build_class__(func, name, *bases, metaclass=None, **kwargs):
@@ -83,31 +52,6 @@ def __build_class__(func, name, *bases, metaclass=None, **kwargs):
     return type(name, bases, ns)
 
 
-class map(object):
-    def __init__(self, func, iterable, *args):
-        self.__func = func
-        iterators = [iter(iterable)]
-        for i in args:
-            iterators.append(iter(i))
-        self.__iterators = iterators
-
-    def __next__(self):
-        args = []
-        for it in self.__iterators:
-            args.append(next(it))
-        return self.__func(*args)
-
-    def __iter__(self):
-        return self
-
-    def __contains__(self, x):
-        for i in map(self.__func, *self.__iterators):
-            if x == i:
-                return True
-        return False
-
-
-
 from sys import _getframe as __getframe__
 
 
@@ -134,15 +78,3 @@ def format(value, format_spec=''):
     See the Format Specification Mini-Language section of help('FORMATTING') for
     details."""
     return type(value).__format__(value, format_spec)
-
-
-@__builtin__
-def sorted(iterable, key=None, reverse=False):
-    """Return a new list containing all items from the iterable in ascending order.
-
-    A custom key function can be supplied to customize the sort order, and the
-    reverse flag can be set to request the result in descending order.
-    """
-    result = list(iterable)
-    result.sort(key=key, reverse=reverse)
-    return result
@@ -65,14 +65,20 @@ def open(*args, **kwargs):
     return _pyio.open(*args, **kwargs)
 
 
+# the buffered streams and TextIOWrapper are the builtin types, so that files opened with
+# _pyio.open use them as well
+for name in ['TextIOWrapper', 'BufferedRandom', 'BufferedWriter', 'BufferedReader']:
+    setattr(_pyio, name, getattr(_io, name))
+
+
 for module in [_io, io]:
     setattr(module, 'open', open)
-    setattr(module, 'TextIOWrapper', _pyio.TextIOWrapper)
+    setattr(module, 'TextIOWrapper', _io.TextIOWrapper)
     setattr(module, 'IncrementalNewlineDecoder', _pyio.IncrementalNewlineDecoder)
-    setattr(module, 'BufferedRandom', _pyio.BufferedRandom)
+    setattr(module, 'BufferedRandom', _io.BufferedRandom)
     setattr(module, 'BufferedRWPair', _pyio.BufferedRWPair)
-    setattr(module, 'BufferedWriter', _pyio.BufferedWriter)
-    setattr(module, 'BufferedReader', _pyio.BufferedReader)
+    setattr(module, 'BufferedWriter', _io.BufferedWriter)
+    setattr(module, 'BufferedReader', _io.BufferedReader)
     setattr(module, 'StringIO', _pyio.StringIO)
     setattr(module, '_IOBase', _pyio.IOBase)
     setattr(module, 'BufferedIOBase', _pyio.BufferedIOBase)
@@ -82,15 +88,37 @@ for module in [_io, io]:
     setattr(module, '_TextIOBase', _pyio.TextIOBase)
 
 
+for klass in (_io.BufferedReader, _io.BufferedWriter, _io.BufferedRandom):
+    _pyio.BufferedIOBase.register(klass)
+_pyio.TextIOBase.register(_io.TextIOWrapper)
+
+
 setattr(builtins, 'open', open)
 
 
-sys.stdin = _pyio.TextIOWrapper(_pyio.BufferedReader(sys.stdin), encoding="utf-8", line_buffering=True)
-sys.stdin.mode = "r"
+def _create_std_stream(fd, name, mode, buffer_class):
+    raw = _pyio.FileIO(fd, mode, closefd=False)
+    raw.name = name
+    stream = _io.TextIOWrapper(buffer_class(raw), encoding="utf-8", line_buffering=True)
+    stream.mode = mode
+    return stream
+
+
+sys.stdin = _create_std_stream(0, "<stdin>", "r", _io.BufferedReader)
 sys.__stdin__ = sys.stdin
-sys.stdout = _pyio.TextIOWrapper(_pyio.BufferedWriter(sys.stdout), encoding="utf-8", line_buffering=True)
-sys.stdout.mode = "w"
+sys.stdout = _create_std_stream(1, "<stdout>", "w", _io.BufferedWriter)
 sys.__stdout__ = sys.stdout
-sys.stderr = _pyio.TextIOWrapper(_pyio.BufferedWriter(sys.stderr), encoding="utf-8", line_buffering=True)
-sys.stderr.mode = "w"
+sys.stderr = _create_std_stream(2, "<stderr>", "w", _io.BufferedWriter)
 sys.__stderr__ = sys.stderr
+
+
+def _flush_std_streams():
+    for stream in (sys.stdout, sys.stderr):
+        try:
+            stream.flush()
+        except Exception:
+            pass
+
+
+import atexit
+atexit.register(_flush_std_streams)
@@ -803,17 +803,15 @@ def AddMember(primary, tpDict, name, memberType, offset, canSet, doc):
     # the ReadMemberFunctions and WriteMemberFunctions don't have a wrapper to
     # convert arguments to Sulong, so we can avoid boxing the offsets into PInts
     pclass = to_java_type(primary)
-    member = property()
     getter = ReadMemberFunctions[memberType]
     def member_getter(self):
         return to_java(getter(to_sulong(self), TrufflePInt_AsPrimitive(offset, 1, 8)))
-    member.getter(member_getter)
+    member_setter = None
     if canSet:
         setter = WriteMemberFunctions[memberType]
         def member_setter(self, value):
             setter(to_sulong(self), TrufflePInt_AsPrimitive(offset, 1, 8), to_sulong(value))
-        member.setter(member_setter)
-    member.__doc__ = doc
+    member = property(member_getter, member_setter, None, doc)
     type_dict = to_java(tpDict)
     type_dict[name] = member
 
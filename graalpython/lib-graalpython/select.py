@@ -0,0 +1,146 @@
+# Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+error = OSError
+
+EPOLLIN = POLLIN
+EPOLLPRI = POLLPRI
+EPOLLOUT = POLLOUT
+EPOLLERR = POLLERR
+EPOLLHUP = POLLHUP
+EPOLLRDNORM = POLLRDNORM
+EPOLLRDBAND = POLLRDBAND
+EPOLLWRNORM = POLLWRNORM
+EPOLLWRBAND = POLLWRBAND
+EPOLLMSG = 0x400
+EPOLLRDHUP = 0x2000
+EPOLLEXCLUSIVE = 1 << 28
+EPOLLONESHOT = 1 << 30
+EPOLLET = 1 << 31
+EPOLL_CLOEXEC = 0o2000000
+
+
+class epoll(object):
+    """
+    An epoll compatible object on top of the selector backed poll object. Edge triggered
+    notification is treated like level triggered notification, which only reports events
+    more often.
+    """
+
+    def __init__(self, sizehint=-1, flags=0):
+        if sizehint == 0 or sizehint < -1:
+            raise ValueError("negative sizehint")
+        self._poll = poll()
+        self._registered = {}
+
+    def _check_closed(self):
+        if self._poll is None:
+            raise ValueError("I/O operation on closed epoll object")
+
+    @staticmethod
+    def _fd(fd):
+        if not isinstance(fd, int):
+            fd = fd.fileno()
+        return fd
+
+    @property
+    def closed(self):
+        return self._poll is None
+
+    def close(self):
+        self._poll = None
+        self._registered = None
+
+    def fileno(self):
+        self._check_closed()
+        return -1
+
+    @classmethod
+    def fromfd(cls, fd):
+        raise OSError(22, "epoll objects cannot be created from file descriptors")
+
+    def register(self, fd, eventmask=EPOLLIN | EPOLLPRI | EPOLLOUT):
+        self._check_closed()
+        fd = self._fd(fd)
+        if fd in self._registered:
+            raise FileExistsError(17, "File exists")
+        self._registered[fd] = eventmask
+        self._poll.register(fd, eventmask & 0xffff)
+
+    def modify(self, fd, eventmask):
+        self._check_closed()
+        fd = self._fd(fd)
+        if fd not in self._registered:
+            raise FileNotFoundError(2, "No such file or directory")
+        self._registered[fd] = eventmask
+        self._poll.modify(fd, eventmask & 0xffff)
+
+    def unregister(self, fd):
+        self._check_closed()
+        fd = self._fd(fd)
+        if fd not in self._registered:
+            raise FileNotFoundError(2, "No such file or directory")
+        del self._registered[fd]
+        self._poll.unregister(fd)
+
+    def poll(self, timeout=None, maxevents=-1):
+        self._check_closed()
+        if timeout is None or timeout < 0:
+            timeout = -1
+        else:
+            timeout = timeout * 1000
+        if maxevents == 0 or maxevents < -1:
+            raise ValueError("maxevents must be greater than 0, got %d" % maxevents)
+        events = self._poll.poll(timeout)
+        if maxevents > 0:
+            events = events[:maxevents]
+        for fd, _ in events:
+            mask = self._registered.get(fd, 0)
+            if mask & EPOLLONESHOT:
+                # disable the file descriptor until it is modified again
+                self._registered[fd] = 0
+                self._poll.modify(fd, 0)
+        return events
+
+    def __enter__(self):
+        self._check_closed()
+        return self
+
+    def __exit__(self, *args):
+        self.close()
@@ -48,12 +48,6 @@ def expandtabs(self, tabsize=8):
 str.expandtabs = expandtabs
 
 
-# Auto number state
-ANS_INIT = 1
-ANS_AUTO = 2
-ANS_MANUAL = 3
-
-
 class TemplateFormatter(object):
     parser_list = None
 
@@ -61,13 +55,6 @@ class TemplateFormatter(object):
         self.empty = ""
         self.template = template
 
-    def build(self, args, kwargs):
-        self.args = args
-        self.kwargs = kwargs
-        self.auto_numbering = 0
-        self.auto_numbering_state = ANS_INIT
-        return self._build_string(0, len(self.template), 2)
-
     def _build_string(self, start, end, level):
         out = []
         if not level:
@@ -166,53 +153,6 @@ class TemplateFormatter(object):
             i += 1
         return s[start:end], None, end
 
-    def _get_argument(self, name):
-        # First, find the argument.
-        i = 0
-        end = len(name)
-        while i < end:
-            c = name[i]
-            if c == "[" or c == ".":
-                break
-            i += 1
-        empty = not i
-        if empty:
-            index = -1
-        else:
-            try:
-                index = int(name[0:i])
-            except ValueError:
-                index = -1
-        use_numeric = empty or index != -1
-        if self.auto_numbering_state == ANS_INIT and use_numeric:
-            if empty:
-                self.auto_numbering_state = ANS_AUTO
-            else:
-                self.auto_numbering_state = ANS_MANUAL
-        if use_numeric:
-            if self.auto_numbering_state == ANS_MANUAL:
-                if empty:
-                    raise ValueError("switching from manual to automatic numbering")
-            elif not empty:
-                raise ValueError("switching from automatic to manual numbering")
-        if empty:
-            index = self.auto_numbering
-            self.auto_numbering += 1
-        if index == -1:
-            kwarg = name[:i]
-            arg = self.kwargs[kwarg]
-        else:
-            if self.args is None:
-                raise ValueError("Format string contains positional fields")
-            try:
-                arg = self.args[index]
-            except IndexError:
-                raise IndexError(
-                            "out of range: index %d but only %d argument%s",
-                            index, len(self.args),
-                            "s" if len(self.args) != 1 else "")
-        return self._resolve_lookups(arg, name, i, end)
-
     def _resolve_lookups(self, obj, name, start, end):
         # Resolve attribute and item lookups.
         i = start
@@ -286,42 +226,20 @@ class TemplateFormatter(object):
         #
         return (first, iter(self.parser_list))
 
-    def _convert(self, obj, conversion):
-        conv = conversion[0]
-        if conv == "r":
-            return repr(obj)
-        elif conv == "s":
-            return str(obj)
-        elif conv == "a":
-            return ascii(obj)
-        else:
-            raise ValueError("invalid conversion")
-
     def _render_field(self, start, end, recursive, level):
         name, conversion, spec_start = self._parse_field(start, end)
         spec = self.template[spec_start:end]
-        #
-        if self.parser_list is not None:
-            # used from formatter_parser()
-            if level == 1:    # ignore recursive calls
-                startm1 = start - 1
-                assert startm1 >= self.last_end
-                self.parser_list.append((
-                    self.template[self.last_end:startm1],
-                    name,
-                    spec,
-                    conversion
-                ))
-                self.last_end = end + 1
-            return self.empty
-        #
-        obj = self._get_argument(name)
-        if conversion is not None:
-            obj = self._convert(obj, conversion)
-        if recursive:
-            spec = self._build_string(spec_start, end, level)
-        rendered = format(obj, spec)
-        return rendered
+        if level == 1:    # ignore recursive calls
+            startm1 = start - 1
+            assert startm1 >= self.last_end
+            self.parser_list.append((
+                self.template[self.last_end:startm1],
+                name,
+                spec,
+                conversion
+            ))
+            self.last_end = end + 1
+        return self.empty
 
     def formatter_parser(self):
         self.parser_list = []
@@ -339,14 +257,6 @@ class TemplateFormatter(object):
         return iter(self.parser_list)
 
 
-def strformat(___self, *___args, **___kwargs):
-    template = TemplateFormatter(___self)
-    return template.build(___args, ___kwargs)
-
-
-str.format = strformat
-
-
 def __iter__(self):
     return list(self).__iter__()
 
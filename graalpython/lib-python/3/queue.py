@@ -178,7 +178,9 @@ class Queue:
                         raise Empty
                     self.not_empty.wait(remaining)
             item = self._get()
-            self.not_full.notify()
+            # TODO: Truffle: nobody waits on 'not_full' of an unbounded queue
+            if self.maxsize > 0:
+                self.not_full.notify()
             return item
 
     def put_nowait(self, item):
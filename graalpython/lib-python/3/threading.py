@@ -39,6 +39,15 @@ try:
     _CRLock = _thread.RLock
 except AttributeError:
     _CRLock = None
+# TODO: Truffle: conditions over the builtin locks and events are implemented
+# natively, see '_NativeCondition' and '_NativeEvent' below
+try:
+    _CCondition = _thread.Condition
+    _CEvent = _thread.Event
+    _CLockTypes = (_thread.LockType, _thread.RLock)
+except AttributeError:
+    _CCondition = None
+    _CEvent = None
 TIMEOUT_MAX = _thread.TIMEOUT_MAX
 del _thread
 
@@ -366,6 +375,22 @@ class Condition:
 
     notifyAll = notify_all
 
+# TODO: Truffle: 'Condition' stays a class so that isinstance checks and
+# subclasses keep working; creating an exact 'Condition' over a builtin lock
+# returns an instance of a subclass that is backed by the native condition
+if _CCondition is not None:
+    class _NativeCondition(_CCondition, Condition):
+        def __init__(self, lock=None):
+            pass
+
+    def _condition_new(cls, lock=None):
+        if cls is Condition and (lock is None or type(lock) in _CLockTypes):
+            return _CCondition.__new__(_NativeCondition, lock)
+        return object.__new__(cls)
+
+    Condition.__new__ = staticmethod(_condition_new)
+    del _condition_new
+
 
 class Semaphore:
     """This class implements semaphore objects.
@@ -552,6 +577,21 @@ class Event:
                 signaled = self._cond.wait(timeout)
             return signaled
 
+# TODO: Truffle: like 'Condition', exact 'Event' instances are backed by the
+# native event
+if _CEvent is not None:
+    class _NativeEvent(_CEvent, Event):
+        def __init__(self):
+            pass
+
+    def _event_new(cls):
+        if cls is Event:
+            return _CEvent.__new__(_NativeEvent)
+        return object.__new__(cls)
+
+    Event.__new__ = staticmethod(_event_new)
+    del _event_new
+
 
 # A barrier class.  Inspired in part by the pthread_barrier_* api and
 # the CyclicBarrier class from Java.  See
@@ -41,8 +41,8 @@ import mx_sdk
 import mx_subst
 from mx_gate import Task
 from mx_graalpython_bench_param import PATH_MESO, BENCHMARKS
-from mx_graalpython_benchmark import PythonBenchmarkSuite, python_vm_registry, CPythonVm, PyPyVm, GraalPythonVm, \
-    CONFIGURATION_DEFAULT, CONFIG_EXPERIMENTAL_SPLITTING, CONFIGURATION_SANDBOXED
+from mx_graalpython_benchmark import PythonBenchmarkSuite, PythonJMHDistBenchmarkSuite, python_vm_registry, CPythonVm, PyPyVm, \
+    GraalPythonVm, CONFIGURATION_DEFAULT, CONFIG_EXPERIMENTAL_SPLITTING, CONFIGURATION_SANDBOXED
 
 SUITE = mx.suite('graalpython')
 SUITE_COMPILER = mx.suite("compiler", fatalIfMissing=False)
@@ -915,6 +915,7 @@ def _register_vms(namespace):
 def _register_bench_suites(namespace):
     for py_bench_suite in PythonBenchmarkSuite.get_benchmark_suites(BENCHMARKS):
         mx_benchmark.add_bm_suite(py_bench_suite)
+    mx_benchmark.add_bm_suite(PythonJMHDistBenchmarkSuite())
 
 
 def mx_post_parse_cmd_line(namespace):
@@ -386,3 +386,21 @@ class PythonBenchmarkSuite(VmBenchmarkSuite, AveragingBenchmarkMixin):
         assert isinstance(benchmarks, dict), "benchmarks must be a dict: {suite: [path, {bench: args, ... }], ...}"
         return [cls(suite_name, suite_info[0], suite_info[1])
                 for suite_name, suite_info in benchmarks.items()]
+
+
+class PythonJMHDistBenchmarkSuite(mx_benchmark.JMHDistBenchmarkSuite):
+    """
+    The JMH benchmarks of the GRAALPYTHON_BENCH distribution, which measure individual interpreter
+    subsystems through the polyglot API. Run them with 'mx benchmark python-jmh'.
+    """
+    def name(self):
+        return "python-jmh"
+
+    def group(self):
+        return GROUP_GRAAL
+
+    def subgroup(self):
+        return SUBGROUP_GRAAL_PYTHON
+
+    def filter_distribution(self, dist):
+        return super(PythonJMHDistBenchmarkSuite, self).filter_distribution(dist) and dist.name == "GRAALPYTHON_BENCH"
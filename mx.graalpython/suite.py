@@ -212,6 +212,23 @@ suite = {
             "testProject": True,
         },
 
+        # GRAALPYTHON BENCHMARKS
+        "com.oracle.graal.python.benchmarks": {
+            "subDir": "graalpython",
+            "sourceDirs": ["src"],
+            "dependencies": [
+                "sdk:GRAAL_SDK",
+                "mx:JMH_1_21",
+            ],
+            "jacoco": "exclude",
+            "checkstyle": "com.oracle.graal.python",
+            "javaCompliance": "8+",
+            "annotationProcessors": ["mx:JMH_1_21"],
+            "workingSets": "Truffle,Python",
+            "spotbugsIgnoresGenerated": True,
+            "testProject": True,
+        },
+
         "com.oracle.graal.python.tck": {
             "subDir": "graalpython",
             "sourceDirs": ["src"],
@@ -336,6 +353,20 @@ suite = {
             "testDistribution": True,
         },
 
+        "GRAALPYTHON_BENCH": {
+            "description": "JMH benchmarks of the interpreter",
+            "dependencies": [
+                "com.oracle.graal.python.benchmarks",
+            ],
+            "exclude": ["mx:JMH_1_21"],
+            "distDependencies": [
+                "GRAALPYTHON",
+                "sdk:GRAAL_SDK",
+            ],
+            "testDistribution": True,
+            "maven": False,
+        },
+
         "GRAALPYTHON_TCK": {
             "description": "unit tests",
             "dependencies": [